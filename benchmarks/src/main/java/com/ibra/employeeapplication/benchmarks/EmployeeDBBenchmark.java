@@ -0,0 +1,51 @@
+package com.ibra.employeeapplication.benchmarks;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+
+/**
+ * Benchmarks for the basic EmployeeDB operations
+ */
+public class EmployeeDBBenchmark extends BenchmarkSettings {
+
+    /**
+     * Adds the spare employee and removes it again so the roster size stays constant
+     */
+    @Benchmark
+    public boolean addAndRemoveEmployee(RosterState state) {
+        state.database.addEmployee(state.spareEmployee);
+        return state.database.removeEmployee(state.spareEmployee.getEmployeeId());
+    }
+
+    /**
+     * Removes an existing employee and puts it back so the roster size stays constant
+     */
+    @Benchmark
+    public boolean removeAndReAddEmployee(RosterState state) {
+        Employee<Integer> employee = state.database.getEmployeeById(0);
+        state.database.removeEmployee(0);
+        return state.database.addEmployee(employee);
+    }
+
+    @Benchmark
+    public boolean updateEmployeeDetails(RosterState state) throws Exception {
+        return state.database.updateEmployeeDetails(state.rosterSize / 2, "salary", 55000.0);
+    }
+
+    @Benchmark
+    public Employee<Integer> getEmployeeById(RosterState state) {
+        return state.database.getEmployeeById(state.rosterSize / 2);
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> getAllEmployees(RosterState state) {
+        return state.database.getAllEmployees();
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> getAllEmployeesSorted(RosterState state) {
+        return state.database.getAllEmployeesSorted();
+    }
+}
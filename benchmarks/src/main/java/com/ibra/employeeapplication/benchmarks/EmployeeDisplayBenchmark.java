@@ -0,0 +1,29 @@
+package com.ibra.employeeapplication.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks for the text reports in EmployeeDisplay
+ */
+public class EmployeeDisplayBenchmark extends BenchmarkSettings {
+
+    @Benchmark
+    public String generateDepartmentReport(RosterState state) {
+        return state.employeeDisplay.generateDepartmentReport();
+    }
+
+    @Benchmark
+    public String generateSalaryDistributionReport(RosterState state) {
+        return state.employeeDisplay.generateSalaryDistributionReport();
+    }
+
+    @Benchmark
+    public String generatePerformanceReport(RosterState state) {
+        return state.employeeDisplay.generatePerformanceReport();
+    }
+
+    @Benchmark
+    public String generateAllReports(RosterState state) {
+        return state.employeeDisplay.generateAllReports();
+    }
+}
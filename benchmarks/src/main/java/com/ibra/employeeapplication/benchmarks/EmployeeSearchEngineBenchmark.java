@@ -0,0 +1,100 @@
+package com.ibra.employeeapplication.benchmarks;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks for every search, sort and aggregate in EmployeeSearchEngine
+ */
+public class EmployeeSearchEngineBenchmark extends BenchmarkSettings {
+
+    private static final Comparator<Employee<Integer>> BY_NAME = Comparator.comparing(Employee::getName);
+
+    @Benchmark
+    public List<Employee<Integer>> findByDepartment(RosterState state) throws Exception {
+        return state.searchEngine.findByDepartment(state.departmentNames[0]);
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> findByName(RosterState state) {
+        return state.searchEngine.findByName("john");
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> findByMinimumRating(RosterState state) {
+        return state.searchEngine.findByMinimumRating(4.5);
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> findBySalaryRange(RosterState state) {
+        return state.searchEngine.findBySalaryRange(60000, 80000);
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> findActiveEmployees(RosterState state) {
+        return state.searchEngine.findActiveEmployees();
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> getAllEmployeesByExperience(RosterState state) {
+        return state.searchEngine.getAllEmployeesByExperience();
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> getAllEmployeesBySalary(RosterState state) {
+        return state.searchEngine.getAllEmployeesBySalary();
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> getAllEmployeesByPerformance(RosterState state) {
+        return state.searchEngine.getAllEmployeesByPerformance();
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> getAllEmployeesByDepartmentAndSalary(RosterState state) {
+        return state.searchEngine.getAllEmployeesByDepartmentAndSalary();
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> getAllEmployeesByPerformanceAndExperience(RosterState state) {
+        return state.searchEngine.getAllEmployeesByPerformanceAndExperience();
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> sortEmployees(RosterState state) {
+        return state.searchEngine.sortEmployees(BY_NAME);
+    }
+
+    @Benchmark
+    public Map<String, Long> getDepartmentCounts(RosterState state) {
+        return state.searchEngine.getDepartmentCounts();
+    }
+
+    @Benchmark
+    public double getAverageSalary(RosterState state) {
+        return state.searchEngine.getAverageSalary();
+    }
+
+    @Benchmark
+    public Employee<Integer> findTopPerformer(RosterState state) {
+        return state.searchEngine.findTopPerformer();
+    }
+
+    @Benchmark
+    public long iterateRoster(RosterState state) {
+        long experience = 0;
+        for (Employee<Integer> employee : state.searchEngine) {
+            experience += employee.getYearsOfExperience();
+        }
+        return experience;
+    }
+
+    @Benchmark
+    public double parallelStreamSalaries(RosterState state) {
+        return state.searchEngine.parallelStream().mapToDouble(Employee::getSalary).sum();
+    }
+}
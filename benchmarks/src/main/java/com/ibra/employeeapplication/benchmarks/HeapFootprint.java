@@ -0,0 +1,80 @@
+package com.ibra.employeeapplication.benchmarks;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.service.RosterGenerator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the retained heap per employee.
+ *
+ * Compares the current Employee (dictionary-encoded department, interned name) with the
+ * previous layout, where every employee held its own department and name strings as they
+ * arrive from input or parsing. Run with a fixed heap, e.g.
+ * {@code java -Xms6g -Xmx6g -cp benchmarks/target/benchmarks.jar
+ * com.ibra.employeeapplication.benchmarks.HeapFootprint 2000000}
+ */
+public class HeapFootprint {
+
+    /**
+     * Field layout of Employee before department codes were introduced
+     */
+    static final class PreviousEmployeeLayout {
+        final Integer employeeId;
+        final String name;
+        final String department;
+        final double salary;
+        final double performanceRating;
+        final int yearsOfExperience;
+        final boolean active;
+
+        PreviousEmployeeLayout(Employee<Integer> employee) {
+            // Copies stand in for the distinct strings produced by parsing or UI input
+            this.employeeId = Integer.valueOf(employee.getEmployeeId().intValue());
+            this.name = new String(employee.getName());
+            this.department = new String(employee.getDepartment());
+            this.salary = employee.getSalary();
+            this.performanceRating = employee.getPerformanceRating();
+            this.yearsOfExperience = employee.getYearsOfExperience();
+            this.active = employee.isActive();
+        }
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        RosterGenerator<Integer> generator = new RosterGenerator<>(42, position -> (int) position);
+        generator.setDepartmentCount(32);
+
+        long baseline = usedHeap();
+        List<Employee<Integer>> current = generator.generate(count);
+        long currentBytes = usedHeap() - baseline;
+
+        List<PreviousEmployeeLayout> previous = new ArrayList<>(count);
+        for (Employee<Integer> employee : current) {
+            previous.add(new PreviousEmployeeLayout(employee));
+        }
+        long previousBytes = usedHeap() - baseline - currentBytes;
+
+        System.out.printf("Employees:                 %,d%n", count);
+        System.out.printf("Previous layout:           %,.1f bytes/employee%n", previousBytes / (double) count);
+        System.out.printf("Dictionary + interning:    %,.1f bytes/employee%n", currentBytes / (double) count);
+        System.out.printf("Saved:                     %,.1f bytes/employee%n",
+                (previousBytes - currentBytes) / (double) count);
+
+        // Keep both rosters reachable until after the measurements
+        if (current.size() + previous.size() == 0) {
+            System.out.println();
+        }
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,70 @@
+package com.ibra.employeeapplication.benchmarks;
+
+import com.ibra.employeeapplication.backend.service.EmployeeDB;
+import com.ibra.employeeapplication.backend.service.OffHeapEmployeeDB;
+import com.ibra.employeeapplication.backend.service.RosterGenerator;
+import com.ibra.employeeapplication.backend.service.SalaryManager;
+import com.ibra.employeeapplication.backend.service.UuidEmployeeDB;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compares the retained heap and full GC time of the on-heap and off-heap databases
+ * as the roster grows. Run each storage in its own JVM with a fixed heap, e.g.
+ * {@code java -Xms8g -Xmx8g -XX:MaxDirectMemorySize=4g -cp benchmarks/target/benchmarks.jar
+ * com.ibra.employeeapplication.benchmarks.OffHeapFootprint offheap 1000000 4000000}
+ */
+public class OffHeapFootprint {
+
+    public static void main(String[] args) {
+        boolean offHeap = args.length > 0 && args[0].equals("offheap");
+        Logger.getLogger("").setLevel(Level.WARNING);
+        PrintStream out = System.out;
+        // The database prints a line for some operations, keep the table readable
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        out.printf("%-9s %12s %14s %14s %12s %12s%n",
+                "storage", "employees", "heap MB", "off-heap MB", "full GC ms", "scan ms");
+        for (int i = 1; i < Math.max(args.length, 2); i++) {
+            int count = args.length > i ? Integer.parseInt(args[i]) : 1_000_000;
+            long baseline = usedHeapAfterGc();
+
+            EmployeeDB<UUID> database = offHeap ? new OffHeapEmployeeDB<>(IdCodec.UUID, count) : new UuidEmployeeDB(count);
+            new RosterGenerator<>(42, RosterGenerator.uuidIds(42)).populate(database, count);
+
+            long gcBefore = collectionTimeMillis();
+            long heapBytes = usedHeapAfterGc() - baseline;
+            long gcMillis = collectionTimeMillis() - gcBefore;
+
+            long scanStart = System.nanoTime();
+            new SalaryManager<>(database).calculateTotalSalaryCost();
+            long scanMillis = (System.nanoTime() - scanStart) / 1_000_000;
+
+            long offHeapBytes = database instanceof OffHeapEmployeeDB<UUID> store ? store.getOffHeapBytes() : 0;
+            out.printf("%-9s %,12d %,14.1f %,14.1f %,12d %,12d%n", offHeap ? "off-heap" : "heap", count,
+                    heapBytes / 1e6, offHeapBytes / 1e6, gcMillis, scanMillis);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long collectionTimeMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ibra.employeeapplication.benchmarks;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.service.EmployeeDB;
+import com.ibra.employeeapplication.backend.service.IntEmployeeDB;
+import com.ibra.employeeapplication.backend.service.RosterGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.logging.Logger;
+
+/**
+ * Compares the HashMap-backed EmployeeDB with IntEmployeeDB for ID lookups and add/remove
+ */
+@State(Scope.Benchmark)
+public class PrimitiveKeyBenchmark extends BenchmarkSettings {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rosterSize;
+
+    private EmployeeDB<Integer> hashDatabase;
+    private IntEmployeeDB intDatabase;
+    private int[] lookupIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Logger.getLogger("").setLevel(java.util.logging.Level.OFF);
+        List<Employee<Integer>> roster = new RosterGenerator<Integer>(42, position -> (int) position).generate(rosterSize);
+        hashDatabase = new EmployeeDB<>();
+        hashDatabase.addEmployees(roster);
+        intDatabase = new IntEmployeeDB(rosterSize);
+        intDatabase.addEmployees(roster);
+
+        SplittableRandom random = new SplittableRandom(7);
+        lookupIds = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookupIds[i] = random.nextInt(rosterSize);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void hashMapGetEmployeeById(Blackhole blackhole) {
+        for (int id : lookupIds) {
+            blackhole.consume(hashDatabase.getEmployeeById(id));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void intMapGetEmployeeById(Blackhole blackhole) {
+        for (int id : lookupIds) {
+            blackhole.consume(intDatabase.getEmployeeById(id));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ibra.employeeapplication.benchmarks;
+
+import com.ibra.employeeapplication.backend.controller.EmployeeDisplay;
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.service.EmployeeDB;
+import com.ibra.employeeapplication.backend.service.EmployeeSearchEngine;
+import com.ibra.employeeapplication.backend.service.OffHeapEmployeeDB;
+import com.ibra.employeeapplication.backend.service.RosterGenerator;
+import com.ibra.employeeapplication.backend.service.SalaryManager;
+import com.ibra.employeeapplication.backend.service.ShardedEmployeeDB;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.logging.Logger;
+
+/**
+ * Shared roster for all benchmarks, generated by {@link RosterGenerator} and parameterized by
+ * roster size, department cardinality, department skew, seed and storage (all settable with -p).
+ * The services log and print on every call, so both are silenced to measure the work itself.
+ */
+@State(Scope.Benchmark)
+public class RosterState {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rosterSize;
+
+    @Param({"8", "64"})
+    public int departments;
+
+    // Zipf exponent of the department sizes
+    @Param({"1.0"})
+    public double departmentSkew;
+
+    @Param({"42"})
+    public long seed;
+
+    // hashmap (EmployeeDB), sharded (ShardedEmployeeDB) or offheap (OffHeapEmployeeDB)
+    @Param({"hashmap"})
+    public String storage;
+
+    public EmployeeDB<Integer> database;
+    public EmployeeSearchEngine<Integer> searchEngine;
+    public SalaryManager<Integer> salaryManager;
+    public EmployeeDisplay<Integer> employeeDisplay;
+
+    public String[] departmentNames;
+    // Employee that is not in the database, used by the add/remove benchmarks
+    public Employee<Integer> spareEmployee;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Logger.getLogger("").setLevel(java.util.logging.Level.OFF);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        RosterGenerator<Integer> generator = new RosterGenerator<>(seed, position -> (int) position);
+        generator.setDepartmentCount(departments);
+        generator.setDepartmentSkew(departmentSkew);
+        departmentNames = generator.getDepartments();
+
+        switch (storage) {
+            case "hashmap" -> database = new EmployeeDB<>();
+            case "sharded" -> database = new ShardedEmployeeDB<>();
+            case "offheap" -> database = new OffHeapEmployeeDB<>(IdCodec.INTEGER, rosterSize);
+            default -> throw new IllegalArgumentException("Unknown storage: " + storage);
+        }
+        generator.populate(database, rosterSize);
+        spareEmployee = new Employee<>(-1, true, 5, 50000.0, 3.0, departmentNames[0], "Spare Employee");
+
+        searchEngine = new EmployeeSearchEngine<>(database);
+        salaryManager = new SalaryManager<>(database);
+        employeeDisplay = new EmployeeDisplay<>(database);
+    }
+}
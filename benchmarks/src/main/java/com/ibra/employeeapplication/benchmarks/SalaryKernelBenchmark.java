@@ -0,0 +1,58 @@
+package com.ibra.employeeapplication.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * Compares the Vector API salary kernels with the scalar fallback. Both run the same
+ * SalaryManager aggregates; the vector forks add the incubator module to the boot layer,
+ * the scalar forks leave it out, which is how the application picks its kernels.
+ */
+public class SalaryKernelBenchmark extends BenchmarkSettings {
+
+    private static final String VECTOR_MODULE = "--add-modules=jdk.incubator.vector";
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g", VECTOR_MODULE})
+    public double calculateTotalSalaryCostVector(RosterState state) {
+        return state.salaryManager.calculateTotalSalaryCost();
+    }
+
+    @Benchmark
+    public double calculateTotalSalaryCostScalar(RosterState state) {
+        return state.salaryManager.calculateTotalSalaryCost();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g", VECTOR_MODULE})
+    public double calculateSalaryGapVector(RosterState state) {
+        return state.salaryManager.calculateSalaryGap();
+    }
+
+    @Benchmark
+    public double calculateSalaryGapScalar(RosterState state) {
+        return state.salaryManager.calculateSalaryGap();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g", VECTOR_MODULE})
+    public int countEmployeesRatedAtLeastVector(RosterState state) {
+        return state.salaryManager.countEmployeesRatedAtLeast(4.5);
+    }
+
+    @Benchmark
+    public int countEmployeesRatedAtLeastScalar(RosterState state) {
+        return state.salaryManager.countEmployeesRatedAtLeast(4.5);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g", VECTOR_MODULE})
+    public boolean anyEmployeesAboveSalaryVector(RosterState state) {
+        return state.salaryManager.anyEmployeesAboveSalary(state.departmentNames[0], 1_000_000);
+    }
+
+    @Benchmark
+    public boolean anyEmployeesAboveSalaryScalar(RosterState state) {
+        return state.salaryManager.anyEmployeesAboveSalary(state.departmentNames[0], 1_000_000);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ibra.employeeapplication.benchmarks;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks for the raises and aggregates in SalaryManager.
+ * The raise benchmarks use a tiny percentage so repeated invocations barely move the salaries.
+ */
+public class SalaryManagerBenchmark extends BenchmarkSettings {
+
+    private static final double TINY_RAISE = 0.0001;
+
+    @Benchmark
+    public int giveSalaryRaiseByPerformance(RosterState state) {
+        return state.salaryManager.giveSalaryRaiseByPerformance(4.5, TINY_RAISE);
+    }
+
+    @Benchmark
+    public int giveSalaryRaiseByExperience(RosterState state) {
+        return state.salaryManager.giveSalaryRaiseByExperience(30, TINY_RAISE);
+    }
+
+    @Benchmark
+    public int giveSalaryRaiseByDepartment(RosterState state) {
+        return state.salaryManager.giveSalaryRaiseByDepartment(state.departmentNames[0], TINY_RAISE);
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> getTopPaidEmployees(RosterState state) {
+        return state.salaryManager.getTopPaidEmployees(10);
+    }
+
+    @Benchmark
+    public double calculateAverageSalary(RosterState state) {
+        return state.salaryManager.calculateAverageSalary();
+    }
+
+    @Benchmark
+    public double calculateAverageSalaryByDepartment(RosterState state) {
+        return state.salaryManager.calculateAverageSalaryByDepartment(state.departmentNames[0]);
+    }
+
+    @Benchmark
+    public Map<String, Double> calculateAverageSalaryPerDepartment(RosterState state) {
+        return state.salaryManager.calculateAverageSalaryPerDepartment();
+    }
+
+    @Benchmark
+    public double calculateTotalSalaryCost(RosterState state) {
+        return state.salaryManager.calculateTotalSalaryCost();
+    }
+
+    @Benchmark
+    public Map<String, Double> calculateTotalSalaryCostPerDepartment(RosterState state) {
+        return state.salaryManager.calculateTotalSalaryCostPerDepartment();
+    }
+
+    @Benchmark
+    public double calculateSalaryGap(RosterState state) {
+        return state.salaryManager.calculateSalaryGap();
+    }
+
+    @Benchmark
+    public boolean anyEmployeesAboveSalary(RosterState state) {
+        return state.salaryManager.anyEmployeesAboveSalary(state.departmentNames[0], 1_000_000);
+    }
+
+    @Benchmark
+    public double getSalaryPercentileByDepartment(RosterState state) {
+        return state.salaryManager.getSalaryPercentile(state.departmentNames[0], 90);
+    }
+
+    @Benchmark
+    public Map<String, Double> getSalaryPercentilePerDepartment(RosterState state) {
+        return state.salaryManager.getSalaryPercentilePerDepartment(50);
+    }
+}
@@ -0,0 +1,164 @@
+package com.ibra.employeeapplication.benchmarks;
+
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.service.EmployeeDB;
+import com.ibra.employeeapplication.backend.service.RosterGenerator;
+import com.ibra.employeeapplication.backend.service.ShardedEmployeeDB;
+import com.ibra.employeeapplication.backend.storage.UuidEmployeeMap;
+import com.ibra.employeeapplication.server.EmployeeServer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load test for {@link EmployeeServer}.
+ *
+ * Each simulated client is a virtual thread that sends one request at a time: lookups by
+ * ID, department searches limited to 50 results (--search-percent, default 15) and salary
+ * reports (--report-percent, default 5). Searches and reports scan the roster. Without
+ * --url an in-process server is started on a free port with a generated roster, e.g.
+ * {@code java -cp benchmarks/target/benchmarks.jar com.ibra.employeeapplication.benchmarks.ServerLoadTest
+ * --clients=2000 --duration=30 --roster=100000}
+ */
+public class ServerLoadTest {
+    private static final Pattern EMPLOYEE_ID = Pattern.compile("\"employeeId\":\"([0-9a-f-]{36})\"");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            arguments.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        int clients = Integer.parseInt(arguments.getOrDefault("clients", "1000"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(arguments.getOrDefault("duration", "20")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(arguments.getOrDefault("warmup", "5")));
+        int searchPercent = Integer.parseInt(arguments.getOrDefault("search-percent", "15"));
+        int reportPercent = Integer.parseInt(arguments.getOrDefault("report-percent", "5"));
+        RequestMix mix = new RequestMix(100 - searchPercent - reportPercent, 100 - reportPercent);
+
+        EmployeeServer server = null;
+        String url = arguments.get("url");
+        if (url == null) {
+            Logger.getLogger("").setLevel(Level.WARNING);
+            int rosterSize = Integer.parseInt(arguments.getOrDefault("roster", "100000"));
+            int shards = Runtime.getRuntime().availableProcessors();
+            EmployeeDB<UUID> database = new ShardedEmployeeDB<>(shards, () -> new UuidEmployeeMap(rosterSize / shards + 1));
+            new RosterGenerator<>(42, RosterGenerator.uuidIds(42)).populate(database, rosterSize);
+            server = new EmployeeServer(database, new InetSocketAddress("localhost", 0));
+            server.start();
+            url = "http://localhost:" + server.getAddress().getPort();
+        }
+        // The database prints a line for some operations, keep the report readable
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        mix.lookups = lookupUris(client, url);
+        mix.search = URI.create(url + "/employees?department=IT&limit=50");
+        mix.report = URI.create(url + "/reports/average-salary-by-department");
+
+        out.printf("Load testing %s with %,d clients for %ds (after %ds warm-up)%n",
+                url, clients, duration.toSeconds(), warmup.toSeconds());
+        run(client, clients, warmup, mix, new LatencyRecorder("warmup"), new LongAdder());
+
+        LatencyRecorder latency = new LatencyRecorder("ServerLoadTest");
+        LongAdder failures = new LongAdder();
+        long start = System.nanoTime();
+        run(client, clients, duration, mix, latency, failures);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        out.printf("Requests:    %,d (%,d failed)%n", latency.getCount(), failures.sum());
+        out.printf("Throughput:  %,.0f requests/s%n", latency.getCount() / seconds);
+        out.printf("Latency:     p50 %,.0f us, p99 %,.0f us, p99.9 %,.0f us, max %,.0f us%n",
+                latency.getP50Micros(), latency.getP99Micros(), latency.getP999Micros(), latency.getMaxMicros());
+
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private static final class RequestMix {
+        final int lookupBelow;
+        final int searchBelow;
+        List<URI> lookups;
+        URI search;
+        URI report;
+
+        RequestMix(int lookupBelow, int searchBelow) {
+            this.lookupBelow = lookupBelow;
+            this.searchBelow = searchBelow;
+        }
+
+        URI next(ThreadLocalRandom random) {
+            int dice = random.nextInt(100);
+            return dice < lookupBelow ? lookups.get(random.nextInt(lookups.size())) : dice < searchBelow ? search : report;
+        }
+    }
+
+    private static void run(HttpClient client, int clients, Duration duration, RequestMix mix,
+                            LatencyRecorder latency, LongAdder failures) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService simulated = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                simulated.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        URI uri = mix.next(random);
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failures.increment();
+                                latency.recordError();
+                            }
+                        } catch (Exception e) {
+                            failures.increment();
+                            latency.recordError();
+                        }
+                        latency.recordSince(start);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Fetch a sample of employee IDs to look up
+     */
+    private static List<URI> lookupUris(HttpClient client, String url) throws Exception {
+        String body = client.send(HttpRequest.newBuilder(URI.create(url + "/employees?limit=10000")).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        List<URI> uris = new ArrayList<>();
+        Matcher matcher = EMPLOYEE_ID.matcher(body);
+        while (matcher.find()) {
+            uris.add(URI.create(url + "/employees/" + matcher.group(1)));
+        }
+        if (uris.isEmpty()) {
+            throw new IllegalStateException("The server has no employees to look up");
+        }
+        return uris;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ibra.employeeapplication.benchmarks;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.service.EmployeeDB;
+import com.ibra.employeeapplication.backend.service.RosterGenerator;
+import com.ibra.employeeapplication.backend.service.TimeOrderedUuidGenerator;
+import com.ibra.employeeapplication.backend.service.UuidEmployeeDB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Compares random and time-ordered UUID generation, and HashMap against packed-long UUID lookups
+ */
+@State(Scope.Benchmark)
+public class UuidKeyBenchmark extends BenchmarkSettings {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rosterSize;
+
+    private EmployeeDB<UUID> hashDatabase;
+    private UuidEmployeeDB uuidDatabase;
+    private long[] lookupMost;
+    private long[] lookupLeast;
+    private UUID[] lookupIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Logger.getLogger("").setLevel(java.util.logging.Level.OFF);
+        TimeOrderedUuidGenerator ids = TimeOrderedUuidGenerator.getInstance();
+        List<Employee<UUID>> roster = new RosterGenerator<UUID>(42, position -> ids.next()).generate(rosterSize);
+        hashDatabase = new EmployeeDB<>();
+        hashDatabase.addEmployees(roster);
+        uuidDatabase = new UuidEmployeeDB(rosterSize);
+        uuidDatabase.addEmployees(roster);
+
+        SplittableRandom random = new SplittableRandom(7);
+        lookupMost = new long[LOOKUPS];
+        lookupLeast = new long[LOOKUPS];
+        lookupIds = new UUID[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            UUID id = roster.get(random.nextInt(rosterSize)).getEmployeeId();
+            lookupIds[i] = id;
+            lookupMost[i] = id.getMostSignificantBits();
+            lookupLeast[i] = id.getLeastSignificantBits();
+        }
+    }
+
+    @Benchmark
+    public UUID randomUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID timeOrderedUuid() {
+        return TimeOrderedUuidGenerator.getInstance().next();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void hashMapGetEmployeeById(Blackhole blackhole) {
+        for (UUID id : lookupIds) {
+            blackhole.consume(hashDatabase.getEmployeeById(id));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void packedGetEmployeeById(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(uuidDatabase.getEmployeeById(lookupMost[i], lookupLeast[i]));
+        }
+    }
+}
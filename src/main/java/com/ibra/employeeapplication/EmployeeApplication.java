@@ -5,43 +5,75 @@ import com.ibra.employeeapplication.backend.entity.Employee;
 import com.ibra.employeeapplication.backend.exception.EmployeeNotFoundException;
 import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
 import com.ibra.employeeapplication.backend.exception.InvalidSalaryException;
+import com.ibra.employeeapplication.backend.exception.StaleEmployeeException;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
 import com.ibra.employeeapplication.backend.service.*;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
 import javafx.application.Application;
-import javafx.beans.property.SimpleStringProperty;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.util.Callback;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Function;
 
 public class EmployeeApplication extends Application {
+    // Number of changes that can be undone
+    private static final int UNDO_LIMIT = 100;
 
     // Database and supporting components
+    private final TimeOrderedUuidGenerator idGenerator = TimeOrderedUuidGenerator.getInstance();
     private EmployeeDB<UUID> database;
     private EmployeeSearchEngine<UUID> searchEngine;
     private SalaryManager<UUID> salaryManagement;
     private EmployeeDisplay<UUID> employeeDisplay;
+    private EmployeeCommandLog<UUID> commandLog;
 
     // UI Components
     private TableView<Employee<UUID>> employeeTable;
     private ObservableList<Employee<UUID>> employeeData;
-    private TextArea outputArea;
+    // Row view-models keyed by employee identity; entries go away with the employee
+    private final Map<Employee<UUID>, EmployeeRowModel<UUID>> rowModels = new WeakHashMap<>();
+    private ReportViewer outputArea;
 
     @Override
     public void start(Stage primaryStage) throws InvalidDepartmentException, InvalidSalaryException, EmployeeNotFoundException {
-        // Initialize components
-        database = new EmployeeDB();
+        Map<String, String> arguments = getParameters().getNamed();
+        int rosterSize = Integer.parseInt(arguments.getOrDefault("roster", "0"));
+
+        // Initialize components, --storage=offheap keeps the roster outside the Java heap
+        if ("offheap".equals(arguments.get("storage"))) {
+            database = new OffHeapEmployeeDB<>(IdCodec.UUID, rosterSize);
+        } else {
+            database = new UuidEmployeeDB(rosterSize);
+        }
         searchEngine = new EmployeeSearchEngine<>(database);
         salaryManagement = new SalaryManager<>(database);
         employeeDisplay = new EmployeeDisplay<>(database);
 
-        // Add sample data
-        addSampleData();
+        // Start from a generated roster when --roster=<count> is given, sample data otherwise
+        if (rosterSize > 0) {
+            addGeneratedData(rosterSize, Long.parseLong(arguments.getOrDefault("roster-seed", "42")));
+        } else {
+            addSampleData();
+        }
+
+        // Recorded from here on, so the initial roster cannot be undone
+        commandLog = database.recordCommands(UNDO_LIMIT);
+
+        // Periodically log the per-operation latency table when --metrics-interval=<seconds> is given
+        if (arguments.containsKey("metrics-interval")) {
+            OperationMetrics.startPeriodicDump(Duration.ofSeconds(Long.parseLong(arguments.get("metrics-interval"))));
+        }
 
         // Create the main layout
         BorderPane mainLayout = new BorderPane();
@@ -77,22 +109,60 @@ public class EmployeeApplication extends Application {
         refreshItem.setOnAction(e -> refreshEmployeeTable());
         MenuItem addItem = new MenuItem("Add New Employee");
         addItem.setOnAction(e -> showAddEmployeeDialog());
-        employeeMenu.getItems().addAll(refreshItem, addItem);
+        MenuItem undoItem = new MenuItem("Undo");
+        undoItem.setAccelerator(KeyCombination.keyCombination("Shortcut+Z"));
+        undoItem.setOnAction(e -> showUndoResult(database.undo(), "Undid: ", "Nothing to undo"));
+        MenuItem redoItem = new MenuItem("Redo");
+        redoItem.setAccelerator(KeyCombination.keyCombination("Shortcut+Y"));
+        redoItem.setOnAction(e -> showUndoResult(database.redo(), "Redid: ", "Nothing to redo"));
+        // Name what would be undone each time the menu opens
+        employeeMenu.setOnShowing(e -> {
+            String undo = commandLog.getUndoDescription();
+            String redo = commandLog.getRedoDescription();
+            undoItem.setText(undo == null ? "Undo" : "Undo " + undo);
+            undoItem.setDisable(undo == null);
+            redoItem.setText(redo == null ? "Redo" : "Redo " + redo);
+            redoItem.setDisable(redo == null);
+        });
+        employeeMenu.getItems().addAll(refreshItem, addItem, new SeparatorMenuItem(), undoItem, redoItem);
 
         // Reports menu
         Menu reportsMenu = new Menu("Reports");
         MenuItem deptReportItem = new MenuItem("Department Report");
-        deptReportItem.setOnAction(e -> outputArea.setText(employeeDisplay.generateDepartmentReport()));
+        deptReportItem.setOnAction(e -> showReport(employees -> out -> employeeDisplay.writeDepartmentReport(employees, out)));
         MenuItem salaryReportItem = new MenuItem("Salary Distribution");
-        salaryReportItem.setOnAction(e -> outputArea.setText(employeeDisplay.generateSalaryDistributionReport()));
+        salaryReportItem.setOnAction(e -> showReport(employees -> out -> employeeDisplay.writeSalaryDistributionReport(employees, out)));
         MenuItem perfReportItem = new MenuItem("Performance Report");
-        perfReportItem.setOnAction(e -> outputArea.setText(employeeDisplay.generatePerformanceReport()));
-        reportsMenu.getItems().addAll(deptReportItem, salaryReportItem, perfReportItem);
+        perfReportItem.setOnAction(e -> showReport(employees -> out -> employeeDisplay.writePerformanceReport(employees, out)));
+        MenuItem metricsItem = new MenuItem("Operation Latencies");
+        metricsItem.setOnAction(e -> outputArea.setText(OperationMetrics.dump()));
+        reportsMenu.getItems().addAll(deptReportItem, salaryReportItem, perfReportItem, metricsItem);
 
         menuBar.getMenus().addAll(fileMenu, employeeMenu, reportsMenu);
         return menuBar;
     }
 
+    /**
+     * Write a report to a temporary file in the background and show it once it is done.
+     * The roster is taken here on the FX thread, where the table also reads it.
+     * @param report Builds the report writer for the roster snapshot
+     */
+    private void showReport(Function<List<Employee<UUID>>, ReportViewer.ReportContent> report) {
+        ReportViewer.ReportContent content = report.apply(database.getAllEmployees());
+        outputArea.setText("Generating report...");
+        Thread.ofVirtual().name("report-writer").start(() -> {
+            try {
+                ReportViewer.ReportFile file = ReportViewer.ReportFile.create(content);
+                Platform.runLater(() -> outputArea.show(file));
+            } catch (IOException | RuntimeException e) {
+                Platform.runLater(() -> {
+                    outputArea.clear();
+                    showAlert("Report Error", e.getMessage());
+                });
+            }
+        });
+    }
+
     private VBox createCenterContent() {
         VBox centerContent = new VBox(10);
         centerContent.setPadding(new Insets(10));
@@ -125,6 +195,19 @@ public class EmployeeApplication extends Application {
                 // Match by department
                 results.addAll(searchEngine.findByDepartment(term));
 
+                // "IT 4.5" matches a department and a minimum rating together
+                String[] parts = term.split("\\s+");
+                if (parts.length == 2) {
+                    try {
+                        double minRating = Double.parseDouble(parts[1]);
+                        if (minRating >= 0 && minRating <= 5) {
+                            results.addAll(searchEngine.findByDepartmentAndMinimumRating(parts[0], minRating, false));
+                        }
+                    } catch (NumberFormatException ignored) {
+                        // Not a department and rating; ignore
+                    }
+                }
+
                 // Try parsing as a number (rating or salary)
                 try {
                     double value = Double.parseDouble(term);
@@ -167,10 +250,9 @@ public class EmployeeApplication extends Application {
         createEmployeeTable();
 
         // Output area for reports
-        outputArea = new TextArea();
+        outputArea = new ReportViewer();
         outputArea.setPrefHeight(200);
-        outputArea.setEditable(false);
-        outputArea.setPromptText("Reports will be displayed here...");
+        outputArea.setPlaceholder(new Label("Reports will be displayed here..."));
 
         centerContent.getChildren().addAll(label, searchBox, employeeTable, outputArea);
         return centerContent;
@@ -180,35 +262,29 @@ public class EmployeeApplication extends Application {
         employeeTable = new TableView<>();
         employeeData = FXCollections.observableArrayList(database.getAllEmployees());
 
-        // Define columns
+        // Define columns (values come from the cached per-row view-models)
         TableColumn<Employee<UUID>, String> nameCol = new TableColumn<>("Name");
-        nameCol.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getName()));
+        nameCol.setCellValueFactory(cellData -> rowModel(cellData.getValue()).nameProperty());
         nameCol.setPrefWidth(120);
 
         TableColumn<Employee<UUID>, String> deptCol = new TableColumn<>("Department");
-        deptCol.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getDepartment()));
+        deptCol.setCellValueFactory(cellData -> rowModel(cellData.getValue()).departmentProperty());
         deptCol.setPrefWidth(100);
 
         TableColumn<Employee<UUID>, String> salaryCol = new TableColumn<>("Salary");
-        salaryCol.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.format("$%.2f", cellData.getValue().getSalary())));
+        salaryCol.setCellValueFactory(cellData -> rowModel(cellData.getValue()).salaryProperty());
         salaryCol.setPrefWidth(100);
 
         TableColumn<Employee<UUID>, String> ratingCol = new TableColumn<>("Rating");
-        ratingCol.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.format("%.1f", cellData.getValue().getPerformanceRating())));
+        ratingCol.setCellValueFactory(cellData -> rowModel(cellData.getValue()).ratingProperty());
         ratingCol.setPrefWidth(60);
 
         TableColumn<Employee<UUID>, String> experienceCol = new TableColumn<>("Years Exp.");
-        experienceCol.setCellValueFactory(cellData ->
-                new SimpleStringProperty(Integer.toString(cellData.getValue().getYearsOfExperience())));
+        experienceCol.setCellValueFactory(cellData -> rowModel(cellData.getValue()).experienceProperty());
         experienceCol.setPrefWidth(80);
 
         TableColumn<Employee<UUID>, String> statusCol = new TableColumn<>("Status");
-        statusCol.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().isActive() ? "Active" : "Inactive"));
+        statusCol.setCellValueFactory(cellData -> rowModel(cellData.getValue()).statusProperty());
         statusCol.setPrefWidth(80);
 
         // Add action column for edit/delete
@@ -253,6 +329,10 @@ public class EmployeeApplication extends Application {
         employeeTable.setItems(employeeData);
     }
 
+    private EmployeeRowModel<UUID> rowModel(Employee<UUID> employee) {
+        return rowModels.computeIfAbsent(employee, EmployeeRowModel::new);
+    }
+
     private VBox createRightPanel() {
         VBox rightPanel = new VBox(10);
         rightPanel.setPadding(new Insets(10));
@@ -322,21 +402,19 @@ public class EmployeeApplication extends Application {
             String dept = departmentFilter.getValue();
             double minRating = ratingFilter.getValue();
 
-            List<Employee<UUID>> filteredList = database.getAllEmployees();
-
-            // Apply department filter if not "All Departments"
+            // Both filters together are answered from the department and rating indexes
+            List<Employee<UUID>> filteredList;
             if (!dept.equals("All Departments")) {
-                filteredList = filteredList.stream()
-                        .filter(emp -> emp.getDepartment().equals(dept))
-                        .toList();
-            }
-
-            // Apply rating filter if above 0
-            if (minRating > 0) {
-                final double finalMinRating = minRating;
-                filteredList = filteredList.stream()
-                        .filter(emp -> emp.getPerformanceRating() >= finalMinRating)
-                        .toList();
+                try {
+                    filteredList = searchEngine.findByDepartmentAndMinimumRating(dept, minRating, false);
+                } catch (InvalidDepartmentException ex) {
+                    showAlert("Filter Error", ex.getMessage());
+                    return;
+                }
+            } else if (minRating > 0) {
+                filteredList = searchEngine.findByMinimumRating(minRating);
+            } else {
+                filteredList = database.getAllEmployees();
             }
 
             employeeData.setAll(filteredList);
@@ -446,7 +524,7 @@ public class EmployeeApplication extends Application {
                     boolean active = activeCheck.isSelected();
 
                     return new Employee<>(
-                            UUID.randomUUID(), active, years, salary, rating, department, name
+                            idGenerator.next(), active, years, salary, rating, department, name
                     );
                 } catch (Exception e) {
                     return null;
@@ -463,6 +541,8 @@ public class EmployeeApplication extends Application {
     }
 
     private void showEditEmployeeDialog(Employee<UUID> employee) {
+        // Submitted with the changes, so edits made meanwhile by someone else are not overwritten
+        long loadedVersion = employee.getVersion();
         Dialog<Map<String, Object>> dialog = new Dialog<>();
         dialog.setTitle("Edit Employee");
         dialog.setHeaderText("Edit details for: " + employee.getName());
@@ -534,15 +614,13 @@ public class EmployeeApplication extends Application {
         Optional<Map<String, Object>> result = dialog.showAndWait();
         result.ifPresent(updates -> {
 
-            try {             // Update all fields
-                    database.updateEmployeeDetails(employee.getEmployeeId(), "name", updates.get("name"));
-                    database.updateEmployeeDetails(employee.getEmployeeId(), "department", updates.get("department"));
-                    database.updateEmployeeDetails(employee.getEmployeeId(), "salary", updates.get("salary"));
-                    database.updateEmployeeDetails(employee.getEmployeeId(), "performanceRating", updates.get("performanceRating"));
-                    database.updateEmployeeDetails(employee.getEmployeeId(), "yearsOfExperience", updates.get("yearsOfExperience"));
-                    database.updateEmployeeDetails(employee.getEmployeeId(), "isActive", updates.get("isActive"));
+            try {             // Update all fields as one change, so one undo reverts the edit
+                    database.compareAndUpdate(employee.getEmployeeId(), loadedVersion, updates);
 
                     refreshEmployeeTable();
+            } catch (StaleEmployeeException e) {
+                refreshEmployeeTable();
+                showAlert("Edit Conflict", e.getMessage() + ". Open the employee again to see the changes.");
             } catch (EmployeeNotFoundException | InvalidSalaryException | InvalidDepartmentException e) {
                 showAlert("Update Error", e.getMessage()); // Custom method to show JavaFX Alert
             } catch (IllegalArgumentException e) {
@@ -551,6 +629,15 @@ public class EmployeeApplication extends Application {
         });
     }
 
+    private void showUndoResult(String description, String prefix, String nothingDone) {
+        if (description == null) {
+            outputArea.setText(nothingDone);
+            return;
+        }
+        refreshEmployeeTable();
+        outputArea.setText(prefix + description);
+    }
+
     private void showAlert(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -567,10 +654,10 @@ public class EmployeeApplication extends Application {
     private void addSampleData() throws InvalidDepartmentException, InvalidSalaryException, EmployeeNotFoundException {
         // Add sample employees
             // Add sample employees
-            database.addEmployee(new Employee<>(UUID.randomUUID(), true, 15,
+            database.addEmployee(new Employee<>(idGenerator.next(), true, 15,
                     78000.0, 4.2, "IT", "John James"));
 
-            database.addEmployee(new Employee<>(UUID.randomUUID(), true, 5,
+            database.addEmployee(new Employee<>(idGenerator.next(), true, 5,
                     65000.0, 3.8, "HR", "Sarah Johnson"));
 //
 //            database.addEmployee(new Employee<>(UUID.randomUUID(), true, 12,
@@ -598,6 +685,17 @@ public class EmployeeApplication extends Application {
 //                    98000.0, 4.6, "Finance", "Sophia Chen"));
     }
 
+    private void addGeneratedData(int count, long seed) {
+        RosterGenerator<UUID> generator = new RosterGenerator<>(seed, RosterGenerator.uuidIds(seed));
+        generator.populate(database, count);
+    }
+
+    @Override
+    public void stop() {
+        // Removes the temporary file of the report on screen
+        outputArea.clear();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
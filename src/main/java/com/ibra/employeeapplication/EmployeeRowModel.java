@@ -0,0 +1,110 @@
+package com.ibra.employeeapplication;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+/**
+ * Table row view-model for a single employee.
+ * Properties are created the first time a column asks for them and the display
+ * strings are only rebuilt when the underlying employee field actually changed,
+ * so re-rendering or scrolling the table reuses the cached values.
+ */
+public class EmployeeRowModel<T> {
+    private final Employee<T> employee;
+
+    private ReadOnlyStringWrapper name;
+    private ReadOnlyStringWrapper department;
+    private ReadOnlyStringWrapper salary;
+    private ReadOnlyStringWrapper rating;
+    private ReadOnlyStringWrapper experience;
+    private ReadOnlyStringWrapper status;
+
+    // Raw values the cached strings were built from
+    private double cachedSalary = Double.NaN;
+    private double cachedRating = Double.NaN;
+    private int cachedExperience = -1;
+    private int cachedStatus = -1;
+
+    public EmployeeRowModel(Employee<T> employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        this.employee = employee;
+    }
+
+    public Employee<T> getEmployee() {
+        return employee;
+    }
+
+    public ReadOnlyStringProperty nameProperty() {
+        if (name == null) {
+            name = new ReadOnlyStringWrapper(this, "name");
+        }
+        // Setters replace the String reference, so the identity check usually decides;
+        // off-heap employees decode a new String on every call and fall through to equals
+        String current = employee.getName();
+        if (name.get() != current && !current.equals(name.get())) {
+            name.set(current);
+        }
+        return name.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty departmentProperty() {
+        if (department == null) {
+            department = new ReadOnlyStringWrapper(this, "department");
+        }
+        if (department.get() != employee.getDepartment()) {
+            department.set(employee.getDepartment());
+        }
+        return department.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty salaryProperty() {
+        if (salary == null) {
+            salary = new ReadOnlyStringWrapper(this, "salary");
+        }
+        double current = employee.getSalary();
+        if (Double.doubleToRawLongBits(current) != Double.doubleToRawLongBits(cachedSalary)) {
+            cachedSalary = current;
+            salary.set(String.format("$%.2f", current));
+        }
+        return salary.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty ratingProperty() {
+        if (rating == null) {
+            rating = new ReadOnlyStringWrapper(this, "rating");
+        }
+        double current = employee.getPerformanceRating();
+        if (Double.doubleToRawLongBits(current) != Double.doubleToRawLongBits(cachedRating)) {
+            cachedRating = current;
+            rating.set(String.format("%.1f", current));
+        }
+        return rating.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty experienceProperty() {
+        if (experience == null) {
+            experience = new ReadOnlyStringWrapper(this, "experience");
+        }
+        int current = employee.getYearsOfExperience();
+        if (current != cachedExperience) {
+            cachedExperience = current;
+            experience.set(Integer.toString(current));
+        }
+        return experience.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty statusProperty() {
+        if (status == null) {
+            status = new ReadOnlyStringWrapper(this, "status");
+        }
+        int current = employee.isActive() ? 1 : 0;
+        if (current != cachedStatus) {
+            cachedStatus = current;
+            status.set(current == 1 ? "Active" : "Inactive");
+        }
+        return status.getReadOnlyProperty();
+    }
+}
@@ -0,0 +1,265 @@
+package com.ibra.employeeapplication;
+
+import javafx.collections.FXCollections;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.text.Font;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-only report view that only lays out the lines currently on screen.
+ * Reports are written to a file first; the viewer keeps the byte offset of every line
+ * and reads a line from the file when a cell scrolls into view, so neither the report
+ * text nor a text node for every line is held in memory.
+ */
+public class ReportViewer extends ListView<Integer> {
+    private static final Logger logger = Logger.getLogger(ReportViewer.class.getName());
+
+    private String[] messageLines = new String[0];
+    private ReportFile file;
+
+    public ReportViewer() {
+        setFixedCellSize(18);
+        setCellFactory(list -> new LineCell());
+    }
+
+    /**
+     * Show a short in-memory message, e.g. the result of an action
+     * @param text The message, split into lines
+     */
+    public void setText(String text) {
+        closeFile();
+        messageLines = text.split("\n", -1);
+        showLines(messageLines.length);
+    }
+
+    /**
+     * Show a report file; the viewer takes ownership and closes the previous one
+     * @param report The report to show
+     */
+    public void show(ReportFile report) {
+        closeFile();
+        messageLines = new String[0];
+        file = report;
+        showLines(report.getLineCount());
+    }
+
+    /**
+     * Close the report file currently shown, if any
+     */
+    public void clear() {
+        closeFile();
+        messageLines = new String[0];
+        showLines(0);
+    }
+
+    private void showLines(int count) {
+        // Line numbers are computed, not stored
+        setItems(FXCollections.observableList(new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                return index;
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        }));
+        scrollTo(0);
+    }
+
+    private void closeFile() {
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Could not remove report file", e);
+            }
+            file = null;
+        }
+    }
+
+    private String lineAt(int index) {
+        if (file == null) {
+            return index < messageLines.length ? messageLines[index] : "";
+        }
+        try {
+            return file.line(index);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not read report line " + index, e);
+            return "";
+        }
+    }
+
+    private class LineCell extends ListCell<Integer> {
+        LineCell() {
+            setFont(Font.font("Monospaced", 12));
+        }
+
+        @Override
+        protected void updateItem(Integer index, boolean empty) {
+            super.updateItem(index, empty);
+            setText(empty || index == null ? null : lineAt(index));
+        }
+    }
+
+    /**
+     * Writes a report, see {@link ReportFile#create(ReportContent)}
+     */
+    @FunctionalInterface
+    public interface ReportContent {
+        void writeTo(Writer out) throws IOException;
+    }
+
+    /**
+     * A UTF-8 report file with an index of where each line starts
+     */
+    public static final class ReportFile implements Closeable {
+        private static final int SCAN_BUFFER_BYTES = 64 * 1024;
+
+        private final Path path;
+        private final boolean temporary;
+        private final FileChannel channel;
+        // lineStarts[i] is the offset of line i; lineStarts[lineCount] is the end of the last line + 1
+        private final long[] lineStarts;
+        private final int lineCount;
+        private ByteBuffer lineBuffer = ByteBuffer.allocate(256);
+
+        private ReportFile(Path path, boolean temporary) throws IOException {
+            this.path = path;
+            this.temporary = temporary;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                long[] starts = new long[1024];
+                int count = 0;
+                starts[count++] = 0;
+
+                ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+                long position = 0;
+                while (position < size) {
+                    scan.clear();
+                    int read = channel.read(scan, position);
+                    if (read < 0) {
+                        break;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        if (scan.get(i) == '\n') {
+                            if (count == starts.length) {
+                                starts = Arrays.copyOf(starts, count * 2);
+                            }
+                            starts[count++] = position + i + 1;
+                        }
+                    }
+                    position += read;
+                }
+
+                // A last line without a trailing newline ends at the end of the file
+                if (starts[count - 1] < size) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count + 1);
+                    }
+                    starts[count++] = size + 1;
+                }
+                this.lineStarts = starts;
+                this.lineCount = count - 1;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Open an existing report file; it is left in place when closed
+         * @param path The file to show
+         * @return The indexed file
+         */
+        public static ReportFile open(Path path) throws IOException {
+            return new ReportFile(path, false);
+        }
+
+        /**
+         * Write a report to a temporary file, which is deleted when the report is closed.
+         * The writer is buffered, so the report never has to fit in memory.
+         * @param content Writes the report
+         * @return The indexed file
+         */
+        public static ReportFile create(ReportContent content) throws IOException {
+            Path path = Files.createTempFile("employee-report", ".txt");
+            try {
+                try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                    content.writeTo(out);
+                }
+                return new ReportFile(path, true);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(path);
+                throw e;
+            }
+        }
+
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        /**
+         * Read one line from the file
+         * @param index Line number, from 0
+         * @return The line without its line terminator
+         */
+        public String line(int index) throws IOException {
+            if (index < 0 || index >= lineCount) {
+                throw new IndexOutOfBoundsException("Line " + index + " of " + lineCount);
+            }
+            long start = lineStarts[index];
+            int length = (int) (lineStarts[index + 1] - 1 - start);
+            if (lineBuffer.capacity() < length) {
+                lineBuffer = ByteBuffer.allocate(Math.max(length, 2 * lineBuffer.capacity()));
+            }
+            lineBuffer.clear().limit(length);
+            while (lineBuffer.hasRemaining()) {
+                if (channel.read(lineBuffer, start + lineBuffer.position()) < 0) {
+                    throw new EOFException("Report file truncated: " + path);
+                }
+            }
+            if (length > 0 && lineBuffer.get(length - 1) == '\r') {
+                length--;
+            }
+            return new String(lineBuffer.array(), 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return All lines, for tests and small reports only
+         */
+        public List<String> lines() throws IOException {
+            String[] lines = new String[lineCount];
+            for (int i = 0; i < lineCount; i++) {
+                lines[i] = line(i);
+            }
+            return Arrays.asList(lines);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            if (temporary) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -1,18 +1,21 @@
 package com.ibra.employeeapplication.backend.controller;
 
 import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.monitoring.ReportGenerationEvent;
+import com.ibra.employeeapplication.backend.service.AggregateTable;
 import com.ibra.employeeapplication.backend.service.EmployeeDB;
 
-import java.text.NumberFormat;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.List;
-import java.util.Locale;
-import java.util.stream.Collectors;
-
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 public class EmployeeDisplay<T> {
+    // Initial capacity of the in-memory reports
+    private static final int REPORT_HEADER_CHARS = 1024;
+    private static final int CHARS_PER_LISTED_EMPLOYEE = 64;
+
     private EmployeeDB<T> database;
 
     public EmployeeDisplay(EmployeeDB<T> database) {
@@ -48,135 +51,227 @@ public class EmployeeDisplay<T> {
     }
 
     /**
-     * Generate a department summary report using Stream API
+     * Generate a department summary report from one parallel pass over the roster.
+     * The whole report is held in memory; use {@link #writeDepartmentReport(Writer)} for large rosters.
      */
     public String generateDepartmentReport() {
-        Map<String, List<Employee<T>>> departmentMap = database.getAllEmployees().stream()
-                .collect(Collectors.groupingBy(Employee::getDepartment));
-
-        if (departmentMap.isEmpty()) {
-            return "No employees in any department.";
-        }
+        List<Employee<T>> employees = database.getAllEmployees();
+        return toText(employees.size(), out -> writeDepartmentReport(employees, out));
+    }
 
-        StringBuilder report = new StringBuilder();
-        report.append("\n=================== Department Report ===================\n");
+    /**
+     * Generate a salary distribution report from one parallel pass over the roster
+     */
+    public String generateSalaryDistributionReport() {
+        List<Employee<T>> employees = database.getAllEmployees();
+        return toText(0, out -> writeSalaryDistributionReport(employees, out));
+    }
 
-        departmentMap.forEach((department, empList) -> {
-            double avgSalary = empList.stream().mapToDouble(Employee::getSalary).average().orElse(0);
-            double avgRating = empList.stream().mapToDouble(Employee::getPerformanceRating).average().orElse(0);
-            long activeCount = empList.stream().filter(Employee::isActive).count();
+    /**
+     * Generate a performance report from one parallel pass over the roster.
+     * The whole report is held in memory; use {@link #writePerformanceReport(Writer)} for large rosters.
+     */
+    public String generatePerformanceReport() {
+        List<Employee<T>> employees = database.getAllEmployees();
+        return toText(employees.size(), out -> writePerformanceReport(employees, out));
+    }
 
-            report.append(String.format("\nDepartment: %s\n", department));
-            report.append(String.format("Number of Employees: %d\n", empList.size()));
-            report.append(String.format("Active Employees: %d\n", activeCount));
-            report.append(String.format("Average Salary: $%.2f\n", avgSalary));
-            report.append(String.format("Average Performance Rating: %.2f\n", avgRating));
-            report.append("\nEmployees:\n");
+    /**
+     * Generate the department, salary distribution and performance reports together,
+     * sharing a single pass over the roster
+     */
+    public String generateAllReports() {
+        List<Employee<T>> employees = database.getAllEmployees();
+        return toText(2 * employees.size(), out -> writeAllReports(employees, out));
+    }
 
-            empList.forEach(emp ->
-                    report.append(String.format("- %s (Experience: %d years, Rating: %.1f)\n",
-                            emp.getName(), emp.getYearsOfExperience(), emp.getPerformanceRating()))
-            );
+    public void writeDepartmentReport(Writer out) throws IOException {
+        writeDepartmentReport(database.getAllEmployees(), out);
+    }
 
-            report.append("---------------------------------------------------\n");
-        });
+    /**
+     * Stream the department report row by row; only a small row buffer is held besides
+     * the per-department employee lists
+     * @param employees The employees to report on, e.g. a snapshot taken before writing on another thread
+     * @param out Where to write the report; it is not flushed or closed
+     */
+    public void writeDepartmentReport(List<Employee<T>> employees, Writer out) throws IOException {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
+        ReportOutput report = new ReportOutput(out);
+        RosterSummary<T> summary = summarize(employees, true);
+
+        if (summary.getEmployeeCount() == 0) {
+            report.buffer().append("No employees in any department.");
+        } else {
+            appendDepartmentReport(report, summary);
+        }
+        report.flush();
+        event.complete("department", employees.size(), report.getCharsWritten());
+    }
 
-        return report.toString();
+    public void writeSalaryDistributionReport(Writer out) throws IOException {
+        writeSalaryDistributionReport(database.getAllEmployees(), out);
     }
 
     /**
-     * Generate a salary distribution report using Stream API
+     * @param employees The employees to report on
+     * @param out Where to write the report; it is not flushed or closed
      */
-    public String generateSalaryDistributionReport() {
-        List<Employee<T>> employees = database.getAllEmployees();
+    public void writeSalaryDistributionReport(List<Employee<T>> employees, Writer out) throws IOException {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
+        ReportOutput report = new ReportOutput(out);
 
         if (employees.isEmpty()) {
-            return "No employees to generate salary distribution.";
+            report.buffer().append("No employees to generate salary distribution.");
+        } else {
+            appendSalaryDistributionReport(report, summarize(employees, false));
         }
+        report.flush();
+        event.complete("salaryDistribution", employees.size(), report.getCharsWritten());
+    }
 
-        // Define salary ranges
-        Map<String, Long> salaryRanges = employees.stream()
-                .collect(Collectors.groupingBy(
-                        emp -> {
-                            double salary = emp.getSalary();
-                            if (salary < 50000) return "Below $50,000";
-                            else if (salary < 75000) return "$50,000 - $74,999";
-                            else if (salary < 100000) return "$75,000 - $99,999";
-                            else if (salary < 125000) return "$100,000 - $124,999";
-                            else return "$125,000 and above";
-                        },
-                        Collectors.counting()
-                ));
-
-        StringBuilder report = new StringBuilder();
-        report.append("\n============= Salary Distribution =============\n");
+    public void writePerformanceReport(Writer out) throws IOException {
+        writePerformanceReport(database.getAllEmployees(), out);
+    }
+
+    /**
+     * Stream the performance report row by row
+     * @param employees The employees to report on
+     * @param out Where to write the report; it is not flushed or closed
+     */
+    public void writePerformanceReport(List<Employee<T>> employees, Writer out) throws IOException {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
+        ReportOutput report = new ReportOutput(out);
 
-        // Ensure all ranges are included even if empty
-        String[] rangeLabels = {
-                "Below $50,000",
-                "$50,000 - $74,999",
-                "$75,000 - $99,999",
-                "$100,000 - $124,999",
-                "$125,000 and above"
-        };
-
-        for (String label : rangeLabels) {
-            long count = salaryRanges.getOrDefault(label, 0L);
-            report.append(String.format("%-20s: %d employee(s)\n", label, count));
+        if (employees.isEmpty()) {
+            report.buffer().append("No employees to generate performance report.");
+        } else {
+            appendPerformanceReport(report, summarize(employees, true));
         }
+        report.flush();
+        event.complete("performance", employees.size(), report.getCharsWritten());
+    }
 
-        report.append("==============================================\n");
-        return report.toString();
+    public void writeAllReports(Writer out) throws IOException {
+        writeAllReports(database.getAllEmployees(), out);
     }
 
     /**
-     * Generate a performance report using Stream API
+     * Stream the department, salary distribution and performance reports from a single pass
+     * @param employees The employees to report on
+     * @param out Where to write the reports; it is not flushed or closed
      */
-    public String generatePerformanceReport() {
-        List<Employee<T>> employees = database.getAllEmployees();
+    public void writeAllReports(List<Employee<T>> employees, Writer out) throws IOException {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
+        ReportOutput report = new ReportOutput(out);
 
         if (employees.isEmpty()) {
-            return "No employees to generate performance report.";
+            report.buffer().append("No employees to report.");
+        } else {
+            RosterSummary<T> summary = summarize(employees, true);
+            appendDepartmentReport(report, summary);
+            appendSalaryDistributionReport(report, summary);
+            appendPerformanceReport(report, summary);
         }
+        report.flush();
+        event.complete("all", employees.size(), report.getCharsWritten());
+    }
 
-        // Group by performance rating ranges
-        Map<String, List<Employee<T>>> performanceGroups = employees.stream()
-                .collect(Collectors.groupingBy(
-                        emp -> {
-                            double rating = emp.getPerformanceRating();
-                            if (rating < 2.0) return "Poor (0-1.9)";
-                            else if (rating < 3.0) return "Fair (2.0-2.9)";
-                            else if (rating < 4.0) return "Good (3.0-3.9)";
-                            else if (rating < 4.5) return "Excellent (4.0-4.4)";
-                            else return "Outstanding (4.5-5.0)";
-                        }
-                ));
-
-        StringBuilder report = new StringBuilder();
-        report.append("\n============= Performance Report =============\n");
+    @FunctionalInterface
+    private interface ReportBody {
+        void write(Writer out) throws IOException;
+    }
 
-        String[] ratingGroups = {
-                "Outstanding (4.5-5.0)",
-                "Excellent (4.0-4.4)",
-                "Good (3.0-3.9)",
-                "Fair (2.0-2.9)",
-                "Poor (0-1.9)"
-        };
+    private static String toText(int listedEmployees, ReportBody body) {
+        // Sized up front, so large reports are not copied over and over as they grow
+        StringWriter out = new StringWriter(REPORT_HEADER_CHARS + listedEmployees * CHARS_PER_LISTED_EMPLOYEE);
+        try {
+            body.write(out);
+        } catch (IOException e) {
+            // StringWriter does not throw
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private RosterSummary<T> summarize(List<Employee<T>> employees, boolean keepMembers) {
+        return employees.parallelStream().collect(RosterSummary.collector(keepMembers));
+    }
+
+    private void appendDepartmentReport(ReportOutput output, RosterSummary<T> summary) throws IOException {
+        StringBuilder report = output.buffer();
+        report.append("\n=================== Department Report ===================\n");
+
+        AggregateTable departments = summary.departments();
+        for (int code = 0; code < departments.groupCount(); code++) {
+            if (departments.count(code) == 0) {
+                continue;
+            }
+            report.append("\nDepartment: ").append(departments.label(code)).append('\n');
+            report.append("Number of Employees: ").append(departments.count(code)).append('\n');
+            report.append("Active Employees: ").append((long) departments.value(code, RosterSummary.ACTIVE_COUNT)).append('\n');
+            ReportFormatter.appendFixed(report.append("Average Salary: $"), departments.value(code, RosterSummary.AVERAGE_SALARY), 2).append('\n');
+            ReportFormatter.appendFixed(report.append("Average Performance Rating: "), departments.value(code, RosterSummary.AVERAGE_RATING), 2).append('\n');
+            report.append("\nEmployees:\n");
+
+            for (Employee<T> emp : summary.departmentMembers(code)) {
+                report.append("- ").append(emp.getName())
+                        .append(" (Experience: ").append(emp.getYearsOfExperience())
+                        .append(" years, Rating: ");
+                ReportFormatter.appendFixed(report, emp.getPerformanceRating(), 1).append(")\n");
+                output.endRow();
+            }
+
+            report.append("---------------------------------------------------\n");
+        }
+    }
+
+    private void appendSalaryDistributionReport(ReportOutput output, RosterSummary<T> summary) {
+        StringBuilder report = output.buffer();
+        report.append("\n============= Salary Distribution =============\n");
+
+        // All ranges are included even if empty
+        AggregateTable salaryRanges = summary.salaryRanges();
+        for (int range = 0; range < salaryRanges.groupCount(); range++) {
+            String label = salaryRanges.label(range);
+            report.append(label);
+            // Left-justified in 20 columns, as %-20s
+            for (int pad = label.length(); pad < 20; pad++) {
+                report.append(' ');
+            }
+            report.append(": ").append(salaryRanges.count(range)).append(" employee(s)\n");
+        }
+
+        report.append("==============================================\n");
+    }
+
+    private void appendPerformanceReport(ReportOutput output, RosterSummary<T> summary) throws IOException {
+        StringBuilder report = output.buffer();
+        report.append("\n============= Performance Report =============\n");
 
-        for (String group : ratingGroups) {
-            List<Employee<T>> groupEmployees = performanceGroups.getOrDefault(group, List.of());
-            report.append(String.format("\n%s: %d employee(s)\n", group, groupEmployees.size()));
+        // Best group first
+        AggregateTable ratingGroups = summary.ratingGroups();
+        for (int group = ratingGroups.groupCount() - 1; group >= 0; group--) {
+            report.append('\n').append(ratingGroups.label(group)).append(": ")
+                    .append(ratingGroups.count(group)).append(" employee(s)\n");
 
+            List<Employee<T>> groupEmployees = summary.ratingGroupMembers(group);
             if (!groupEmployees.isEmpty()) {
                 report.append("------------------------------------------\n");
                 for (Employee<T> emp : groupEmployees) {
-                    report.append(String.format("- %s (Dept: %s, Rating: %.1f)\n",
-                            emp.getName(), emp.getDepartment(), emp.getPerformanceRating()));
+                    report.append("- ").append(emp.getName())
+                            .append(" (Dept: ").append(emp.getDepartment())
+                            .append(", Rating: ");
+                    ReportFormatter.appendFixed(report, emp.getPerformanceRating(), 1).append(")\n");
+                    output.endRow();
                 }
             }
         }
 
         report.append("==============================================\n");
-        return report.toString();
     }
-}
\ No newline at end of file
+}
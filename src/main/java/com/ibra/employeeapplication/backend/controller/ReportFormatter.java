@@ -0,0 +1,43 @@
+package com.ibra.employeeapplication.backend.controller;
+
+/**
+ * Appends numbers to a StringBuilder without the intermediate strings and Formatter
+ * objects of {@code String.format}, for reports with one line per employee.
+ */
+final class ReportFormatter {
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    private ReportFormatter() {
+    }
+
+    /**
+     * Append a number with a fixed number of decimals, like {@code %.Nf}. Rounds half up on
+     * the binary value, so a value whose shortest decimal form ends in a 5 exactly at the
+     * first dropped digit (e.g. 1.005) may end one unit lower than with String.format.
+     * @param out The builder to append to
+     * @param value The number; values too large for fixed point fall back to String.format
+     * @param decimals Number of decimals, 0 to 6
+     * @return The builder
+     */
+    static StringBuilder appendFixed(StringBuilder out, double value, int decimals) {
+        long scale = POWERS_OF_TEN[decimals];
+        if (!Double.isFinite(value) || Math.abs(value) >= (double) (Long.MAX_VALUE / scale)) {
+            return out.append(String.format("%." + decimals + "f", value));
+        }
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            out.append('-');
+        }
+        out.append(scaled / scale);
+        if (decimals > 0) {
+            out.append('.');
+            long fraction = scaled % scale;
+            // Leading zeros of the fraction
+            for (long digit = scale / 10; digit > fraction && digit > 1; digit /= 10) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ibra.employeeapplication.backend.controller;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Row buffer in front of the Writer a report streams to. Rows are appended to one
+ * reused StringBuilder and handed to the writer in chunks of a few KB, so memory stays
+ * bounded however long the report is and no String is created per row.
+ */
+final class ReportOutput {
+    private static final int FLUSH_CHARS = 8192;
+
+    private final Writer out;
+    private final StringBuilder buffer = new StringBuilder(2 * FLUSH_CHARS);
+    private char[] chars = new char[2 * FLUSH_CHARS];
+    private long charsWritten;
+
+    ReportOutput(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * @return The builder to append rows to; it stays valid after every flush
+     */
+    StringBuilder buffer() {
+        return buffer;
+    }
+
+    /**
+     * Call after each row, writes the buffer out once it is full
+     */
+    void endRow() throws IOException {
+        if (buffer.length() >= FLUSH_CHARS) {
+            flush();
+        }
+    }
+
+    /**
+     * Write everything buffered to the writer (without flushing the writer itself)
+     */
+    void flush() throws IOException {
+        int length = buffer.length();
+        if (length == 0) {
+            return;
+        }
+        if (chars.length < length) {
+            chars = new char[length];
+        }
+        buffer.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        charsWritten += length;
+        buffer.setLength(0);
+    }
+
+    long getCharsWritten() {
+        return charsWritten + buffer.length();
+    }
+}
@@ -0,0 +1,108 @@
+package com.ibra.employeeapplication.backend.controller;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.service.Aggregate;
+import com.ibra.employeeapplication.backend.service.AggregateTable;
+import com.ibra.employeeapplication.backend.service.GroupKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * Everything the {@link EmployeeDisplay} reports need, gathered in one pass over the roster:
+ * an {@link AggregateTable} per department, salary range and rating group, and the
+ * employees of each department and rating group. Partial summaries combine in encounter
+ * order, so the collector can run on a parallel stream and still list employees in roster order.
+ */
+final class RosterSummary<T> {
+    // Positions of the department aggregates
+    static final int ACTIVE_COUNT = 0;
+    static final int AVERAGE_SALARY = 1;
+    static final int AVERAGE_RATING = 2;
+
+    private static final List<Aggregate> DEPARTMENT_AGGREGATES = List.of(
+            Aggregate.sum(Aggregate.Field.ACTIVE),
+            Aggregate.average(Aggregate.Field.SALARY),
+            Aggregate.average(Aggregate.Field.PERFORMANCE_RATING));
+
+    // Whether employees are kept per department and per rating group, for the reports that list them
+    private final boolean keepMembers;
+
+    private final AggregateTable departments = new AggregateTable(GroupKey.DEPARTMENT, DEPARTMENT_AGGREGATES);
+    private final AggregateTable salaryRanges = new AggregateTable(GroupKey.SALARY_RANGE, List.of(Aggregate.count()));
+    private final AggregateTable ratingGroups = new AggregateTable(GroupKey.RATING_GROUP, List.of(Aggregate.count()));
+    private final List<List<Employee<T>>> departmentMembers = new ArrayList<>();
+    private final List<List<Employee<T>>> ratingGroupMembers = new ArrayList<>();
+
+    RosterSummary(boolean keepMembers) {
+        this.keepMembers = keepMembers;
+    }
+
+    /**
+     * @param keepMembers true to also keep the employees of each department and rating group
+     */
+    static <T> Collector<Employee<T>, ?, RosterSummary<T>> collector(boolean keepMembers) {
+        return Collector.of(() -> new RosterSummary<>(keepMembers), RosterSummary::add, RosterSummary::combine);
+    }
+
+    void add(Employee<T> employee) {
+        departments.add(employee);
+        salaryRanges.add(employee);
+        ratingGroups.add(employee);
+        if (keepMembers) {
+            members(departmentMembers, GroupKey.DEPARTMENT.groupOf(employee)).add(employee);
+            members(ratingGroupMembers, GroupKey.RATING_GROUP.groupOf(employee)).add(employee);
+        }
+    }
+
+    /**
+     * Append the other summary, which covers the employees after this one's
+     */
+    RosterSummary<T> combine(RosterSummary<T> other) {
+        departments.combine(other.departments);
+        salaryRanges.combine(other.salaryRanges);
+        ratingGroups.combine(other.ratingGroups);
+        for (int group = 0; group < other.departmentMembers.size(); group++) {
+            members(departmentMembers, group).addAll(other.departmentMembers.get(group));
+        }
+        for (int group = 0; group < other.ratingGroupMembers.size(); group++) {
+            members(ratingGroupMembers, group).addAll(other.ratingGroupMembers.get(group));
+        }
+        return this;
+    }
+
+    long getEmployeeCount() {
+        return departments.getEmployeeCount();
+    }
+
+    /**
+     * @return Count, active count, average salary and average rating per department code
+     */
+    AggregateTable departments() {
+        return departments;
+    }
+
+    AggregateTable salaryRanges() {
+        return salaryRanges;
+    }
+
+    AggregateTable ratingGroups() {
+        return ratingGroups;
+    }
+
+    List<Employee<T>> departmentMembers(int departmentCode) {
+        return departmentCode < departmentMembers.size() ? departmentMembers.get(departmentCode) : List.of();
+    }
+
+    List<Employee<T>> ratingGroupMembers(int group) {
+        return group < ratingGroupMembers.size() ? ratingGroupMembers.get(group) : List.of();
+    }
+
+    private static <T> List<Employee<T>> members(List<List<Employee<T>>> groups, int group) {
+        while (groups.size() <= group) {
+            groups.add(new ArrayList<>());
+        }
+        return groups.get(group);
+    }
+}
@@ -0,0 +1,131 @@
+package com.ibra.employeeapplication.backend.entity;
+
+import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary mapping each department to a small int code.
+ *
+ * Departments are matched case-insensitively (the same way the searches always compared
+ * them) and the first spelling seen becomes the canonical name. Employees store only the
+ * code, so filters and group-bys compare ints instead of strings.
+ */
+public final class DepartmentDictionary {
+    private static final DepartmentDictionary INSTANCE = new DepartmentDictionary();
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    // Grown by doubling and replaced whole, so decoding never locks; a name is written
+    // before its code is published through codes and size
+    private volatile String[] names = new String[INITIAL_CAPACITY];
+    private volatile int size;
+
+    private DepartmentDictionary() {
+    }
+
+    public static DepartmentDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the code of a department, adding it to the dictionary if it is new
+     * @param department The department name
+     * @return The department code
+     */
+    public int encode(String department) {
+        if (department == null) {
+            throw new IllegalArgumentException("Department cannot be null");
+        }
+        Integer code = codes.get(key(department));
+        return code != null ? code : add(department, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the code of a department, adding it only while the dictionary holds fewer than a
+     * limit, so departments taken from requests cannot grow it without bound
+     * @param department The department name
+     * @param limit Most departments the dictionary may hold after adding this one
+     * @return The department code
+     * @throws InvalidDepartmentException if the department is new and the dictionary is full
+     */
+    public int encode(String department, int limit) throws InvalidDepartmentException {
+        if (department == null) {
+            throw new IllegalArgumentException("Department cannot be null");
+        }
+        Integer code = codes.get(key(department));
+        if (code != null) {
+            return code;
+        }
+        code = add(department, limit);
+        if (code < 0) {
+            throw new InvalidDepartmentException("Unknown department " + department
+                    + ": no more than " + limit + " departments are allowed");
+        }
+        return code;
+    }
+
+    /**
+     * Get the code of a department without adding it
+     * @param department The department name
+     * @return The department code, or -1 if no employee was ever in that department
+     */
+    public int lookup(String department) {
+        if (department == null) {
+            return -1;
+        }
+        Integer code = codes.get(key(department));
+        return code != null ? code : -1;
+    }
+
+    /**
+     * @param code A department code returned by {@link #encode(String)}
+     * @return The canonical department name
+     */
+    public String decode(int code) {
+        // Size first: the names it covers are in every array published since
+        int known = size;
+        return names[Objects.checkIndex(code, known)];
+    }
+
+    /**
+     * @return Number of departments, every code is below this value
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The code of the department, or -1 if it is new and the dictionary already
+     * holds the limit
+     */
+    private synchronized int add(String department, int limit) {
+        String key = key(department);
+        Integer existing = codes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        int code = size;
+        if (code >= limit) {
+            return -1;
+        }
+        String[] current = names;
+        if (code == current.length) {
+            current = Arrays.copyOf(current, code << 1);
+        }
+        current[code] = department.intern();
+        names = current;
+        size = code + 1;
+        codes.put(key, code);
+        return code;
+    }
+
+    private static String key(String department) {
+        return department.toLowerCase(Locale.ROOT);
+    }
+}
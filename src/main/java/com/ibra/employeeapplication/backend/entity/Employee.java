@@ -11,11 +11,14 @@ import javax.naming.InvalidNameException;
 public class Employee<T> implements Comparable<Employee<T>> {
     private T employeeId;
     private String name;
-    private String department;
+    // Code in the DepartmentDictionary, see getDepartment()
+    private int departmentCode;
     private double salary;
     private double performanceRating;
     private int yearsOfExperience;
     private boolean active;
+    // Bumped by the database on every change, for optimistic concurrency
+    private long version;
 
     public Employee(T employeeId, boolean active,
                     int yearOfExperience, double salary,
@@ -51,8 +54,15 @@ public class Employee<T> implements Comparable<Employee<T>> {
         this.yearsOfExperience = yearOfExperience;
         this.salary = salary;
         this.performanceRating = performanceRatings;
-        this.department = department;
-        this.name = name;
+        this.departmentCode = DepartmentDictionary.getInstance().encode(department);
+        this.name = name.intern();
+    }
+
+    /**
+     * Constructor for subclasses that keep the employee fields in their own storage
+     * and override every accessor
+     */
+    protected Employee() {
     }
 
     public T getEmployeeId() {
@@ -74,18 +84,22 @@ public class Employee<T> implements Comparable<Employee<T>> {
             throw new IllegalArgumentException("Employee name cannot be empty");
         }
 
-        this.name = name;
+        this.name = name.intern();
     }
 
     public String getDepartment() {
-        return department;
+        return DepartmentDictionary.getInstance().decode(departmentCode);
+    }
+
+    public int getDepartmentCode() {
+        return departmentCode;
     }
 
     public void setDepartment(String department) throws InvalidDepartmentException {
         if (department == null || department.trim().isEmpty()) {
             throw new InvalidDepartmentException("Department cannot be empty");
         }
-        this.department = department;
+        this.departmentCode = DepartmentDictionary.getInstance().encode(department);
     }
 
     public double getSalary() {
@@ -125,6 +139,18 @@ public class Employee<T> implements Comparable<Employee<T>> {
         this.active = active;
     }
 
+    /**
+     * @return Number of changes saved to this employee; an editor keeps the version it loaded
+     *         and submits it with its changes, which are rejected if the version moved on
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public int compareTo(Employee<T> other) {
         return Integer.compare(this.getYearsOfExperience(), other.getYearsOfExperience());
@@ -133,13 +159,13 @@ public class Employee<T> implements Comparable<Employee<T>> {
     @Override
     public String toString() {
         return "Employee{" +
-                "employeeId=" + employeeId +
-                ", name='" + name + '\'' +
-                ", department='" + department + '\'' +
-                ", salary=" + salary +
-                ", performanceRatings=" + performanceRating +
-                ", yearOfExperience=" + yearsOfExperience +
-                ", active=" + active +
+                "employeeId=" + getEmployeeId() +
+                ", name='" + getName() + '\'' +
+                ", department='" + getDepartment() + '\'' +
+                ", salary=" + getSalary() +
+                ", performanceRatings=" + getPerformanceRating() +
+                ", yearOfExperience=" + getYearsOfExperience() +
+                ", active=" + isActive() +
                 '}';
     }
 }
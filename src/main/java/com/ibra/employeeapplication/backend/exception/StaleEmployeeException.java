@@ -0,0 +1,7 @@
+package com.ibra.employeeapplication.backend.exception;
+
+public class StaleEmployeeException extends Exception {
+    public StaleEmployeeException(String message) {
+        super(message);
+    }
+}
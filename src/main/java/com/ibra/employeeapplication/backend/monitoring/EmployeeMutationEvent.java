@@ -0,0 +1,42 @@
+package com.ibra.employeeapplication.backend.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for an EmployeeDB add, remove or update
+ */
+@Name("com.ibra.employeeapplication.EmployeeMutation")
+@Label("Employee Mutation")
+@Category({"Employee Application", "Database"})
+@Description("Add, remove or update of employees in EmployeeDB")
+public class EmployeeMutationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Employee ID")
+    public String employeeId;
+
+    @Label("Field")
+    public String field;
+
+    @Label("Rows Affected")
+    public int rowCount;
+
+    /**
+     * Fill in the fields and commit, only paying for the id conversion when the event is recorded
+     */
+    public void complete(String operation, Object employeeId, String field, int rowCount) {
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.employeeId = employeeId == null ? null : employeeId.toString();
+            this.field = field;
+            this.rowCount = rowCount;
+            commit();
+        }
+    }
+}
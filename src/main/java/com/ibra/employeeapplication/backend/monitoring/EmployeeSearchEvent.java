@@ -0,0 +1,44 @@
+package com.ibra.employeeapplication.backend.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a search or sort in EmployeeSearchEngine
+ */
+@Name("com.ibra.employeeapplication.EmployeeSearch")
+@Label("Employee Search")
+@Category({"Employee Application", "Query"})
+@Description("Search or sort over the employee roster")
+public class EmployeeSearchEvent extends Event {
+
+    @Label("Query Kind")
+    public String queryKind;
+
+    @Label("Criteria")
+    public String criteria;
+
+    @Label("Result Count")
+    public int resultCount;
+
+    public void complete(String queryKind, String criteria, int resultCount) {
+        if (shouldCommit()) {
+            this.queryKind = queryKind;
+            this.criteria = criteria;
+            this.resultCount = resultCount;
+            commit();
+        }
+    }
+
+    /**
+     * Variant for numeric criteria, the range is only formatted when the event is recorded
+     */
+    public void complete(String queryKind, double low, double high, int resultCount) {
+        if (shouldCommit()) {
+            complete(queryKind, low + " - " + high, resultCount);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.ibra.employeeapplication.backend.monitoring;
+
+/**
+ * JMX view of a {@link LatencyRecorder}. Latencies are reported in microseconds.
+ */
+public interface LatencyRecorderMBean {
+
+    String getOperation();
+
+    long getCount();
+
+    long getErrorCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
@@ -0,0 +1,107 @@
+package com.ibra.employeeapplication.backend.monitoring;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Registry of the per-operation latency recorders.
+ * Each recorder is registered as a platform MBean under
+ * {@code com.ibra.employeeapplication:type=Operation,name=<operation>} and all of them
+ * can be dumped as a text table, on demand or periodically to the log.
+ */
+public final class OperationMetrics {
+    private static final Logger logger = Logger.getLogger(OperationMetrics.class.getName());
+    private static final String DOMAIN = "com.ibra.employeeapplication";
+
+    private static final Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService dumpExecutor;
+
+    private OperationMetrics() {
+    }
+
+    /**
+     * Get the recorder for an operation, creating and registering it on first use
+     * @param operation Operation name, e.g. "EmployeeDB.addEmployee"
+     * @return The shared recorder for the operation
+     */
+    public static LatencyRecorder recorder(String operation) {
+        return recorders.computeIfAbsent(operation, OperationMetrics::register);
+    }
+
+    /**
+     * @return All recorders sorted by operation name
+     */
+    public static Map<String, LatencyRecorder> getRecorders() {
+        return new ConcurrentSkipListMap<>(recorders);
+    }
+
+    /**
+     * Format the current statistics of every operation that was called at least once
+     * @return Text table with counts, errors and latency percentiles in microseconds
+     */
+    public static String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-52s %10s %7s %10s %10s %10s %10s%n",
+                "OPERATION", "COUNT", "ERRORS", "P50(us)", "P99(us)", "P999(us)", "MAX(us)"));
+        getRecorders().values().forEach(recorder -> {
+            if (recorder.getCount() > 0) {
+                out.append(String.format("%-52s %10d %7d %10.1f %10.1f %10.1f %10.1f%n",
+                        recorder.getOperation(), recorder.getCount(), recorder.getErrorCount(),
+                        recorder.getP50Micros(), recorder.getP99Micros(),
+                        recorder.getP999Micros(), recorder.getMaxMicros()));
+            }
+        });
+        return out.toString();
+    }
+
+    /**
+     * Log {@link #dump()} at a fixed interval from a daemon thread, replacing any earlier schedule
+     * @param interval Time between two dumps
+     */
+    public static synchronized void startPeriodicDump(Duration interval) {
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Dump interval must be positive");
+        }
+        stopPeriodicDump();
+        dumpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "operation-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        dumpExecutor.scheduleAtFixedRate(() -> logger.info("Operation latencies\n" + dump()),
+                millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void stopPeriodicDump() {
+        if (dumpExecutor != null) {
+            dumpExecutor.shutdownNow();
+            dumpExecutor = null;
+        }
+    }
+
+    private static LatencyRecorder register(String operation) {
+        LatencyRecorder recorder = new LatencyRecorder(operation);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(recorder, new ObjectName(DOMAIN + ":type=Operation,name=" + ObjectName.quote(operation)));
+        } catch (InstanceAlreadyExistsException e) {
+            // Another class loader registered the same operation; keep recording locally
+            logger.fine("MBean already registered for " + operation);
+        } catch (JMException e) {
+            logger.warning("Could not register MBean for " + operation + ": " + e.getMessage());
+        }
+        return recorder;
+    }
+}
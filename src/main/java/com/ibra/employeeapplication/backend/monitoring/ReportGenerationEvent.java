@@ -0,0 +1,37 @@
+package com.ibra.employeeapplication.backend.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a text report generated by EmployeeDisplay
+ */
+@Name("com.ibra.employeeapplication.ReportGeneration")
+@Label("Report Generation")
+@Category({"Employee Application", "Report"})
+@Description("Generation of a department, salary or performance report")
+public class ReportGenerationEvent extends Event {
+
+    @Label("Report Type")
+    public String reportType;
+
+    @Label("Employee Count")
+    public int employeeCount;
+
+    @Label("Report Length")
+    @DataAmount(DataAmount.BYTES)
+    public long reportLength;
+
+    public void complete(String reportType, int employeeCount, long reportLength) {
+        if (shouldCommit()) {
+            this.reportType = reportType;
+            this.employeeCount = employeeCount;
+            this.reportLength = reportLength;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ibra.employeeapplication.backend.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a bulk salary raise in SalaryManager
+ */
+@Name("com.ibra.employeeapplication.SalaryRaise")
+@Label("Bulk Salary Raise")
+@Category({"Employee Application", "Salary"})
+@Description("Salary raise applied to every employee matching a criterion")
+public class SalaryRaiseEvent extends Event {
+
+    @Label("Raise Kind")
+    public String raiseKind;
+
+    @Label("Criteria")
+    public String criteria;
+
+    @Label("Percentage")
+    public double percentage;
+
+    @Label("Employees Raised")
+    public int employeesRaised;
+
+    public void complete(String raiseKind, Object criteria, double percentage, int employeesRaised) {
+        if (shouldCommit()) {
+            this.raiseKind = raiseKind;
+            this.criteria = String.valueOf(criteria);
+            this.percentage = percentage;
+            this.employeesRaised = employeesRaised;
+            commit();
+        }
+    }
+}
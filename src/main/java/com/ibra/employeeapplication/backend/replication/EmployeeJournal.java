@@ -0,0 +1,616 @@
+package com.ibra.employeeapplication.backend.replication;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+import com.ibra.employeeapplication.backend.service.EmployeeChangeListener;
+import com.ibra.employeeapplication.backend.service.EmployeeDB;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Makes an {@link EmployeeDB} durable by journaling its changes to disk, in the same
+ * encoding {@link ReplicationLeader} sends to followers.
+ *
+ * Writers only append the encoded change to an in-memory buffer; a background thread
+ * writes the buffer to the current log segment and forces it to disk every sync interval
+ * (group commit), so a crash loses at most the changes of one interval. Each record is
+ * framed with its length and CRC, and recovery truncates a torn record at the end.
+ *
+ * A second background thread writes a checkpoint every checkpoint interval, or sooner once
+ * the log since the last checkpoint exceeds a size limit, which bounds recovery time. It
+ * rolls to a new segment at sequence S, writes the latest state of every employee to
+ * {@code checkpoint-S.ckpt} while writes continue, and then deletes the segments and
+ * checkpoints it supersedes. The image is fuzzy, but every change after S is in the newer
+ * segments and changes carry the full employee, so the checkpoint plus the log tail
+ * recovers the exact state. As with replication, a database written concurrently must be
+ * safe for concurrent reads.
+ */
+public class EmployeeJournal<T> implements EmployeeChangeListener<T>, Closeable {
+    private static final Logger logger = Logger.getLogger(EmployeeJournal.class.getName());
+
+    private static final LatencyRecorder APPEND_LATENCY = OperationMetrics.recorder("EmployeeJournal.append");
+    private static final LatencyRecorder SYNC_LATENCY = OperationMetrics.recorder("EmployeeJournal.sync");
+    private static final LatencyRecorder CHECKPOINT_LATENCY = OperationMetrics.recorder("EmployeeJournal.checkpoint");
+    private static final LatencyRecorder RECOVER_LATENCY = OperationMetrics.recorder("EmployeeJournal.recover");
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_SUFFIX = ".ckpt";
+    private static final int CHECKPOINT_MAGIC = 0x45434b50; // "ECKP"
+    private static final int END_OF_CHECKPOINT = -1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EmployeeDB<T> database;
+    private final IdCodec<T> codec;
+    private final Path directory;
+
+    private Duration syncInterval = Duration.ofMillis(10);
+    private Duration checkpointInterval = Duration.ofMinutes(5);
+    private long checkpointLogBytes = 256L * 1024 * 1024;
+
+    // Writers hold this lock only to take a sequence number and copy the change into the buffer
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final CRC32 appendCrc = new CRC32();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(BUFFER_SIZE);
+    private volatile long sequence;
+
+    // Serializes writing buffers to the segment and rolling to the next segment
+    private final ReentrantLock ioLock = new ReentrantLock();
+    private ByteArrayOutputStream spare = new ByteArrayOutputStream(BUFFER_SIZE);
+    private FileChannel segment;
+    private long bytesSinceCheckpoint;
+
+    private final AtomicBoolean checkpointRunning = new AtomicBoolean();
+    private volatile long checkpointSequence;
+    private int recoveredCount;
+    private ScheduledExecutorService executor;
+    private volatile boolean closed;
+
+    /**
+     * @param database The database to make durable; it must be empty, {@link #start()} loads it
+     * @param codec Encoding of the employee IDs
+     * @param directory Directory holding the log segments and checkpoints, created if missing
+     */
+    public EmployeeJournal(EmployeeDB<T> database, IdCodec<T> codec, Path directory) {
+        if (database == null || codec == null || directory == null) {
+            throw new IllegalArgumentException("Database, codec and directory cannot be null");
+        }
+        this.database = database;
+        this.codec = codec;
+        this.directory = directory;
+    }
+
+    public Duration getSyncInterval() {
+        return syncInterval;
+    }
+
+    /**
+     * @param syncInterval Time between two forces of the log to disk, the most a crash can lose
+     */
+    public void setSyncInterval(Duration syncInterval) {
+        checkNotStarted();
+        this.syncInterval = requirePositive(syncInterval);
+    }
+
+    public Duration getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(Duration checkpointInterval) {
+        checkNotStarted();
+        this.checkpointInterval = requirePositive(checkpointInterval);
+    }
+
+    public long getCheckpointLogBytes() {
+        return checkpointLogBytes;
+    }
+
+    /**
+     * @param checkpointLogBytes Log size after which a checkpoint is taken early, bounding recovery time
+     */
+    public void setCheckpointLogBytes(long checkpointLogBytes) {
+        checkNotStarted();
+        if (checkpointLogBytes <= 0) {
+            throw new IllegalArgumentException("Checkpoint log size must be positive");
+        }
+        this.checkpointLogBytes = checkpointLogBytes;
+    }
+
+    /**
+     * Load the latest checkpoint and log tail into the database, then start journaling
+     * its changes and taking checkpoints in the background
+     */
+    public synchronized void start() throws IOException {
+        if (executor != null) {
+            throw new IllegalStateException("Journal already started");
+        }
+        Files.createDirectories(directory);
+        recover();
+        openSegment(sequence + 1);
+        database.addChangeListener(this);
+
+        executor = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "employee-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long syncMillis = syncInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::syncInBackground, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+        long checkpointMillis = checkpointInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::checkpointInBackground, checkpointMillis, checkpointMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop journaling after forcing every buffered change to disk
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed || executor == null) {
+            return;
+        }
+        closed = true;
+        database.removeChangeListener(this);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ioLock.lock();
+        try {
+            flushPending();
+            segment.close();
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    /**
+     * @return Sequence number of the latest change
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return Sequence number the latest checkpoint was taken at
+     */
+    public long getCheckpointSequence() {
+        return checkpointSequence;
+    }
+
+    /**
+     * @return Number of employees loaded by {@link #start()}
+     */
+    public int getRecoveredCount() {
+        return recoveredCount;
+    }
+
+    @Override
+    public void employeeSaved(Employee<T> employee) {
+        append(employee.getEmployeeId());
+    }
+
+    @Override
+    public void employeeRemoved(T employeeId) {
+        append(employeeId);
+    }
+
+    /**
+     * Journal the employee as it is stored now, as {@code ReplicationLeader} logs it: a save
+     * announced after the removal that followed it is journaled as a removal, so recovery
+     * never brings back a removed employee
+     */
+    private void append(T employeeId) {
+        long start = System.nanoTime();
+        long committedAt = ReplicationProtocol.wallClockNanos();
+        appendLock.lock();
+        try {
+            long next = sequence + 1;
+            sequence = next;
+            writeRecord(pending, appendCrc, database.readCurrent(employeeId, employee -> employee == null
+                    ? ReplicationProtocol.encodeRemove(codec, next, committedAt, employeeId)
+                    : ReplicationProtocol.encodeSave(codec, next, committedAt, employee)));
+        } finally {
+            appendLock.unlock();
+            APPEND_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Write the buffered changes to the current segment and force them to disk
+     */
+    public void sync() throws IOException {
+        long start = System.nanoTime();
+        ioLock.lock();
+        try {
+            flushPending();
+        } catch (IOException | RuntimeException e) {
+            SYNC_LATENCY.recordError();
+            throw e;
+        } finally {
+            ioLock.unlock();
+            SYNC_LATENCY.recordSince(start);
+        }
+        if (bytesSinceCheckpoint >= checkpointLogBytes && !closed) {
+            try {
+                executor.execute(this::checkpointInBackground);
+            } catch (RejectedExecutionException e) {
+                // Closing, the log is complete without the checkpoint
+            }
+        }
+    }
+
+    /**
+     * Write a checkpoint and delete the log segments and checkpoints it supersedes.
+     * Returns at once if a checkpoint is already being written.
+     */
+    public void checkpoint() throws IOException {
+        if (!checkpointRunning.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            long snapshotSequence = rollSegment();
+            Path checkpoint = directory.resolve(fileName(CHECKPOINT_PREFIX, snapshotSequence, CHECKPOINT_SUFFIX));
+            Path temporary = directory.resolve(checkpoint.getFileName() + ".tmp");
+            int count = writeCheckpoint(temporary, snapshotSequence);
+            Files.move(temporary, checkpoint, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+            checkpointSequence = snapshotSequence;
+            deleteSuperseded(snapshotSequence);
+            logger.info("Checkpoint of " + count + " employees at sequence " + snapshotSequence);
+        } catch (IOException | RuntimeException e) {
+            CHECKPOINT_LATENCY.recordError();
+            throw e;
+        } finally {
+            checkpointRunning.set(false);
+            CHECKPOINT_LATENCY.recordSince(start);
+        }
+    }
+
+    private void syncInBackground() {
+        try {
+            sync();
+        } catch (IOException e) {
+            logger.severe("Error writing employee journal: " + e.getMessage());
+        }
+    }
+
+    private void checkpointInBackground() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            logger.severe("Error writing checkpoint: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Swap the append buffer and write the full one to the segment, with the IO lock held
+     */
+    private void flushPending() throws IOException {
+        ByteArrayOutputStream full;
+        appendLock.lock();
+        try {
+            full = pending;
+            pending = spare;
+        } finally {
+            appendLock.unlock();
+        }
+        writeToSegment(full);
+    }
+
+    private void writeToSegment(ByteArrayOutputStream full) throws IOException {
+        try {
+            if (full.size() > 0) {
+                full.writeTo(Channels.newOutputStream(segment));
+                segment.force(false);
+                bytesSinceCheckpoint += full.size();
+            }
+        } finally {
+            full.reset();
+            spare = full;
+        }
+    }
+
+    /**
+     * Close the current segment and start the next one
+     * @return Sequence number of the last change in the closed segment
+     */
+    private long rollSegment() throws IOException {
+        ioLock.lock();
+        try {
+            ByteArrayOutputStream full;
+            long lastSequence;
+            appendLock.lock();
+            try {
+                lastSequence = sequence;
+                full = pending;
+                pending = spare;
+            } finally {
+                appendLock.unlock();
+            }
+            writeToSegment(full);
+            segment.close();
+            openSegment(lastSequence + 1);
+            bytesSinceCheckpoint = 0;
+            return lastSequence;
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        segment = FileChannel.open(directory.resolve(fileName(SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        syncDirectory();
+    }
+
+    private int writeCheckpoint(Path file, long snapshotSequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeLong(snapshotSequence);
+            CRC32 crc = new CRC32();
+            long takenAt = ReplicationProtocol.wallClockNanos();
+            int count = 0;
+            for (Employee<T> employee : database.findEmployees(employee -> true)) {
+                writeRecord(out, crc, ReplicationProtocol.encodeSave(codec, snapshotSequence, takenAt, employee));
+                count++;
+            }
+            out.writeInt(END_OF_CHECKPOINT);
+            out.writeInt(count);
+            out.flush();
+            channel.force(true);
+            return count;
+        }
+    }
+
+    private void deleteSuperseded(long snapshotSequence) throws IOException {
+        // Every change in an older segment is at or before the checkpoint
+        for (Path file : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (sequenceOf(file, SEGMENT_PREFIX, SEGMENT_SUFFIX) <= snapshotSequence) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for (Path file : list(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX)) {
+            if (sequenceOf(file, CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX) < snapshotSequence) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+        try {
+            Map<T, Employee<T>> state = new LinkedHashMap<>();
+            long recoveredSequence = loadCheckpoint(state);
+            checkpointSequence = recoveredSequence;
+
+            for (Path file : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                long[] last = {recoveredSequence};
+                boolean complete = readRecords(file, true, change -> {
+                    if (change.sequence > last[0]) {
+                        if (change.employee == null) {
+                            state.remove(change.employeeId);
+                        } else {
+                            state.put(change.employeeId, change.employee);
+                        }
+                        last[0] = change.sequence;
+                    }
+                });
+                recoveredSequence = last[0];
+                if (!complete) {
+                    // Later segments would leave a gap in the history
+                    logger.warning("Stopped recovery at a damaged record in " + file.getFileName());
+                    break;
+                }
+            }
+
+            if (!state.isEmpty()) {
+                if (database.getEmployeeCount() > 0) {
+                    throw new IllegalStateException("Database must be empty to recover the journal");
+                }
+                database.addEmployees(state.values());
+            }
+            recoveredCount = state.size();
+            sequence = recoveredSequence;
+            logger.info("Recovered " + recoveredCount + " employees up to sequence " + recoveredSequence);
+        } catch (IOException | RuntimeException e) {
+            RECOVER_LATENCY.recordError();
+            throw e;
+        } finally {
+            RECOVER_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Load the newest readable checkpoint
+     * @return Its sequence number, 0 if there is none
+     */
+    private long loadCheckpoint(Map<T, Employee<T>> state) throws IOException {
+        List<Path> checkpoints = list(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+        for (int i = checkpoints.size() - 1; i >= 0; i--) {
+            Path file = checkpoints.get(i);
+            state.clear();
+            try {
+                if (readRecords(file, false, change -> state.put(change.employeeId, change.employee))) {
+                    return sequenceOf(file, CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+                }
+            } catch (IOException e) {
+                logger.warning("Skipping unreadable checkpoint " + file.getFileName() + ": " + e.getMessage());
+            }
+        }
+        state.clear();
+        return 0;
+    }
+
+    @FunctionalInterface
+    private interface ChangeHandler<T> {
+        void apply(ReplicationProtocol.Change<T> change) throws IOException;
+    }
+
+    /**
+     * Read the framed records of a segment or checkpoint
+     * @param segmentFile true for a log segment, whose torn tail is truncated away
+     * @return true if the file was read to its end without damage
+     */
+    private boolean readRecords(Path file, boolean segmentFile, ChangeHandler<T> handler) throws IOException {
+        long size = Files.size(file);
+        long position = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (!segmentFile && in.readInt() != CHECKPOINT_MAGIC) {
+                throw new IOException("Not a checkpoint");
+            }
+            if (!segmentFile) {
+                in.readLong();
+            }
+            CRC32 crc = new CRC32();
+            int count = 0;
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    // A checkpoint always ends with its trailer, a segment may end after any whole record
+                    return segmentFile && position == size || damaged(file, segmentFile, position);
+                }
+                if (length == END_OF_CHECKPOINT && !segmentFile) {
+                    return in.readInt() == count;
+                }
+                int checksum = in.readInt();
+                if (length < 0) {
+                    return damaged(file, segmentFile, position);
+                }
+                byte[] change = new byte[length];
+                in.readFully(change);
+                crc.reset();
+                crc.update(change);
+                if ((int) crc.getValue() != checksum) {
+                    return damaged(file, segmentFile, position);
+                }
+                handler.apply(ReplicationProtocol.decode(ByteBuffer.wrap(change), codec));
+                position += 2 * Integer.BYTES + length;
+                count++;
+            }
+        } catch (EOFException e) {
+            return damaged(file, segmentFile, position);
+        }
+    }
+
+    private boolean damaged(Path file, boolean segmentFile, long validLength) throws IOException {
+        if (segmentFile) {
+            // A crash during a write leaves a partial record, drop it so appends continue from valid data
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                logger.warning("Truncating " + file.getFileName() + " from " + channel.size() + " to " + validLength + " bytes");
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+        }
+        return false;
+    }
+
+    private static void writeRecord(OutputStream out, CRC32 crc, byte[] change) throws IOException {
+        crc.reset();
+        crc.update(change);
+        writeInt(out, change.length);
+        writeInt(out, (int) crc.getValue());
+        out.write(change);
+    }
+
+    private static void writeRecord(ByteArrayOutputStream out, CRC32 crc, byte[] change) {
+        try {
+            writeRecord((OutputStream) out, crc, change);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> entries = Files.list(directory)) {
+            entries.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(suffix);
+            }).forEach(files::add);
+        }
+        files.sort(Comparator.comparingLong(file -> sequenceOf(file, prefix, suffix)));
+        return files;
+    }
+
+    private static long sequenceOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static String fileName(String prefix, long sequence, String suffix) {
+        // Zero padded so the names also sort by sequence
+        return String.format("%s%020d%s", prefix, sequence, suffix);
+    }
+
+    /**
+     * Make created and renamed files durable; not every platform can force a directory
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.fine("Cannot force directory " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private void checkNotStarted() {
+        if (executor != null) {
+            throw new IllegalStateException("Journal already started");
+        }
+    }
+
+    private static Duration requirePositive(Duration interval) {
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        return interval;
+    }
+}
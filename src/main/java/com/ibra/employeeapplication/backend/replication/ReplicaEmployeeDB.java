@@ -0,0 +1,79 @@
+package com.ibra.employeeapplication.backend.replication;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.service.ShardedEmployeeDB;
+import com.ibra.employeeapplication.backend.storage.ShardedEmployeeMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Read-only sharded database that only the replication stream writes to. Queries run
+ * concurrently with the changes being applied, as on {@link ShardedEmployeeDB}.
+ */
+class ReplicaEmployeeDB<T> extends ShardedEmployeeDB<T> {
+    private final ShardedEmployeeMap<T> employees;
+
+    ReplicaEmployeeDB(int shardCount, Supplier<? extends Map<T, Employee<T>>> shardFactory) {
+        this(new ShardedEmployeeMap<>(shardCount, shardFactory));
+    }
+
+    private ReplicaEmployeeDB(ShardedEmployeeMap<T> employees) {
+        super(employees);
+        this.employees = employees;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    /**
+     * Apply a batch of changes, taking each shard's write lock once. Changes to the same
+     * employee land in the same shard, so they are still applied in order. Change listeners,
+     * such as the salary sketches of a follower's SalaryManager, are told after each shard.
+     */
+    void apply(List<ReplicationProtocol.Change<T>> changes) {
+        List<List<ReplicationProtocol.Change<T>>> byShard = new ArrayList<>(employees.getShardCount());
+        for (int shard = 0; shard < employees.getShardCount(); shard++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (ReplicationProtocol.Change<T> change : changes) {
+            byShard.get(employees.shardOf(change.employeeId)).add(change);
+        }
+
+        for (int shard = 0; shard < byShard.size(); shard++) {
+            List<ReplicationProtocol.Change<T>> shardChanges = byShard.get(shard);
+            if (shardChanges.isEmpty()) {
+                continue;
+            }
+            employees.writeShard(shard, map -> {
+                for (ReplicationProtocol.Change<T> change : shardChanges) {
+                    if (change.employee == null) {
+                        map.remove(change.employeeId);
+                    } else {
+                        map.put(change.employeeId, change.employee);
+                    }
+                }
+                return null;
+            });
+            for (ReplicationProtocol.Change<T> change : shardChanges) {
+                if (change.employee == null) {
+                    fireRemoved(change.employeeId);
+                } else {
+                    fireSaved(change.employee);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop every employee before loading a new snapshot
+     */
+    void reset() {
+        forEachEmployee(employee -> fireRemoved(employee.getEmployeeId()));
+        employees.clear();
+    }
+}
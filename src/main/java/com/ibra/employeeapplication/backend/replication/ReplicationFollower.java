@@ -0,0 +1,277 @@
+package com.ibra.employeeapplication.backend.replication;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+import com.ibra.employeeapplication.backend.service.EmployeeDB;
+import com.ibra.employeeapplication.backend.service.EmployeeSearchEngine;
+import com.ibra.employeeapplication.backend.service.SalaryManager;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Read-only copy of a database kept up to date by a {@link ReplicationLeader}.
+ *
+ * A background thread connects to the leader, loads its snapshot and then applies the
+ * changes in sequence order, one batch at a time. If the connection drops the thread
+ * reconnects and loads a fresh snapshot; queries during that reload see a partial roster.
+ * The replica serves the usual {@link EmployeeSearchEngine} and {@link SalaryManager}
+ * queries; changes, including salary raises, are rejected.
+ *
+ * Lag is reported by {@link #getLagChanges()}, {@link #getLagNanos()} and the
+ * "ReplicationFollower.lag" recorder, which records the time from the leader committing
+ * each batch's last change to the follower applying it (wall clock, so both hosts' clocks
+ * must be synchronised).
+ */
+public class ReplicationFollower<T> implements Closeable {
+    private static final Logger logger = Logger.getLogger(ReplicationFollower.class.getName());
+
+    private static final LatencyRecorder LAG = OperationMetrics.recorder("ReplicationFollower.lag");
+    private static final LatencyRecorder APPLY_BATCH_LATENCY = OperationMetrics.recorder("ReplicationFollower.applyBatch");
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final IdCodec<T> codec;
+    private final InetSocketAddress leaderAddress;
+    private final ReplicaEmployeeDB<T> replica;
+    private final EmployeeSearchEngine<T> searchEngine;
+    private final SalaryManager<T> salaryManager;
+
+    private volatile long appliedSequence;
+    private volatile long leaderSequence;
+    private volatile long lastCommittedAtNanos;
+    private volatile boolean snapshotLoaded;
+    private volatile boolean closed;
+    private volatile Socket socket;
+    private volatile Thread thread;
+
+    /**
+     * @param codec Encoding of the employee IDs, as used by the leader
+     * @param leaderAddress Address the leader accepts followers on
+     */
+    public ReplicationFollower(IdCodec<T> codec, InetSocketAddress leaderAddress) {
+        this(codec, leaderAddress, Runtime.getRuntime().availableProcessors(), HashMap::new);
+    }
+
+    /**
+     * @param shardCount Number of shards of the replica database
+     * @param shardFactory Creates the empty map backing each shard
+     */
+    public ReplicationFollower(IdCodec<T> codec, InetSocketAddress leaderAddress, int shardCount,
+                               Supplier<? extends Map<T, Employee<T>>> shardFactory) {
+        if (codec == null || leaderAddress == null) {
+            throw new IllegalArgumentException("Codec and leader address cannot be null");
+        }
+        this.codec = codec;
+        this.leaderAddress = leaderAddress;
+        this.replica = new ReplicaEmployeeDB<>(shardCount, shardFactory);
+        this.searchEngine = new EmployeeSearchEngine<>(replica);
+        this.salaryManager = new SalaryManager<>(replica);
+    }
+
+    /**
+     * Start following the leader in a background thread
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Follower already started");
+        }
+        thread = Thread.ofPlatform().daemon().name("replication-follower").start(this::follow);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Socket connection = socket;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                logger.fine("Error closing replication socket: " + e.getMessage());
+            }
+        }
+        Thread follower = thread;
+        if (follower != null) {
+            follower.interrupt();
+            try {
+                follower.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return The read-only replica
+     */
+    public EmployeeDB<T> getDatabase() {
+        return replica;
+    }
+
+    public EmployeeSearchEngine<T> getSearchEngine() {
+        return searchEngine;
+    }
+
+    public SalaryManager<T> getSalaryManager() {
+        return salaryManager;
+    }
+
+    /**
+     * @return Sequence number of the last change applied, or of the snapshot when no change followed it
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * @return The leader's latest sequence number, as last reported by the leader
+     */
+    public long getLeaderSequence() {
+        return leaderSequence;
+    }
+
+    /**
+     * @return Number of changes the leader made that are not applied yet
+     */
+    public long getLagChanges() {
+        return Math.max(0, leaderSequence - appliedSequence);
+    }
+
+    /**
+     * @return Age of the last applied change while changes are pending, 0 when caught up
+     */
+    public long getLagNanos() {
+        if (!snapshotLoaded) {
+            return Long.MAX_VALUE;
+        }
+        return getLagChanges() == 0 ? 0 : Math.max(0, ReplicationProtocol.wallClockNanos() - lastCommittedAtNanos);
+    }
+
+    /**
+     * Wait until a change is applied, e.g. to read a write just made on the leader
+     * @param sequence Leader sequence number to wait for
+     * @param timeout Maximum time to wait
+     * @return true if the change was applied in time
+     */
+    public boolean awaitSequence(long sequence, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (this) {
+            while (!snapshotLoaded || appliedSequence < sequence) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        }
+    }
+
+    private void follow() {
+        while (!closed) {
+            try {
+                replicate();
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warning("Replication from " + leaderAddress + " interrupted: " + e.getMessage());
+                }
+            }
+            snapshotLoaded = false;
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void replicate() throws IOException {
+        try (Socket connection = new Socket()) {
+            socket = connection;
+            if (closed) {
+                return;
+            }
+            connection.connect(leaderAddress, CONNECT_TIMEOUT_MILLIS);
+            connection.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream(), BUFFER_SIZE));
+
+            if (in.readByte() != ReplicationProtocol.HELLO || in.readInt() != ReplicationProtocol.MAGIC) {
+                throw new IOException("Not a replication leader");
+            }
+            int version = in.readInt();
+            if (version != ReplicationProtocol.VERSION) {
+                throw new IOException("Unsupported replication protocol version " + version);
+            }
+            long snapshotSequence = in.readLong();
+            replica.reset();
+            logger.info("Loading snapshot at sequence " + snapshotSequence + " from " + leaderAddress);
+
+            while (!closed) {
+                byte frame = in.readByte();
+                switch (frame) {
+                    case ReplicationProtocol.BATCH -> applyBatch(in);
+                    case ReplicationProtocol.SNAPSHOT_END -> {
+                        synchronized (this) {
+                            appliedSequence = snapshotSequence;
+                            snapshotLoaded = true;
+                            notifyAll();
+                        }
+                        logger.info("Loaded snapshot of " + replica.getEmployeeCount() + " employees");
+                    }
+                    default -> throw new IOException("Unknown replication frame " + frame);
+                }
+            }
+        }
+    }
+
+    private void applyBatch(DataInputStream in) throws IOException {
+        long batchLeaderSequence = in.readLong();
+        int count = in.readInt();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+
+        long start = System.nanoTime();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            List<ReplicationProtocol.Change<T>> changes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                changes.add(ReplicationProtocol.decode(buffer, codec));
+            }
+            replica.apply(changes);
+
+            synchronized (this) {
+                // Snapshot changes all carry the snapshot sequence, which counts once the snapshot ends
+                if (snapshotLoaded && !changes.isEmpty()) {
+                    ReplicationProtocol.Change<T> last = changes.get(changes.size() - 1);
+                    appliedSequence = last.sequence;
+                    lastCommittedAtNanos = last.committedAtNanos;
+                    LAG.record(ReplicationProtocol.wallClockNanos() - last.committedAtNanos);
+                }
+                leaderSequence = batchLeaderSequence;
+                notifyAll();
+            }
+        } catch (IOException | RuntimeException e) {
+            APPLY_BATCH_LATENCY.recordError();
+            throw e;
+        } finally {
+            APPLY_BATCH_LATENCY.recordSince(start);
+        }
+    }
+}
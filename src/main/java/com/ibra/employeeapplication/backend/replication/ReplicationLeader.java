@@ -0,0 +1,307 @@
+package com.ibra.employeeapplication.backend.replication;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+import com.ibra.employeeapplication.backend.service.EmployeeChangeListener;
+import com.ibra.employeeapplication.backend.service.EmployeeDB;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Ships every change of an {@link EmployeeDB} to {@link ReplicationFollower}s over TCP.
+ *
+ * Each change gets the next sequence number and is encoded once, on the writing thread,
+ * into the queue of every connected follower. A virtual thread per follower first sends a
+ * snapshot of the database, then drains its queue in batches. The snapshot is read while
+ * writes continue, but every change made after it started is also queued, and changes
+ * carry the full employee, so the follower converges once it has applied the tail.
+ *
+ * The snapshot is read from the follower's thread, so a database written concurrently
+ * must be safe for concurrent reads, e.g. {@link com.ibra.employeeapplication.backend.service.ShardedEmployeeDB}.
+ * Changes to one employee must not race each other, or they may be sequenced out of order.
+ * A follower whose queue fills up is disconnected and catches up again from a new snapshot.
+ */
+public class ReplicationLeader<T> implements EmployeeChangeListener<T>, Closeable {
+    private static final Logger logger = Logger.getLogger(ReplicationLeader.class.getName());
+
+    private static final LatencyRecorder SNAPSHOT_LATENCY = OperationMetrics.recorder("ReplicationLeader.snapshot");
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1 << 20;
+    // Changes per batch frame
+    private static final int MAX_BATCH = 1024;
+    private static final long HEARTBEAT_MILLIS = 200;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EmployeeDB<T> database;
+    private final IdCodec<T> codec;
+    private final InetSocketAddress bindAddress;
+    private final int queueCapacity;
+
+    // Assigning a sequence number and queueing the change happen under this lock, so every
+    // follower receives the changes in sequence order and none is lost while one connects
+    private final ReentrantLock logLock = new ReentrantLock();
+    private volatile long sequence;
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+    private volatile boolean closed;
+
+    /**
+     * @param database The database to replicate
+     * @param codec Encoding of the employee IDs
+     * @param bindAddress Address to accept followers on, port 0 picks a free port
+     */
+    public ReplicationLeader(EmployeeDB<T> database, IdCodec<T> codec, InetSocketAddress bindAddress) {
+        this(database, codec, bindAddress, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param queueCapacity Changes queued per follower before it is considered too far behind
+     */
+    public ReplicationLeader(EmployeeDB<T> database, IdCodec<T> codec, InetSocketAddress bindAddress,
+                             int queueCapacity) {
+        if (database == null || codec == null || bindAddress == null) {
+            throw new IllegalArgumentException("Database, codec and address cannot be null");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        this.database = database;
+        this.codec = codec;
+        this.bindAddress = bindAddress;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Start listening for changes and accepting followers
+     */
+    public synchronized void start() throws IOException {
+        if (serverSocket != null) {
+            throw new IllegalStateException("Leader already started");
+        }
+        serverSocket = new ServerSocket();
+        serverSocket.bind(bindAddress);
+        database.addChangeListener(this);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        executor.submit(this::acceptFollowers);
+        logger.info("Replication leader listening on " + getAddress());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        database.removeChangeListener(this);
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            logger.fine("Error closing replication socket: " + e.getMessage());
+        }
+        sessions.forEach(Session::disconnect);
+        if (executor != null) {
+            executor.close();
+        }
+        logger.info("Replication leader stopped");
+    }
+
+    public InetSocketAddress getAddress() {
+        return new InetSocketAddress(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+    }
+
+    /**
+     * @return Sequence number of the latest change
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getFollowerCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void employeeSaved(Employee<T> employee) {
+        append(employee.getEmployeeId());
+    }
+
+    @Override
+    public void employeeRemoved(T employeeId) {
+        append(employeeId);
+    }
+
+    /**
+     * Log the employee as it is stored now. Calls can arrive out of order, e.g. the save of
+     * an update after the removal that followed it; logging the current state under the log
+     * lock means whichever call comes last logs the final state, so a follower replaying
+     * the log in sequence order never brings back a removed employee.
+     */
+    private void append(T employeeId) {
+        long committedAt = ReplicationProtocol.wallClockNanos();
+        logLock.lock();
+        try {
+            long next = sequence + 1;
+            sequence = next;
+            if (sessions.isEmpty()) {
+                return;
+            }
+            byte[] change = database.readCurrent(employeeId, employee -> employee == null
+                    ? ReplicationProtocol.encodeRemove(codec, next, committedAt, employeeId)
+                    : ReplicationProtocol.encodeSave(codec, next, committedAt, employee));
+            for (Session session : sessions) {
+                session.offer(change);
+            }
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    private void acceptFollowers() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.submit(new Session(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warning("Error accepting follower: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Replication to one follower
+     */
+    private final class Session implements Runnable {
+        private final Socket socket;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private volatile boolean overflowed;
+
+        Session(Socket socket) {
+            this.socket = socket;
+        }
+
+        /**
+         * Queue a change, called with the log lock held
+         */
+        void offer(byte[] change) {
+            if (!queue.offer(change) && !overflowed) {
+                overflowed = true;
+                logger.warning("Follower " + socket.getRemoteSocketAddress() + " fell "
+                        + queueCapacity + " changes behind, disconnecting it");
+                disconnect();
+            }
+        }
+
+        void disconnect() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.fine("Error closing follower socket: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void run() {
+            long snapshotSequence;
+            logLock.lock();
+            try {
+                snapshotSequence = sequence;
+                sessions.add(this);
+            } finally {
+                logLock.unlock();
+            }
+
+            try (socket) {
+                socket.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+                out.writeByte(ReplicationProtocol.HELLO);
+                out.writeInt(ReplicationProtocol.MAGIC);
+                out.writeInt(ReplicationProtocol.VERSION);
+                out.writeLong(snapshotSequence);
+                sendSnapshot(out, snapshotSequence);
+                out.writeByte(ReplicationProtocol.SNAPSHOT_END);
+                out.flush();
+
+                List<byte[]> batch = new ArrayList<>(MAX_BATCH);
+                while (!closed && !overflowed) {
+                    byte[] first = queue.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, MAX_BATCH - 1);
+                    }
+                    // An empty batch is the heartbeat
+                    writeBatch(out, batch);
+                    out.flush();
+                    batch.clear();
+                }
+            } catch (IOException e) {
+                if (!closed && !overflowed) {
+                    logger.warning("Replication to " + socket.getRemoteSocketAddress() + " stopped: " + e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                sessions.remove(this);
+            }
+        }
+
+        private void sendSnapshot(DataOutputStream out, long snapshotSequence) throws IOException {
+            long start = System.nanoTime();
+            try {
+                long takenAt = ReplicationProtocol.wallClockNanos();
+                List<byte[]> batch = new ArrayList<>(MAX_BATCH);
+                for (Employee<T> employee : database.findEmployees(employee -> true)) {
+                    batch.add(ReplicationProtocol.encodeSave(codec, snapshotSequence, takenAt, employee));
+                    if (batch.size() == MAX_BATCH) {
+                        writeBatch(out, batch);
+                        batch.clear();
+                    }
+                }
+                writeBatch(out, batch);
+                logger.info("Sent snapshot at sequence " + snapshotSequence + " to " + socket.getRemoteSocketAddress());
+            } catch (IOException | RuntimeException e) {
+                SNAPSHOT_LATENCY.recordError();
+                throw e;
+            } finally {
+                SNAPSHOT_LATENCY.recordSince(start);
+            }
+        }
+
+        private void writeBatch(DataOutputStream out, List<byte[]> changes) throws IOException {
+            int length = 0;
+            for (byte[] change : changes) {
+                length += change.length;
+            }
+            out.writeByte(ReplicationProtocol.BATCH);
+            out.writeLong(sequence);
+            out.writeInt(changes.size());
+            out.writeInt(length);
+            for (byte[] change : changes) {
+                out.write(change);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.ibra.employeeapplication.backend.replication;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.exception.EmployeeNotFoundException;
+import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
+import com.ibra.employeeapplication.backend.exception.InvalidSalaryException;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Wire format of the replication stream. The leader sends frames, the follower only reads:
+ * <pre>
+ * HELLO        int magic, int version, long snapshotSequence
+ * BATCH        long leaderSequence, int changeCount, int byteLength, changes
+ * SNAPSHOT_END (no body)
+ * </pre>
+ * After HELLO the leader sends the snapshot as batches, then SNAPSHOT_END, then batches
+ * of the changes made after the snapshot started. An empty batch is a heartbeat that
+ * keeps the follower's view of the leader sequence current.
+ *
+ * A change is {@code byte op, long sequence, long committedAtNanos, id} followed, for a
+ * save, by the full employee and its version stamp. Every save carries the whole employee,
+ * so applying a change twice, or on top of a snapshot that already contains it, gives the
+ * same result, and a compare-and-set on the follower or after recovery sees the leader's
+ * version.
+ */
+final class ReplicationProtocol {
+    static final int MAGIC = 0x45524550; // "EREP"
+    static final int VERSION = 2;
+
+    static final byte HELLO = 1;
+    static final byte BATCH = 2;
+    static final byte SNAPSHOT_END = 3;
+
+    private static final byte SAVE = 1;
+    private static final byte REMOVE = 2;
+
+    private ReplicationProtocol() {
+    }
+
+    /**
+     * A decoded change; {@code employee} is null for a removal
+     */
+    static final class Change<T> {
+        final long sequence;
+        final long committedAtNanos;
+        final T employeeId;
+        final Employee<T> employee;
+
+        Change(long sequence, long committedAtNanos, T employeeId, Employee<T> employee) {
+            this.sequence = sequence;
+            this.committedAtNanos = committedAtNanos;
+            this.employeeId = employeeId;
+            this.employee = employee;
+        }
+    }
+
+    /**
+     * Wall-clock time in nanoseconds since the epoch, comparable between processes on
+     * hosts with synchronised clocks
+     */
+    static long wallClockNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    static <T> byte[] encodeSave(IdCodec<T> codec, long sequence, long committedAtNanos, Employee<T> employee) {
+        byte[] name = employee.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] department = employee.getDepartment().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize(codec) + Integer.BYTES + name.length
+                + Integer.BYTES + department.length + 2 * Double.BYTES + Integer.BYTES + 1 + Long.BYTES);
+        writeHeader(buffer, codec, SAVE, sequence, committedAtNanos, employee.getEmployeeId());
+        buffer.putInt(name.length).put(name);
+        buffer.putInt(department.length).put(department);
+        buffer.putDouble(employee.getSalary());
+        buffer.putDouble(employee.getPerformanceRating());
+        buffer.putInt(employee.getYearsOfExperience());
+        buffer.put((byte) (employee.isActive() ? 1 : 0));
+        buffer.putLong(employee.getVersion());
+        return buffer.array();
+    }
+
+    static <T> byte[] encodeRemove(IdCodec<T> codec, long sequence, long committedAtNanos, T employeeId) {
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize(codec));
+        writeHeader(buffer, codec, REMOVE, sequence, committedAtNanos, employeeId);
+        return buffer.array();
+    }
+
+    /**
+     * Decode the change at the buffer's position and move past it
+     */
+    static <T> Change<T> decode(ByteBuffer buffer, IdCodec<T> codec) throws IOException {
+        byte op = buffer.get();
+        long sequence = buffer.getLong();
+        long committedAtNanos = buffer.getLong();
+        T employeeId = codec.read(buffer, buffer.position());
+        buffer.position(buffer.position() + codec.byteSize());
+        if (op == REMOVE) {
+            return new Change<>(sequence, committedAtNanos, employeeId, null);
+        }
+        if (op != SAVE) {
+            throw new IOException("Unknown change type " + op + " at sequence " + sequence);
+        }
+
+        String name = readString(buffer);
+        String department = readString(buffer);
+        double salary = buffer.getDouble();
+        double performanceRating = buffer.getDouble();
+        int yearsOfExperience = buffer.getInt();
+        boolean active = buffer.get() != 0;
+        long version = buffer.getLong();
+        try {
+            Employee<T> employee = new Employee<>(employeeId, active, yearsOfExperience, salary,
+                    performanceRating, department, name);
+            employee.setVersion(version);
+            return new Change<>(sequence, committedAtNanos, employeeId, employee);
+        } catch (EmployeeNotFoundException | InvalidDepartmentException | InvalidSalaryException e) {
+            throw new IOException("Invalid employee " + employeeId + " at sequence " + sequence, e);
+        }
+    }
+
+    private static int headerSize(IdCodec<?> codec) {
+        return 1 + 2 * Long.BYTES + codec.byteSize();
+    }
+
+    private static <T> void writeHeader(ByteBuffer buffer, IdCodec<T> codec, byte op, long sequence,
+                                        long committedAtNanos, T employeeId) {
+        buffer.put(op).putLong(sequence).putLong(committedAtNanos);
+        codec.write(buffer, buffer.position(), employeeId);
+        buffer.position(buffer.position() + codec.byteSize());
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
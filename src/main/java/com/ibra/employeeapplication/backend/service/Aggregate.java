@@ -0,0 +1,114 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+/**
+ * One aggregate function of an {@link EmployeeAggregator} query, e.g. the average salary
+ * or the 90th percentile of the performance rating, computed for every group.
+ */
+public final class Aggregate {
+
+    /**
+     * The numeric employee fields an aggregate can read; the active flag counts as 1 or 0,
+     * so its sum is the number of active employees
+     */
+    public enum Field {
+        SALARY,
+        PERFORMANCE_RATING,
+        YEARS_OF_EXPERIENCE,
+        ACTIVE;
+
+        double valueOf(Employee<?> employee) {
+            switch (this) {
+                case SALARY:
+                    return employee.getSalary();
+                case PERFORMANCE_RATING:
+                    return employee.getPerformanceRating();
+                case YEARS_OF_EXPERIENCE:
+                    return employee.getYearsOfExperience();
+                default:
+                    return employee.isActive() ? 1 : 0;
+            }
+        }
+    }
+
+    public enum Function {
+        COUNT,
+        SUM,
+        AVERAGE,
+        MIN,
+        MAX,
+        PERCENTILE
+    }
+
+    private final Function function;
+    private final Field field;
+    private final double percentile;
+
+    private Aggregate(Function function, Field field, double percentile) {
+        this.function = function;
+        this.field = field;
+        this.percentile = percentile;
+    }
+
+    /**
+     * @return The number of employees in each group
+     */
+    public static Aggregate count() {
+        return new Aggregate(Function.COUNT, null, 0);
+    }
+
+    public static Aggregate sum(Field field) {
+        return new Aggregate(Function.SUM, field, 0);
+    }
+
+    public static Aggregate average(Field field) {
+        return new Aggregate(Function.AVERAGE, field, 0);
+    }
+
+    public static Aggregate min(Field field) {
+        return new Aggregate(Function.MIN, field, 0);
+    }
+
+    public static Aggregate max(Field field) {
+        return new Aggregate(Function.MAX, field, 0);
+    }
+
+    /**
+     * A percentile from a {@link SalarySketch} per group, so it is within
+     * {@link SalarySketch#DEFAULT_RELATIVE_ACCURACY} and values below one count as zero
+     * @param field The field
+     * @param percentile The percentile, from 0 to 100 (e.g. 50 for the median)
+     * @return The aggregate
+     */
+    public static Aggregate percentile(Field field, double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        return new Aggregate(Function.PERCENTILE, field, percentile);
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    /**
+     * @return The field, null for a count
+     */
+    public Field getField() {
+        return field;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    @Override
+    public String toString() {
+        if (function == Function.COUNT) {
+            return "count";
+        }
+        String name = function.name().toLowerCase() + "(" + field.name().toLowerCase();
+        return function == Function.PERCENTILE ? name + ", " + percentile + ")" : name + ")";
+    }
+}
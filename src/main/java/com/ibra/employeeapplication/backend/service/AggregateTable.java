@@ -0,0 +1,232 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collector;
+
+/**
+ * Aggregates of employees per group, filled in one pass by {@link EmployeeAggregator} or
+ * by a parallel stream through {@link #collector(GroupKey, List)}.
+ *
+ * Whatever the requested functions, each field they read is kept as a sum, a minimum and a
+ * maximum per group in primitive arrays indexed by group number times field, next to a
+ * count per group; a percentile adds a {@link SalarySketch} per group. Every function is
+ * answered from these, so asking for more of them costs no extra pass. Partial tables
+ * combine by adding the counters, and grow like {@link DepartmentTotals} when they meet a
+ * department that was added after they were created.
+ *
+ * Not thread-safe; parallel scans fill one table per thread and combine them.
+ */
+public final class AggregateTable {
+    private final GroupKey key;
+    private final Aggregate[] aggregates;
+    // The distinct fields read by the aggregates, and the field of each aggregate
+    private final Aggregate.Field[] fields;
+    private final int[] fieldOf;
+    private final boolean[] sketched;
+
+    private long[] counts;
+    private double[] sums;
+    private double[] mins;
+    private double[] maxes;
+    private SalarySketch[] sketches;
+
+    /**
+     * @param key What to group the employees by
+     * @param aggregates The functions to compute for each group
+     */
+    public AggregateTable(GroupKey key, List<Aggregate> aggregates) {
+        this.key = key;
+        this.aggregates = aggregates.toArray(new Aggregate[0]);
+        List<Aggregate.Field> distinct = new ArrayList<>();
+        fieldOf = new int[this.aggregates.length];
+        for (int i = 0; i < this.aggregates.length; i++) {
+            Aggregate.Field field = this.aggregates[i].getField();
+            if (field != null && !distinct.contains(field)) {
+                distinct.add(field);
+            }
+            fieldOf[i] = distinct.indexOf(field);
+        }
+        fields = distinct.toArray(new Aggregate.Field[0]);
+        sketched = new boolean[fields.length];
+        for (int i = 0; i < this.aggregates.length; i++) {
+            if (this.aggregates[i].getFunction() == Aggregate.Function.PERCENTILE) {
+                sketched[fieldOf[i]] = true;
+            }
+        }
+
+        int groups = key.initialGroups();
+        counts = new long[groups];
+        sums = new double[groups * fields.length];
+        mins = new double[groups * fields.length];
+        maxes = new double[groups * fields.length];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxes, Double.NEGATIVE_INFINITY);
+        sketches = new SalarySketch[groups * fields.length];
+    }
+
+    /**
+     * @param key What to group the employees by
+     * @param aggregates The functions to compute for each group
+     * @return A collector filling a table, e.g. from a parallel stream of employees
+     */
+    public static <T> Collector<Employee<T>, ?, AggregateTable> collector(GroupKey key, List<Aggregate> aggregates) {
+        return Collector.of(() -> new AggregateTable(key, aggregates), AggregateTable::add, AggregateTable::combine);
+    }
+
+    public void add(Employee<?> employee) {
+        int group = key.groupOf(employee);
+        if (group >= counts.length) {
+            grow(group + 1);
+        }
+        counts[group]++;
+        int base = group * fields.length;
+        for (int f = 0; f < fields.length; f++) {
+            double value = fields[f].valueOf(employee);
+            int i = base + f;
+            sums[i] += value;
+            if (value < mins[i]) {
+                mins[i] = value;
+            }
+            if (value > maxes[i]) {
+                maxes[i] = value;
+            }
+            if (sketched[f]) {
+                sketch(i).add(value);
+            }
+        }
+    }
+
+    /**
+     * Add the groups of another table with the same key and aggregates to this one
+     * @return This table
+     */
+    public AggregateTable combine(AggregateTable other) {
+        if (other.counts.length > counts.length) {
+            grow(other.counts.length);
+        }
+        for (int group = 0; group < other.counts.length; group++) {
+            counts[group] += other.counts[group];
+        }
+        for (int i = 0; i < other.sums.length; i++) {
+            sums[i] += other.sums[i];
+            mins[i] = Math.min(mins[i], other.mins[i]);
+            maxes[i] = Math.max(maxes[i], other.maxes[i]);
+            if (other.sketches[i] != null) {
+                sketch(i).merge(other.sketches[i]);
+            }
+        }
+        return this;
+    }
+
+    public GroupKey getKey() {
+        return key;
+    }
+
+    public List<Aggregate> getAggregates() {
+        return List.of(aggregates);
+    }
+
+    /**
+     * @return Number of group numbers covered, some of which may have no employees
+     */
+    public int groupCount() {
+        return counts.length;
+    }
+
+    /**
+     * @return Number of employees in all groups
+     */
+    public long getEmployeeCount() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public String label(int group) {
+        return key.label(group);
+    }
+
+    public long count(int group) {
+        return counts[group];
+    }
+
+    /**
+     * @param group A group number
+     * @param aggregate Position of the aggregate in the list the table was created with
+     * @return The value of the aggregate for the group, 0 if the group has no employees
+     */
+    public double value(int group, int aggregate) {
+        long count = counts[group];
+        if (count == 0) {
+            return 0;
+        }
+        int i = group * fields.length + fieldOf[aggregate];
+        switch (aggregates[aggregate].getFunction()) {
+            case COUNT:
+                return count;
+            case SUM:
+                return sums[i];
+            case AVERAGE:
+                return sums[i] / count;
+            case MIN:
+                return mins[i];
+            case MAX:
+                return maxes[i];
+            default:
+                return sketches[i].quantile(aggregates[aggregate].getPercentile() / 100);
+        }
+    }
+
+    /**
+     * @param aggregate Position of the aggregate in the list the table was created with
+     * @return Map of group names to the value of the aggregate, for the groups with employees
+     */
+    public Map<String, Double> toMap(int aggregate) {
+        Map<String, Double> result = new HashMap<>();
+        for (int group = 0; group < counts.length; group++) {
+            if (counts[group] > 0) {
+                result.put(label(group), value(group, aggregate));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Map of group names to the number of employees, for the groups with employees
+     */
+    public Map<String, Long> counts() {
+        Map<String, Long> result = new HashMap<>();
+        for (int group = 0; group < counts.length; group++) {
+            if (counts[group] > 0) {
+                result.put(label(group), counts[group]);
+            }
+        }
+        return result;
+    }
+
+    private SalarySketch sketch(int i) {
+        if (sketches[i] == null) {
+            sketches[i] = new SalarySketch();
+        }
+        return sketches[i];
+    }
+
+    private void grow(int groups) {
+        int previous = sums.length;
+        counts = Arrays.copyOf(counts, groups);
+        sums = Arrays.copyOf(sums, groups * fields.length);
+        mins = Arrays.copyOf(mins, groups * fields.length);
+        maxes = Arrays.copyOf(maxes, groups * fields.length);
+        Arrays.fill(mins, previous, mins.length, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxes, previous, maxes.length, Double.NEGATIVE_INFINITY);
+        sketches = Arrays.copyOf(sketches, groups * fields.length);
+    }
+}
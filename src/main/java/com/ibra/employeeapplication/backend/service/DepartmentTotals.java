@@ -0,0 +1,104 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.DepartmentDictionary;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-department sums and counts indexed by department code, used as the container of
+ * {@link EmployeeDB#aggregate}. Grows when it meets a department that was added after
+ * it was created, so partial totals from parallel scans can always be combined.
+ */
+final class DepartmentTotals {
+    private double[] sums;
+    private long[] counts;
+
+    DepartmentTotals() {
+        int departments = DepartmentDictionary.getInstance().size();
+        sums = new double[departments];
+        counts = new long[departments];
+    }
+
+    void add(int departmentCode, double value) {
+        if (departmentCode >= sums.length) {
+            grow(departmentCode + 1);
+        }
+        sums[departmentCode] += value;
+        counts[departmentCode]++;
+    }
+
+    /**
+     * Add the totals of several employees at once
+     */
+    void add(int departmentCode, double sum, long count) {
+        if (departmentCode >= sums.length) {
+            grow(departmentCode + 1);
+        }
+        sums[departmentCode] += sum;
+        counts[departmentCode] += count;
+    }
+
+    DepartmentTotals combine(DepartmentTotals other) {
+        if (other.sums.length > sums.length) {
+            grow(other.sums.length);
+        }
+        for (int code = 0; code < other.sums.length; code++) {
+            sums[code] += other.sums[code];
+            counts[code] += other.counts[code];
+        }
+        return this;
+    }
+
+    Map<String, Double> sums() {
+        Map<String, Double> result = new HashMap<>();
+        for (int code = 0; code < sums.length; code++) {
+            if (counts[code] > 0) {
+                result.put(DepartmentDictionary.getInstance().decode(code), sums[code]);
+            }
+        }
+        return result;
+    }
+
+    Map<String, Double> averages() {
+        Map<String, Double> result = new HashMap<>();
+        for (int code = 0; code < sums.length; code++) {
+            if (counts[code] > 0) {
+                result.put(DepartmentDictionary.getInstance().decode(code), sums[code] / counts[code]);
+            }
+        }
+        return result;
+    }
+
+    Map<String, Long> counts() {
+        Map<String, Long> result = new HashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(DepartmentDictionary.getInstance().decode(code), counts[code]);
+            }
+        }
+        return result;
+    }
+
+    double totalSum() {
+        double total = 0;
+        for (double sum : sums) {
+            total += sum;
+        }
+        return total;
+    }
+
+    long totalCount() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    private void grow(int length) {
+        sums = Arrays.copyOf(sums, length);
+        counts = Arrays.copyOf(counts, length);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Group-by queries over the roster: pick a {@link GroupKey} and any number of
+ * {@link Aggregate} functions, and all of them are computed for every group in a single
+ * pass, e.g. the count, average salary and median rating per experience band.
+ *
+ * The pass goes through {@link EmployeeDB#aggregate}, so a sharded database scans its
+ * shards in parallel, off-heap storage scans its slabs in parallel through cursors without
+ * creating employee objects, and other storage is split through its spliterator; the
+ * partial tables are then combined.
+ */
+public class EmployeeAggregator<T> {
+    private static final LatencyRecorder GROUP_BY_LATENCY = OperationMetrics.recorder("EmployeeAggregator.groupBy");
+
+    private EmployeeDB<T> database;
+
+    public EmployeeAggregator(EmployeeDB<T> database) {
+        this.database = database;
+    }
+
+    /**
+     * Aggregate all employees by group
+     * @param key What to group the employees by
+     * @param aggregates The functions to compute for each group
+     * @return The value of each function for each group
+     */
+    public AggregateTable groupBy(GroupKey key, List<Aggregate> aggregates) {
+        return groupBy(key, employee -> true, aggregates);
+    }
+
+    /**
+     * Aggregate the employees matching a filter by group
+     * @param key What to group the employees by
+     * @param filter The employees to include, e.g. Employee::isActive
+     * @param aggregates The functions to compute for each group
+     * @return The value of each function for each group
+     */
+    public AggregateTable groupBy(GroupKey key, Predicate<? super Employee<T>> filter, List<Aggregate> aggregates) {
+        long start = System.nanoTime();
+        try {
+            if (aggregates.isEmpty()) {
+                throw new IllegalArgumentException("At least one aggregate is required");
+            }
+            return database.aggregate(() -> new AggregateTable(key, aggregates), (table, employee) -> {
+                if (filter.test(employee)) {
+                    table.add(employee);
+                }
+            }, AggregateTable::combine);
+        } catch (RuntimeException e) {
+            GROUP_BY_LATENCY.recordError();
+            throw e;
+        } finally {
+            GROUP_BY_LATENCY.recordSince(start);
+        }
+    }
+}
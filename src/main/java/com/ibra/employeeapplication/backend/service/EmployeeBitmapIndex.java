@@ -0,0 +1,220 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Bitmap indexes over the active flag, performance rating and department of every
+ * employee, kept up to date as a change listener of the database.
+ *
+ * Each employee gets a dense row number, reused after it is removed, and each indexed
+ * value a {@link RowBitmap} of the rows that have it: one for the active employees, one
+ * per half point of rating and one per department code. A search combines the bitmaps
+ * with word-level AND and OR and only looks at the employees in the result, instead of
+ * testing every employee. The selected employees are still checked against the exact
+ * condition, which also covers the part of the rating bucket below the minimum.
+ *
+ * Rows are found by ID through a {@link RowIdIndex} and no employee is kept: a search looks
+ * the selected IDs up in the database, so the index adds no object per employee to the
+ * heap when it follows off-heap storage.
+ */
+final class EmployeeBitmapIndex<T> implements EmployeeChangeListener<T> {
+    /**
+     * Department code that selects every department
+     */
+    static final int ANY_DEPARTMENT = Integer.MIN_VALUE;
+
+    // Half a point of rating per bucket, the last one for a perfect 5
+    private static final int RATING_BUCKETS = 11;
+    private static final int INITIAL_ROWS = 1024;
+
+    private final EmployeeDB<T> database;
+    private final RowIdIndex<T> rows;
+    // What each row was indexed under, so a change can take it out of the old bitmaps
+    private int[] departmentCodes = new int[INITIAL_ROWS];
+    private byte[] ratingBuckets = new byte[INITIAL_ROWS];
+    private boolean[] activeRows = new boolean[INITIAL_ROWS];
+    private int rowLimit;
+    private int[] freeRows = new int[16];
+    private int freeCount;
+
+    private final RowBitmap live = new RowBitmap();
+    private final RowBitmap active = new RowBitmap();
+    private final RowBitmap[] ratings = new RowBitmap[RATING_BUCKETS];
+    private final List<RowBitmap> departments = new ArrayList<>();
+
+    private EmployeeBitmapIndex(EmployeeDB<T> database) {
+        this.database = database;
+        this.rows = new RowIdIndex<>(database.idCodec(), INITIAL_ROWS);
+        for (int i = 0; i < RATING_BUCKETS; i++) {
+            ratings[i] = new RowBitmap();
+        }
+    }
+
+    /**
+     * Index a database and keep the index up to date. The listener is registered before
+     * the roster is scanned, so no change is missed while it runs. Each scanned employee is
+     * looked up again under the index lock, which removals also take, so an employee removed
+     * during the scan is not indexed after its removal was handled.
+     * @param database The database to follow
+     * @return The index
+     */
+    static <T> EmployeeBitmapIndex<T> follow(EmployeeDB<T> database) {
+        EmployeeBitmapIndex<T> index = new EmployeeBitmapIndex<>(database);
+        database.addChangeListener(index);
+        // Collected first, since each employee is looked up again under the index lock
+        List<Employee<T>> roster = database.findEmployees(employee -> true);
+        synchronized (index) {
+            for (Employee<T> employee : roster) {
+                Employee<T> stored = database.stored(employee.getEmployeeId());
+                if (stored != null) {
+                    index.index(stored);
+                }
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public void employeeSaved(Employee<T> employee) {
+        // Indexed as stored now, which may be newer than the announced change or already removed
+        synchronized (this) {
+            Employee<T> stored = database.stored(employee.getEmployeeId());
+            if (stored != null) {
+                index(stored);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void employeeRemoved(T employeeId) {
+        int row = rows.remove(employeeId);
+        if (row < 0) {
+            return;
+        }
+        unindex(row);
+        live.remove(row);
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeCount << 1);
+        }
+        freeRows[freeCount++] = row;
+    }
+
+    /**
+     * Select employees by the indexed values, then check them against the exact condition
+     * @param departmentCode Department the employees must be in, or {@link #ANY_DEPARTMENT}
+     * @param minRating Minimum performance rating, 0 for any rating
+     * @param activeOnly true to select active employees only
+     * @param filter The exact condition, which every selected employee must also meet
+     * @return The matching employees that are still stored, in row order
+     */
+    synchronized List<Employee<T>> find(int departmentCode, double minRating, boolean activeOnly,
+                                        Predicate<? super Employee<T>> filter) {
+        RowBitmap selected = null;
+        if (departmentCode != ANY_DEPARTMENT) {
+            if (departmentCode < 0 || departmentCode >= departments.size()) {
+                return new ArrayList<>();
+            }
+            selected = departments.get(departmentCode);
+        }
+        if (activeOnly) {
+            selected = selected == null ? active : selected.and(active);
+        }
+        if (minRating > 0) {
+            RowBitmap rated = ratingAtLeast(minRating);
+            selected = selected == null ? rated : selected.and(rated);
+        }
+        if (selected == null) {
+            selected = live;
+        }
+
+        List<Employee<T>> matches = new ArrayList<>(selected.cardinality());
+        selected.forEach(row -> {
+            Employee<T> employee = database.stored(rows.idAt(row));
+            if (employee != null && filter.test(employee)) {
+                matches.add(employee);
+            }
+        });
+        return matches;
+    }
+
+    /**
+     * @return Approximate bytes used by the bitmaps and the per-row arrays, without the ID objects
+     */
+    synchronized long getMemoryBytes() {
+        long bytes = live.getMemoryBytes() + active.getMemoryBytes();
+        for (RowBitmap bitmap : ratings) {
+            bytes += bitmap.getMemoryBytes();
+        }
+        for (RowBitmap bitmap : departments) {
+            bytes += bitmap.getMemoryBytes();
+        }
+        return bytes + rows.getMemoryBytes() + (long) departmentCodes.length * (Integer.BYTES + 1 + 1);
+    }
+
+    private RowBitmap ratingAtLeast(double minRating) {
+        // The first bucket may hold ratings below the minimum, the exact check drops them
+        RowBitmap rated = ratings[bucketOf(minRating)];
+        for (int bucket = bucketOf(minRating) + 1; bucket < RATING_BUCKETS; bucket++) {
+            rated = rated.or(ratings[bucket]);
+        }
+        return rated;
+    }
+
+    private void index(Employee<T> employee) {
+        T employeeId = employee.getEmployeeId();
+        int row = rows.rowOf(employeeId);
+        if (row < 0) {
+            row = allocateRow();
+            rows.add(employeeId, row);
+            live.add(row);
+        } else {
+            unindex(row);
+        }
+        departmentCodes[row] = employee.getDepartmentCode();
+        ratingBuckets[row] = (byte) bucketOf(employee.getPerformanceRating());
+        activeRows[row] = employee.isActive();
+
+        while (departments.size() <= departmentCodes[row]) {
+            departments.add(new RowBitmap());
+        }
+        departments.get(departmentCodes[row]).add(row);
+        ratings[ratingBuckets[row]].add(row);
+        if (activeRows[row]) {
+            active.add(row);
+        }
+    }
+
+    private void unindex(int row) {
+        departments.get(departmentCodes[row]).remove(row);
+        ratings[ratingBuckets[row]].remove(row);
+        if (activeRows[row]) {
+            active.remove(row);
+        }
+    }
+
+    private int allocateRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (rowLimit == departmentCodes.length) {
+            int capacity = departmentCodes.length << 1;
+            rows.grow(capacity);
+            departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+            ratingBuckets = Arrays.copyOf(ratingBuckets, capacity);
+            activeRows = Arrays.copyOf(activeRows, capacity);
+        }
+        return rowLimit++;
+    }
+
+    private static int bucketOf(double rating) {
+        if (!(rating > 0)) {
+            return 0;
+        }
+        return (int) Math.min(RATING_BUCKETS - 1, rating * 2);
+    }
+}
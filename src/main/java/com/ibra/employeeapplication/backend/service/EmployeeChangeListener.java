@@ -0,0 +1,30 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+/**
+ * Receives every change made through an {@link EmployeeDB}, after it is applied.
+ *
+ * Listeners run on the writing thread, so they should be quick. The employee passed in
+ * is the stored object and may change again later; a listener that needs the state at
+ * the time of the change has to copy it before returning.
+ *
+ * Listeners are called once the lock of the employee's ID is released, so two changes to
+ * the same employee made by different threads may be announced in either order. A listener
+ * that records the changes in order reads the current state with
+ * {@link EmployeeDB#readCurrent} instead of trusting the order of the calls.
+ */
+public interface EmployeeChangeListener<T> {
+
+    /**
+     * An employee was added, or changed in place (e.g. a salary raise)
+     * @param employee The employee, in its new state
+     */
+    void employeeSaved(Employee<T> employee);
+
+    /**
+     * An employee was removed
+     * @param employeeId The ID of the removed employee
+     */
+    void employeeRemoved(T employeeId);
+}
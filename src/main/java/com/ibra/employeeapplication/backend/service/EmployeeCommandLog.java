@@ -0,0 +1,483 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
+import com.ibra.employeeapplication.backend.exception.InvalidSalaryException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Undo and redo for the changes made to a database, see {@link EmployeeDB#recordCommands(int)}.
+ *
+ * Every change is kept as the small command that reverts it: the removed employee for a
+ * removal, the old value of the field for an update, and for a bulk raise the old salaries
+ * in one primitive array next to the IDs. The commands live in a ring buffer of fixed
+ * capacity; once it is full the oldest command is dropped. Recording a new change discards
+ * the commands that were undone and could still be redone, as in any editor.
+ *
+ * Undo and redo apply the change through the database, so change listeners see them like
+ * any other change, but they are not recorded again. Grouping several changes into one
+ * command assumes a single writer, such as the UI thread.
+ */
+public class EmployeeCommandLog<T> {
+    private final EmployeeDB<T> database;
+    private final Command<T>[] ring;
+    // Commands [top - undoable, top) can be undone, [top, top + redoable) redone, modulo the capacity
+    private int top;
+    private int undoable;
+    private int redoable;
+    private boolean applying;
+    private Group<T> openGroup;
+    private int groupDepth;
+
+    @SuppressWarnings("unchecked")
+    EmployeeCommandLog(EmployeeDB<T> database, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.database = database;
+        this.ring = new Command[capacity];
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    public synchronized boolean canUndo() {
+        return undoable > 0;
+    }
+
+    public synchronized boolean canRedo() {
+        return redoable > 0;
+    }
+
+    /**
+     * @return What the next undo reverts, e.g. "Delete John Doe", or null if there is nothing to undo
+     */
+    public synchronized String getUndoDescription() {
+        return undoable == 0 ? null : ring[index(top - 1)].describe();
+    }
+
+    /**
+     * @return What the next redo applies again, or null if there is nothing to redo
+     */
+    public synchronized String getRedoDescription() {
+        return redoable == 0 ? null : ring[index(top)].describe();
+    }
+
+    /**
+     * Revert the latest change that was not undone yet
+     * @return What was reverted, or null if there was nothing to undo
+     */
+    public synchronized String undo() {
+        if (undoable == 0) {
+            return null;
+        }
+        Command<T> command = ring[index(top - 1)];
+        apply(command, false);
+        top = index(top - 1);
+        undoable--;
+        redoable++;
+        return command.describe();
+    }
+
+    /**
+     * Apply the latest undone change again
+     * @return What was applied, or null if there was nothing to redo
+     */
+    public synchronized String redo() {
+        if (redoable == 0) {
+            return null;
+        }
+        Command<T> command = ring[index(top)];
+        apply(command, true);
+        top = index(top + 1);
+        redoable--;
+        undoable++;
+        return command.describe();
+    }
+
+    /**
+     * Forget every command
+     */
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        top = 0;
+        undoable = 0;
+        redoable = 0;
+    }
+
+    /**
+     * @return false while an undo or redo applies its change, which must not be recorded
+     */
+    synchronized boolean isRecording() {
+        return !applying;
+    }
+
+    synchronized void record(Command<T> command) {
+        if (applying) {
+            return;
+        }
+        if (openGroup != null) {
+            openGroup.commands.add(command);
+            return;
+        }
+        // Dropping the redoable commands lets go of what they hold
+        for (int i = 0; i < redoable; i++) {
+            ring[index(top + i)] = null;
+        }
+        redoable = 0;
+        ring[top] = command;
+        top = index(top + 1);
+        undoable = Math.min(undoable + 1, ring.length);
+    }
+
+    /**
+     * Record the changes until the matching {@link #endGroup()} as one command
+     * @param description What the changes do together
+     */
+    synchronized void beginGroup(String description) {
+        if (groupDepth++ == 0 && !applying) {
+            openGroup = new Group<>(description);
+        }
+    }
+
+    synchronized void endGroup() {
+        if (--groupDepth == 0 && openGroup != null) {
+            Group<T> group = openGroup;
+            openGroup = null;
+            if (!group.commands.isEmpty()) {
+                record(group);
+            }
+        }
+    }
+
+    private void apply(Command<T> command, boolean forward) {
+        applying = true;
+        try {
+            if (forward) {
+                command.redo(database);
+            } else {
+                command.undo(database);
+            }
+        } finally {
+            applying = false;
+        }
+    }
+
+    private int index(int position) {
+        return Math.floorMod(position, ring.length);
+    }
+
+    /**
+     * A recorded change that knows how to revert itself and apply itself again
+     */
+    interface Command<T> {
+        String describe();
+
+        void undo(EmployeeDB<T> database);
+
+        void redo(EmployeeDB<T> database);
+    }
+
+    static <T> Command<T> added(Employee<T> employee) {
+        return new Added<>(employee);
+    }
+
+    static <T> Command<T> removed(Employee<T> employee) {
+        return new Removed<>(employee);
+    }
+
+    static <T> Command<T> addedAll(List<Employee<T>> employees) {
+        return new AddedAll<>(employees);
+    }
+
+    static <T> Command<T> removedAll(List<Employee<T>> employees) {
+        return new RemovedAll<>(employees);
+    }
+
+    static <T> Command<T> fieldUpdated(Employee<T> employee, String field, Object oldValue, Object newValue) {
+        return new FieldUpdated<>(employee.getEmployeeId(), employee.getName(), field, oldValue, newValue);
+    }
+
+    /**
+     * @param employeeIds The employees that got the raise
+     * @param oldSalaries Their salaries before it, in the same order
+     * @param multiplier What each salary was multiplied by
+     */
+    static <T> Command<T> salariesRaised(String description, Object[] employeeIds, double[] oldSalaries,
+                                         double multiplier) {
+        return new SalariesRaised<>(description, employeeIds, oldSalaries, multiplier);
+    }
+
+    /**
+     * @param employeeIds The patched employees
+     * @param before The values the patched fields had, in the same order
+     */
+    static <T> Command<T> patched(String description, Object[] employeeIds, EmployeePatch patch,
+                                  EmployeePatch.Before before) {
+        return new Patched<>(description, employeeIds, patch, before);
+    }
+
+    private static <T> Set<T> idsOf(List<Employee<T>> employees) {
+        Set<T> ids = HashSet.newHashSet(employees.size());
+        for (Employee<T> employee : employees) {
+            ids.add(employee.getEmployeeId());
+        }
+        return ids;
+    }
+
+    private static final class Added<T> implements Command<T> {
+        private final Employee<T> employee;
+
+        Added(Employee<T> employee) {
+            this.employee = employee;
+        }
+
+        @Override
+        public String describe() {
+            return "Add " + employee.getName();
+        }
+
+        @Override
+        public void undo(EmployeeDB<T> database) {
+            database.removeEmployee(employee.getEmployeeId());
+        }
+
+        @Override
+        public void redo(EmployeeDB<T> database) {
+            database.addEmployee(employee);
+        }
+    }
+
+    private static final class Removed<T> implements Command<T> {
+        private final Employee<T> employee;
+
+        Removed(Employee<T> employee) {
+            this.employee = employee;
+        }
+
+        @Override
+        public String describe() {
+            return "Delete " + employee.getName();
+        }
+
+        @Override
+        public void undo(EmployeeDB<T> database) {
+            database.addEmployee(employee);
+        }
+
+        @Override
+        public void redo(EmployeeDB<T> database) {
+            database.removeEmployee(employee.getEmployeeId());
+        }
+    }
+
+    private static final class AddedAll<T> implements Command<T> {
+        private final List<Employee<T>> employees;
+
+        AddedAll(List<Employee<T>> employees) {
+            this.employees = employees;
+        }
+
+        @Override
+        public String describe() {
+            return "Add " + employees.size() + " employees";
+        }
+
+        @Override
+        public void undo(EmployeeDB<T> database) {
+            Set<T> ids = idsOf(employees);
+            database.removeIf(employee -> ids.contains(employee.getEmployeeId()));
+        }
+
+        @Override
+        public void redo(EmployeeDB<T> database) {
+            database.addEmployees(employees);
+        }
+    }
+
+    private static final class RemovedAll<T> implements Command<T> {
+        // Detached copies, since storage may reuse the removed records
+        private final List<Employee<T>> employees;
+
+        RemovedAll(List<Employee<T>> employees) {
+            this.employees = employees;
+        }
+
+        @Override
+        public String describe() {
+            return "Delete " + employees.size() + " employees";
+        }
+
+        @Override
+        public void undo(EmployeeDB<T> database) {
+            database.addEmployees(employees);
+        }
+
+        @Override
+        public void redo(EmployeeDB<T> database) {
+            Set<T> ids = idsOf(employees);
+            database.removeIf(employee -> ids.contains(employee.getEmployeeId()));
+        }
+    }
+
+    private static final class FieldUpdated<T> implements Command<T> {
+        private final T employeeId;
+        private final String name;
+        private final String field;
+        private final Object oldValue;
+        private final Object newValue;
+
+        FieldUpdated(T employeeId, String name, String field, Object oldValue, Object newValue) {
+            this.employeeId = employeeId;
+            this.name = name;
+            this.field = field;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        @Override
+        public String describe() {
+            return "Edit " + field + " of " + name;
+        }
+
+        @Override
+        public void undo(EmployeeDB<T> database) {
+            set(database, oldValue);
+        }
+
+        @Override
+        public void redo(EmployeeDB<T> database) {
+            set(database, newValue);
+        }
+
+        private void set(EmployeeDB<T> database, Object value) {
+            try {
+                database.updateEmployeeDetails(employeeId, field, value);
+            } catch (Exception e) {
+                // The value was valid when it was recorded, and later changes are undone first
+                throw new IllegalStateException("Could not restore " + field + " of " + name, e);
+            }
+        }
+    }
+
+    private static final class SalariesRaised<T> implements Command<T> {
+        private final String description;
+        private final Object[] employeeIds;
+        private final double[] oldSalaries;
+        private final double multiplier;
+
+        SalariesRaised(String description, Object[] employeeIds, double[] oldSalaries, double multiplier) {
+            this.description = description;
+            this.employeeIds = employeeIds;
+            this.oldSalaries = oldSalaries;
+            this.multiplier = multiplier;
+        }
+
+        @Override
+        public String describe() {
+            return description;
+        }
+
+        @Override
+        public void undo(EmployeeDB<T> database) {
+            for (int i = employeeIds.length - 1; i >= 0; i--) {
+                setSalary(database, i, oldSalaries[i]);
+            }
+        }
+
+        @Override
+        public void redo(EmployeeDB<T> database) {
+            for (int i = 0; i < employeeIds.length; i++) {
+                // The same product as the raise computed, so the salaries come back bit for bit
+                setSalary(database, i, oldSalaries[i] * multiplier);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void setSalary(EmployeeDB<T> database, int i, double salary) {
+            try {
+                database.modify((T) employeeIds[i], employee -> employee.setSalary(salary));
+            } catch (InvalidSalaryException | InvalidDepartmentException e) {
+                throw new IllegalStateException("Could not restore a salary", e);
+            }
+        }
+    }
+
+    private static final class Patched<T> implements Command<T> {
+        private final String description;
+        private final Object[] employeeIds;
+        private final EmployeePatch patch;
+        private final EmployeePatch.Before before;
+
+        Patched(String description, Object[] employeeIds, EmployeePatch patch, EmployeePatch.Before before) {
+            this.description = description;
+            this.employeeIds = employeeIds;
+            this.patch = patch;
+            this.before = before;
+        }
+
+        @Override
+        public String describe() {
+            return description;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void undo(EmployeeDB<T> database) {
+            for (int i = employeeIds.length - 1; i >= 0; i--) {
+                int position = i;
+                try {
+                    database.modify((T) employeeIds[i], employee -> before.restore(employee, position));
+                } catch (InvalidSalaryException | InvalidDepartmentException e) {
+                    throw new IllegalStateException("Could not restore " + patch.fields(), e);
+                }
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void redo(EmployeeDB<T> database) {
+            for (Object employeeId : employeeIds) {
+                try {
+                    database.modify((T) employeeId, patch::applyTo);
+                } catch (InvalidSalaryException | InvalidDepartmentException e) {
+                    throw new IllegalStateException("Could not apply " + patch.fields() + " again", e);
+                }
+            }
+        }
+    }
+
+    private static final class Group<T> implements Command<T> {
+        private final String description;
+        private final List<Command<T>> commands = new ArrayList<>();
+
+        Group(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String describe() {
+            return description;
+        }
+
+        @Override
+        public void undo(EmployeeDB<T> database) {
+            for (int i = commands.size() - 1; i >= 0; i--) {
+                commands.get(i).undo(database);
+            }
+        }
+
+        @Override
+        public void redo(EmployeeDB<T> database) {
+            for (Command<T> command : commands) {
+                command.redo(database);
+            }
+        }
+    }
+}
@@ -4,49 +4,173 @@ import com.ibra.employeeapplication.backend.entity.Employee;
 import com.ibra.employeeapplication.backend.exception.EmployeeNotFoundException;
 import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
 import com.ibra.employeeapplication.backend.exception.InvalidSalaryException;
+import com.ibra.employeeapplication.backend.exception.StaleEmployeeException;
+import com.ibra.employeeapplication.backend.monitoring.EmployeeMutationEvent;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
 
 import javax.naming.InvalidNameException;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
+import java.util.stream.Collector;
+import java.util.stream.StreamSupport;
 
 public class EmployeeDB<T> {
     private static final Logger logger = Logger.getLogger(EmployeeDB.class.getName());
+    private static final int UPDATE_LOCK_STRIPES = 64;
+
+    private static final LatencyRecorder ADD_EMPLOYEE_LATENCY = OperationMetrics.recorder("EmployeeDB.addEmployee");
+    private static final LatencyRecorder ADD_EMPLOYEES_LATENCY = OperationMetrics.recorder("EmployeeDB.addEmployees");
+    private static final LatencyRecorder REMOVE_EMPLOYEE_LATENCY = OperationMetrics.recorder("EmployeeDB.removeEmployee");
+    private static final LatencyRecorder REMOVE_IF_LATENCY = OperationMetrics.recorder("EmployeeDB.removeIf");
+    private static final LatencyRecorder UPDATE_WHERE_LATENCY = OperationMetrics.recorder("EmployeeDB.updateWhere");
+    private static final LatencyRecorder UPDATE_EMPLOYEE_DETAILS_LATENCY = OperationMetrics.recorder("EmployeeDB.updateEmployeeDetails");
+    private static final LatencyRecorder COMPARE_AND_UPDATE_LATENCY = OperationMetrics.recorder("EmployeeDB.compareAndUpdate");
+    private static final LatencyRecorder GET_ALL_EMPLOYEES_LATENCY = OperationMetrics.recorder("EmployeeDB.getAllEmployees");
+    private static final LatencyRecorder GET_ALL_EMPLOYEES_SORTED_LATENCY = OperationMetrics.recorder("EmployeeDB.getAllEmployeesSorted");
+    private static final LatencyRecorder FIND_EMPLOYEES_LATENCY = OperationMetrics.recorder("EmployeeDB.findEmployees");
+    private static final LatencyRecorder FOR_EACH_EMPLOYEE_LATENCY = OperationMetrics.recorder("EmployeeDB.forEachEmployee");
+    private static final LatencyRecorder AGGREGATE_LATENCY = OperationMetrics.recorder("EmployeeDB.aggregate");
+    private static final LatencyRecorder FIND_TOP_LATENCY = OperationMetrics.recorder("EmployeeDB.findTop");
+    private static final LatencyRecorder GET_EMPLOYEE_BY_ID_LATENCY = OperationMetrics.recorder("EmployeeDB.getEmployeeById");
+    private static final LatencyRecorder GET_EMPLOYEE_COUNT_LATENCY = OperationMetrics.recorder("EmployeeDB.getEmployeeCount");
+    private static final LatencyRecorder DISPLAY_ALL_EMPLOYEES_LATENCY = OperationMetrics.recorder("EmployeeDB.displayAllEmployees");
+    private static final LatencyRecorder AS_OF_LATENCY = OperationMetrics.recorder("EmployeeDB.asOf");
+    private static final LatencyRecorder GET_EMPLOYEE_BY_ID_AS_OF_LATENCY = OperationMetrics.recorder("EmployeeDB.getEmployeeByIdAsOf");
+    private static final LatencyRecorder GET_EMPLOYEE_COUNT_AS_OF_LATENCY = OperationMetrics.recorder("EmployeeDB.getEmployeeCountAsOf");
 
     // HashMap to store employees with employeeId as key
     private Map<T, Employee<T>> employees;
+    private final List<EmployeeChangeListener<T>> listeners = new CopyOnWriteArrayList<>();
+    // Locks striped by ID hash, so editors of different employees never wait for each other
+    private final Object[] updateLocks = new Object[UPDATE_LOCK_STRIPES];
+    // Versioned records for the as-of queries, created by recordHistory()
+    private volatile EmployeeTimeline<T> timeline;
+    // Undo and redo, created by recordCommands()
+    private volatile EmployeeCommandLog<T> commandLog;
+    // Indexes kept up to date for the services, one of each kind, created by follower()
+    private final Map<Class<?>, Object> followers = new HashMap<>();
+
+    {
+        for (int i = 0; i < updateLocks.length; i++) {
+            updateLocks[i] = new Object();
+        }
+    }
 
     // Constructor
     public EmployeeDB() {
         this.employees = new HashMap<>();
     }
 
+    /**
+     * Constructor for specialized databases that bring their own storage
+     * @param storage Empty map to store employees with employeeId as key
+     */
+    protected EmployeeDB(Map<T, Employee<T>> storage) {
+        if (storage == null || !storage.isEmpty()) {
+            throw new IllegalArgumentException("Storage must be an empty map");
+        }
+        this.employees = storage;
+    }
+
     /**
      * Add a new employee to the database
      * @param employee The employee to add
      * @return true if added successfully, false if employee with same ID already exists
      */
     public boolean addEmployee(Employee<T> employee) {
+        long start = System.nanoTime();
+        EmployeeMutationEvent event = new EmployeeMutationEvent();
+        event.begin();
         try {
             if (employee == null) {
                 throw new IllegalArgumentException("Employee cannot be null");
             }
+            checkWritable();
 
-            if (employees.containsKey(employee.getEmployeeId())) {
+            // A single putIfAbsent keeps the check and the insert atomic on concurrent storage
+            if (employees.putIfAbsent(employee.getEmployeeId(), employee) != null) {
                 System.out.println("Employee with ID " + employee.getEmployeeId() + " already exists.");
+                event.complete("add", employee.getEmployeeId(), null, 0);
                 return false;
             }
 
-            employees.put(employee.getEmployeeId(), employee);
 //        System.out.println("Employee added successfully: " + employee.getName());
             logger.info("Employee added successfully: " + employee.getName());
+            if (commandLog != null) {
+                record(EmployeeCommandLog.added(employee));
+            }
+            fireSaved(employee);
+            event.complete("add", employee.getEmployeeId(), null, 1);
             return true;
-        }catch (Exception e) {
+        } catch (RuntimeException e) {
             logger.severe("Error adding employee: " + e.getMessage());
+            ADD_EMPLOYEE_LATENCY.recordError();
+            throw e;
+        } finally {
+            ADD_EMPLOYEE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Add many employees at once, logging a single summary line instead of one line per employee
+     * @param newEmployees The employees to add
+     * @return Number of employees added (employees whose ID already exists are skipped)
+     */
+    public int addEmployees(Collection<Employee<T>> newEmployees) {
+        long start = System.nanoTime();
+        EmployeeMutationEvent event = new EmployeeMutationEvent();
+        event.begin();
+        try {
+            if (newEmployees == null) {
+                throw new IllegalArgumentException("Employees cannot be null");
+            }
+            checkWritable();
+
+            EmployeeCommandLog<T> log = commandLog;
+            List<Employee<T>> addedEmployees = log != null && log.isRecording() ? new ArrayList<>() : null;
+            int added = 0;
+            for (Employee<T> employee : newEmployees) {
+                if (employee == null) {
+                    throw new IllegalArgumentException("Employee cannot be null");
+                }
+                if (employees.putIfAbsent(employee.getEmployeeId(), employee) == null) {
+                    if (addedEmployees != null) {
+                        addedEmployees.add(employee);
+                    }
+                    fireSaved(employee);
+                    added++;
+                }
+            }
+            if (addedEmployees != null && !addedEmployees.isEmpty()) {
+                log.record(EmployeeCommandLog.addedAll(addedEmployees));
+            }
+            logger.info("Bulk added " + added + " of " + newEmployees.size() + " employees");
+            event.complete("addAll", null, null, added);
+            return added;
+        } catch (RuntimeException e) {
+            ADD_EMPLOYEES_LATENCY.recordError();
             throw e;
+        } finally {
+            ADD_EMPLOYEES_LATENCY.recordSince(start);
         }
     }
 
@@ -56,15 +180,176 @@ public class EmployeeDB<T> {
      * @return true if removed successfully, false if employee wasn't found
      */
     public boolean removeEmployee(T employeeId) {
-        if (!employees.containsKey(employeeId)) {
-            System.out.println("Employee with ID " + employeeId + " not found.");
-            return false;
+        long start = System.nanoTime();
+        EmployeeMutationEvent event = new EmployeeMutationEvent();
+        event.begin();
+        try {
+            checkWritable();
+            Employee<T> removedEmployee;
+            // Under the lock of the ID, so an update of the same employee is either done before
+            // the removal or finds the employee gone
+            synchronized (lockFor(employeeId)) {
+                removedEmployee = employees.remove(employeeId);
+            }
+            if (removedEmployee == null) {
+                System.out.println("Employee with ID " + employeeId + " not found.");
+                event.complete("remove", employeeId, null, 0);
+                return false;
+            }
+
+            System.out.println("Employee removed successfully: " + removedEmployee.getName());
+            logger.info("Employee removed successfully: " + removedEmployee.getName());
+            if (commandLog != null) {
+                record(EmployeeCommandLog.removed(removedEmployee));
+            }
+            fireRemoved(employeeId);
+            event.complete("remove", employeeId, null, 1);
+            return true;
+        } catch (RuntimeException e) {
+            REMOVE_EMPLOYEE_LATENCY.recordError();
+            throw e;
+        } finally {
+            REMOVE_EMPLOYEE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Remove every employee matching a filter in one pass over the storage, logging a
+     * single summary line instead of one line per employee. A single undo brings them back.
+     * @param filter The condition for removal; storage may pass the same object for every
+     *               employee, so it must not keep a reference to it
+     * @return Number of employees removed
+     */
+    public int removeIf(Predicate<? super Employee<T>> filter) {
+        long start = System.nanoTime();
+        EmployeeMutationEvent event = new EmployeeMutationEvent();
+        event.begin();
+        try {
+            if (filter == null) {
+                throw new IllegalArgumentException("Filter cannot be null");
+            }
+            checkWritable();
+
+            EmployeeCommandLog<T> log = commandLog;
+            List<Employee<T>> removedEmployees = log != null && log.isRecording() ? new ArrayList<>() : null;
+            List<T> removedIds = new ArrayList<>();
+            int removed = removeFromStorage(employee -> {
+                if (!filter.test(employee)) {
+                    return false;
+                }
+                removedIds.add(employee.getEmployeeId());
+                if (removedEmployees != null) {
+                    removedEmployees.add(detached(employee));
+                }
+                return true;
+            });
+            if (removedEmployees != null && !removedEmployees.isEmpty()) {
+                log.record(EmployeeCommandLog.removedAll(removedEmployees));
+            }
+            // Listeners hear about the removals once the storage is consistent again
+            for (T employeeId : removedIds) {
+                fireRemoved(employeeId);
+            }
+            logger.info("Bulk removed " + removed + " employees");
+            event.complete("removeIf", null, null, removed);
+            return removed;
+        } catch (RuntimeException e) {
+            REMOVE_IF_LATENCY.recordError();
+            throw e;
+        } finally {
+            REMOVE_IF_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Remove the employees matching a filter from the storage in one pass. The specialized
+     * maps rebuild their tables once instead of after every removal; subclasses whose
+     * storage views do not support removal override this.
+     * @param filter The condition for removal, called once per employee
+     * @return Number of employees removed
+     */
+    protected int removeFromStorage(Predicate<? super Employee<T>> filter) {
+        int before = employees.size();
+        employees.values().removeIf(filter);
+        return before - employees.size();
+    }
+
+    /**
+     * @return The employee itself, or a copy if it is a view of storage that may reuse it
+     */
+    private static <T> Employee<T> detached(Employee<T> employee) {
+        if (employee.getClass() == Employee.class) {
+            return employee;
+        }
+        try {
+            Employee<T> copy = new Employee<>(employee.getEmployeeId(), employee.isActive(), employee.getYearsOfExperience(),
+                    employee.getSalary(), employee.getPerformanceRating(), employee.getDepartment(), employee.getName());
+            copy.setVersion(employee.getVersion());
+            return copy;
+        } catch (InvalidDepartmentException | InvalidSalaryException | EmployeeNotFoundException e) {
+            throw new IllegalStateException("Stored employee is invalid", e);
         }
+    }
+
+    /**
+     * Set the same fields of every employee matching a filter. The new values are validated
+     * once before any employee changes, and a single undo reverts the whole update.
+     * @param filter The condition employees must meet
+     * @param updates New values by field name, as for {@link #updateEmployeeDetails(Object, String, Object)}
+     * @return Number of employees updated
+     * @throws IllegalArgumentException if a field is unknown or a value is invalid
+     * @throws InvalidSalaryException if salary is negative
+     * @throws InvalidDepartmentException if department is invalid
+     */
+    public int updateWhere(Predicate<? super Employee<T>> filter, Map<String, Object> updates)
+            throws InvalidSalaryException, InvalidDepartmentException {
+        long start = System.nanoTime();
+        EmployeeMutationEvent event = new EmployeeMutationEvent();
+        event.begin();
+        try {
+            if (filter == null || updates == null) {
+                throw new IllegalArgumentException("Filter and updates cannot be null");
+            }
+            checkWritable();
+            EmployeePatch patch = EmployeePatch.of(updates);
+            if (patch.isEmpty()) {
+                event.complete("updateWhere", null, null, 0);
+                return 0;
+            }
 
-        Employee<T> removedEmployee = employees.remove(employeeId);
-        System.out.println("Employee removed successfully: " + removedEmployee.getName());
-        logger.info("Employee removed successfully: " + removedEmployee.getName());
-        return true;
+            List<Employee<T>> matches = findEmployees(filter);
+            EmployeeCommandLog<T> log = commandLog;
+            boolean recording = log != null && log.isRecording() && !matches.isEmpty();
+            Object[] employeeIds = null;
+            EmployeePatch.Before before = null;
+            if (recording) {
+                employeeIds = new Object[matches.size()];
+                for (int i = 0; i < employeeIds.length; i++) {
+                    employeeIds[i] = matches.get(i).getEmployeeId();
+                }
+                before = patch.capture(matches);
+            }
+
+            // Re-fetched under the lock of each ID, so an employee removed since the scan is skipped
+            int updated = 0;
+            for (Employee<T> employee : matches) {
+                if (modify(employee.getEmployeeId(), patch::applyTo) != null) {
+                    updated++;
+                }
+            }
+            if (recording) {
+                log.record(EmployeeCommandLog.patched(
+                        "Edit " + patch.fields() + " of " + matches.size() + " employees", employeeIds, patch, before));
+            }
+            logger.info("Bulk updated " + patch.fields() + " of " + updated + " employees");
+            event.complete("updateWhere", null, patch.fields(), updated);
+            return updated;
+        } catch (Exception e) {
+            UPDATE_WHERE_LATENCY.recordError();
+            throw e;
+        } finally {
+            UPDATE_WHERE_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -161,7 +446,6 @@ public class EmployeeDB<T> {
 
     /**
      * Update an employee's details dynamically based on field name
-     * Intentional bug: Incorrectly updating employees by using the wrong ID comparison
      *
      * @param employeeId The ID of the employee to update
      * @param field The field to update (name, department, salary, etc.)
@@ -173,122 +457,541 @@ public class EmployeeDB<T> {
      */
     public boolean updateEmployeeDetails(T employeeId, String field, Object newValue)
             throws EmployeeNotFoundException, InvalidSalaryException, InvalidDepartmentException {
+        long start = System.nanoTime();
+        EmployeeMutationEvent event = new EmployeeMutationEvent();
+        event.begin();
+        try {
+            checkWritable();
+            Employee<T> employee;
+            Object oldValue;
+            // Checking the record and changing it under the lock of its ID keeps the change
+            // from interleaving with a compareAndUpdate of the same employee
+            synchronized (lockFor(employeeId)) {
+                employee = employees.get(employeeId);
+                if (employee == null) {
+                    event.complete("update", employeeId, field, 0);
+                    throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+                }
 
-        // Intentional bug: Not checking if employee exists properly
-        // This bug will cause issues when trying to update non-existing employees
-        Employee<T> employee = employees.get(employeeId);
-        System.out.println("current state of employee" + employee);
-        // Bug: Not throwing exception when employee is null
-        // Instead of properly handling null or missing employee, we'll proceed as if it were valid
-
-        if (employee == null) {
-            // DEBUGGING SCENARIO: Simulating a runtime bug manually
-            // This block simulates what happens when an employee is deleted while being edited
-            //
-            // 1. Run the application in debug mode.
-            // 2. Set breakpoints:
-            //    - At the start of `showEditEmployeeDialog`.
-            //    - Inside `updateEmployeeDetails`, where employee is fetched.
-            // 3. When the first breakpoint hits (after clicking Edit):
-            //    - In the debugger's watch/evaluation window, manually run:
-            //         database.removeEmployee(employee.getEmployeeId());
-            //    - This simulates a bug where the employee is deleted mid-process.
-            // 4. Continue the program, fill out the edit form, and confirm.
-            // 5. Observe how `updateEmployeeDetails` proceeds as if it found an employee and updates the next one.
-            // Purpose: Validate that exception handling is working when employees are deleted during edit.
-
-            if (!employees.isEmpty()) {
-                // Intentional bug: Instead of throwing an exception, we grab the first employee (wrong behavior)
-                employee = employees.values().iterator().next(); // Grab the first employee instead of throwing an exception!
-                System.out.println(employee);
-                logger.warning("Employee not found, using first employee in database - THIS IS A BUG");
+                // Kept for undo before the field changes
+                oldValue = commandLog != null ? fieldValue(employee, field) : null;
+
+                switch (field.toLowerCase()) {
+                    case "name":
+                        if (newValue instanceof String) {
+                            employee.setName((String) newValue);
+                        } else {
+                            throw new IllegalArgumentException("Name must be a String");
+                        }
+                        break;
+                    case "department":
+                        if (newValue instanceof String) {
+                            employee.setDepartment((String) newValue);
+                        } else {
+                            throw new IllegalArgumentException("Department must be a String");
+                        }
+                        break;
+                    case "salary":
+                        if (newValue instanceof Double) {
+                            employee.setSalary((Double) newValue);
+                        } else if (newValue instanceof Integer) {
+                            employee.setSalary(((Integer) newValue).doubleValue());
+                        } else {
+                            throw new IllegalArgumentException("Salary must be a numeric value");
+                        }
+                        break;
+                    case "performancerating":
+                        if (newValue instanceof Double) {
+                            double rating = (Double) newValue;
+                            if (rating < 0 || rating > 5) {
+                                throw new IllegalArgumentException("Performance rating must be between 0 and 5");
+                            }
+                            employee.setPerformanceRating(rating);
+                        } else if (newValue instanceof Integer) {
+                            int rating = (Integer) newValue;
+                            if (rating < 0 || rating > 5) {
+                                throw new IllegalArgumentException("Performance rating must be between 0 and 5");
+                            }
+                            employee.setPerformanceRating(rating);
+                        } else {
+                            throw new IllegalArgumentException("Performance rating must be a numeric value");
+                        }
+                        break;
+                    case "yearsofexperience":
+                        if (newValue instanceof Integer) {
+                            employee.setYearsOfExperience((Integer) newValue);
+                        } else if (newValue instanceof Double) {
+                            employee.setYearsOfExperience(((Double) newValue).intValue());
+                        } else {
+                            throw new IllegalArgumentException("Years of experience must be a numeric value");
+                        }
+                        break;
+                    case "isactive":
+                        if (newValue instanceof Boolean) {
+                            employee.setActive((Boolean) newValue);
+                        } else if (newValue instanceof String) {
+                            employee.setActive(Boolean.parseBoolean((String) newValue));
+                        } else {
+                            throw new IllegalArgumentException("Active status must be a boolean value");
+                        }
+                        break;
+                    default:
+                        logger.warning("Invalid field: " + field);
+                        event.complete("update", employeeId, field, 0);
+                        return false;
+                }
+
+                // Every storage changes the stored employee in place, so nothing is put back: a put
+                // racing a removeIf, which does not take the ID locks, would bring the employee back
+                employee.setVersion(employee.getVersion() + 1);
+            }
+            if (oldValue != null && commandLog != null) {
+                record(EmployeeCommandLog.fieldUpdated(employee, field, oldValue, newValue));
             }
+            fireSaved(employee);
+            System.out.println(employee.getName() + " updated successfully");
+            logger.info("Employee " + employee.getName() + " updated successfully ");
+            event.complete("update", employee.getEmployeeId(), field, 1);
+            return true;
+        } catch (Exception e) {
+            UPDATE_EMPLOYEE_DETAILS_LATENCY.recordError();
+            throw e;
+        } finally {
+            UPDATE_EMPLOYEE_DETAILS_LATENCY.recordSince(start);
+        }
+    }
+
+
+    /**
+     * Update several fields of an employee as one change, which a single undo reverts
+     * @param employeeId The ID of the employee to update
+     * @param updates New values by field name, as for {@link #updateEmployeeDetails(Object, String, Object)}
+     * @return true if at least one field was updated
+     * @throws EmployeeNotFoundException if employee not found
+     * @throws InvalidSalaryException if salary is negative
+     * @throws InvalidDepartmentException if department is invalid
+     */
+    public boolean updateEmployeeDetails(T employeeId, Map<String, Object> updates)
+            throws EmployeeNotFoundException, InvalidSalaryException, InvalidDepartmentException {
+        EmployeeCommandLog<T> log = commandLog;
+        if (log != null) {
+            Employee<T> employee = employees.get(employeeId);
+            log.beginGroup("Edit " + (employee != null ? employee.getName() : employeeId));
+        }
+        try {
+            boolean updated = false;
+            for (Map.Entry<String, Object> update : updates.entrySet()) {
+                updated |= updateEmployeeDetails(employeeId, update.getKey(), update.getValue());
+            }
+            return updated;
+        } finally {
+            if (log != null) {
+                log.endGroup();
+            }
+        }
+    }
+
+    /**
+     * Update several fields of an employee only if nobody changed it since it was read.
+     * An editor keeps the {@link Employee#getVersion() version} of the employee it loaded
+     * and submits it with its changes; the check and the update are atomic, so concurrent
+     * editors need no lock of their own and never overwrite each other's changes unseen.
+     * @param employeeId The ID of the employee to update
+     * @param expectedVersion The version the changes were based on
+     * @param updates New values by field name, as for {@link #updateEmployeeDetails(Object, String, Object)}
+     * @return The new version of the employee
+     * @throws EmployeeNotFoundException if employee not found, e.g. it was deleted during the edit
+     * @throws StaleEmployeeException if the employee was changed after the expected version
+     * @throws InvalidSalaryException if salary is negative
+     * @throws InvalidDepartmentException if department is invalid
+     */
+    public long compareAndUpdate(T employeeId, long expectedVersion, Map<String, Object> updates)
+            throws EmployeeNotFoundException, StaleEmployeeException, InvalidSalaryException, InvalidDepartmentException {
+        long start = System.nanoTime();
+        EmployeeMutationEvent event = new EmployeeMutationEvent();
+        event.begin();
+        try {
+            if (updates == null) {
+                throw new IllegalArgumentException("Updates cannot be null");
+            }
+            checkWritable();
+            // Validated up front, so a rejected value leaves the employee untouched
+            EmployeePatch patch = EmployeePatch.of(updates);
+
+            Employee<T> employee;
+            String oldName;
+            EmployeePatch.Before before = null;
+            long version;
+            synchronized (lockFor(employeeId)) {
+                employee = employees.get(employeeId);
+                if (employee == null) {
+                    event.complete("compareAndUpdate", employeeId, patch.fields(), 0);
+                    throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+                }
+                version = employee.getVersion();
+                if (version != expectedVersion) {
+                    event.complete("compareAndUpdate", employeeId, patch.fields(), 0);
+                    throw new StaleEmployeeException("Employee " + employee.getName()
+                            + " was changed by someone else (version " + version + ", expected " + expectedVersion + ")");
+                }
+                oldName = employee.getName();
+                if (commandLog != null) {
+                    before = patch.capture(List.of(employee));
+                }
+                patch.applyTo(employee);
+                employee.setVersion(++version);
+            }
+
+            EmployeeCommandLog<T> log = commandLog;
+            if (before != null && log != null && !patch.isEmpty()) {
+                log.record(EmployeeCommandLog.patched("Edit " + oldName, new Object[]{employeeId}, patch, before));
+            }
+            fireSaved(employee);
+            logger.info("Employee " + employee.getName() + " updated to version " + version);
+            event.complete("compareAndUpdate", employeeId, patch.fields(), 1);
+            return version;
+        } catch (Exception e) {
+            COMPARE_AND_UPDATE_LATENCY.recordError();
+            throw e;
+        } finally {
+            COMPARE_AND_UPDATE_LATENCY.recordSince(start);
         }
+    }
+
+    private Object lockFor(T employeeId) {
+        int h = employeeId == null ? 0 : employeeId.hashCode();
+        return updateLocks[(h ^ (h >>> 16)) & (UPDATE_LOCK_STRIPES - 1)];
+    }
 
-        // Proceeding with employee updates (even though the previous check might lead to incorrect behavior)
+    /**
+     * @return The current value of a field, in the type updateEmployeeDetails accepts, or null for an unknown field
+     */
+    private static Object fieldValue(Employee<?> employee, String field) {
         switch (field.toLowerCase()) {
             case "name":
-                if (newValue instanceof String) {
-                    employee.setName((String) newValue); // Update name (bug will cause wrong employee to be renamed)
-                } else {
-                    throw new IllegalArgumentException("Name must be a String");
-                }
-                break;
+                return employee.getName();
             case "department":
-                if (newValue instanceof String) {
-                    employee.setDepartment((String) newValue);
-                } else {
-                    throw new IllegalArgumentException("Department must be a String");
-                }
-                break;
+                return employee.getDepartment();
             case "salary":
-                if (newValue instanceof Double) {
-                    employee.setSalary((Double) newValue);
-                } else if (newValue instanceof Integer) {
-                    employee.setSalary(((Integer) newValue).doubleValue());
-                } else {
-                    throw new IllegalArgumentException("Salary must be a numeric value");
-                }
-                break;
+                return employee.getSalary();
             case "performancerating":
-                if (newValue instanceof Double) {
-                    double rating = (Double) newValue;
-                    if (rating < 0 || rating > 5) {
-                        throw new IllegalArgumentException("Performance rating must be between 0 and 5");
-                    }
-                    employee.setPerformanceRating(rating);
-                } else if (newValue instanceof Integer) {
-                    int rating = (Integer) newValue;
-                    if (rating < 0 || rating > 5) {
-                        throw new IllegalArgumentException("Performance rating must be between 0 and 5");
-                    }
-                    employee.setPerformanceRating(rating);
-                } else {
-                    throw new IllegalArgumentException("Performance rating must be a numeric value");
-                }
-                break;
+                return employee.getPerformanceRating();
             case "yearsofexperience":
-                if (newValue instanceof Integer) {
-                    employee.setYearsOfExperience((Integer) newValue);
-                } else if (newValue instanceof Double) {
-                    employee.setYearsOfExperience(((Double) newValue).intValue());
-                } else {
-                    throw new IllegalArgumentException("Years of experience must be a numeric value");
-                }
-                break;
+                return employee.getYearsOfExperience();
             case "isactive":
-                if (newValue instanceof Boolean) {
-                    employee.setActive((Boolean) newValue);
-                } else if (newValue instanceof String) {
-                    employee.setActive(Boolean.parseBoolean((String) newValue));
-                } else {
-                    throw new IllegalArgumentException("Active status must be a boolean value");
-                }
-                break;
+                return employee.isActive();
             default:
-                logger.warning("Invalid field: " + field);
-                return false;
+                return null;
+        }
+    }
+
+    /**
+     * Start recording every change as a command that undo can revert
+     * @param capacity Number of commands kept; the oldest is dropped when a new one does not fit
+     * @return The command log; calling it again returns the same log
+     */
+    public synchronized EmployeeCommandLog<T> recordCommands(int capacity) {
+        if (commandLog == null) {
+            commandLog = new EmployeeCommandLog<>(this, capacity);
         }
+        return commandLog;
+    }
 
-        employees.put(employee.getEmployeeId(), employee);
-        System.out.println(employee.getName() + " updated successfully");
-        logger.info("Employee " + employee.getName() + " updated successfully ");
-        return true;
+    /**
+     * @return The command log, or null if changes are not recorded
+     */
+    EmployeeCommandLog<T> commandLog() {
+        return commandLog;
     }
 
+    /**
+     * @return true if there is a recorded change to undo
+     */
+    public boolean canUndo() {
+        EmployeeCommandLog<T> log = commandLog;
+        return log != null && log.canUndo();
+    }
+
+    /**
+     * @return true if there is an undone change to apply again
+     */
+    public boolean canRedo() {
+        EmployeeCommandLog<T> log = commandLog;
+        return log != null && log.canRedo();
+    }
+
+    /**
+     * Revert the latest recorded change
+     * @return What was reverted, or null if there was nothing to undo
+     * @throws IllegalStateException if changes are not recorded
+     */
+    public String undo() {
+        return commands().undo();
+    }
+
+    /**
+     * Apply the latest undone change again
+     * @return What was applied, or null if there was nothing to redo
+     * @throws IllegalStateException if changes are not recorded
+     */
+    public String redo() {
+        return commands().redo();
+    }
+
+    private EmployeeCommandLog<T> commands() {
+        EmployeeCommandLog<T> log = commandLog;
+        if (log == null) {
+            throw new IllegalStateException("Changes are not being recorded, call recordCommands() first");
+        }
+        return log;
+    }
+
+    private void record(EmployeeCommandLog.Command<T> command) {
+        EmployeeCommandLog<T> log = commandLog;
+        if (log != null) {
+            log.record(command);
+        }
+    }
+
+    /**
+     * Tell the change listeners that a stored employee was modified in place, for
+     * services that update employees directly rather than through this class
+     * @param employee The modified employee
+     */
+    public void employeeChanged(Employee<T> employee) {
+        checkWritable();
+        synchronized (lockFor(employee.getEmployeeId())) {
+            employee.setVersion(employee.getVersion() + 1);
+        }
+        fireSaved(employee);
+    }
+
+    /**
+     * Read the current state of an employee under the lock of its ID, for change listeners
+     * that keep an ordered record of the changes. Listeners are called after the lock is
+     * released, so a save can reach them after a later removal of the same employee (or the
+     * other way round); recording the state found here instead of the announced change keeps
+     * the last record of every employee equal to what is stored.
+     * @param employeeId The ID of the employee
+     * @param reader Given the stored employee, or null if it is not stored; it must not keep it
+     * @return What the reader returned
+     */
+    public <R> R readCurrent(T employeeId, Function<? super Employee<T>, R> reader) {
+        synchronized (lockFor(employeeId)) {
+            return reader.apply(employees.get(employeeId));
+        }
+    }
+
+    /**
+     * Change a stored employee in place and bump its version under the lock of its ID, so
+     * the change cannot interleave with a compareAndUpdate or another update of the same
+     * employee, then tell the change listeners. For raises and undo/redo, which compute the
+     * new values from the current ones.
+     * @param employeeId The ID of the employee to change
+     * @param change The change, given the stored employee
+     * @return The changed employee, or null if it is not stored, in which case nothing changes
+     */
+    Employee<T> modify(T employeeId, Change<T> change) throws InvalidSalaryException, InvalidDepartmentException {
+        checkWritable();
+        Employee<T> employee;
+        synchronized (lockFor(employeeId)) {
+            employee = employees.get(employeeId);
+            if (employee == null) {
+                return null;
+            }
+            change.apply(employee);
+            employee.setVersion(employee.getVersion() + 1);
+        }
+        fireSaved(employee);
+        return employee;
+    }
+
+    /**
+     * A change to a stored employee, see {@link #modify(Object, Change)}
+     */
+    @FunctionalInterface
+    interface Change<T> {
+        void apply(Employee<T> employee) throws InvalidSalaryException, InvalidDepartmentException;
+    }
+
+    /**
+     * Register a listener for every later add, update and removal
+     * @param listener The listener to register
+     */
+    public void addChangeListener(EmployeeChangeListener<T> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(EmployeeChangeListener<T> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * The index of a kind that follows this database, created by the first service that
+     * asks for it and shared by every later one, so services created and dropped over the
+     * life of the database do not leave listeners behind.
+     * @param kind The class of the index
+     * @param follow Loads the index and registers it as a change listener
+     * @return The index of that kind
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <F> F follower(Class<?> kind, Function<EmployeeDB<T>, F> follow) {
+        return (F) followers.computeIfAbsent(kind, k -> follow.apply(this));
+    }
+
+    /**
+     * @return true if the database rejects changes, e.g. a replica that only its leader updates
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    private void checkWritable() {
+        if (isReadOnly()) {
+            throw new UnsupportedOperationException("Database is read-only");
+        }
+    }
+
+    /**
+     * Tell the change listeners about a change made to the storage directly, for subclasses
+     * that bypass the mutators
+     * @param employee The saved employee
+     */
+    protected void fireSaved(Employee<T> employee) {
+        for (EmployeeChangeListener<T> listener : listeners) {
+            listener.employeeSaved(employee);
+        }
+    }
+
+    /**
+     * @param employeeId The ID of an employee removed from the storage directly
+     */
+    protected void fireRemoved(T employeeId) {
+        for (EmployeeChangeListener<T> listener : listeners) {
+            listener.employeeRemoved(employeeId);
+        }
+    }
+
+    /**
+     * Start keeping versioned records of every change, timestamped with the system clock,
+     * so the as-of queries can look at the roster as it was at a past point in time
+     * @return The timeline the records are kept in
+     */
+    public EmployeeTimeline<T> recordHistory() {
+        return recordHistory(Clock.systemUTC());
+    }
+
+    /**
+     * Start keeping versioned records of every change. History starts now: the current
+     * employees are recorded as they are now. Calling it again returns the same timeline.
+     * @param clock The clock changes are timestamped with
+     * @return The timeline the records are kept in
+     */
+    public synchronized EmployeeTimeline<T> recordHistory(Clock clock) {
+        if (timeline == null) {
+            timeline = EmployeeTimeline.follow(this, clock);
+        }
+        return timeline;
+    }
+
+    /**
+     * @return true if {@link #recordHistory()} was called, so the as-of queries are available
+     */
+    public boolean isRecordingHistory() {
+        return timeline != null;
+    }
+
+    /**
+     * @throws IllegalStateException if history is not being recorded
+     */
+    EmployeeTimeline<T> timeline() {
+        EmployeeTimeline<T> recorded = timeline;
+        if (recorded == null) {
+            throw new IllegalStateException("History is not being recorded, call recordHistory() first");
+        }
+        return recorded;
+    }
+
+    /**
+     * Get the database as it was at a point in time, rebuilt from the versioned records.
+     * The result is read-only and can be searched and aggregated like this database, e.g.
+     * by an EmployeeSearchEngine or a SalaryManager.
+     * @param when The point in time
+     * @return A read-only database holding the employees of that time
+     * @throws IllegalStateException if history is not being recorded
+     */
+    public EmployeeDB<T> asOf(Instant when) {
+        long start = System.nanoTime();
+        try {
+            return HistoricalEmployeeDB.of(timeline().getEmployeesAsOf(when));
+        } catch (RuntimeException e) {
+            AS_OF_LATENCY.recordError();
+            throw e;
+        } finally {
+            AS_OF_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Get an employee as it was at a point in time
+     * @param employeeId The ID of the employee to retrieve
+     * @param when The point in time
+     * @return A read-only copy of the employee, or null if it was not in the database then
+     * @throws IllegalStateException if history is not being recorded
+     */
+    public Employee<T> getEmployeeByIdAsOf(T employeeId, Instant when) {
+        long start = System.nanoTime();
+        try {
+            return timeline().getEmployeeAsOf(employeeId, when);
+        } catch (RuntimeException e) {
+            GET_EMPLOYEE_BY_ID_AS_OF_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_EMPLOYEE_BY_ID_AS_OF_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Get the number of employees at a point in time, without rebuilding the roster
+     * @param when The point in time
+     * @return Number of employees then
+     * @throws IllegalStateException if history is not being recorded
+     */
+    public int getEmployeeCountAsOf(Instant when) {
+        long start = System.nanoTime();
+        try {
+            return timeline().getEmployeeCountAsOf(when);
+        } catch (RuntimeException e) {
+            GET_EMPLOYEE_COUNT_AS_OF_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_EMPLOYEE_COUNT_AS_OF_LATENCY.recordSince(start);
+        }
+    }
 
     /**
      * Get all employees in the database
      * @return List of all employees
      */
     public List<Employee<T>> getAllEmployees() {
-        if (employees.isEmpty()) {
-            System.out.println("No employees in the database.");
-            return new ArrayList<>();
-        }
+        long start = System.nanoTime();
+        try {
+            if (employees.isEmpty()) {
+                System.out.println("No employees in the database.");
+                return new ArrayList<>();
+            }
 
-        List<Employee<T>> employeeList = new ArrayList<>(employees.values());
-        return employeeList;
+            List<Employee<T>> employeeList = new ArrayList<>(employees.values());
+            return employeeList;
+        } catch (RuntimeException e) {
+            GET_ALL_EMPLOYEES_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_ALL_EMPLOYEES_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -296,9 +999,138 @@ public class EmployeeDB<T> {
      * @return Sorted list of employees
      */
     public List<Employee<T>> getAllEmployeesSorted() {
-        List<Employee<T>> employeeList = getAllEmployees();
-        Collections.sort(employeeList);
-        return employeeList;
+        long start = System.nanoTime();
+        try {
+            List<Employee<T>> employeeList = getAllEmployees();
+            Collections.sort(employeeList);
+            return employeeList;
+        } catch (RuntimeException e) {
+            GET_ALL_EMPLOYEES_SORTED_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_ALL_EMPLOYEES_SORTED_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Find the employees matching a filter without copying the whole roster first
+     * @param filter The condition employees must meet
+     * @return List of matching employees
+     */
+    public List<Employee<T>> findEmployees(Predicate<? super Employee<T>> filter) {
+        long start = System.nanoTime();
+        try {
+            List<Employee<T>> matches = new ArrayList<>();
+            for (Employee<T> employee : employees.values()) {
+                if (filter.test(employee)) {
+                    matches.add(employee);
+                }
+            }
+            return matches;
+        } catch (RuntimeException e) {
+            FIND_EMPLOYEES_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_EMPLOYEES_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Visit every employee without copying the roster, for aggregates.
+     * Storage may pass the same object for every employee, so the action must not keep
+     * a reference to it; use {@link #findEmployees(Predicate)} to collect employees.
+     * @param action The action to run for each employee
+     */
+    public void forEachEmployee(Consumer<? super Employee<T>> action) {
+        long start = System.nanoTime();
+        try {
+            for (Employee<T> employee : employees.values()) {
+                action.accept(employee);
+            }
+        } catch (RuntimeException e) {
+            FOR_EACH_EMPLOYEE_LATENCY.recordError();
+            throw e;
+        } finally {
+            FOR_EACH_EMPLOYEE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Spliterator over the storage itself, for iterating or streaming the roster without
+     * copying it. Unlike {@link #forEachEmployee(Consumer)} every employee passed on is its
+     * own object, and it splits for parallel streams. What happens when the database changes
+     * during a traversal depends on the storage: the HashMap default fails fast, the
+     * specialized maps never throw and may or may not show the change.
+     * @return A spliterator over all employees
+     */
+    public Spliterator<Employee<T>> spliterator() {
+        return employees.values().spliterator();
+    }
+
+    /**
+     * Fold every employee into a result container, for aggregates that can be computed
+     * in parts and combined (sums, counts, statistics). The storage is split through its
+     * {@link #spliterator()} across the common fork-join pool, so the supplier, accumulator
+     * and combiner must not share state between containers. As with
+     * {@link #forEachEmployee(Consumer)} the accumulator must not keep the employee.
+     * @param supplier Creates an empty container
+     * @param accumulator Adds one employee to a container
+     * @param combiner Merges two partial containers, used when storage scans in parallel
+     * @return The container holding the aggregate over all employees
+     */
+    public <A> A aggregate(Supplier<A> supplier, BiConsumer<A, ? super Employee<T>> accumulator,
+                           BinaryOperator<A> combiner) {
+        long start = System.nanoTime();
+        try {
+            return StreamSupport.stream(spliterator(), true)
+                    .collect(Collector.of(supplier, accumulator, combiner));
+        } catch (RuntimeException e) {
+            AGGREGATE_LATENCY.recordError();
+            throw e;
+        } finally {
+            AGGREGATE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Get the first n employees in the given order without sorting the whole roster
+     * @param n Number of employees to return
+     * @param order The order to rank employees by
+     * @return Up to n employees, sorted by the given order
+     */
+    public List<Employee<T>> findTop(int n, Comparator<? super Employee<T>> order) {
+        long start = System.nanoTime();
+        try {
+            return topOf(employees.values(), n, order);
+        } catch (RuntimeException e) {
+            FIND_TOP_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_TOP_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Bounded heap selection of the first n employees of a collection in the given order
+     */
+    static <T> List<Employee<T>> topOf(Collection<Employee<T>> candidates, int n,
+                                       Comparator<? super Employee<T>> order) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Number of employees must be positive");
+        }
+        // The heap root is the worst of the employees kept so far
+        PriorityQueue<Employee<T>> top = new PriorityQueue<>(n, order.reversed());
+        for (Employee<T> employee : candidates) {
+            if (top.size() < n) {
+                top.add(employee);
+            } else if (order.compare(employee, top.peek()) < 0) {
+                top.poll();
+                top.add(employee);
+            }
+        }
+        List<Employee<T>> result = new ArrayList<>(top);
+        result.sort(order);
+        return result;
     }
 
     /**
@@ -307,30 +1139,71 @@ public class EmployeeDB<T> {
      * @return The employee object or null if not found
      */
     public Employee<T> getEmployeeById(T employeeId) {
+        long start = System.nanoTime();
+        try {
+            return employees.get(employeeId);
+        } catch (RuntimeException e) {
+            GET_EMPLOYEE_BY_ID_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_EMPLOYEE_BY_ID_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Get a stored employee without recording a lookup, for the indexes that follow the database
+     * @param employeeId The ID of the employee
+     * @return The stored employee or null if not found
+     */
+    Employee<T> stored(T employeeId) {
         return employees.get(employeeId);
     }
 
+    /**
+     * @return The encoding of the IDs, for the indexes that follow the database to keep IDs
+     *         without an object each, or null if the storage keeps the ID objects anyway
+     */
+    IdCodec<T> idCodec() {
+        return null;
+    }
+
     /**
      * Get the current number of employees in the database
      * @return Number of employees
      */
     public int getEmployeeCount() {
-        return employees.size();
+        long start = System.nanoTime();
+        try {
+            return employees.size();
+        } catch (RuntimeException e) {
+            GET_EMPLOYEE_COUNT_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_EMPLOYEE_COUNT_LATENCY.recordSince(start);
+        }
     }
 
     /**
      * Display all employees in the database
      */
     public void displayAllEmployees() {
-        if (employees.isEmpty()) {
-            System.out.println("No employees in the database.");
-            return;
-        }
+        long start = System.nanoTime();
+        try {
+            if (employees.isEmpty()) {
+                System.out.println("No employees in the database.");
+                return;
+            }
 
-        System.out.println("===== All Employees =====");
-        for (Employee<T> employee : employees.values()) {
-            System.out.println(employee);
+            System.out.println("===== All Employees =====");
+            for (Employee<T> employee : employees.values()) {
+                System.out.println(employee);
+            }
+            System.out.println("========================");
+        } catch (RuntimeException e) {
+            DISPLAY_ALL_EMPLOYEES_LATENCY.recordError();
+            throw e;
+        } finally {
+            DISPLAY_ALL_EMPLOYEES_LATENCY.recordSince(start);
         }
-        System.out.println("========================");
     }
 }
@@ -0,0 +1,238 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.DepartmentDictionary;
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
+import com.ibra.employeeapplication.backend.exception.InvalidSalaryException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * New values for some fields of many employees, see
+ * {@link EmployeeDB#updateWhere(java.util.function.Predicate, Map)}.
+ *
+ * The values are converted and validated once when the patch is created, with the same
+ * rules and messages as {@link EmployeeDB#updateEmployeeDetails(Object, String, Object)},
+ * so applying the patch to an employee cannot fail half way through the roster.
+ * A field the patch leaves alone is null.
+ */
+final class EmployeePatch {
+    private String name;
+    private String department;
+    private Double salary;
+    private Double performanceRating;
+    private Integer yearsOfExperience;
+    private Boolean active;
+
+    private EmployeePatch() {
+    }
+
+    /**
+     * @param updates New values by field name, as for updateEmployeeDetails
+     * @return The validated patch
+     * @throws IllegalArgumentException if a field is unknown or a value has the wrong type or range
+     * @throws InvalidSalaryException if salary is negative
+     * @throws InvalidDepartmentException if department is empty
+     */
+    static EmployeePatch of(Map<String, Object> updates) throws InvalidSalaryException, InvalidDepartmentException {
+        EmployeePatch patch = new EmployeePatch();
+        for (Map.Entry<String, Object> update : updates.entrySet()) {
+            Object newValue = update.getValue();
+            switch (update.getKey().toLowerCase()) {
+                case "name":
+                    if (!(newValue instanceof String)) {
+                        throw new IllegalArgumentException("Name must be a String");
+                    }
+                    if (((String) newValue).trim().isEmpty()) {
+                        throw new IllegalArgumentException("Employee name cannot be empty");
+                    }
+                    patch.name = (String) newValue;
+                    break;
+                case "department":
+                    if (!(newValue instanceof String)) {
+                        throw new IllegalArgumentException("Department must be a String");
+                    }
+                    if (((String) newValue).trim().isEmpty()) {
+                        throw new InvalidDepartmentException("Department cannot be empty");
+                    }
+                    patch.department = (String) newValue;
+                    break;
+                case "salary":
+                    if (!(newValue instanceof Double || newValue instanceof Integer)) {
+                        throw new IllegalArgumentException("Salary must be a numeric value");
+                    }
+                    patch.salary = ((Number) newValue).doubleValue();
+                    if (patch.salary < 0) {
+                        throw new InvalidSalaryException("Salary cannot be negative");
+                    }
+                    break;
+                case "performancerating":
+                    if (!(newValue instanceof Double || newValue instanceof Integer)) {
+                        throw new IllegalArgumentException("Performance rating must be a numeric value");
+                    }
+                    patch.performanceRating = ((Number) newValue).doubleValue();
+                    if (patch.performanceRating < 0 || patch.performanceRating > 5) {
+                        throw new IllegalArgumentException("Performance rating must be between 0 and 5");
+                    }
+                    break;
+                case "yearsofexperience":
+                    if (!(newValue instanceof Integer || newValue instanceof Double)) {
+                        throw new IllegalArgumentException("Years of experience must be a numeric value");
+                    }
+                    patch.yearsOfExperience = ((Number) newValue).intValue();
+                    break;
+                case "isactive":
+                    if (newValue instanceof Boolean) {
+                        patch.active = (Boolean) newValue;
+                    } else if (newValue instanceof String) {
+                        patch.active = Boolean.parseBoolean((String) newValue);
+                    } else {
+                        throw new IllegalArgumentException("Active status must be a boolean value");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid field: " + update.getKey());
+            }
+        }
+        return patch;
+    }
+
+    /**
+     * @return The patched fields, e.g. "department, salary"
+     */
+    String fields() {
+        StringJoiner fields = new StringJoiner(", ");
+        if (name != null) {
+            fields.add("name");
+        }
+        if (department != null) {
+            fields.add("department");
+        }
+        if (salary != null) {
+            fields.add("salary");
+        }
+        if (performanceRating != null) {
+            fields.add("performanceRating");
+        }
+        if (yearsOfExperience != null) {
+            fields.add("yearsOfExperience");
+        }
+        if (active != null) {
+            fields.add("isActive");
+        }
+        return fields.toString();
+    }
+
+    boolean isEmpty() {
+        return name == null && department == null && salary == null && performanceRating == null
+                && yearsOfExperience == null && active == null;
+    }
+
+    void applyTo(Employee<?> employee) throws InvalidSalaryException, InvalidDepartmentException {
+        if (name != null) {
+            employee.setName(name);
+        }
+        if (department != null) {
+            employee.setDepartment(department);
+        }
+        if (salary != null) {
+            employee.setSalary(salary);
+        }
+        if (performanceRating != null) {
+            employee.setPerformanceRating(performanceRating);
+        }
+        if (yearsOfExperience != null) {
+            employee.setYearsOfExperience(yearsOfExperience);
+        }
+        if (active != null) {
+            employee.setActive(active);
+        }
+    }
+
+    /**
+     * Keep the current values of the patched fields, so undo can put them back
+     * @param employees The employees about to be patched
+     * @return The values, in the order of the employees
+     */
+    Before capture(List<? extends Employee<?>> employees) {
+        int count = employees.size();
+        Before before = new Before(
+                name != null ? new String[count] : null,
+                department != null ? new int[count] : null,
+                salary != null ? new double[count] : null,
+                performanceRating != null ? new double[count] : null,
+                yearsOfExperience != null ? new int[count] : null,
+                active != null ? new boolean[count] : null);
+        for (int i = 0; i < count; i++) {
+            Employee<?> employee = employees.get(i);
+            if (before.names != null) {
+                before.names[i] = employee.getName();
+            }
+            if (before.departmentCodes != null) {
+                before.departmentCodes[i] = employee.getDepartmentCode();
+            }
+            if (before.salaries != null) {
+                before.salaries[i] = employee.getSalary();
+            }
+            if (before.ratings != null) {
+                before.ratings[i] = employee.getPerformanceRating();
+            }
+            if (before.years != null) {
+                before.years[i] = employee.getYearsOfExperience();
+            }
+            if (before.active != null) {
+                before.active[i] = employee.isActive();
+            }
+        }
+        return before;
+    }
+
+    /**
+     * The values patched fields had before the patch, one primitive array per field
+     */
+    static final class Before {
+        private final String[] names;
+        private final int[] departmentCodes;
+        private final double[] salaries;
+        private final double[] ratings;
+        private final int[] years;
+        private final boolean[] active;
+
+        private Before(String[] names, int[] departmentCodes, double[] salaries, double[] ratings,
+                       int[] years, boolean[] active) {
+            this.names = names;
+            this.departmentCodes = departmentCodes;
+            this.salaries = salaries;
+            this.ratings = ratings;
+            this.years = years;
+            this.active = active;
+        }
+
+        /**
+         * @param employee The employee captured at the given position
+         * @param i Its position in the captured list
+         */
+        void restore(Employee<?> employee, int i) throws InvalidSalaryException, InvalidDepartmentException {
+            if (names != null) {
+                employee.setName(names[i]);
+            }
+            if (departmentCodes != null) {
+                employee.setDepartment(DepartmentDictionary.getInstance().decode(departmentCodes[i]));
+            }
+            if (salaries != null) {
+                employee.setSalary(salaries[i]);
+            }
+            if (ratings != null) {
+                employee.setPerformanceRating(ratings[i]);
+            }
+            if (years != null) {
+                employee.setYearsOfExperience(years[i]);
+            }
+            if (active != null) {
+                employee.setActive(active[i]);
+            }
+        }
+    }
+}
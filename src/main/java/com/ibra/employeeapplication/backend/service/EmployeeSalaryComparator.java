@@ -22,6 +22,10 @@ public class EmployeeSalaryComparator<T> implements Comparator<Employee<T>> {
 class EmployeeDepartmentComparator<T> implements Comparator<Employee<T>> {
     @Override
     public int compare(Employee<T> emp1, Employee<T> emp2) {
+        // Same code means same department, only different departments need the name comparison
+        if (emp1.getDepartmentCode() == emp2.getDepartmentCode()) {
+            return 0;
+        }
         return emp1.getDepartment().compareTo(emp2.getDepartment());
     }
 }
@@ -1,22 +1,54 @@
 package com.ibra.employeeapplication.backend.service;
 
+import com.ibra.employeeapplication.backend.entity.DepartmentDictionary;
 import com.ibra.employeeapplication.backend.entity.Employee;
 import com.ibra.employeeapplication.backend.exception.EmployeeNotFoundException;
 import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
+import com.ibra.employeeapplication.backend.monitoring.EmployeeSearchEvent;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class EmployeeSearchEngine<T> implements Iterable<Employee<T>> {
     private EmployeeDB<T> database;
+    // Shared by every search engine of the database, created on the first search by department, rating or active flag
+    private volatile EmployeeBitmapIndex<T> bitmapIndex;
     private static final Logger logger = Logger.getLogger(EmployeeSearchEngine.class.getName());
 
+    private static final LatencyRecorder FIND_BY_DEPARTMENT_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.findByDepartment");
+    private static final LatencyRecorder FIND_BY_NAME_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.findByName");
+    private static final LatencyRecorder FIND_BY_MINIMUM_RATING_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.findByMinimumRating");
+    private static final LatencyRecorder FIND_BY_SALARY_RANGE_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.findBySalaryRange");
+    private static final LatencyRecorder FIND_BY_DEPARTMENT_AND_MINIMUM_RATING_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.findByDepartmentAndMinimumRating");
+    private static final LatencyRecorder FIND_ACTIVE_EMPLOYEES_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.findActiveEmployees");
+    private static final LatencyRecorder GET_ALL_EMPLOYEES_BY_EXPERIENCE_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.getAllEmployeesByExperience");
+    private static final LatencyRecorder GET_ALL_EMPLOYEES_BY_SALARY_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.getAllEmployeesBySalary");
+    private static final LatencyRecorder GET_ALL_EMPLOYEES_BY_PERFORMANCE_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.getAllEmployeesByPerformance");
+    private static final LatencyRecorder GET_ALL_EMPLOYEES_BY_DEPARTMENT_AND_SALARY_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.getAllEmployeesByDepartmentAndSalary");
+    private static final LatencyRecorder GET_ALL_EMPLOYEES_BY_PERFORMANCE_AND_EXPERIENCE_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.getAllEmployeesByPerformanceAndExperience");
+    private static final LatencyRecorder SORT_EMPLOYEES_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.sortEmployees");
+    private static final LatencyRecorder GET_DEPARTMENT_COUNTS_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.getDepartmentCounts");
+    private static final LatencyRecorder GET_AVERAGE_SALARY_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.getAverageSalary");
+    private static final LatencyRecorder FIND_TOP_PERFORMER_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.findTopPerformer");
+    private static final LatencyRecorder DISPLAY_SEARCH_RESULTS_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.displaySearchResults");
+    private static final LatencyRecorder ITERATOR_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.iterator");
+    private static final LatencyRecorder AS_OF_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.asOf");
+    private static final LatencyRecorder GET_DEPARTMENT_COUNTS_AS_OF_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.getDepartmentCountsAsOf");
+    private static final LatencyRecorder GET_AVERAGE_SALARY_AS_OF_LATENCY = OperationMetrics.recorder("EmployeeSearchEngine.getAverageSalaryAsOf");
+
 
     public EmployeeSearchEngine(EmployeeDB<T> database) {
         if (database == null) {
@@ -27,77 +59,163 @@ public class EmployeeSearchEngine<T> implements Iterable<Employee<T>> {
 
     // Previously implemented search methods remain the same...
     public List<Employee<T>> findByDepartment(String department) throws InvalidDepartmentException {
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
         try {
-            if (department == null || department.isEmpty()) {
-                throw new InvalidDepartmentException("Department cannot be null or empty");
+            try {
+                if (department == null || department.isEmpty()) {
+                    throw new InvalidDepartmentException("Department cannot be null or empty");
+                }
+
+                int departmentCode = DepartmentDictionary.getInstance().lookup(department);
+                List<Employee<T>> results = bitmapIndex().find(departmentCode, 0, false,
+                        emp -> emp.getDepartmentCode() == departmentCode);
+
+                logger.info("Found " + results.size() + " employees in department: " + department);
+                event.complete("findByDepartment", department, results.size());
+                return results;
+            } catch (InvalidDepartmentException e) {
+                logger.warning("Invalid department search: " + e.getMessage());
+                throw e;
+            } catch (Exception e) {
+                logger.severe("Error searching by department: " + e.getMessage());
+                throw new RuntimeException("Error searching by department", e);
             }
-
-            List<Employee<T>> results = database.getAllEmployees().stream()
-                    .filter(emp -> emp.getDepartment().equalsIgnoreCase(department))
-                    .collect(Collectors.toList());
-
-            logger.info("Found " + results.size() + " employees in department: " + department);
-            return results;
-        } catch (InvalidDepartmentException e) {
-            logger.warning("Invalid department search: " + e.getMessage());
-            throw e;
         } catch (Exception e) {
-            logger.severe("Error searching by department: " + e.getMessage());
-            throw new RuntimeException("Error searching by department", e);
+            FIND_BY_DEPARTMENT_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_BY_DEPARTMENT_LATENCY.recordSince(start);
         }
-
     }
 
     public List<Employee<T>> findByName(String searchTerm) {
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
         try {
-            if (searchTerm == null || searchTerm.isEmpty()) {
-                throw new EmployeeNotFoundException("Employee not found");
+            try {
+                if (searchTerm == null || searchTerm.isEmpty()) {
+                    throw new EmployeeNotFoundException("Employee not found");
+                }
+                String term = searchTerm.toLowerCase();
+                List<Employee<T>> results = database.findEmployees(emp -> emp.getName().toLowerCase().contains(term));
+                logger.info("Found " + results.size() + " employees in name: " + searchTerm);
+                event.complete("findByName", searchTerm, results.size());
+                return results;
+            } catch (EmployeeNotFoundException e) {
+                throw new RuntimeException(e);
             }
-            List<Employee<T>> results = database.getAllEmployees().stream()
-                    .filter(emp -> emp.getName().toLowerCase().contains(searchTerm.toLowerCase()))
-                    .collect(Collectors.toList());
-            logger.info("Found " + results.size() + " employees in name: " + searchTerm);
-            return results;
-        } catch (EmployeeNotFoundException e) {
-            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            FIND_BY_NAME_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_BY_NAME_LATENCY.recordSince(start);
         }
     }
 
     public List<Employee<T>> findByMinimumRating(double minRating) {
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
+        try {
+            try {
+                if (minRating < 0 || minRating > 5 || Double.isNaN(minRating)) {
+                    throw new IllegalArgumentException("Rating must be between 0 and 5");
+                }
+                List<Employee<T>> results = bitmapIndex().find(EmployeeBitmapIndex.ANY_DEPARTMENT, minRating, false,
+                        emp -> emp.getPerformanceRating() >= minRating);
+                logger.info("Found " + results.size() + " employees with rating >= " + minRating);
+                event.complete("findByMinimumRating", minRating, 5.0, results.size());
+                return results;
+            } catch (Exception e){
+                logger.severe("Error searching by performance rating: " + e.getMessage());
+                throw new RuntimeException("Error searching by performance rating", e);
+            }
+        } catch (RuntimeException e) {
+            FIND_BY_MINIMUM_RATING_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_BY_MINIMUM_RATING_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Find the employees of a department with at least the given rating, intersecting the
+     * department and rating bitmaps instead of testing every employee
+     * @param department The department name
+     * @param minRating The minimum performance rating, from 0 to 5
+     * @param activeOnly true to find active employees only
+     * @return The matching employees
+     * @throws InvalidDepartmentException if department is empty
+     */
+    public List<Employee<T>> findByDepartmentAndMinimumRating(String department, double minRating, boolean activeOnly)
+            throws InvalidDepartmentException {
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
         try {
+            if (department == null || department.isEmpty()) {
+                throw new InvalidDepartmentException("Department cannot be null or empty");
+            }
             if (minRating < 0 || minRating > 5 || Double.isNaN(minRating)) {
                 throw new IllegalArgumentException("Rating must be between 0 and 5");
             }
-            List<Employee<T>> results = database.getAllEmployees().stream()
-                    .filter(emp -> emp.getPerformanceRating() >= minRating)
-                    .collect(Collectors.toList());
-            logger.info("Found " + results.size() + " employees with rating >= " + minRating);
+            int departmentCode = DepartmentDictionary.getInstance().lookup(department);
+            List<Employee<T>> results = bitmapIndex().find(departmentCode, minRating, activeOnly,
+                    emp -> emp.getDepartmentCode() == departmentCode && emp.getPerformanceRating() >= minRating
+                            && (!activeOnly || emp.isActive()));
+            logger.info("Found " + results.size() + " employees in department " + department + " with rating >= " + minRating);
+            event.complete("findByDepartmentAndMinimumRating", department, results.size());
             return results;
-        } catch (Exception e){
-            logger.severe("Error searching by performance rating: " + e.getMessage());
-            throw new RuntimeException("Error searching by performance rating", e);
+        } catch (Exception e) {
+            FIND_BY_DEPARTMENT_AND_MINIMUM_RATING_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_BY_DEPARTMENT_AND_MINIMUM_RATING_LATENCY.recordSince(start);
         }
     }
 
     public List<Employee<T>> findBySalaryRange(double minSalary, double maxSalary) {
-        return database.getAllEmployees().stream()
-                .filter(emp -> emp.getSalary() >= minSalary && emp.getSalary() <= maxSalary)
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
+        try {
+            List<Employee<T>> results = database.findEmployees(emp -> emp.getSalary() >= minSalary && emp.getSalary() <= maxSalary);
+            event.complete("findBySalaryRange", minSalary, maxSalary, results.size());
+            return results;
+        } catch (RuntimeException e) {
+            FIND_BY_SALARY_RANGE_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_BY_SALARY_RANGE_LATENCY.recordSince(start);
+        }
     }
 
     public List<Employee<T>> findActiveEmployees() {
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
         try {
-            if (database.getAllEmployees().isEmpty()) {
-                throw new RuntimeException("Employee list is empty");
+            try {
+                if (database.getEmployeeCount() == 0) {
+                    throw new RuntimeException("Employee list is empty");
+                }
+
+                List<Employee<T>> results = bitmapIndex().find(EmployeeBitmapIndex.ANY_DEPARTMENT, 0, true,
+                        Employee::isActive);
+                event.complete("findActiveEmployees", "active", results.size());
+                return results;
+            } catch (Exception e){
+                throw new RuntimeException("Error searching by active employees", e);
             }
-
-            return database.getAllEmployees().stream()
-                    .filter(Employee::isActive)
-                    .collect(Collectors.toList());
-        } catch (Exception e){
-            throw new RuntimeException("Error searching by active employees", e);
+        } catch (RuntimeException e) {
+            FIND_ACTIVE_EMPLOYEES_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_ACTIVE_EMPLOYEES_LATENCY.recordSince(start);
         }
-
     }
 
 
@@ -109,9 +227,20 @@ public class EmployeeSearchEngine<T> implements Iterable<Employee<T>> {
      * @return List of employees sorted by years of experience (most experienced first)
      */
     public List<Employee<T>> getAllEmployeesByExperience() {
-        List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
-        Collections.sort(employees);  // Uses Employee's natural ordering (Comparable)
-        return employees;
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
+        try {
+            List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
+            Collections.sort(employees);  // Uses Employee's natural ordering (Comparable)
+            event.complete("getAllEmployeesByExperience", null, employees.size());
+            return employees;
+        } catch (RuntimeException e) {
+            GET_ALL_EMPLOYEES_BY_EXPERIENCE_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_ALL_EMPLOYEES_BY_EXPERIENCE_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -120,9 +249,20 @@ public class EmployeeSearchEngine<T> implements Iterable<Employee<T>> {
      * @return List of employees sorted by salary
      */
     public List<Employee<T>> getAllEmployeesBySalary() {
-        List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
-        employees.sort(new EmployeeSalaryComparator<>());
-        return employees;
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
+        try {
+            List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
+            employees.sort(new EmployeeSalaryComparator<>());
+            event.complete("getAllEmployeesBySalary", null, employees.size());
+            return employees;
+        } catch (RuntimeException e) {
+            GET_ALL_EMPLOYEES_BY_SALARY_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_ALL_EMPLOYEES_BY_SALARY_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -131,9 +271,20 @@ public class EmployeeSearchEngine<T> implements Iterable<Employee<T>> {
      * @return List of employees sorted by performance rating
      */
     public List<Employee<T>> getAllEmployeesByPerformance() {
-        List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
-        employees.sort(new EmployeePerformanceComparator<>());
-        return employees;
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
+        try {
+            List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
+            employees.sort(new EmployeePerformanceComparator<>());
+            event.complete("getAllEmployeesByPerformance", null, employees.size());
+            return employees;
+        } catch (RuntimeException e) {
+            GET_ALL_EMPLOYEES_BY_PERFORMANCE_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_ALL_EMPLOYEES_BY_PERFORMANCE_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -141,9 +292,20 @@ public class EmployeeSearchEngine<T> implements Iterable<Employee<T>> {
      * @return List of employees sorted by department and salary
      */
     public List<Employee<T>> getAllEmployeesByDepartmentAndSalary() {
-        List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
-        employees.sort(EmployeeComparatorFactory.byDepartmentThenSalary());
-        return employees;
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
+        try {
+            List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
+            employees.sort(EmployeeComparatorFactory.byDepartmentThenSalary());
+            event.complete("getAllEmployeesByDepartmentAndSalary", null, employees.size());
+            return employees;
+        } catch (RuntimeException e) {
+            GET_ALL_EMPLOYEES_BY_DEPARTMENT_AND_SALARY_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_ALL_EMPLOYEES_BY_DEPARTMENT_AND_SALARY_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -151,9 +313,20 @@ public class EmployeeSearchEngine<T> implements Iterable<Employee<T>> {
      * @return List of employees sorted by performance and experience
      */
     public List<Employee<T>> getAllEmployeesByPerformanceAndExperience() {
-        List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
-        employees.sort(EmployeeComparatorFactory.byPerformanceThenExperience());
-        return employees;
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
+        try {
+            List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
+            employees.sort(EmployeeComparatorFactory.byPerformanceThenExperience());
+            event.complete("getAllEmployeesByPerformanceAndExperience", null, employees.size());
+            return employees;
+        } catch (RuntimeException e) {
+            GET_ALL_EMPLOYEES_BY_PERFORMANCE_AND_EXPERIENCE_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_ALL_EMPLOYEES_BY_PERFORMANCE_AND_EXPERIENCE_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -162,52 +335,190 @@ public class EmployeeSearchEngine<T> implements Iterable<Employee<T>> {
      * @return Sorted list of employees
      */
     public List<Employee<T>> sortEmployees(Comparator<Employee<T>> comparator) {
-        List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
-        employees.sort(comparator);
-        return employees;
+        long start = System.nanoTime();
+        EmployeeSearchEvent event = new EmployeeSearchEvent();
+        event.begin();
+        try {
+            List<Employee<T>> employees = new ArrayList<>(database.getAllEmployees());
+            employees.sort(comparator);
+            event.complete("sortEmployees", null, employees.size());
+            return employees;
+        } catch (RuntimeException e) {
+            SORT_EMPLOYEES_LATENCY.recordError();
+            throw e;
+        } finally {
+            SORT_EMPLOYEES_LATENCY.recordSince(start);
+        }
     }
 
     // Existing utility methods...
     public Map<String, Long> getDepartmentCounts() {
-        return database.getAllEmployees().stream()
-                .collect(Collectors.groupingBy(Employee::getDepartment, Collectors.counting()));
+        long start = System.nanoTime();
+        try {
+            return new EmployeeAggregator<>(database).groupBy(GroupKey.DEPARTMENT, List.of(Aggregate.count())).counts();
+        } catch (RuntimeException e) {
+            GET_DEPARTMENT_COUNTS_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_DEPARTMENT_COUNTS_LATENCY.recordSince(start);
+        }
     }
 
     public double getAverageSalary() {
-        return database.getAllEmployees().stream()
-                .mapToDouble(Employee::getSalary)
-                .average()
-                .orElse(0.0);
+        long start = System.nanoTime();
+        try {
+            return database.aggregate(DoubleSummaryStatistics::new, (stats, emp) -> stats.accept(emp.getSalary()),
+                    (left, right) -> {
+                        left.combine(right);
+                        return left;
+                    }).getAverage();
+        } catch (RuntimeException e) {
+            GET_AVERAGE_SALARY_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_AVERAGE_SALARY_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Get a search engine over the roster as it was at a point in time, so every search
+     * runs against the historical state; see {@link EmployeeDB#asOf(Instant)}
+     * @param when The point in time
+     * @return A search engine over a read-only copy of the roster of that time
+     * @throws IllegalStateException if the database is not recording history
+     */
+    public EmployeeSearchEngine<T> asOf(Instant when) {
+        long start = System.nanoTime();
+        try {
+            return new EmployeeSearchEngine<>(database.asOf(when));
+        } catch (RuntimeException e) {
+            AS_OF_LATENCY.recordError();
+            throw e;
+        } finally {
+            AS_OF_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Count the employees per department at a point in time from the recorded totals,
+     * without rebuilding the roster
+     * @param when The point in time
+     * @return Map of department names to employee counts then
+     * @throws IllegalStateException if the database is not recording history
+     */
+    public Map<String, Long> getDepartmentCountsAsOf(Instant when) {
+        long start = System.nanoTime();
+        try {
+            return database.timeline().departmentTotalsAsOf(when, false).counts();
+        } catch (RuntimeException e) {
+            GET_DEPARTMENT_COUNTS_AS_OF_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_DEPARTMENT_COUNTS_AS_OF_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * @param when The point in time
+     * @return The average salary at that time, 0 if there were no employees
+     * @throws IllegalStateException if the database is not recording history
+     */
+    public double getAverageSalaryAsOf(Instant when) {
+        long start = System.nanoTime();
+        try {
+            DepartmentTotals totals = database.timeline().departmentTotalsAsOf(when, false);
+            long count = totals.totalCount();
+            return count == 0 ? 0 : totals.totalSum() / count;
+        } catch (RuntimeException e) {
+            GET_AVERAGE_SALARY_AS_OF_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_AVERAGE_SALARY_AS_OF_LATENCY.recordSince(start);
+        }
     }
 
     public Employee<T> findTopPerformer() {
-        return database.getAllEmployees().stream()
-                .max((e1, e2) -> Double.compare(e1.getPerformanceRating(), e2.getPerformanceRating()))
-                .orElse(null);
+        long start = System.nanoTime();
+        try {
+            List<Employee<T>> top = database.findTop(1,
+                    (e1, e2) -> Double.compare(e2.getPerformanceRating(), e1.getPerformanceRating()));
+            return top.isEmpty() ? null : top.get(0);
+        } catch (RuntimeException e) {
+            FIND_TOP_PERFORMER_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_TOP_PERFORMER_LATENCY.recordSince(start);
+        }
     }
 
     public void displaySearchResults(List<Employee<T>> employees) {
-        if (employees.isEmpty()) {
-            System.out.println("No matching employees found.");
-            return;
-        }
+        long start = System.nanoTime();
+        try {
+            if (employees.isEmpty()) {
+                System.out.println("No matching employees found.");
+                return;
+            }
 
-        System.out.println("===== Search Results =====");
-        System.out.println("Found " + employees.size() + " matching employees:");
-        employees.forEach(System.out::println);
-        System.out.println("=========================");
+            System.out.println("===== Search Results =====");
+            System.out.println("Found " + employees.size() + " matching employees:");
+            employees.forEach(System.out::println);
+            System.out.println("=========================");
+        } catch (RuntimeException e) {
+            DISPLAY_SEARCH_RESULTS_LATENCY.recordError();
+            throw e;
+        } finally {
+            DISPLAY_SEARCH_RESULTS_LATENCY.recordSince(start);
+        }
     }
 
     @Override
     public Iterator<Employee<T>> iterator() {
-        return new EmployeeIterator();
+        long start = System.nanoTime();
+        try {
+            return new EmployeeIterator();
+        } catch (RuntimeException e) {
+            ITERATOR_LATENCY.recordError();
+            throw e;
+        } finally {
+            ITERATOR_LATENCY.recordSince(start);
+        }
     }
 
+    /**
+     * @return A spliterator over the database storage, without copying the roster
+     */
+    @Override
+    public Spliterator<Employee<T>> spliterator() {
+        return database.spliterator();
+    }
+
+    /**
+     * Stream the roster in parallel straight from the storage, which is split across the
+     * common fork-join pool instead of being copied into a list first
+     * @return A parallel stream of all employees
+     */
+    public Stream<Employee<T>> parallelStream() {
+        return StreamSupport.stream(database.spliterator(), true);
+    }
+
+    private EmployeeBitmapIndex<T> bitmapIndex() {
+        EmployeeBitmapIndex<T> index = bitmapIndex;
+        if (index == null) {
+            index = database.follower(EmployeeBitmapIndex.class, EmployeeBitmapIndex::follow);
+            bitmapIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Iterates the storage through its spliterator, so no copy of the roster is made and
+     * changes during the iteration are handled as the storage's spliterator handles them
+     */
     private class EmployeeIterator implements Iterator<Employee<T>> {
-        private Iterator<Employee<T>> iterator;
+        private final Iterator<Employee<T>> iterator;
 
         public EmployeeIterator() {
-            this.iterator = database.getAllEmployees().iterator();
+            this.iterator = Spliterators.iterator(database.spliterator());
         }
 
         @Override
@@ -0,0 +1,421 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Versioned records of a database, kept as a change listener, for queries about the roster
+ * as it was at a past point in time.
+ *
+ * Salaries are kept in a {@link SalaryHistory}, which also knows when each employee was in
+ * the database. The other fields change rarely, so a new version of them is only stored
+ * when one of them changes; versions are linked newest first and stored field by field in
+ * primitive arrays, sharing the interned names. Rebuilding one employee walks back from its
+ * newest version, and rebuilding the roster visits every employee once.
+ *
+ * Aggregates do not rebuild the roster. Every change is also logged, in time order, as the
+ * change it makes to the count and salary total of a department, split into active and
+ * inactive employees; changes to the same department within the same millisecond share one
+ * entry, so a bulk raise logs about one entry per department per millisecond it runs. Every
+ * {@value #CHECKPOINT_INTERVAL} entries the running totals are kept as a checkpoint, so the
+ * totals at any time are the checkpoint before it plus at most that many entries.
+ */
+public class EmployeeTimeline<T> implements EmployeeChangeListener<T> {
+    private static final int CHECKPOINT_INTERVAL = 1 << 14;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_VERSION = -1;
+    private static final int NOT_COUNTED = -1;
+
+    private final Clock clock;
+    // The followed database, whose stored state is recorded instead of the announced change
+    private EmployeeDB<T> database;
+    // Also the lock of the whole timeline, so reading the salaries directly is consistent with it
+    private final SalaryHistory<T> salaries;
+    private long latestMillis = Long.MIN_VALUE;
+
+    // Per slot of the salary history: the ID, the newest version and what the slot adds to the totals
+    private int slotCount;
+    private Object[] slotIds = new Object[INITIAL_CAPACITY];
+    private int[] newestVersion = new int[INITIAL_CAPACITY];
+    private int[] countedKey = new int[INITIAL_CAPACITY];
+    private long[] countedCents = new long[INITIAL_CAPACITY];
+
+    // Versions of the fields other than the salary, each linked to the previous one of its employee
+    private int versionCount;
+    private long[] versionMillis = new long[INITIAL_CAPACITY];
+    private int[] previousVersion = new int[INITIAL_CAPACITY];
+    private String[] versionNames = new String[INITIAL_CAPACITY];
+    private int[] versionDepartments = new int[INITIAL_CAPACITY];
+    private double[] versionRatings = new double[INITIAL_CAPACITY];
+    private int[] versionYears = new int[INITIAL_CAPACITY];
+    private boolean[] versionActive = new boolean[INITIAL_CAPACITY];
+
+    // Log of changes to the totals; a key is the department code shifted left, plus one if active
+    private int logSize;
+    private long[] logMillis = new long[INITIAL_CAPACITY];
+    private int[] logKeys = new int[INITIAL_CAPACITY];
+    private int[] logCounts = new int[INITIAL_CAPACITY];
+    private long[] logCents = new long[INITIAL_CAPACITY];
+
+    // Totals per key after all logged changes, and after each multiple of CHECKPOINT_INTERVAL entries
+    private long[] liveCounts = new long[0];
+    private long[] liveCents = new long[0];
+    private final List<long[]> checkpointCounts = new ArrayList<>();
+    private final List<long[]> checkpointCents = new ArrayList<>();
+
+    // Entries logged in the current millisecond, by key, which later changes are merged into
+    private long runMillis = Long.MIN_VALUE;
+    private int runStart;
+    private int[] runEntries = new int[0];
+
+    public EmployeeTimeline() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * @param clock The clock changes are timestamped with
+     */
+    public EmployeeTimeline(Clock clock) {
+        this.salaries = new SalaryHistory<>(clock);
+        this.clock = clock;
+        checkpointCounts.add(new long[0]);
+        checkpointCents.add(new long[0]);
+    }
+
+    /**
+     * Start recording the history of a database. The current employees are recorded as of
+     * now, since their earlier history is unknown.
+     * @param database The database to follow
+     * @param clock The clock changes are timestamped with
+     * @return The timeline
+     */
+    public static <T> EmployeeTimeline<T> follow(EmployeeDB<T> database, Clock clock) {
+        EmployeeTimeline<T> timeline = new EmployeeTimeline<>(clock);
+        timeline.database = database;
+        // Registered first so no change is missed; recording an unchanged employee twice is a no-op
+        database.addChangeListener(timeline);
+        // Each employee is read again under its ID lock, which must not be taken inside a scan
+        for (Employee<T> employee : database.findEmployees(employee -> true)) {
+            timeline.employeeSaved(employee);
+        }
+        return timeline;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return The salary history the timeline records salaries in, for reading only; it must
+     * not be registered as a listener of its own
+     */
+    public SalaryHistory<T> getSalaryHistory() {
+        return salaries;
+    }
+
+    @Override
+    public void employeeSaved(Employee<T> employee) {
+        synchronized (salaries) {
+            if (database == null) {
+                saved(employee);
+            } else {
+                recordCurrent(employee.getEmployeeId());
+            }
+        }
+    }
+
+    @Override
+    public void employeeRemoved(T employeeId) {
+        synchronized (salaries) {
+            if (database == null) {
+                removed(employeeId);
+            } else {
+                recordCurrent(employeeId);
+            }
+        }
+    }
+
+    /**
+     * Record the employee as the followed database stores it now. Changes can be announced
+     * out of order, e.g. the save of an update after the removal that followed it, which
+     * would otherwise count the removed employee in the totals again.
+     */
+    private void recordCurrent(T employeeId) {
+        database.readCurrent(employeeId, employee -> {
+            if (employee == null) {
+                removed(employeeId);
+            } else {
+                saved(employee);
+            }
+            return null;
+        });
+    }
+
+    private void saved(Employee<T> employee) {
+        long millis = now();
+        long cents = SalaryHistory.toCents(employee.getSalary());
+        int slot = salaries.record(employee.getEmployeeId(), millis, cents);
+        if (slot == slotCount) {
+            addSlot(employee.getEmployeeId());
+        }
+        if (fieldsChanged(slot, employee)) {
+            addVersion(slot, millis, employee);
+        }
+        count(slot, millis, keyOf(employee.getDepartmentCode(), employee.isActive()), cents);
+    }
+
+    private void removed(T employeeId) {
+        long millis = now();
+        int slot = salaries.recordRemoval(employeeId, millis);
+        if (slot >= 0) {
+            count(slot, millis, NOT_COUNTED, 0);
+        }
+    }
+
+    /**
+     * Rebuild an employee as it was at a point in time
+     * @param employeeId The employee
+     * @param when The point in time
+     * @return A read-only copy of the employee, or null if it was not in the database then
+     */
+    public Employee<T> getEmployeeAsOf(T employeeId, Instant when) {
+        synchronized (salaries) {
+            int slot = salaries.slotOf(employeeId);
+            return slot < 0 ? null : rebuild(slot, SalaryHistory.toMillis(when));
+        }
+    }
+
+    /**
+     * Rebuild the whole roster as it was at a point in time, visiting every employee once
+     * @param when The point in time
+     * @return Read-only copies of the employees in the database then
+     */
+    public List<Employee<T>> getEmployeesAsOf(Instant when) {
+        long millis = SalaryHistory.toMillis(when);
+        synchronized (salaries) {
+            List<Employee<T>> roster = new ArrayList<>();
+            for (int slot = 0; slot < slotCount; slot++) {
+                Employee<T> employee = rebuild(slot, millis);
+                if (employee != null) {
+                    roster.add(employee);
+                }
+            }
+            return roster;
+        }
+    }
+
+    /**
+     * @param when The point in time
+     * @return Number of employees in the database then
+     */
+    public int getEmployeeCountAsOf(Instant when) {
+        long[][] totals = totalsAsOf(SalaryHistory.toMillis(when));
+        long count = 0;
+        for (long keyCount : totals[0]) {
+            count += keyCount;
+        }
+        return (int) count;
+    }
+
+    /**
+     * Get the salary totals per department at a point in time from the nearest checkpoint
+     * @param when The point in time
+     * @param activeOnly true to leave out the employees that were inactive then
+     * @return The sums and counts of the salaries per department code
+     */
+    DepartmentTotals departmentTotalsAsOf(Instant when, boolean activeOnly) {
+        long[][] totals = totalsAsOf(SalaryHistory.toMillis(when));
+        DepartmentTotals departments = new DepartmentTotals();
+        for (int key = 0; key < totals[0].length; key++) {
+            if (totals[0][key] > 0 && (!activeOnly || (key & 1) == 1)) {
+                departments.add(key >>> 1, totals[1][key] / 100.0, totals[0][key]);
+            }
+        }
+        return departments;
+    }
+
+    /**
+     * @return Bytes used by the salary history, the versions and the change log, without the ID index
+     */
+    public long getMemoryBytes() {
+        synchronized (salaries) {
+            long perSlot = 2L * Integer.BYTES + Long.BYTES + 8;
+            long perVersion = Long.BYTES + 3L * Integer.BYTES + 8 + Double.BYTES + 1;
+            long perEntry = 2L * Long.BYTES + 2L * Integer.BYTES;
+            long checkpoints = 2L * checkpointCounts.size() * liveCounts.length * Long.BYTES;
+            return salaries.getMemoryBytes() + perSlot * slotIds.length + perVersion * versionMillis.length
+                    + perEntry * logMillis.length + checkpoints;
+        }
+    }
+
+    private long now() {
+        // A clock that steps back must not put the log out of order
+        latestMillis = Math.max(latestMillis, clock.millis());
+        return latestMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Employee<T> rebuild(int slot, long millis) {
+        long cents = salaries.centsAt(slot, millis);
+        if (cents == SalaryHistory.NOT_EMPLOYED) {
+            return null;
+        }
+        int version = newestVersion[slot];
+        while (version != NO_VERSION && versionMillis[version] > millis) {
+            version = previousVersion[version];
+        }
+        if (version == NO_VERSION) {
+            return null;
+        }
+        return new HistoricalEmployee<>((T) slotIds[slot], versionNames[version], versionDepartments[version],
+                cents / 100.0, versionRatings[version], versionYears[version], versionActive[version]);
+    }
+
+    private void addSlot(T employeeId) {
+        if (slotCount == slotIds.length) {
+            int length = slotCount * 2;
+            slotIds = Arrays.copyOf(slotIds, length);
+            newestVersion = Arrays.copyOf(newestVersion, length);
+            countedKey = Arrays.copyOf(countedKey, length);
+            countedCents = Arrays.copyOf(countedCents, length);
+        }
+        slotIds[slotCount] = employeeId;
+        newestVersion[slotCount] = NO_VERSION;
+        countedKey[slotCount] = NOT_COUNTED;
+        slotCount++;
+    }
+
+    private boolean fieldsChanged(int slot, Employee<T> employee) {
+        int version = newestVersion[slot];
+        return version == NO_VERSION
+                || !versionNames[version].equals(employee.getName())
+                || versionDepartments[version] != employee.getDepartmentCode()
+                || versionRatings[version] != employee.getPerformanceRating()
+                || versionYears[version] != employee.getYearsOfExperience()
+                || versionActive[version] != employee.isActive();
+    }
+
+    private void addVersion(int slot, long millis, Employee<T> employee) {
+        if (versionCount == versionMillis.length) {
+            int length = versionCount * 2;
+            versionMillis = Arrays.copyOf(versionMillis, length);
+            previousVersion = Arrays.copyOf(previousVersion, length);
+            versionNames = Arrays.copyOf(versionNames, length);
+            versionDepartments = Arrays.copyOf(versionDepartments, length);
+            versionRatings = Arrays.copyOf(versionRatings, length);
+            versionYears = Arrays.copyOf(versionYears, length);
+            versionActive = Arrays.copyOf(versionActive, length);
+        }
+        int version = versionCount++;
+        versionMillis[version] = millis;
+        previousVersion[version] = newestVersion[slot];
+        versionNames[version] = employee.getName();
+        versionDepartments[version] = employee.getDepartmentCode();
+        versionRatings[version] = employee.getPerformanceRating();
+        versionYears[version] = employee.getYearsOfExperience();
+        versionActive[version] = employee.isActive();
+        newestVersion[slot] = version;
+    }
+
+    /**
+     * Move what a slot adds to the totals to a new key and salary, NOT_COUNTED once removed
+     */
+    private void count(int slot, long millis, int key, long cents) {
+        int previousKey = countedKey[slot];
+        if (previousKey == key) {
+            if (key != NOT_COUNTED && cents != countedCents[slot]) {
+                log(millis, key, 0, cents - countedCents[slot]);
+            }
+        } else {
+            if (previousKey != NOT_COUNTED) {
+                log(millis, previousKey, -1, -countedCents[slot]);
+            }
+            if (key != NOT_COUNTED) {
+                log(millis, key, 1, cents);
+            }
+        }
+        countedKey[slot] = key;
+        countedCents[slot] = key == NOT_COUNTED ? 0 : cents;
+    }
+
+    private void log(long millis, int key, int countDelta, long centsDelta) {
+        if (key >= liveCounts.length) {
+            int length = Math.max(key + 1, liveCounts.length * 2);
+            liveCounts = Arrays.copyOf(liveCounts, length);
+            liveCents = Arrays.copyOf(liveCents, length);
+            int known = runEntries.length;
+            runEntries = Arrays.copyOf(runEntries, length);
+            Arrays.fill(runEntries, known, length, -1);
+        }
+        if (millis == runMillis && runEntries[key] >= runStart) {
+            int entry = runEntries[key];
+            logCounts[entry] += countDelta;
+            logCents[entry] += centsDelta;
+        } else {
+            if (logSize > 0 && logSize % CHECKPOINT_INTERVAL == 0) {
+                // The live totals cover exactly the entries before this one
+                checkpointCounts.add(liveCounts.clone());
+                checkpointCents.add(liveCents.clone());
+                runStart = logSize;
+            }
+            if (millis != runMillis) {
+                runMillis = millis;
+                runStart = logSize;
+            }
+            if (logSize == logMillis.length) {
+                int length = logSize * 2;
+                logMillis = Arrays.copyOf(logMillis, length);
+                logKeys = Arrays.copyOf(logKeys, length);
+                logCounts = Arrays.copyOf(logCounts, length);
+                logCents = Arrays.copyOf(logCents, length);
+            }
+            logMillis[logSize] = millis;
+            logKeys[logSize] = key;
+            logCounts[logSize] = countDelta;
+            logCents[logSize] = centsDelta;
+            runEntries[key] = logSize++;
+        }
+        liveCounts[key] += countDelta;
+        liveCents[key] += centsDelta;
+    }
+
+    /**
+     * @return The counts and the salary totals in cents per key at a point in time
+     */
+    private long[][] totalsAsOf(long millis) {
+        synchronized (salaries) {
+            // Number of entries logged at or before the time
+            int low = 0;
+            int high = logSize;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (logMillis[mid] <= millis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int end = low;
+            if (end == logSize) {
+                return new long[][]{liveCounts.clone(), liveCents.clone()};
+            }
+            int checkpoint = Math.min(end / CHECKPOINT_INTERVAL, checkpointCounts.size() - 1);
+            long[] counts = Arrays.copyOf(checkpointCounts.get(checkpoint), liveCounts.length);
+            long[] cents = Arrays.copyOf(checkpointCents.get(checkpoint), liveCents.length);
+            for (int entry = checkpoint * CHECKPOINT_INTERVAL; entry < end; entry++) {
+                counts[logKeys[entry]] += logCounts[entry];
+                cents[logKeys[entry]] += logCents[entry];
+            }
+            return new long[][]{counts, cents};
+        }
+    }
+
+    private static int keyOf(int departmentCode, boolean active) {
+        return departmentCode << 1 | (active ? 1 : 0);
+    }
+}
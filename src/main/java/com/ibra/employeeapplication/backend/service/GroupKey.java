@@ -0,0 +1,99 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.DepartmentDictionary;
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+/**
+ * What {@link EmployeeAggregator} groups employees by. Every key maps an employee to a
+ * small group number, so the aggregates can be kept in arrays indexed by group instead
+ * of a map: the department code, or the position of a fixed band.
+ */
+public enum GroupKey {
+    DEPARTMENT {
+        @Override
+        public int groupOf(Employee<?> employee) {
+            return employee.getDepartmentCode();
+        }
+
+        @Override
+        public String label(int group) {
+            return DepartmentDictionary.getInstance().decode(group);
+        }
+
+        @Override
+        int initialGroups() {
+            return DepartmentDictionary.getInstance().size();
+        }
+    },
+
+    RATING_GROUP("Poor (0-1.9)", "Fair (2.0-2.9)", "Good (3.0-3.9)", "Excellent (4.0-4.4)", "Outstanding (4.5-5.0)") {
+        @Override
+        public int groupOf(Employee<?> employee) {
+            double rating = employee.getPerformanceRating();
+            if (rating < 2.0) return 0;
+            else if (rating < 3.0) return 1;
+            else if (rating < 4.0) return 2;
+            else if (rating < 4.5) return 3;
+            else return 4;
+        }
+    },
+
+    EXPERIENCE_BAND("0-2 years", "3-5 years", "6-10 years", "11-20 years", "21+ years") {
+        @Override
+        public int groupOf(Employee<?> employee) {
+            int years = employee.getYearsOfExperience();
+            if (years <= 2) return 0;
+            else if (years <= 5) return 1;
+            else if (years <= 10) return 2;
+            else if (years <= 20) return 3;
+            else return 4;
+        }
+    },
+
+    SALARY_RANGE("Below $50,000", "$50,000 - $74,999", "$75,000 - $99,999", "$100,000 - $124,999", "$125,000 and above") {
+        @Override
+        public int groupOf(Employee<?> employee) {
+            double salary = employee.getSalary();
+            if (salary < 50000) return 0;
+            else if (salary < 75000) return 1;
+            else if (salary < 100000) return 2;
+            else if (salary < 125000) return 3;
+            else return 4;
+        }
+    },
+
+    ACTIVE("Inactive", "Active") {
+        @Override
+        public int groupOf(Employee<?> employee) {
+            return employee.isActive() ? 1 : 0;
+        }
+    };
+
+    // Labels of the fixed bands, empty for department codes
+    private final String[] labels;
+
+    GroupKey(String... labels) {
+        this.labels = labels;
+    }
+
+    /**
+     * @param employee The employee
+     * @return The group number of the employee, from 0
+     */
+    public abstract int groupOf(Employee<?> employee);
+
+    /**
+     * @param group A group number
+     * @return The name of the group, e.g. the department name or "3-5 years"
+     */
+    public String label(int group) {
+        return labels[group];
+    }
+
+    /**
+     * @return Number of groups to allocate up front; department codes added later grow it
+     */
+    int initialGroups() {
+        return labels.length;
+    }
+}
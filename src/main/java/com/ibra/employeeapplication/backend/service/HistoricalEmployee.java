@@ -0,0 +1,113 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.DepartmentDictionary;
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+/**
+ * An employee as it was at a point in time, rebuilt by an {@link EmployeeTimeline}.
+ * The past cannot be edited, so every setter throws.
+ */
+final class HistoricalEmployee<T> extends Employee<T> {
+    private final T employeeId;
+    private final String name;
+    private final int departmentCode;
+    private final double salary;
+    private final double performanceRating;
+    private final int yearsOfExperience;
+    private final boolean active;
+
+    HistoricalEmployee(T employeeId, String name, int departmentCode, double salary,
+                       double performanceRating, int yearsOfExperience, boolean active) {
+        this.employeeId = employeeId;
+        this.name = name;
+        this.departmentCode = departmentCode;
+        this.salary = salary;
+        this.performanceRating = performanceRating;
+        this.yearsOfExperience = yearsOfExperience;
+        this.active = active;
+    }
+
+    @Override
+    public T getEmployeeId() {
+        return employeeId;
+    }
+
+    @Override
+    public void setEmployeeId(T employeeId) {
+        throw readOnly();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setName(String name) {
+        throw readOnly();
+    }
+
+    @Override
+    public String getDepartment() {
+        return DepartmentDictionary.getInstance().decode(departmentCode);
+    }
+
+    @Override
+    public int getDepartmentCode() {
+        return departmentCode;
+    }
+
+    @Override
+    public void setDepartment(String department) {
+        throw readOnly();
+    }
+
+    @Override
+    public double getSalary() {
+        return salary;
+    }
+
+    @Override
+    public void setSalary(double salary) {
+        throw readOnly();
+    }
+
+    @Override
+    public double getPerformanceRating() {
+        return performanceRating;
+    }
+
+    @Override
+    public void setPerformanceRating(double performanceRating) {
+        throw readOnly();
+    }
+
+    @Override
+    public int getYearsOfExperience() {
+        return yearsOfExperience;
+    }
+
+    @Override
+    public void setYearsOfExperience(int yearsOfExperience) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public void setActive(boolean active) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setVersion(long version) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Past employee records cannot be changed");
+    }
+}
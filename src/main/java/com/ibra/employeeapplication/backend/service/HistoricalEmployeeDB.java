@@ -0,0 +1,34 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only database holding the roster as it was at a point in time, see
+ * {@link EmployeeDB#asOf(java.time.Instant)}. Searches and aggregates run on it like on
+ * the live database.
+ */
+final class HistoricalEmployeeDB<T> extends EmployeeDB<T> {
+
+    private HistoricalEmployeeDB(Map<T, Employee<T>> storage) {
+        super(storage);
+    }
+
+    static <T> HistoricalEmployeeDB<T> of(List<Employee<T>> roster) {
+        Map<T, Employee<T>> storage = HashMap.newHashMap(roster.size());
+        HistoricalEmployeeDB<T> database = new HistoricalEmployeeDB<>(storage);
+        // Filled after the constructor, which only accepts empty storage
+        for (Employee<T> employee : roster) {
+            storage.put(employee.getEmployeeId(), employee);
+        }
+        return database;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
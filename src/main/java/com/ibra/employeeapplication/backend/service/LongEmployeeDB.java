@@ -0,0 +1,71 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+import com.ibra.employeeapplication.backend.storage.LongEmployeeMap;
+
+/**
+ * EmployeeDB specialized for long employee IDs.
+ * Employees are kept in an open-addressing {@link LongEmployeeMap} instead of a HashMap,
+ * and the long overloads look up and remove employees without boxing the ID.
+ */
+public class LongEmployeeDB extends EmployeeDB<Long> {
+    private static final LatencyRecorder GET_EMPLOYEE_BY_ID_LATENCY = OperationMetrics.recorder("EmployeeDB.getEmployeeById");
+
+    private final LongEmployeeMap employees;
+
+    public LongEmployeeDB() {
+        this(new LongEmployeeMap());
+    }
+
+    /**
+     * @param expectedSize Number of employees to size the storage for up front
+     */
+    public LongEmployeeDB(int expectedSize) {
+        this(new LongEmployeeMap(expectedSize));
+    }
+
+    private LongEmployeeDB(LongEmployeeMap employees) {
+        super(employees);
+        this.employees = employees;
+    }
+
+    /**
+     * Get employee by ID without boxing the ID
+     * @param employeeId The ID of the employee to retrieve
+     * @return The employee object or null if not found
+     */
+    public Employee<Long> getEmployeeById(long employeeId) {
+        long start = System.nanoTime();
+        try {
+            return employees.get(employeeId);
+        } finally {
+            GET_EMPLOYEE_BY_ID_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Check whether an employee exists without boxing the ID
+     * @param employeeId The ID to look for
+     * @return true if an employee with that ID is stored
+     */
+    public boolean containsEmployee(long employeeId) {
+        return employees.containsKey(employeeId);
+    }
+
+    /**
+     * Remove an employee from the database without boxing the ID
+     * @param employeeId The ID of the employee to remove
+     * @return true if removed successfully, false if employee wasn't found
+     */
+    public boolean removeEmployee(long employeeId) {
+        Employee<Long> employee = employees.get(employeeId);
+        if (employee == null) {
+            System.out.println("Employee with ID " + employeeId + " not found.");
+            return false;
+        }
+        // Reuse the ID object the employee already holds
+        return removeEmployee(employee.getEmployeeId());
+    }
+}
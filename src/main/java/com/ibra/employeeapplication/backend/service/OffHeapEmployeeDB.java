@@ -0,0 +1,98 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
+import com.ibra.employeeapplication.backend.storage.OffHeapEmployeeStore;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * EmployeeDB that keeps the roster outside the Java heap in an {@link OffHeapEmployeeStore},
+ * so heap usage and GC pauses do not grow with the number of employees.
+ * Searches and aggregates scan the off-heap records through a reused cursor and only
+ * create employee views for the matches; aggregates scan the slabs in parallel, each
+ * through its own cursor.
+ */
+public class OffHeapEmployeeDB<T> extends EmployeeDB<T> {
+    private static final LatencyRecorder FIND_EMPLOYEES_LATENCY = OperationMetrics.recorder("EmployeeDB.findEmployees");
+    private static final LatencyRecorder FOR_EACH_EMPLOYEE_LATENCY = OperationMetrics.recorder("EmployeeDB.forEachEmployee");
+    private static final LatencyRecorder AGGREGATE_LATENCY = OperationMetrics.recorder("EmployeeDB.aggregate");
+
+    private final OffHeapEmployeeStore<T> employees;
+
+    public OffHeapEmployeeDB(IdCodec<T> idCodec) {
+        this(new OffHeapEmployeeStore<>(idCodec));
+    }
+
+    /**
+     * @param idCodec Encoding of the employee IDs
+     * @param expectedSize Number of employees to size the ID index for up front
+     */
+    public OffHeapEmployeeDB(IdCodec<T> idCodec, int expectedSize) {
+        this(new OffHeapEmployeeStore<>(idCodec, expectedSize));
+    }
+
+    private OffHeapEmployeeDB(OffHeapEmployeeStore<T> employees) {
+        super(employees);
+        this.employees = employees;
+    }
+
+    /**
+     * @return Bytes of direct memory reserved for the roster
+     */
+    public long getOffHeapBytes() {
+        return employees.getOffHeapBytes();
+    }
+
+    @Override
+    IdCodec<T> idCodec() {
+        return employees.getIdCodec();
+    }
+
+    @Override
+    public List<Employee<T>> findEmployees(Predicate<? super Employee<T>> filter) {
+        long start = System.nanoTime();
+        try {
+            return employees.filter(filter);
+        } catch (RuntimeException e) {
+            FIND_EMPLOYEES_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_EMPLOYEES_LATENCY.recordSince(start);
+        }
+    }
+
+    @Override
+    public void forEachEmployee(Consumer<? super Employee<T>> action) {
+        long start = System.nanoTime();
+        try {
+            employees.forEachRecord(action);
+        } catch (RuntimeException e) {
+            FOR_EACH_EMPLOYEE_LATENCY.recordError();
+            throw e;
+        } finally {
+            FOR_EACH_EMPLOYEE_LATENCY.recordSince(start);
+        }
+    }
+
+    @Override
+    public <A> A aggregate(Supplier<A> supplier, BiConsumer<A, ? super Employee<T>> accumulator,
+                           BinaryOperator<A> combiner) {
+        long start = System.nanoTime();
+        try {
+            return employees.aggregate(supplier, accumulator, combiner);
+        } catch (RuntimeException e) {
+            AGGREGATE_LATENCY.recordError();
+            throw e;
+        } finally {
+            AGGREGATE_LATENCY.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.exception.EmployeeNotFoundException;
+import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
+import com.ibra.employeeapplication.backend.exception.InvalidSalaryException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.LongFunction;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Deterministic synthetic roster generator for load and scale testing.
+ *
+ * Employees are generated in fixed-size chunks, each chunk with its own random stream
+ * derived from the seed and the chunk index, so the same seed always produces the same
+ * roster no matter how many threads take part in the generation.
+ */
+public class RosterGenerator<T> {
+    private static final Logger logger = Logger.getLogger(RosterGenerator.class.getName());
+
+    // Number of employees generated from one random stream
+    private static final int CHUNK_SIZE = 16_384;
+
+    private static final String[] DEFAULT_DEPARTMENTS = {
+            "IT", "HR", "Finance", "Marketing", "Sales", "Operations",
+            "Engineering", "Support", "Legal", "Research", "Procurement", "Logistics"
+    };
+
+    private static final String[] DEFAULT_FIRST_NAMES = {
+            "John", "Sarah", "Michael", "Emily", "Robert", "Jennifer", "David", "Jessica",
+            "Andrew", "Sophia", "James", "Olivia", "William", "Emma", "Daniel", "Ava",
+            "Kwame", "Ama", "Yaw", "Akosua", "Ibrahim", "Fatima", "Chen", "Mei",
+            "Luis", "Maria", "Ahmed", "Aisha", "Hiroshi", "Yuki", "Ivan", "Olga"
+    };
+
+    private static final String[] DEFAULT_LAST_NAMES = {
+            "James", "Johnson", "Brown", "Wilson", "Smith", "Lee", "Taylor", "Martinez",
+            "Chen", "Mensah", "Owusu", "Boateng", "Garcia", "Nguyen", "Kim", "Patel",
+            "Mohammed", "Rossi", "Muller", "Dubois", "Silva", "Tanaka", "Ivanov", "Khan"
+    };
+
+    private final long seed;
+    private final LongFunction<T> idFactory;
+
+    private String[] departments = DEFAULT_DEPARTMENTS;
+    private double departmentSkew = 1.0;
+    private double medianSalary = 70000.0;
+    private double salarySpread = 0.35;
+    private double meanRating = 3.5;
+    private double ratingStdDev = 0.8;
+    private double activeRatio = 0.9;
+    private String[] firstNames = DEFAULT_FIRST_NAMES;
+    private String[] lastNames = DEFAULT_LAST_NAMES;
+
+    /**
+     * @param seed Seed that fully determines the generated roster
+     * @param idFactory Maps the 0-based position of an employee in the roster to its ID
+     */
+    public RosterGenerator(long seed, LongFunction<T> idFactory) {
+        if (idFactory == null) {
+            throw new IllegalArgumentException("ID factory cannot be null");
+        }
+        this.seed = seed;
+        this.idFactory = idFactory;
+    }
+
+    /**
+     * ID factory producing UUIDs that are unique per position and reproducible for a seed
+     */
+    public static LongFunction<UUID> uuidIds(long seed) {
+        return position -> new UUID(seed, position);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String[] getDepartments() {
+        return departments.clone();
+    }
+
+    public void setDepartments(String[] departments) {
+        if (departments == null || departments.length == 0) {
+            throw new IllegalArgumentException("At least one department is required");
+        }
+        this.departments = departments.clone();
+    }
+
+    /**
+     * Use the given number of departments, taking the default names first and
+     * numbering the rest
+     */
+    public void setDepartmentCount(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("At least one department is required");
+        }
+        String[] names = Arrays.copyOf(DEFAULT_DEPARTMENTS, count);
+        for (int i = DEFAULT_DEPARTMENTS.length; i < count; i++) {
+            names[i] = "Department-" + i;
+        }
+        this.departments = names;
+    }
+
+    public double getDepartmentSkew() {
+        return departmentSkew;
+    }
+
+    /**
+     * Zipf exponent for the department sizes (0 means all departments are equally large)
+     */
+    public void setDepartmentSkew(double departmentSkew) {
+        if (departmentSkew < 0 || Double.isNaN(departmentSkew)) {
+            throw new IllegalArgumentException("Department skew cannot be negative");
+        }
+        this.departmentSkew = departmentSkew;
+    }
+
+    /**
+     * Salaries follow a log-normal distribution around the median
+     * @param medianSalary Median salary before the department and experience adjustments
+     * @param salarySpread Standard deviation of the underlying normal distribution
+     */
+    public void setSalaryDistribution(double medianSalary, double salarySpread) {
+        if (medianSalary <= 0 || salarySpread < 0) {
+            throw new IllegalArgumentException("Median salary must be positive and spread cannot be negative");
+        }
+        this.medianSalary = medianSalary;
+        this.salarySpread = salarySpread;
+    }
+
+    /**
+     * Ratings follow a normal distribution clipped to 0-5 and rounded to one decimal
+     */
+    public void setRatingDistribution(double meanRating, double ratingStdDev) {
+        if (meanRating < 0 || meanRating > 5 || ratingStdDev < 0) {
+            throw new IllegalArgumentException("Mean rating must be between 0 and 5 and deviation cannot be negative");
+        }
+        this.meanRating = meanRating;
+        this.ratingStdDev = ratingStdDev;
+    }
+
+    public double getActiveRatio() {
+        return activeRatio;
+    }
+
+    public void setActiveRatio(double activeRatio) {
+        if (activeRatio < 0 || activeRatio > 1) {
+            throw new IllegalArgumentException("Active ratio must be between 0 and 1");
+        }
+        this.activeRatio = activeRatio;
+    }
+
+    public void setNameVocabulary(String[] firstNames, String[] lastNames) {
+        if (firstNames == null || firstNames.length == 0 || lastNames == null || lastNames.length == 0) {
+            throw new IllegalArgumentException("Name vocabulary cannot be empty");
+        }
+        this.firstNames = firstNames.clone();
+        this.lastNames = lastNames.clone();
+    }
+
+    /**
+     * Generate a roster in parallel
+     * @param count Number of employees to generate
+     * @return The generated employees, in roster order
+     */
+    public List<Employee<T>> generate(int count) {
+        return Arrays.asList(generateRange(0, count));
+    }
+
+    /**
+     * Generate a roster and stream it into the database one batch of chunks at a time,
+     * so only a bounded number of not-yet-added employees exists at once
+     * @param database The database to fill
+     * @param count Number of employees to generate
+     * @return Number of employees added
+     */
+    public int populate(EmployeeDB<T> database, int count) {
+        if (database == null) {
+            throw new IllegalArgumentException("Database cannot be null");
+        }
+
+        int batchSize = CHUNK_SIZE * Runtime.getRuntime().availableProcessors();
+        int added = 0;
+        for (long start = 0; start < count; start += batchSize) {
+            long end = Math.min(count, start + batchSize);
+            added += database.addEmployees(Arrays.asList(generateRange(start, end)));
+        }
+        logger.info("Generated " + added + " employees with seed " + seed);
+        return added;
+    }
+
+    /**
+     * Generate a roster and write it as CSV, one batch of chunks at a time
+     * @param file The file to write
+     * @param count Number of employees to generate
+     */
+    public void writeCsv(Path file, int count) throws IOException {
+        int batchSize = CHUNK_SIZE * Runtime.getRuntime().availableProcessors();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("employeeId,name,department,salary,performanceRating,yearsOfExperience,active");
+            writer.newLine();
+            for (long start = 0; start < count; start += batchSize) {
+                for (Employee<T> emp : generateRange(start, Math.min(count, start + batchSize))) {
+                    writer.write(emp.getEmployeeId() + "," + emp.getName() + "," + emp.getDepartment() + ","
+                            + emp.getSalary() + "," + emp.getPerformanceRating() + ","
+                            + emp.getYearsOfExperience() + "," + emp.isActive());
+                    writer.newLine();
+                }
+            }
+        }
+        logger.info("Wrote " + count + " generated employees to " + file);
+    }
+
+    /**
+     * Generate the employees at roster positions [start, end); start must be chunk aligned
+     */
+    @SuppressWarnings("unchecked")
+    private Employee<T>[] generateRange(long start, long end) {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid roster range");
+        }
+
+        Employee<T>[] result = new Employee[Math.toIntExact(end - start)];
+        double[] departmentCdf = zipfCdf(departments.length, departmentSkew);
+        double[] departmentPay = departmentPayFactors();
+        int chunks = (int) ((end - start + CHUNK_SIZE - 1) / CHUNK_SIZE);
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            long chunkStart = start + (long) chunk * CHUNK_SIZE;
+            long chunkEnd = Math.min(end, chunkStart + CHUNK_SIZE);
+            SplittableRandom random = new SplittableRandom(mix(seed, chunkStart / CHUNK_SIZE));
+            for (long position = chunkStart; position < chunkEnd; position++) {
+                result[(int) (position - start)] = nextEmployee(random, position, departmentCdf, departmentPay);
+            }
+        });
+        return result;
+    }
+
+    private Employee<T> nextEmployee(SplittableRandom random, long position,
+                                     double[] departmentCdf, double[] departmentPay) {
+        int department = sample(departmentCdf, random.nextDouble());
+        int years = Math.min(40, (int) (-Math.log(1 - random.nextDouble()) * 8));
+        double salary = medianSalary * departmentPay[department] * (1 + 0.02 * years)
+                * Math.exp(salarySpread * gaussian(random));
+        double rating = Math.round(Math.max(0, Math.min(5, meanRating + ratingStdDev * gaussian(random))) * 10) / 10.0;
+        boolean active = random.nextDouble() < activeRatio;
+        String name = firstNames[random.nextInt(firstNames.length)] + " " + lastNames[random.nextInt(lastNames.length)];
+
+        try {
+            return new Employee<>(idFactory.apply(position), active, years,
+                    Math.round(salary * 100) / 100.0, rating, departments[department], name);
+        } catch (InvalidDepartmentException | InvalidSalaryException | EmployeeNotFoundException e) {
+            throw new IllegalStateException("Generated an invalid employee", e);
+        }
+    }
+
+    /**
+     * Pay level of each department, fixed by the seed so it stays the same across chunks
+     */
+    private double[] departmentPayFactors() {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] factors = new double[departments.length];
+        for (int i = 0; i < factors.length; i++) {
+            factors[i] = 0.8 + random.nextDouble() * 0.5;
+        }
+        return factors;
+    }
+
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1 / Math.pow(i + 1, exponent);
+            cdf[i] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, double u) {
+        int index = Arrays.binarySearch(cdf, u);
+        index = index >= 0 ? index : -index - 1;
+        return Math.min(index, cdf.length - 1);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller, one value per call keeps the stream position independent of caching
+        double u1 = 1 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private static long mix(long seed, long chunk) {
+        // SplitMix64 finalizer, spreads neighbouring chunk indexes over unrelated streams
+        long z = seed + (chunk + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
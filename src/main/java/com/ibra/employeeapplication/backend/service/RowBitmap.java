@@ -0,0 +1,366 @@
+package com.ibra.employeeapplication.backend.service;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of row numbers in the style of a Roaring bitmap, for the
+ * {@link EmployeeBitmapIndex}.
+ *
+ * Rows are split by their high 16 bits into containers of up to 65536 rows. A container
+ * with few rows is a sorted array of their low 16 bits, a fuller one is a plain bitmap of
+ * 1024 words, so a sparse set costs two bytes per row and a dense one an eighth of a byte.
+ * Intersections and unions work container by container, a word at a time between bitmaps,
+ * and never look at individual rows unless an array container is involved.
+ */
+final class RowBitmap {
+    // An array container holding more rows than this would be larger than a bitmap
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    RowBitmap() {
+        this(4);
+    }
+
+    private RowBitmap(int capacity) {
+        keys = new char[capacity];
+        containers = new Container[capacity];
+    }
+
+    void add(int row) {
+        char high = (char) (row >>> 16);
+        int i = indexOf(high);
+        if (i < 0) {
+            i = -i - 1;
+            insert(i, high, new Container());
+        }
+        containers[i].add((char) row);
+    }
+
+    void remove(int row) {
+        int i = indexOf((char) (row >>> 16));
+        if (i >= 0 && containers[i].remove((char) row) && containers[i].cardinality == 0) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+            containers[--size] = null;
+        }
+    }
+
+    boolean contains(int row) {
+        int i = indexOf((char) (row >>> 16));
+        return i >= 0 && containers[i].contains((char) row);
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return A new bitmap of the rows in both bitmaps
+     */
+    RowBitmap and(RowBitmap other) {
+        RowBitmap result = new RowBitmap(Math.max(1, Math.min(size, other.size)));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container both = containers[i].and(other.containers[j]);
+                if (both.cardinality > 0) {
+                    result.append(keys[i], both);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return A new bitmap of the rows in either bitmap
+     */
+    RowBitmap or(RowBitmap other) {
+        RowBitmap result = new RowBitmap(Math.max(1, size + other.size));
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visit the rows in increasing order
+     * @param action The action to run for each row
+     */
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * @return Approximate bytes used by the containers
+     */
+    long getMemoryBytes() {
+        long bytes = (long) keys.length * (Character.BYTES + 4);
+        for (int i = 0; i < size; i++) {
+            Container container = containers[i];
+            bytes += 32 + (container.words != null ? (long) WORDS * Long.BYTES : (long) container.values.length * Character.BYTES);
+        }
+        return bytes;
+    }
+
+    private int indexOf(char high) {
+        // Most bitmaps have rows in their last container, so try it before searching
+        if (size > 0 && keys[size - 1] == high) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insert(int i, char high, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+            containers = Arrays.copyOf(containers, size << 1);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = high;
+        containers[i] = container;
+        size++;
+    }
+
+    private void append(char high, Container container) {
+        insert(size, high, container);
+    }
+
+    /**
+     * The rows sharing their high 16 bits, either as a sorted array or as a bitmap
+     */
+    private static final class Container {
+        private char[] values;
+        private long[] words;
+        private int cardinality;
+
+        Container() {
+            values = new char[4];
+        }
+
+        private Container(char[] values, long[] words, int cardinality) {
+            this.values = values;
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        boolean add(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) != 0) {
+                    return false;
+                }
+                words[low >>> 6] |= bit;
+                cardinality++;
+                return true;
+            }
+            int i = Arrays.binarySearch(values, 0, cardinality, low);
+            if (i >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                toWords();
+                return add(low);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, cardinality << 1)));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = low;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) == 0) {
+                    return false;
+                }
+                words[low >>> 6] &= ~bit;
+                // Half the limit, so a container at the limit does not convert back and forth
+                if (--cardinality <= ARRAY_LIMIT / 2) {
+                    toValues();
+                }
+                return true;
+            }
+            int i = Arrays.binarySearch(values, 0, cardinality, low);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+            cardinality--;
+            return true;
+        }
+
+        boolean contains(char low) {
+            if (words != null) {
+                return (words[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        Container and(Container other) {
+            if (words != null && other.words != null) {
+                long[] result = new long[WORDS];
+                int count = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] = words[w] & other.words[w];
+                    count += Long.bitCount(result[w]);
+                }
+                Container container = new Container(null, result, count);
+                if (count <= ARRAY_LIMIT) {
+                    container.toValues();
+                }
+                return container;
+            }
+            if (words != null) {
+                return other.and(this);
+            }
+            char[] result = new char[Math.max(1, cardinality)];
+            int count = 0;
+            if (other.words != null) {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            } else {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < other.cardinality) {
+                    if (values[i] < other.values[j]) {
+                        i++;
+                    } else if (values[i] > other.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            return new Container(result, null, count);
+        }
+
+        Container or(Container other) {
+            if (words != null || other.words != null) {
+                Container dense = words != null ? this : other;
+                Container rest = dense == this ? other : this;
+                long[] result = dense.words.clone();
+                if (rest.words != null) {
+                    for (int w = 0; w < WORDS; w++) {
+                        result[w] |= rest.words[w];
+                    }
+                } else {
+                    for (int i = 0; i < rest.cardinality; i++) {
+                        result[rest.values[i] >>> 6] |= 1L << rest.values[i];
+                    }
+                }
+                int count = 0;
+                for (long word : result) {
+                    count += Long.bitCount(word);
+                }
+                return new Container(null, result, count);
+            }
+            char[] result = new char[cardinality + other.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < other.cardinality) {
+                if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > other.values[j]) {
+                    result[count++] = other.values[j++];
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            Container container = new Container(result, null, count);
+            if (count > ARRAY_LIMIT) {
+                container.toWords();
+            }
+            return container;
+        }
+
+        Container copy() {
+            return new Container(values != null ? Arrays.copyOf(values, Math.max(1, cardinality)) : null,
+                    words != null ? words.clone() : null, cardinality);
+        }
+
+        void forEach(int base, IntConsumer action) {
+            if (words == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    action.accept(base | values[i]);
+                }
+                return;
+            }
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    action.accept(base | w << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private void toWords() {
+            words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toValues() {
+            char[] result = new char[Math.max(1, cardinality)];
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    result[count++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            values = result;
+            words = null;
+        }
+    }
+}
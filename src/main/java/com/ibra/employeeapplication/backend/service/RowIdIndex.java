@@ -0,0 +1,188 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.storage.IdCodec;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The employee ID of each row of a column store, and the row of each ID, for the indexes
+ * that follow a database ({@link SalaryColumns}, {@link EmployeeBitmapIndex}).
+ *
+ * Rows are found through an open-addressing table of row numbers, like the one of
+ * {@link com.ibra.employeeapplication.backend.storage.OffHeapEmployeeStore}, with the hash
+ * of each row kept next to it, so there is no boxed entry per row. For storage with an
+ * {@link IdCodec} the IDs are kept encoded in direct memory too, so following an off-heap
+ * database adds no object per employee to the heap; other storage keeps the ID objects,
+ * which its employees hold anyway.
+ *
+ * Not thread-safe; the owner locks around it.
+ */
+final class RowIdIndex<T> {
+    private final IdCodec<T> codec;
+    private Object[] ids;
+    private ByteBuffer encodedIds;
+    private int[] hashes;
+    // Row + 1 of each ID, 0 for an empty slot; twice the row capacity, so at most half full
+    private int[] slots;
+
+    /**
+     * @param codec The encoding of the IDs, or null to keep the ID objects
+     * @param capacity Number of rows to allocate up front
+     */
+    RowIdIndex(IdCodec<T> codec, int capacity) {
+        this.codec = codec;
+        if (codec == null) {
+            ids = new Object[capacity];
+        } else {
+            encodedIds = ByteBuffer.allocateDirect(capacity * codec.byteSize());
+        }
+        hashes = new int[capacity];
+        slots = new int[capacity << 1];
+    }
+
+    /**
+     * @return Number of rows the index holds without growing
+     */
+    int capacity() {
+        return hashes.length;
+    }
+
+    /**
+     * @return The row of the ID, or -1 if it has none
+     */
+    int rowOf(T employeeId) {
+        return slots[find(hash(employeeId), employeeId)] - 1;
+    }
+
+    /**
+     * Give an ID that has no row yet a free row below the capacity
+     */
+    void add(T employeeId, int row) {
+        int hash = hash(employeeId);
+        slots[find(hash, employeeId)] = row + 1;
+        hashes[row] = hash;
+        if (codec == null) {
+            ids[row] = employeeId;
+        } else {
+            codec.write(encodedIds, row * codec.byteSize(), employeeId);
+        }
+    }
+
+    /**
+     * @return The row the ID had, or -1 if it had none
+     */
+    int remove(T employeeId) {
+        int slot = find(hash(employeeId), employeeId);
+        int row = slots[slot] - 1;
+        if (row >= 0) {
+            shiftBack(slot);
+            if (codec == null) {
+                ids[row] = null;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Move the ID of a row to a free row, for stores that keep their rows dense
+     */
+    void move(int from, int to) {
+        slots[slotOf(from)] = to + 1;
+        hashes[to] = hashes[from];
+        if (codec == null) {
+            ids[to] = ids[from];
+            ids[from] = null;
+        } else {
+            encodedIds.put(to * codec.byteSize(), encodedIds, from * codec.byteSize(), codec.byteSize());
+        }
+    }
+
+    /**
+     * @return The ID of a row that has one
+     */
+    @SuppressWarnings("unchecked")
+    T idAt(int row) {
+        return codec == null ? (T) ids[row] : codec.read(encodedIds, row * codec.byteSize());
+    }
+
+    void grow(int capacity) {
+        if (codec == null) {
+            ids = Arrays.copyOf(ids, capacity);
+        } else {
+            encodedIds = ByteBuffer.allocateDirect(capacity * codec.byteSize())
+                    .put(0, encodedIds, 0, hashes.length * codec.byteSize());
+        }
+        hashes = Arrays.copyOf(hashes, capacity);
+
+        int[] oldSlots = slots;
+        slots = new int[capacity << 1];
+        int mask = slots.length - 1;
+        for (int entry : oldSlots) {
+            if (entry != 0) {
+                int slot = hashes[entry - 1] & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry;
+            }
+        }
+    }
+
+    /**
+     * @return Approximate bytes used, on and off the heap, without the ID objects
+     */
+    long getMemoryBytes() {
+        long idBytes = codec == null ? (long) ids.length * 4 : encodedIds.capacity();
+        return idBytes + (long) hashes.length * Integer.BYTES + (long) slots.length * Integer.BYTES;
+    }
+
+    private int hash(T employeeId) {
+        if (codec != null) {
+            return codec.hash(employeeId);
+        }
+        int h = employeeId.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return The slot of the ID, or the empty slot where it would go
+     */
+    private int find(int hash, T employeeId) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int row = slots[slot] - 1;
+            if (hashes[row] == hash && (codec == null ? employeeId.equals(ids[row])
+                    : codec.matches(encodedIds, row * codec.byteSize(), employeeId))) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int slotOf(int row) {
+        int mask = slots.length - 1;
+        int slot = hashes[row] & mask;
+        while (slots[slot] != row + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void shiftBack(int slot) {
+        int mask = slots.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (slots[next] != 0) {
+            int home = hashes[slots[next] - 1] & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                slots[gap] = slots[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[gap] = 0;
+    }
+}
@@ -0,0 +1,226 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
+
+import java.util.Arrays;
+
+/**
+ * The salary, rating, department and active flag of every employee in primitive arrays,
+ * kept up to date as a change listener of the database, for the roster-wide aggregates of
+ * {@link SalaryManager}.
+ *
+ * The rows are kept dense: removing an employee moves the last row into its place, so the
+ * {@link SalaryKernels} run over one contiguous stretch of each array without holes or a
+ * liveness check, instead of walking the stored objects one field at a time.
+ *
+ * Rows are found by ID through a {@link RowIdIndex}, so the columns add no object per
+ * employee to the heap when they follow off-heap storage.
+ *
+ * The employees are split by ID hash across stripes, each with its own columns and lock,
+ * so writers of different employees rarely wait for each other; an aggregate runs the
+ * kernels over each stripe in turn and combines the results.
+ */
+final class SalaryColumns<T> implements EmployeeChangeListener<T> {
+    private static final SalaryKernels KERNELS = SalaryKernels.select();
+    private static final int STRIPES = 16;
+    private static final int INITIAL_ROWS = 64;
+
+    private final EmployeeDB<T> database;
+    private final Stripe<T>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    private SalaryColumns(EmployeeDB<T> database) {
+        this.database = database;
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>(database.idCodec());
+        }
+    }
+
+    /**
+     * Load the columns of a database and keep them up to date. The listener is registered
+     * before the roster is scanned, so no change is missed while it runs, and a save is only
+     * recorded if the employee is still stored, so the scan cannot bring back an employee
+     * whose removal was already handled.
+     * @param database The database to follow
+     * @return The columns
+     */
+    static <T> SalaryColumns<T> follow(EmployeeDB<T> database) {
+        SalaryColumns<T> columns = new SalaryColumns<>(database);
+        database.addChangeListener(columns);
+        database.forEachEmployee(columns::employeeSaved);
+        return columns;
+    }
+
+    @Override
+    public void employeeSaved(Employee<T> employee) {
+        T employeeId = employee.getEmployeeId();
+        Stripe<T> stripe = stripeFor(employeeId);
+        synchronized (stripe) {
+            if (database.stored(employeeId) != null) {
+                stripe.save(employeeId, employee);
+            }
+        }
+    }
+
+    @Override
+    public void employeeRemoved(T employeeId) {
+        Stripe<T> stripe = stripeFor(employeeId);
+        synchronized (stripe) {
+            stripe.remove(employeeId);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe<T> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return The sum of all salaries
+     */
+    double salarySum() {
+        double sum = 0;
+        for (Stripe<T> stripe : stripes) {
+            synchronized (stripe) {
+                sum += KERNELS.sum(stripe.salaries, stripe.size);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return The sum of the salaries of the active employees
+     */
+    double activeSalarySum() {
+        double sum = 0;
+        for (Stripe<T> stripe : stripes) {
+            synchronized (stripe) {
+                sum += KERNELS.sumActive(stripe.salaries, stripe.active, stripe.size);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return The lowest salary, positive infinity if there are no employees
+     */
+    double minSalary() {
+        double min = Double.POSITIVE_INFINITY;
+        for (Stripe<T> stripe : stripes) {
+            synchronized (stripe) {
+                min = Math.min(min, KERNELS.min(stripe.salaries, stripe.size));
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @return The highest salary, negative infinity if there are no employees
+     */
+    double maxSalary() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (Stripe<T> stripe : stripes) {
+            synchronized (stripe) {
+                max = Math.max(max, KERNELS.max(stripe.salaries, stripe.size));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @param minimumRating The minimum rating
+     * @return The number of active employees rated at least the minimum
+     */
+    int countActiveRatedAtLeast(double minimumRating) {
+        int count = 0;
+        for (Stripe<T> stripe : stripes) {
+            synchronized (stripe) {
+                count += KERNELS.countActiveAtLeast(stripe.ratings, stripe.active, minimumRating, stripe.size);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param departmentCode The department
+     * @param salaryThreshold The salary threshold
+     * @return true if an employee of the department earns above the threshold
+     */
+    boolean anySalaryAbove(int departmentCode, double salaryThreshold) {
+        for (Stripe<T> stripe : stripes) {
+            synchronized (stripe) {
+                if (KERNELS.anyAbove(stripe.salaries, stripe.departmentCodes, departmentCode, salaryThreshold, stripe.size)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Stripe<T> stripeFor(T employeeId) {
+        int h = employeeId.hashCode() * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * The dense columns of the employees of one stripe, guarded by its own monitor
+     */
+    private static final class Stripe<T> {
+        private final RowIdIndex<T> rows;
+        private double[] salaries = new double[INITIAL_ROWS];
+        private double[] ratings = new double[INITIAL_ROWS];
+        private int[] departmentCodes = new int[INITIAL_ROWS];
+        private boolean[] active = new boolean[INITIAL_ROWS];
+        private int size;
+
+        Stripe(IdCodec<T> codec) {
+            this.rows = new RowIdIndex<>(codec, INITIAL_ROWS);
+        }
+
+        void save(T employeeId, Employee<T> employee) {
+            int row = rows.rowOf(employeeId);
+            if (row < 0) {
+                if (size == salaries.length) {
+                    grow();
+                }
+                row = size++;
+                rows.add(employeeId, row);
+            }
+            salaries[row] = employee.getSalary();
+            ratings[row] = employee.getPerformanceRating();
+            departmentCodes[row] = employee.getDepartmentCode();
+            active[row] = employee.isActive();
+        }
+
+        void remove(T employeeId) {
+            int row = rows.remove(employeeId);
+            if (row < 0) {
+                return;
+            }
+            int last = --size;
+            if (row != last) {
+                rows.move(last, row);
+                salaries[row] = salaries[last];
+                ratings[row] = ratings[last];
+                departmentCodes[row] = departmentCodes[last];
+                active[row] = active[last];
+            }
+        }
+
+        private void grow() {
+            int capacity = salaries.length << 1;
+            rows.grow(capacity);
+            salaries = Arrays.copyOf(salaries, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+            departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+            active = Arrays.copyOf(active, capacity);
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Salary history of every employee, kept as a change listener of the database so it
+ * records every salary set through {@code updateEmployeeDetails}, the SalaryManager raises
+ * and any other change the database reports, as well as removals.
+ *
+ * Each employee gets a slot in parallel primitive arrays holding its first and latest
+ * record. Later records are appended to a chain of 32-byte pages carved out of shared
+ * 1 MB chunks, as a varint time delta in milliseconds and a zigzag varint salary delta in
+ * cents, so a typical raise takes 5 to 7 bytes and appending is O(1). Salaries are kept
+ * to the cent. Queries decode one employee's chain and stop once they pass the end of the
+ * requested range.
+ */
+public class SalaryHistory<T> implements EmployeeChangeListener<T> {
+    // Each page starts with the number of the next page in the chain
+    private static final int PAGE_SIZE = 32;
+    private static final int LINK_SIZE = 4;
+    private static final int PAGES_PER_CHUNK_SHIFT = 15;
+    private static final int PAGES_PER_CHUNK = 1 << PAGES_PER_CHUNK_SHIFT;
+    private static final int NO_PAGE = -1;
+    private static final int INITIAL_SLOTS = 1024;
+    static final long NOT_EMPLOYED = Long.MIN_VALUE;
+
+    private final Clock clock;
+    // The followed database, whose stored state is recorded instead of the announced change
+    private EmployeeDB<T> database;
+    private final Map<T, Integer> slots = new HashMap<>();
+    private int slotCount;
+
+    // Per employee slot: the first record, the latest record and the page chain of the records after the first
+    private long[] firstMillis = new long[INITIAL_SLOTS];
+    private long[] firstCents = new long[INITIAL_SLOTS];
+    private long[] lastMillis = new long[INITIAL_SLOTS];
+    private long[] lastCents = new long[INITIAL_SLOTS];
+    private boolean[] lastRemoved = new boolean[INITIAL_SLOTS];
+    private int[] chainedRecords = new int[INITIAL_SLOTS];
+    private int[] headPage = new int[INITIAL_SLOTS];
+    private int[] tailPage = new int[INITIAL_SLOTS];
+    private byte[] tailPosition = new byte[INITIAL_SLOTS];
+
+    private final List<byte[]> chunks = new ArrayList<>();
+    private int pageCount;
+
+    public SalaryHistory() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * @param clock The clock changes are timestamped with
+     */
+    public SalaryHistory(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Start recording the salary history of a database. The current employees are recorded
+     * with their current salary as of now, since their earlier history is unknown.
+     * @param database The database to follow
+     * @param clock The clock changes are timestamped with
+     * @return The history
+     */
+    public static <T> SalaryHistory<T> follow(EmployeeDB<T> database, Clock clock) {
+        SalaryHistory<T> history = new SalaryHistory<>(clock);
+        history.database = database;
+        // Registered first so no change is missed; recording an unchanged salary twice is a no-op
+        database.addChangeListener(history);
+        // Each employee is read again under its ID lock, which must not be taken inside a scan
+        for (Employee<T> employee : database.findEmployees(employee -> true)) {
+            history.employeeSaved(employee);
+        }
+        return history;
+    }
+
+    public static <T> SalaryHistory<T> follow(EmployeeDB<T> database) {
+        return follow(database, Clock.systemUTC());
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    @Override
+    public synchronized void employeeSaved(Employee<T> employee) {
+        if (database == null) {
+            record(employee.getEmployeeId(), clock.millis(), toCents(employee.getSalary()));
+        } else {
+            recordCurrent(employee.getEmployeeId());
+        }
+    }
+
+    @Override
+    public synchronized void employeeRemoved(T employeeId) {
+        if (database == null) {
+            recordRemoval(employeeId, clock.millis());
+        } else {
+            recordCurrent(employeeId);
+        }
+    }
+
+    /**
+     * Record the employee as the followed database stores it now. Changes can be announced
+     * out of order, e.g. the save of an update after the removal that followed it, which
+     * would otherwise record the removed employee as employed again.
+     */
+    private void recordCurrent(T employeeId) {
+        long millis = clock.millis();
+        database.readCurrent(employeeId, employee -> employee == null
+                ? recordRemoval(employeeId, millis)
+                : record(employeeId, millis, toCents(employee.getSalary())));
+    }
+
+    /**
+     * Get what an employee was paid at a point in time
+     * @param employeeId The employee
+     * @param when The point in time
+     * @return The salary, or NaN if the employee was not in the database then
+     */
+    public synchronized double getSalaryAsOf(T employeeId, Instant when) {
+        Integer slot = slots.get(employeeId);
+        if (slot == null) {
+            return Double.NaN;
+        }
+        long cents = centsAt(slot, toMillis(when));
+        return cents == NOT_EMPLOYED ? Double.NaN : cents / 100.0;
+    }
+
+    /**
+     * @param employeeId The employee
+     * @return Every recorded change of the employee, oldest first
+     */
+    public List<Change> getChanges(T employeeId) {
+        return getChanges(employeeId, Instant.MIN, Instant.MAX);
+    }
+
+    /**
+     * Get the changes of an employee within a time range
+     * @param employeeId The employee
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive
+     * @return The changes in the range, oldest first
+     */
+    public synchronized List<Change> getChanges(T employeeId, Instant from, Instant to) {
+        Integer slot = slots.get(employeeId);
+        if (slot == null) {
+            return new ArrayList<>();
+        }
+        long fromMillis = toMillis(from);
+        long toMillis = toMillis(to);
+        List<Change> changes = new ArrayList<>();
+        visit(slot, (time, cents, removed) -> {
+            if (time >= toMillis) {
+                return false;
+            }
+            if (time >= fromMillis) {
+                changes.add(new Change(time, cents, removed));
+            }
+            return true;
+        });
+        return changes;
+    }
+
+    /**
+     * @param employeeId The employee
+     * @return Number of recorded changes, including the first salary, 0 for an unknown employee
+     */
+    public synchronized int getChangeCount(T employeeId) {
+        Integer slot = slots.get(employeeId);
+        return slot == null ? 0 : chainedRecords[slot] + 1;
+    }
+
+    /**
+     * @return Bytes used by the per-employee arrays and the record pages, without the ID index
+     */
+    public synchronized long getMemoryBytes() {
+        long perSlot = 4 * Long.BYTES + 1 + 3 * Integer.BYTES + 1;
+        return perSlot * firstMillis.length + (long) chunks.size() * PAGES_PER_CHUNK * PAGE_SIZE;
+    }
+
+    /**
+     * Record a salary, unless it is the employee's current one
+     * @return The employee's slot
+     */
+    int record(T employeeId, long millis, long cents) {
+        Integer slot = slots.get(employeeId);
+        if (slot == null) {
+            slot = newSlot(millis, cents);
+            slots.put(employeeId, slot);
+        } else if (lastRemoved[slot] || lastCents[slot] != cents) {
+            append(slot, millis, cents, false);
+        }
+        return slot;
+    }
+
+    /**
+     * Record a removal, unless the employee is already removed
+     * @return The employee's slot, or -1 for an employee that was never recorded
+     */
+    int recordRemoval(T employeeId, long millis) {
+        Integer slot = slots.get(employeeId);
+        if (slot == null) {
+            return -1;
+        }
+        if (!lastRemoved[slot]) {
+            append(slot, millis, lastCents[slot], true);
+        }
+        return slot;
+    }
+
+    /**
+     * @return The slot of an employee, or -1 for an employee that was never recorded
+     */
+    int slotOf(T employeeId) {
+        Integer slot = slots.get(employeeId);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * @return Number of slots; slots are numbered from 0 in the order employees were first recorded
+     */
+    int slotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Get the salary of a slot at a point in time without allocating
+     * @return The salary in cents, or {@link #NOT_EMPLOYED} if the employee was not in the database then
+     */
+    long centsAt(int slot, long millis) {
+        long time = firstMillis[slot];
+        if (time > millis) {
+            return NOT_EMPLOYED;
+        }
+        // The latest record answers any time at or after it without decoding the chain
+        if (lastMillis[slot] <= millis) {
+            return lastRemoved[slot] ? NOT_EMPLOYED : lastCents[slot];
+        }
+        long cents = firstCents[slot];
+        boolean removed = false;
+        PageReader reader = new PageReader(headPage[slot]);
+        for (int record = 0; record < chainedRecords[slot]; record++) {
+            time += reader.readVarint();
+            if (time > millis) {
+                break;
+            }
+            long value = reader.readVarint();
+            long zigzag = value >>> 1;
+            cents += (zigzag >>> 1) ^ -(zigzag & 1);
+            removed = (value & 1) != 0;
+        }
+        return removed ? NOT_EMPLOYED : cents;
+    }
+
+    /**
+     * Receives the records of one employee, oldest first
+     */
+    @FunctionalInterface
+    interface RecordVisitor {
+        /**
+         * @return false to stop the visit
+         */
+        boolean visit(long millis, long cents, boolean removed);
+    }
+
+    /**
+     * Decode the records of a slot, starting with the first one
+     */
+    void visit(int slot, RecordVisitor visitor) {
+        long millis = firstMillis[slot];
+        long cents = firstCents[slot];
+        if (!visitor.visit(millis, cents, false)) {
+            return;
+        }
+        PageReader reader = new PageReader(headPage[slot]);
+        for (int record = 0; record < chainedRecords[slot]; record++) {
+            millis += reader.readVarint();
+            long value = reader.readVarint();
+            long zigzag = value >>> 1;
+            cents += (zigzag >>> 1) ^ -(zigzag & 1);
+            if (!visitor.visit(millis, cents, (value & 1) != 0)) {
+                return;
+            }
+        }
+    }
+
+    private int newSlot(long millis, long cents) {
+        if (slotCount == firstMillis.length) {
+            int length = slotCount * 2;
+            firstMillis = Arrays.copyOf(firstMillis, length);
+            firstCents = Arrays.copyOf(firstCents, length);
+            lastMillis = Arrays.copyOf(lastMillis, length);
+            lastCents = Arrays.copyOf(lastCents, length);
+            lastRemoved = Arrays.copyOf(lastRemoved, length);
+            chainedRecords = Arrays.copyOf(chainedRecords, length);
+            headPage = Arrays.copyOf(headPage, length);
+            tailPage = Arrays.copyOf(tailPage, length);
+            tailPosition = Arrays.copyOf(tailPosition, length);
+        }
+        int slot = slotCount++;
+        firstMillis[slot] = millis;
+        firstCents[slot] = cents;
+        lastMillis[slot] = millis;
+        lastCents[slot] = cents;
+        headPage[slot] = NO_PAGE;
+        tailPage[slot] = NO_PAGE;
+        return slot;
+    }
+
+    private void append(int slot, long millis, long cents, boolean removed) {
+        // A clock that steps back must not produce a negative delta
+        long time = Math.max(millis, lastMillis[slot]);
+        long delta = cents - lastCents[slot];
+        writeVarint(slot, time - lastMillis[slot]);
+        writeVarint(slot, ((delta << 1) ^ (delta >> 63)) << 1 | (removed ? 1 : 0));
+        lastMillis[slot] = time;
+        lastCents[slot] = cents;
+        lastRemoved[slot] = removed;
+        chainedRecords[slot]++;
+    }
+
+    private void writeVarint(int slot, long value) {
+        while (true) {
+            byte b = (byte) (value & 0x7F);
+            value >>>= 7;
+            writeByte(slot, value == 0 ? b : (byte) (b | 0x80));
+            if (value == 0) {
+                return;
+            }
+        }
+    }
+
+    private void writeByte(int slot, byte b) {
+        int page = tailPage[slot];
+        int position = tailPosition[slot];
+        if (page == NO_PAGE || position == PAGE_SIZE) {
+            int next = allocatePage();
+            if (page == NO_PAGE) {
+                headPage[slot] = next;
+            } else {
+                setLink(page, next);
+            }
+            page = next;
+            position = LINK_SIZE;
+            tailPage[slot] = page;
+        }
+        chunks.get(page >>> PAGES_PER_CHUNK_SHIFT)[offsetOf(page) + position] = b;
+        tailPosition[slot] = (byte) (position + 1);
+    }
+
+    private int allocatePage() {
+        if (pageCount == chunks.size() * PAGES_PER_CHUNK) {
+            chunks.add(new byte[PAGES_PER_CHUNK * PAGE_SIZE]);
+        }
+        return pageCount++;
+    }
+
+    private int linkOf(int page) {
+        byte[] chunk = chunks.get(page >>> PAGES_PER_CHUNK_SHIFT);
+        int offset = offsetOf(page);
+        return (chunk[offset] & 0xFF) << 24 | (chunk[offset + 1] & 0xFF) << 16
+                | (chunk[offset + 2] & 0xFF) << 8 | (chunk[offset + 3] & 0xFF);
+    }
+
+    private void setLink(int page, int next) {
+        byte[] chunk = chunks.get(page >>> PAGES_PER_CHUNK_SHIFT);
+        int offset = offsetOf(page);
+        chunk[offset] = (byte) (next >>> 24);
+        chunk[offset + 1] = (byte) (next >>> 16);
+        chunk[offset + 2] = (byte) (next >>> 8);
+        chunk[offset + 3] = (byte) next;
+    }
+
+    /**
+     * Reads the bytes of a page chain, following the links
+     */
+    private final class PageReader {
+        private int page;
+        private int position = LINK_SIZE;
+
+        PageReader(int page) {
+            this.page = page;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (position == PAGE_SIZE) {
+                    page = linkOf(page);
+                    position = LINK_SIZE;
+                }
+                byte b = chunks.get(page >>> PAGES_PER_CHUNK_SHIFT)[offsetOf(page) + position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    private static int offsetOf(int page) {
+        return (page & (PAGES_PER_CHUNK - 1)) * PAGE_SIZE;
+    }
+
+    static long toCents(double salary) {
+        return Math.round(salary * 100);
+    }
+
+    static long toMillis(Instant instant) {
+        if (instant.isBefore(Instant.ofEpochMilli(Long.MIN_VALUE))) {
+            return Long.MIN_VALUE;
+        }
+        if (instant.isAfter(Instant.ofEpochMilli(Long.MAX_VALUE))) {
+            return Long.MAX_VALUE;
+        }
+        return instant.toEpochMilli();
+    }
+
+    /**
+     * One recorded salary change
+     */
+    public static final class Change {
+        private final long millis;
+        private final long cents;
+        private final boolean removal;
+
+        Change(long millis, long cents, boolean removal) {
+            this.millis = millis;
+            this.cents = cents;
+            this.removal = removal;
+        }
+
+        public Instant getTime() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        /**
+         * @return The salary from this change on; for a removal, the last salary paid
+         */
+        public double getSalary() {
+            return cents / 100.0;
+        }
+
+        /**
+         * @return true if the employee was removed from the database at this time
+         */
+        public boolean isRemoval() {
+            return removal;
+        }
+
+        @Override
+        public String toString() {
+            return getTime() + (removal ? " removed" : String.format(" $%.2f", getSalary()));
+        }
+    }
+}
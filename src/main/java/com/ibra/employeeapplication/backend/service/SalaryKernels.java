@@ -0,0 +1,63 @@
+package com.ibra.employeeapplication.backend.service;
+
+import java.util.logging.Logger;
+
+/**
+ * Aggregate loops over the primitive columns of {@link SalaryColumns}.
+ *
+ * Every method reads the first {@code length} entries of its arrays. Where an
+ * {@code active} array is passed, only the rows flagged true take part.
+ * Sums may differ from a sequential loop in the last bits, since a vectorized
+ * implementation adds the values in a different order.
+ */
+interface SalaryKernels {
+
+    /**
+     * @return The sum of the values
+     */
+    double sum(double[] values, int length);
+
+    /**
+     * @return The sum of the values of the active rows
+     */
+    double sumActive(double[] values, boolean[] active, int length);
+
+    /**
+     * @return The smallest value, positive infinity if there are none
+     */
+    double min(double[] values, int length);
+
+    /**
+     * @return The largest value, negative infinity if there are none
+     */
+    double max(double[] values, int length);
+
+    /**
+     * @return The number of active rows with a value of at least the threshold
+     */
+    int countActiveAtLeast(double[] values, boolean[] active, double threshold, int length);
+
+    /**
+     * @return true if a row with the given code has a value above the threshold
+     */
+    boolean anyAbove(double[] values, int[] codes, int code, double threshold, int length);
+
+    /**
+     * Pick the Vector API kernels when the jdk.incubator.vector module is in the boot layer
+     * (started with --add-modules jdk.incubator.vector), the scalar loops otherwise.
+     * @return The kernels to use
+     */
+    static SalaryKernels select() {
+        Logger logger = Logger.getLogger(SalaryKernels.class.getName());
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                SalaryKernels kernels = new VectorSalaryKernels();
+                logger.info("Using Vector API salary kernels: " + kernels);
+                return kernels;
+            } catch (RuntimeException | LinkageError e) {
+                logger.warning("Vector API salary kernels unavailable, using scalar loops: " + e);
+            }
+        }
+        return new ScalarSalaryKernels();
+    }
+}
@@ -1,19 +1,55 @@
 package com.ibra.employeeapplication.backend.service;
 
+import com.ibra.employeeapplication.backend.entity.DepartmentDictionary;
 import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
 import com.ibra.employeeapplication.backend.exception.InvalidSalaryException;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+import com.ibra.employeeapplication.backend.monitoring.SalaryRaiseEvent;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class SalaryManager<T> {
+    private static final LatencyRecorder GIVE_SALARY_RAISE_BY_PERFORMANCE_LATENCY = OperationMetrics.recorder("SalaryManager.giveSalaryRaiseByPerformance");
+    private static final LatencyRecorder GIVE_SALARY_RAISE_BY_EXPERIENCE_LATENCY = OperationMetrics.recorder("SalaryManager.giveSalaryRaiseByExperience");
+    private static final LatencyRecorder GIVE_SALARY_RAISE_BY_DEPARTMENT_LATENCY = OperationMetrics.recorder("SalaryManager.giveSalaryRaiseByDepartment");
+    private static final LatencyRecorder GET_TOP_PAID_EMPLOYEES_LATENCY = OperationMetrics.recorder("SalaryManager.getTopPaidEmployees");
+    private static final LatencyRecorder CALCULATE_AVERAGE_SALARY_LATENCY = OperationMetrics.recorder("SalaryManager.calculateAverageSalary");
+    private static final LatencyRecorder CALCULATE_AVERAGE_SALARY_BY_DEPARTMENT_LATENCY = OperationMetrics.recorder("SalaryManager.calculateAverageSalaryByDepartment");
+    private static final LatencyRecorder CALCULATE_AVERAGE_SALARY_PER_DEPARTMENT_LATENCY = OperationMetrics.recorder("SalaryManager.calculateAverageSalaryPerDepartment");
+    private static final LatencyRecorder CALCULATE_TOTAL_SALARY_COST_LATENCY = OperationMetrics.recorder("SalaryManager.calculateTotalSalaryCost");
+    private static final LatencyRecorder CALCULATE_TOTAL_SALARY_COST_PER_DEPARTMENT_LATENCY = OperationMetrics.recorder("SalaryManager.calculateTotalSalaryCostPerDepartment");
+    private static final LatencyRecorder CALCULATE_SALARY_GAP_LATENCY = OperationMetrics.recorder("SalaryManager.calculateSalaryGap");
+    private static final LatencyRecorder COUNT_EMPLOYEES_RATED_AT_LEAST_LATENCY = OperationMetrics.recorder("SalaryManager.countEmployeesRatedAtLeast");
+    private static final LatencyRecorder ANY_EMPLOYEES_ABOVE_SALARY_LATENCY = OperationMetrics.recorder("SalaryManager.anyEmployeesAboveSalary");
+    private static final LatencyRecorder DISPLAY_SALARY_REPORT_LATENCY = OperationMetrics.recorder("SalaryManager.displaySalaryReport");
+    private static final LatencyRecorder GET_SALARY_PERCENTILE_LATENCY = OperationMetrics.recorder("SalaryManager.getSalaryPercentile");
+    private static final LatencyRecorder GET_SALARY_PERCENTILE_BY_DEPARTMENT_LATENCY = OperationMetrics.recorder("SalaryManager.getSalaryPercentileByDepartment");
+    private static final LatencyRecorder GET_SALARY_PERCENTILE_PER_DEPARTMENT_LATENCY = OperationMetrics.recorder("SalaryManager.getSalaryPercentilePerDepartment");
+    private static final LatencyRecorder GET_SHARE_EARNING_AT_MOST_LATENCY = OperationMetrics.recorder("SalaryManager.getShareEarningAtMost");
+    private static final LatencyRecorder AS_OF_LATENCY = OperationMetrics.recorder("SalaryManager.asOf");
+    private static final LatencyRecorder CALCULATE_AVERAGE_SALARY_AS_OF_LATENCY = OperationMetrics.recorder("SalaryManager.calculateAverageSalaryAsOf");
+    private static final LatencyRecorder CALCULATE_AVERAGE_SALARY_PER_DEPARTMENT_AS_OF_LATENCY = OperationMetrics.recorder("SalaryManager.calculateAverageSalaryPerDepartmentAsOf");
+    private static final LatencyRecorder CALCULATE_TOTAL_SALARY_COST_AS_OF_LATENCY = OperationMetrics.recorder("SalaryManager.calculateTotalSalaryCostAsOf");
+    private static final LatencyRecorder CALCULATE_TOTAL_SALARY_COST_PER_DEPARTMENT_AS_OF_LATENCY = OperationMetrics.recorder("SalaryManager.calculateTotalSalaryCostPerDepartmentAsOf");
+
     private EmployeeDB<T> database;
+    private EmployeeAggregator<T> aggregator;
+    // Shared by every manager of the database, created on the first percentile query
+    private volatile SalaryQuantiles<T> salaryQuantiles;
+    // Shared by every manager of the database, created on the first roster-wide aggregate
+    private volatile SalaryColumns<T> salaryColumns;
 
     public SalaryManager(EmployeeDB<T> database) {
         this.database = database;
+        this.aggregator = new EmployeeAggregator<>(database);
     }
 
     /**
@@ -23,25 +59,27 @@ public class SalaryManager<T> {
      * @return Number of employees who received raises
      */
     public int giveSalaryRaiseByPerformance(double minimumRating, double percentageRaise) {
-        if (percentageRaise <= 0) {
-            throw new IllegalArgumentException("Percentage raise must be positive");
-        }
+        long start = System.nanoTime();
+        SalaryRaiseEvent event = new SalaryRaiseEvent();
+        event.begin();
+        try {
+            if (percentageRaise <= 0) {
+                throw new IllegalArgumentException("Percentage raise must be positive");
+            }
 
-        List<Employee<T>> eligibleEmployees = database.getAllEmployees().stream()
-                .filter(emp -> emp.getPerformanceRating() >= minimumRating && emp.isActive())
-                .collect(Collectors.toList());
+            List<Employee<T>> eligibleEmployees = database.findEmployees(
+                    emp -> emp.getPerformanceRating() >= minimumRating && emp.isActive());
 
-        eligibleEmployees.forEach(emp -> {
-            double currentSalary = emp.getSalary();
-            double newSalary = currentSalary * (1 + percentageRaise / 100);
-            try {
-                emp.setSalary(newSalary);
-            } catch (InvalidSalaryException e) {
-                throw new RuntimeException(e);
-            }
-        });
+            applyRaise(eligibleEmployees, percentageRaise);
 
-        return eligibleEmployees.size();
+            event.complete("giveSalaryRaiseByPerformance", minimumRating, percentageRaise, eligibleEmployees.size());
+            return eligibleEmployees.size();
+        } catch (RuntimeException e) {
+            GIVE_SALARY_RAISE_BY_PERFORMANCE_LATENCY.recordError();
+            throw e;
+        } finally {
+            GIVE_SALARY_RAISE_BY_PERFORMANCE_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -51,25 +89,27 @@ public class SalaryManager<T> {
      * @return Number of employees who received raises
      */
     public int giveSalaryRaiseByExperience(int yearsThreshold, double percentageRaise) {
-        if (percentageRaise <= 0) {
-            throw new IllegalArgumentException("Percentage raise must be positive");
-        }
+        long start = System.nanoTime();
+        SalaryRaiseEvent event = new SalaryRaiseEvent();
+        event.begin();
+        try {
+            if (percentageRaise <= 0) {
+                throw new IllegalArgumentException("Percentage raise must be positive");
+            }
 
-        List<Employee<T>> eligibleEmployees = database.getAllEmployees().stream()
-                .filter(emp -> emp.getYearsOfExperience() >= yearsThreshold && emp.isActive())
-                .collect(Collectors.toList());
+            List<Employee<T>> eligibleEmployees = database.findEmployees(
+                    emp -> emp.getYearsOfExperience() >= yearsThreshold && emp.isActive());
 
-        eligibleEmployees.forEach(emp -> {
-            double currentSalary = emp.getSalary();
-            double newSalary = currentSalary * (1 + percentageRaise / 100);
-            try {
-                emp.setSalary(newSalary);
-            } catch (InvalidSalaryException e) {
-                throw new RuntimeException(e);
-            }
-        });
+            applyRaise(eligibleEmployees, percentageRaise);
 
-        return eligibleEmployees.size();
+            event.complete("giveSalaryRaiseByExperience", yearsThreshold, percentageRaise, eligibleEmployees.size());
+            return eligibleEmployees.size();
+        } catch (RuntimeException e) {
+            GIVE_SALARY_RAISE_BY_EXPERIENCE_LATENCY.recordError();
+            throw e;
+        } finally {
+            GIVE_SALARY_RAISE_BY_EXPERIENCE_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -79,25 +119,28 @@ public class SalaryManager<T> {
      * @return Number of employees who received raises
      */
     public int giveSalaryRaiseByDepartment(String department, double percentageRaise) {
-        if (percentageRaise <= 0) {
-            throw new IllegalArgumentException("Percentage raise must be positive");
-        }
+        long start = System.nanoTime();
+        SalaryRaiseEvent event = new SalaryRaiseEvent();
+        event.begin();
+        try {
+            if (percentageRaise <= 0) {
+                throw new IllegalArgumentException("Percentage raise must be positive");
+            }
 
-        List<Employee<T>> eligibleEmployees = database.getAllEmployees().stream()
-                .filter(emp -> emp.getDepartment().equalsIgnoreCase(department) && emp.isActive())
-                .collect(Collectors.toList());
+            int departmentCode = DepartmentDictionary.getInstance().lookup(department);
+            List<Employee<T>> eligibleEmployees = database.findEmployees(
+                    emp -> emp.getDepartmentCode() == departmentCode && emp.isActive());
 
-        eligibleEmployees.forEach(emp -> {
-            double currentSalary = emp.getSalary();
-            double newSalary = currentSalary * (1 + percentageRaise / 100);
-            try {
-                emp.setSalary(newSalary);
-            } catch (InvalidSalaryException e) {
-                throw new RuntimeException(e);
-            }
-        });
+            applyRaise(eligibleEmployees, percentageRaise);
 
-        return eligibleEmployees.size();
+            event.complete("giveSalaryRaiseByDepartment", department, percentageRaise, eligibleEmployees.size());
+            return eligibleEmployees.size();
+        } catch (RuntimeException e) {
+            GIVE_SALARY_RAISE_BY_DEPARTMENT_LATENCY.recordError();
+            throw e;
+        } finally {
+            GIVE_SALARY_RAISE_BY_DEPARTMENT_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -106,14 +149,20 @@ public class SalaryManager<T> {
      * @return List of the top N highest-paid employees
      */
     public List<Employee<T>> getTopPaidEmployees(int n) {
-        if (n <= 0) {
-            throw new IllegalArgumentException("Number of employees must be positive");
-        }
+        long start = System.nanoTime();
+        try {
+            if (n <= 0) {
+                throw new IllegalArgumentException("Number of employees must be positive");
+            }
 
-        return database.getAllEmployees().stream()
-                .sorted()
-                .limit(n)
-                .collect(Collectors.toList());
+            // Natural order, as the previous sorted().limit(n)
+            return database.findTop(n, Comparator.naturalOrder());
+        } catch (RuntimeException e) {
+            GET_TOP_PAID_EMPLOYEES_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_TOP_PAID_EMPLOYEES_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -121,10 +170,19 @@ public class SalaryManager<T> {
      * @return The average salary
      */
     public double calculateAverageSalary() {
-        return database.getAllEmployees().stream()
-                .mapToDouble(Employee::getSalary)
-                .average()
-                .orElse(0.0);
+        long start = System.nanoTime();
+        try {
+            SalaryColumns<T> columns = salaryColumns();
+            synchronized (columns) {
+                int count = columns.size();
+                return count == 0 ? 0 : columns.salarySum() / count;
+            }
+        } catch (RuntimeException e) {
+            CALCULATE_AVERAGE_SALARY_LATENCY.recordError();
+            throw e;
+        } finally {
+            CALCULATE_AVERAGE_SALARY_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -133,11 +191,20 @@ public class SalaryManager<T> {
      * @return The average salary in the specified department
      */
     public double calculateAverageSalaryByDepartment(String department) {
-        return database.getAllEmployees().stream()
-                .filter(emp -> emp.getDepartment().equalsIgnoreCase(department))
-                .mapToDouble(Employee::getSalary)
-                .average()
-                .orElse(0.0);
+        long start = System.nanoTime();
+        try {
+            int departmentCode = DepartmentDictionary.getInstance().lookup(department);
+            return database.aggregate(DoubleSummaryStatistics::new, (stats, emp) -> {
+                if (emp.getDepartmentCode() == departmentCode) {
+                    stats.accept(emp.getSalary());
+                }
+            }, SalaryManager::combine).getAverage();
+        } catch (RuntimeException e) {
+            CALCULATE_AVERAGE_SALARY_BY_DEPARTMENT_LATENCY.recordError();
+            throw e;
+        } finally {
+            CALCULATE_AVERAGE_SALARY_BY_DEPARTMENT_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -145,11 +212,16 @@ public class SalaryManager<T> {
      * @return Map of department names to average salaries
      */
     public Map<String, Double> calculateAverageSalaryPerDepartment() {
-        return database.getAllEmployees().stream()
-                .collect(Collectors.groupingBy(
-                        Employee::getDepartment,
-                        Collectors.averagingDouble(Employee::getSalary)
-                ));
+        long start = System.nanoTime();
+        try {
+            return aggregator.groupBy(GroupKey.DEPARTMENT,
+                    List.of(Aggregate.average(Aggregate.Field.SALARY))).toMap(0);
+        } catch (RuntimeException e) {
+            CALCULATE_AVERAGE_SALARY_PER_DEPARTMENT_LATENCY.recordError();
+            throw e;
+        } finally {
+            CALCULATE_AVERAGE_SALARY_PER_DEPARTMENT_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -157,10 +229,15 @@ public class SalaryManager<T> {
      * @return The total salary cost
      */
     public double calculateTotalSalaryCost() {
-        return database.getAllEmployees().stream()
-                .filter(Employee::isActive)
-                .mapToDouble(Employee::getSalary)
-                .sum();
+        long start = System.nanoTime();
+        try {
+            return salaryColumns().activeSalarySum();
+        } catch (RuntimeException e) {
+            CALCULATE_TOTAL_SALARY_COST_LATENCY.recordError();
+            throw e;
+        } finally {
+            CALCULATE_TOTAL_SALARY_COST_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -168,12 +245,16 @@ public class SalaryManager<T> {
      * @return Map of department names to total salary costs
      */
     public Map<String, Double> calculateTotalSalaryCostPerDepartment() {
-        return database.getAllEmployees().stream()
-                .filter(Employee::isActive)
-                .collect(Collectors.groupingBy(
-                        Employee::getDepartment,
-                        Collectors.summingDouble(Employee::getSalary)
-                ));
+        long start = System.nanoTime();
+        try {
+            return aggregator.groupBy(GroupKey.DEPARTMENT, Employee::isActive,
+                    List.of(Aggregate.sum(Aggregate.Field.SALARY))).toMap(0);
+        } catch (RuntimeException e) {
+            CALCULATE_TOTAL_SALARY_COST_PER_DEPARTMENT_LATENCY.recordError();
+            throw e;
+        } finally {
+            CALCULATE_TOTAL_SALARY_COST_PER_DEPARTMENT_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -181,11 +262,18 @@ public class SalaryManager<T> {
      * @return The salary gap
      */
     public double calculateSalaryGap() {
-        DoubleSummaryStatistics stats = database.getAllEmployees().stream()
-                .mapToDouble(Employee::getSalary)
-                .summaryStatistics();
-
-        return stats.getMax() - stats.getMin();
+        long start = System.nanoTime();
+        try {
+            SalaryColumns<T> columns = salaryColumns();
+            synchronized (columns) {
+                return columns.maxSalary() - columns.minSalary();
+            }
+        } catch (RuntimeException e) {
+            CALCULATE_SALARY_GAP_LATENCY.recordError();
+            throw e;
+        } finally {
+            CALCULATE_SALARY_GAP_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -195,9 +283,229 @@ public class SalaryManager<T> {
      * @return true if any employees earn above the threshold
      */
     public boolean anyEmployeesAboveSalary(String department, double salaryThreshold) {
-        return database.getAllEmployees().stream()
-                .filter(emp -> emp.getDepartment().equalsIgnoreCase(department))
-                .anyMatch(emp -> emp.getSalary() > salaryThreshold);
+        long start = System.nanoTime();
+        try {
+            int departmentCode = DepartmentDictionary.getInstance().lookup(department);
+            return departmentCode >= 0 && salaryColumns().anySalaryAbove(departmentCode, salaryThreshold);
+        } catch (RuntimeException e) {
+            ANY_EMPLOYEES_ABOVE_SALARY_LATENCY.recordError();
+            throw e;
+        } finally {
+            ANY_EMPLOYEES_ABOVE_SALARY_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Count the active employees with performance ratings meeting or exceeding the threshold,
+     * i.e. the employees a performance raise with the same threshold would reach
+     * @param minimumRating The minimum rating
+     * @return Number of active employees rated at least the minimum
+     */
+    public int countEmployeesRatedAtLeast(double minimumRating) {
+        long start = System.nanoTime();
+        try {
+            return salaryColumns().countActiveRatedAtLeast(minimumRating);
+        } catch (RuntimeException e) {
+            COUNT_EMPLOYEES_RATED_AT_LEAST_LATENCY.recordError();
+            throw e;
+        } finally {
+            COUNT_EMPLOYEES_RATED_AT_LEAST_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Get a salary manager over the roster as it was at a point in time, for the reports
+     * without an as-of variant here (top paid, gap, percentiles); see
+     * {@link EmployeeDB#asOf(Instant)}. Raises on it fail, the past is read-only.
+     * @param when The point in time
+     * @return A salary manager over a read-only copy of the roster of that time
+     * @throws IllegalStateException if the database is not recording history
+     */
+    public SalaryManager<T> asOf(Instant when) {
+        long start = System.nanoTime();
+        try {
+            return new SalaryManager<>(database.asOf(when));
+        } catch (RuntimeException e) {
+            AS_OF_LATENCY.recordError();
+            throw e;
+        } finally {
+            AS_OF_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Calculate the average salary across all employees at a point in time from the
+     * recorded totals, without rebuilding the roster
+     * @param when The point in time
+     * @return The average salary then, 0 if there were no employees
+     * @throws IllegalStateException if the database is not recording history
+     */
+    public double calculateAverageSalaryAsOf(Instant when) {
+        long start = System.nanoTime();
+        try {
+            DepartmentTotals totals = database.timeline().departmentTotalsAsOf(when, false);
+            long count = totals.totalCount();
+            return count == 0 ? 0 : totals.totalSum() / count;
+        } catch (RuntimeException e) {
+            CALCULATE_AVERAGE_SALARY_AS_OF_LATENCY.recordError();
+            throw e;
+        } finally {
+            CALCULATE_AVERAGE_SALARY_AS_OF_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * @param when The point in time
+     * @return Map of department names to average salaries then
+     * @throws IllegalStateException if the database is not recording history
+     */
+    public Map<String, Double> calculateAverageSalaryPerDepartmentAsOf(Instant when) {
+        long start = System.nanoTime();
+        try {
+            return database.timeline().departmentTotalsAsOf(when, false).averages();
+        } catch (RuntimeException e) {
+            CALCULATE_AVERAGE_SALARY_PER_DEPARTMENT_AS_OF_LATENCY.recordError();
+            throw e;
+        } finally {
+            CALCULATE_AVERAGE_SALARY_PER_DEPARTMENT_AS_OF_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Calculate the total salary cost of the active employees at a point in time
+     * @param when The point in time
+     * @return The total salary cost then
+     * @throws IllegalStateException if the database is not recording history
+     */
+    public double calculateTotalSalaryCostAsOf(Instant when) {
+        long start = System.nanoTime();
+        try {
+            return database.timeline().departmentTotalsAsOf(when, true).totalSum();
+        } catch (RuntimeException e) {
+            CALCULATE_TOTAL_SALARY_COST_AS_OF_LATENCY.recordError();
+            throw e;
+        } finally {
+            CALCULATE_TOTAL_SALARY_COST_AS_OF_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * @param when The point in time
+     * @return Map of department names to the total salary cost of their active employees then
+     * @throws IllegalStateException if the database is not recording history
+     */
+    public Map<String, Double> calculateTotalSalaryCostPerDepartmentAsOf(Instant when) {
+        long start = System.nanoTime();
+        try {
+            return database.timeline().departmentTotalsAsOf(when, true).sums();
+        } catch (RuntimeException e) {
+            CALCULATE_TOTAL_SALARY_COST_PER_DEPARTMENT_AS_OF_LATENCY.recordError();
+            throw e;
+        } finally {
+            CALCULATE_TOTAL_SALARY_COST_PER_DEPARTMENT_AS_OF_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Get a salary percentile across all employees from the salary sketches, without sorting
+     * the roster. The first call scans the roster once to build the sketches; after that they
+     * follow every change made through the database and its services.
+     * @param percentile The percentile, from 0 to 100 (e.g. 50 for the median, 99 for p99)
+     * @return The salary, within {@link SalarySketch#DEFAULT_RELATIVE_ACCURACY}, or 0 if there are no employees
+     */
+    public double getSalaryPercentile(double percentile) {
+        long start = System.nanoTime();
+        try {
+            return salaryQuantiles().overall().quantile(toQuantile(percentile));
+        } catch (RuntimeException e) {
+            GET_SALARY_PERCENTILE_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_SALARY_PERCENTILE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Get a salary percentile within a department
+     * @param department The department
+     * @param percentile The percentile, from 0 to 100
+     * @return The salary, within {@link SalarySketch#DEFAULT_RELATIVE_ACCURACY}, or 0 if the department has no employees
+     */
+    public double getSalaryPercentile(String department, double percentile) {
+        long start = System.nanoTime();
+        try {
+            return getSalarySketch(department).quantile(toQuantile(percentile));
+        } catch (RuntimeException e) {
+            GET_SALARY_PERCENTILE_BY_DEPARTMENT_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_SALARY_PERCENTILE_BY_DEPARTMENT_LATENCY.recordSince(start);
+        }
+    }
+
+    public double getMedianSalary(String department) {
+        return getSalaryPercentile(department, 50);
+    }
+
+    /**
+     * Get a salary percentile for each department
+     * @param percentile The percentile, from 0 to 100
+     * @return Map of department names to salaries
+     */
+    public Map<String, Double> getSalaryPercentilePerDepartment(double percentile) {
+        long start = System.nanoTime();
+        try {
+            double quantile = toQuantile(percentile);
+            List<SalarySketch> sketches = salaryQuantiles().departments();
+            Map<String, Double> result = new HashMap<>();
+            for (int code = 0; code < sketches.size(); code++) {
+                if (sketches.get(code).getCount() > 0) {
+                    result.put(DepartmentDictionary.getInstance().decode(code), sketches.get(code).quantile(quantile));
+                }
+            }
+            return result;
+        } catch (RuntimeException e) {
+            GET_SALARY_PERCENTILE_PER_DEPARTMENT_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_SALARY_PERCENTILE_PER_DEPARTMENT_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Get the share of a department's employees earning at most a salary
+     * @param department The department
+     * @param salary The salary
+     * @return The share from 0 to 1, or 0 if the department has no employees
+     */
+    public double getShareEarningAtMost(String department, double salary) {
+        long start = System.nanoTime();
+        try {
+            return getSalarySketch(department).cdf(salary);
+        } catch (RuntimeException e) {
+            GET_SHARE_EARNING_AT_MOST_LATENCY.recordError();
+            throw e;
+        } finally {
+            GET_SHARE_EARNING_AT_MOST_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Get a copy of the salary sketch of all employees, e.g. to merge with the sketches of
+     * other databases
+     * @return A new sketch
+     */
+    public SalarySketch getSalarySketch() {
+        return salaryQuantiles().overall();
+    }
+
+    /**
+     * @param department The department
+     * @return A new sketch of the department's salaries, empty for an unknown department
+     */
+    public SalarySketch getSalarySketch(String department) {
+        int departmentCode = DepartmentDictionary.getInstance().lookup(department);
+        return departmentCode < 0 ? new SalarySketch() : salaryQuantiles().department(departmentCode);
     }
 
     /**
@@ -205,23 +513,109 @@ public class SalaryManager<T> {
      * @param employees List of employees to include in report
      */
     public void displaySalaryReport(List<Employee<T>> employees) {
-        if (employees.isEmpty()) {
-            System.out.println("No employees to display in salary report.");
-            return;
+        long start = System.nanoTime();
+        try {
+            if (employees.isEmpty()) {
+                System.out.println("No employees to display in salary report.");
+                return;
+            }
+
+            System.out.println("\n============= SALARY REPORT =============");
+            System.out.printf("%-20s | %-15s | %-10s | %s\n", "NAME", "DEPARTMENT", "SALARY", "RATING");
+            System.out.println("------------------------------------------");
+
+            employees.forEach(emp -> {
+                System.out.printf("%-20s | %-15s | $%,9.2f | %.1f\n",
+                        emp.getName(),
+                        emp.getDepartment(),
+                        emp.getSalary(),
+                        emp.getPerformanceRating());
+            });
+
+            System.out.println("=========================================");
+        } catch (RuntimeException e) {
+            DISPLAY_SALARY_REPORT_LATENCY.recordError();
+            throw e;
+        } finally {
+            DISPLAY_SALARY_REPORT_LATENCY.recordSince(start);
         }
+    }
 
-        System.out.println("\n============= SALARY REPORT =============");
-        System.out.printf("%-20s | %-15s | %-10s | %s\n", "NAME", "DEPARTMENT", "SALARY", "RATING");
-        System.out.println("------------------------------------------");
+    /**
+     * Raise the salaries and report each change to the database, so its change listeners see it
+     */
+    private void applyRaise(List<Employee<T>> employees, double percentageRaise) {
+        if (database.isReadOnly()) {
+            throw new UnsupportedOperationException("Database is read-only");
+        }
+        double multiplier = 1 + percentageRaise / 100;
+        // The whole raise is one command for undo, holding the old salaries in one array
+        EmployeeCommandLog<T> log = database.commandLog();
+        boolean recording = log != null && log.isRecording() && !employees.isEmpty();
+        Object[] employeeIds = recording ? new Object[employees.size()] : null;
+        double[] oldSalaries = recording ? new double[employees.size()] : null;
 
-        employees.forEach(emp -> {
-            System.out.printf("%-20s | %-15s | $%,9.2f | %.1f\n",
-                    emp.getName(),
-                    emp.getDepartment(),
-                    emp.getSalary(),
-                    emp.getPerformanceRating());
-        });
+        int raised = 0;
+        for (Employee<T> emp : employees) {
+            T employeeId = emp.getEmployeeId();
+            int position = raised;
+            // The salary is read and written under the lock of the ID, so a concurrent
+            // compareAndUpdate of the same employee either sees the raise or is seen by it
+            Employee<T> changed;
+            try {
+                changed = database.modify(employeeId, employee -> {
+                    double currentSalary = employee.getSalary();
+                    employee.setSalary(currentSalary * multiplier);
+                    if (recording) {
+                        oldSalaries[position] = currentSalary;
+                    }
+                });
+            } catch (InvalidSalaryException | InvalidDepartmentException e) {
+                throw new RuntimeException(e);
+            }
+            // An employee removed since the search is skipped
+            if (changed != null) {
+                if (recording) {
+                    employeeIds[raised] = employeeId;
+                }
+                raised++;
+            }
+        }
+
+        if (recording && raised > 0) {
+            log.record(EmployeeCommandLog.salariesRaised(
+                    String.format("Raise of %s%% for %d employees", percentageRaise, raised),
+                    Arrays.copyOf(employeeIds, raised), Arrays.copyOf(oldSalaries, raised), multiplier));
+        }
+    }
+
+    private SalaryQuantiles<T> salaryQuantiles() {
+        SalaryQuantiles<T> quantiles = salaryQuantiles;
+        if (quantiles == null) {
+            quantiles = database.follower(SalaryQuantiles.class, SalaryQuantiles::follow);
+            salaryQuantiles = quantiles;
+        }
+        return quantiles;
+    }
+
+    private SalaryColumns<T> salaryColumns() {
+        SalaryColumns<T> columns = salaryColumns;
+        if (columns == null) {
+            columns = database.follower(SalaryColumns.class, SalaryColumns::follow);
+            salaryColumns = columns;
+        }
+        return columns;
+    }
+
+    private static double toQuantile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        return percentile / 100;
+    }
 
-        System.out.println("=========================================");
+    private static DoubleSummaryStatistics combine(DoubleSummaryStatistics left, DoubleSummaryStatistics right) {
+        left.combine(right);
+        return left;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Salary sketches per department and for the whole roster, kept up to date as a change
+ * listener of the database.
+ *
+ * Each employee's last recorded department and salary bucket is remembered, so a raise or
+ * a department move takes the old salary out of the sketches before adding the new one.
+ * The state is split into stripes by employee ID, each with its own lock, so concurrent
+ * writers to a sharded database rarely contend; queries merge the stripes' sketches.
+ */
+final class SalaryQuantiles<T> implements EmployeeChangeListener<T> {
+    private final EmployeeDB<T> database;
+    private final Stripe<T>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    SalaryQuantiles(EmployeeDB<T> database, int stripeCount) {
+        this.database = database;
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * Create the sketches for a database and keep them up to date. The listener is
+     * registered before the roster is scanned, so no change is missed while it runs, and a
+     * save is only recorded if the employee is still stored, so the scan cannot bring back
+     * an employee whose removal was already handled.
+     * @param database The database to follow
+     * @return The sketches
+     */
+    static <T> SalaryQuantiles<T> follow(EmployeeDB<T> database) {
+        SalaryQuantiles<T> quantiles = new SalaryQuantiles<>(database, Runtime.getRuntime().availableProcessors());
+        database.addChangeListener(quantiles);
+        database.forEachEmployee(quantiles::employeeSaved);
+        return quantiles;
+    }
+
+    @Override
+    public void employeeSaved(Employee<T> employee) {
+        T employeeId = employee.getEmployeeId();
+        Stripe<T> stripe = stripeOf(employeeId);
+        // Checked under the stripe lock, which the removal also takes
+        synchronized (stripe) {
+            if (database.stored(employeeId) != null) {
+                stripe.record(employeeId, employee.getDepartmentCode(), employee.getSalary());
+            }
+        }
+    }
+
+    @Override
+    public void employeeRemoved(T employeeId) {
+        stripeOf(employeeId).forget(employeeId);
+    }
+
+    /**
+     * @return A new sketch of all salaries
+     */
+    SalarySketch overall() {
+        SalarySketch merged = new SalarySketch();
+        for (Stripe<T> stripe : stripes) {
+            synchronized (stripe) {
+                merged.merge(stripe.overall);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @param departmentCode The department
+     * @return A new sketch of the department's salaries
+     */
+    SalarySketch department(int departmentCode) {
+        SalarySketch merged = new SalarySketch();
+        for (Stripe<T> stripe : stripes) {
+            synchronized (stripe) {
+                if (departmentCode < stripe.departments.size()) {
+                    merged.merge(stripe.departments.get(departmentCode));
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @return A new sketch for each department code, empty for departments without employees
+     */
+    List<SalarySketch> departments() {
+        List<SalarySketch> merged = new ArrayList<>();
+        for (Stripe<T> stripe : stripes) {
+            synchronized (stripe) {
+                for (int code = 0; code < stripe.departments.size(); code++) {
+                    if (code == merged.size()) {
+                        merged.add(new SalarySketch());
+                    }
+                    merged.get(code).merge(stripe.departments.get(code));
+                }
+            }
+        }
+        return merged;
+    }
+
+    private Stripe<T> stripeOf(T employeeId) {
+        return stripes[(employeeId.hashCode() & Integer.MAX_VALUE) % stripes.length];
+    }
+
+    private static final class Stripe<T> {
+        // Department code in the high half, salary bucket in the low half
+        private final Map<T, Long> recorded = new HashMap<>();
+        private final SalarySketch overall = new SalarySketch();
+        private final List<SalarySketch> departments = new ArrayList<>();
+
+        synchronized void record(T employeeId, int departmentCode, double salary) {
+            int bucket = overall.bucketOf(salary);
+            long entry = (long) departmentCode << 32 | (bucket & 0xFFFFFFFFL);
+            Long previous = recorded.put(employeeId, entry);
+            if (previous != null) {
+                if (previous == entry) {
+                    return;
+                }
+                remove(previous);
+            }
+            overall.addToBucket(bucket, 1);
+            department(departmentCode).addToBucket(bucket, 1);
+        }
+
+        synchronized void forget(T employeeId) {
+            Long previous = recorded.remove(employeeId);
+            if (previous != null) {
+                remove(previous);
+            }
+        }
+
+        private void remove(long entry) {
+            int bucket = (int) entry;
+            overall.addToBucket(bucket, -1);
+            department((int) (entry >>> 32)).addToBucket(bucket, -1);
+        }
+
+        private SalarySketch department(int departmentCode) {
+            while (departments.size() <= departmentCode) {
+                departments.add(new SalarySketch());
+            }
+            return departments.get(departmentCode);
+        }
+    }
+}
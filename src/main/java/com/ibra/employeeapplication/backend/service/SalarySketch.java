@@ -0,0 +1,212 @@
+package com.ibra.employeeapplication.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch of salaries with a relative error guarantee.
+ *
+ * Salaries are counted in logarithmic buckets: bucket i holds the salaries in
+ * (gamma^(i-1), gamma^i] with gamma = (1 + a) / (1 - a), so every quantile is answered
+ * within a relative error a of a salary actually in the set, whatever the distribution.
+ * Salaries between 1 and 10^9 fit in about a thousand buckets at the default 1%. Unlike
+ * t-digest or KLL the buckets are plain counters, so a salary can be removed again when an
+ * employee leaves or gets a raise, and two sketches with the same accuracy merge exactly
+ * by adding their counters, e.g. the sketches of several shards or replicas.
+ *
+ * Not thread-safe.
+ */
+public final class SalarySketch {
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    // Salaries below one are counted together and reported as zero
+    private static final double MIN_INDEXED_SALARY = 1.0;
+    static final int ZERO_BUCKET = Integer.MIN_VALUE;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    // counts[i] is the count of bucket offset + i
+    private long[] counts = new long[0];
+    private int offset;
+    private long zeroCount;
+    private long count;
+
+    public SalarySketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * @param relativeAccuracy Maximum relative error of the quantiles, between 0 and 1 exclusive
+     */
+    public SalarySketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * @return Number of salaries in the sketch
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public void add(double salary) {
+        addToBucket(bucketOf(salary), 1);
+    }
+
+    /**
+     * Remove a salary that was added before, e.g. the old salary of an employee who got a raise
+     * @param salary The salary to remove
+     */
+    public void remove(double salary) {
+        addToBucket(bucketOf(salary), -1);
+    }
+
+    /**
+     * Add all salaries of another sketch to this one
+     * @param other A sketch with the same relative accuracy
+     * @return This sketch
+     */
+    public SalarySketch merge(SalarySketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        if (other.count == 0) {
+            return this;
+        }
+        zeroCount += other.zeroCount;
+        count += other.zeroCount;
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) {
+                addToBucket(other.offset + i, other.counts[i]);
+            }
+        }
+        return this;
+    }
+
+    public SalarySketch copy() {
+        SalarySketch copy = new SalarySketch(relativeAccuracy);
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Get the salary at a quantile
+     * @param quantile The quantile, from 0 (lowest salary) to 1 (highest salary)
+     * @return The salary, within the relative accuracy, or 0 if the sketch is empty
+     */
+    public double quantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        if (count == 0) {
+            return 0;
+        }
+        // Rank of the salary in the sorted salaries, from 0
+        long rank = (long) (quantile * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                return valueOf(offset + i);
+            }
+        }
+        return valueOf(offset + counts.length - 1);
+    }
+
+    /**
+     * Get the share of salaries at or below a salary (the cumulative distribution)
+     * @param salary The salary
+     * @return The share from 0 to 1, or 0 if the sketch is empty
+     */
+    public double cdf(double salary) {
+        if (count == 0) {
+            return 0;
+        }
+        int bucket = bucketOf(salary);
+        if (bucket == ZERO_BUCKET) {
+            return (double) zeroCount / count;
+        }
+        long atOrBelow = zeroCount;
+        for (int i = 0; i < counts.length && offset + i <= bucket; i++) {
+            atOrBelow += counts[i];
+        }
+        return (double) atOrBelow / count;
+    }
+
+    /**
+     * @return The bucket a salary is counted in, {@link #ZERO_BUCKET} for salaries below one
+     */
+    int bucketOf(double salary) {
+        if (Double.isNaN(salary)) {
+            throw new IllegalArgumentException("Salary cannot be NaN");
+        }
+        if (salary < MIN_INDEXED_SALARY) {
+            return ZERO_BUCKET;
+        }
+        return (int) Math.ceil(Math.log(salary) / logGamma);
+    }
+
+    /**
+     * Add to the count of a bucket; a negative delta removes salaries
+     */
+    void addToBucket(int bucket, long delta) {
+        if (bucket == ZERO_BUCKET) {
+            if (zeroCount + delta < 0) {
+                throw new IllegalStateException("Salary was not in the sketch");
+            }
+            zeroCount += delta;
+            count += delta;
+            return;
+        }
+        if (counts.length == 0) {
+            counts = new long[16];
+            offset = bucket - 8;
+        } else if (bucket < offset || bucket >= offset + counts.length) {
+            grow(bucket);
+        }
+        int i = bucket - offset;
+        if (counts[i] + delta < 0) {
+            throw new IllegalStateException("Salary was not in the sketch");
+        }
+        counts[i] += delta;
+        count += delta;
+    }
+
+    /**
+     * @return The salary reported for a bucket, the point within relative accuracy of both ends
+     */
+    private double valueOf(int bucket) {
+        return 2 * Math.pow(gamma, bucket) / (gamma + 1);
+    }
+
+    private void grow(int bucket) {
+        int low = Math.min(offset, bucket);
+        int high = Math.max(offset + counts.length, bucket + 1);
+        // Leave room on both sides, raises and new hires usually land next to the current range
+        int slack = Math.max(8, (high - low) / 2);
+        int newOffset = low - slack / 2;
+        long[] grown = new long[high - low + slack];
+        System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+        counts = grown;
+        offset = newOffset;
+    }
+
+    @Override
+    public String toString() {
+        return "SalarySketch{count=" + count + ", accuracy=" + relativeAccuracy
+                + ", buckets=" + Arrays.stream(counts).filter(c -> c != 0).count() + "}";
+    }
+}
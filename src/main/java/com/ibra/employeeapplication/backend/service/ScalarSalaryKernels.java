@@ -0,0 +1,72 @@
+package com.ibra.employeeapplication.backend.service;
+
+/**
+ * Plain loops, used when the Vector API is not available. The JIT may still
+ * auto-vectorize the sums, but not the masked and early-exit loops.
+ */
+final class ScalarSalaryKernels implements SalaryKernels {
+
+    @Override
+    public double sum(double[] values, int length) {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumActive(double[] values, boolean[] active, int length) {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            if (active[i]) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(double[] values, int length) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] values, int length) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public int countActiveAtLeast(double[] values, boolean[] active, double threshold, int length) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (active[i] && values[i] >= threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean anyAbove(double[] values, int[] codes, int code, double threshold, int length) {
+        for (int i = 0; i < length; i++) {
+            if (codes[i] == code && values[i] > threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,180 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+import com.ibra.employeeapplication.backend.storage.ShardedEmployeeMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * EmployeeDB partitioned by ID hash into independent shards, see {@link ShardedEmployeeMap}.
+ *
+ * Writes lock only the shard that owns the employee, so the database can be shared by
+ * several threads. Searches and aggregates fan out to all shards in parallel and merge
+ * the partial results: finds are concatenated, top-N lists are merged and aggregate
+ * containers are combined.
+ */
+public class ShardedEmployeeDB<T> extends EmployeeDB<T> {
+    private static final LatencyRecorder FIND_EMPLOYEES_LATENCY = OperationMetrics.recorder("EmployeeDB.findEmployees");
+    private static final LatencyRecorder FOR_EACH_EMPLOYEE_LATENCY = OperationMetrics.recorder("EmployeeDB.forEachEmployee");
+    private static final LatencyRecorder AGGREGATE_LATENCY = OperationMetrics.recorder("EmployeeDB.aggregate");
+    private static final LatencyRecorder FIND_TOP_LATENCY = OperationMetrics.recorder("EmployeeDB.findTop");
+
+    private final ShardedEmployeeMap<T> employees;
+
+    /**
+     * Create a database with one shard per available processor
+     */
+    public ShardedEmployeeDB() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedEmployeeDB(int shardCount) {
+        this(shardCount, HashMap::new);
+    }
+
+    /**
+     * @param shardCount Number of shards
+     * @param shardFactory Creates the empty map backing each shard, e.g. {@code UuidEmployeeMap::new}
+     */
+    public ShardedEmployeeDB(int shardCount, Supplier<? extends Map<T, Employee<T>>> shardFactory) {
+        this(new ShardedEmployeeMap<>(shardCount, shardFactory));
+    }
+
+    /**
+     * Constructor for subclasses that need direct access to the shards
+     * @param employees Empty sharded map to store employees in
+     */
+    protected ShardedEmployeeDB(ShardedEmployeeMap<T> employees) {
+        super(employees);
+        this.employees = employees;
+    }
+
+    public int getShardCount() {
+        return employees.getShardCount();
+    }
+
+    /**
+     * The collection views of the sharded map are snapshots, so removal goes through the
+     * map, which purges one shard at a time under its write lock
+     */
+    @Override
+    protected int removeFromStorage(Predicate<? super Employee<T>> filter) {
+        return employees.removeIf(filter);
+    }
+
+    @Override
+    public List<Employee<T>> findEmployees(Predicate<? super Employee<T>> filter) {
+        long start = System.nanoTime();
+        try {
+            List<List<Employee<T>>> partials = fanOut(shard -> {
+                List<Employee<T>> matches = new ArrayList<>();
+                for (Employee<T> employee : shard.values()) {
+                    if (filter.test(employee)) {
+                        matches.add(employee);
+                    }
+                }
+                return matches;
+            });
+
+            List<Employee<T>> results = new ArrayList<>(partials.stream().mapToInt(List::size).sum());
+            partials.forEach(results::addAll);
+            return results;
+        } catch (RuntimeException e) {
+            FIND_EMPLOYEES_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_EMPLOYEES_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Visits the shards one after another, since the action is not expected to be thread-safe
+     */
+    @Override
+    public void forEachEmployee(Consumer<? super Employee<T>> action) {
+        long start = System.nanoTime();
+        try {
+            for (int shard = 0; shard < employees.getShardCount(); shard++) {
+                employees.readShard(shard, map -> {
+                    map.values().forEach(action);
+                    return null;
+                });
+            }
+        } catch (RuntimeException e) {
+            FOR_EACH_EMPLOYEE_LATENCY.recordError();
+            throw e;
+        } finally {
+            FOR_EACH_EMPLOYEE_LATENCY.recordSince(start);
+        }
+    }
+
+    @Override
+    public <A> A aggregate(Supplier<A> supplier, BiConsumer<A, ? super Employee<T>> accumulator,
+                           BinaryOperator<A> combiner) {
+        long start = System.nanoTime();
+        try {
+            List<A> partials = fanOut(shard -> {
+                A container = supplier.get();
+                for (Employee<T> employee : shard.values()) {
+                    accumulator.accept(container, employee);
+                }
+                return container;
+            });
+            return partials.stream().reduce(combiner).orElseGet(supplier);
+        } catch (RuntimeException e) {
+            AGGREGATE_LATENCY.recordError();
+            throw e;
+        } finally {
+            AGGREGATE_LATENCY.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Employee<T>> findTop(int n, Comparator<? super Employee<T>> order) {
+        long start = System.nanoTime();
+        try {
+            List<Employee<T>> candidates = new ArrayList<>();
+            fanOut(shard -> topOf(shard.values(), n, order)).forEach(candidates::addAll);
+            return topOf(candidates, n, order);
+        } catch (RuntimeException e) {
+            FIND_TOP_LATENCY.recordError();
+            throw e;
+        } finally {
+            FIND_TOP_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Copies one shard at a time as the traversal reaches it and holds no lock while the
+     * employees are passed on, see {@link ShardedEmployeeMap#spliterator()}
+     */
+    @Override
+    public Spliterator<Employee<T>> spliterator() {
+        return employees.spliterator();
+    }
+
+    /**
+     * Run a read-only task on every shard in parallel
+     * @return The result of each shard, in shard order
+     */
+    private <R> List<R> fanOut(Function<? super Map<T, Employee<T>>, R> task) {
+        return IntStream.range(0, employees.getShardCount()).parallel()
+                .mapToObj(shard -> employees.readShard(shard, task))
+                .collect(Collectors.toList());
+    }
+}
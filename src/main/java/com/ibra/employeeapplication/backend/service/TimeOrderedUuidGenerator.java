@@ -0,0 +1,70 @@
+package com.ibra.employeeapplication.backend.service;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered version 7 UUIDs (RFC 9562).
+ *
+ * The top 48 bits are the Unix time in milliseconds and the next 12 bits a counter, so IDs
+ * created one after another sort in creation order even within the same millisecond.
+ * The remaining 62 bits come from ThreadLocalRandom instead of the SecureRandom behind
+ * {@link UUID#randomUUID()}, and the counter is advanced with a CAS, so generation never blocks.
+ */
+public class TimeOrderedUuidGenerator {
+    private static final TimeOrderedUuidGenerator INSTANCE = new TimeOrderedUuidGenerator();
+
+    private static final int COUNTER_BITS = 12;
+
+    // Last issued (timestamp << 12 | counter)
+    private final AtomicLong lastTimeAndCounter = new AtomicLong();
+
+    public static TimeOrderedUuidGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return A new version 7 UUID, greater than any UUID previously returned by this generator
+     */
+    public UUID next() {
+        return new UUID(nextMostSignificantBits(), nextLeastSignificantBits());
+    }
+
+    /**
+     * High half of a new UUID: 48-bit timestamp, version 7 and the 12-bit counter.
+     * Use with {@link #nextLeastSignificantBits()} to build keys without a UUID object.
+     */
+    public long nextMostSignificantBits() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        long last;
+        long next;
+        do {
+            last = lastTimeAndCounter.get();
+            // Counter overflow simply carries into the timestamp, keeping the order
+            next = Math.max(now, last + 1);
+        } while (!lastTimeAndCounter.compareAndSet(last, next));
+
+        long timestamp = next >>> COUNTER_BITS;
+        long counter = next & ((1L << COUNTER_BITS) - 1);
+        return (timestamp << 16) | (0x7L << 12) | counter;
+    }
+
+    /**
+     * Low half of a new UUID: the IETF variant and 62 random bits
+     */
+    public long nextLeastSignificantBits() {
+        return (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    }
+
+    /**
+     * @param uuid A version 7 UUID
+     * @return The Unix time in milliseconds encoded in it
+     */
+    public static long timestampOf(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
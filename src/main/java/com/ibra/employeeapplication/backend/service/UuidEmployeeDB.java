@@ -0,0 +1,65 @@
+package com.ibra.employeeapplication.backend.service;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+import com.ibra.employeeapplication.backend.storage.UuidEmployeeMap;
+
+import java.util.UUID;
+
+/**
+ * EmployeeDB specialized for UUID employee IDs.
+ * Keys are stored as two longs in a {@link UuidEmployeeMap}, and the (msb, lsb) overloads
+ * look up and remove employees without creating a UUID object.
+ */
+public class UuidEmployeeDB extends EmployeeDB<UUID> {
+    private static final LatencyRecorder GET_EMPLOYEE_BY_ID_LATENCY = OperationMetrics.recorder("EmployeeDB.getEmployeeById");
+
+    private final UuidEmployeeMap employees;
+
+    public UuidEmployeeDB() {
+        this(new UuidEmployeeMap());
+    }
+
+    /**
+     * @param expectedSize Number of employees to size the storage for up front
+     */
+    public UuidEmployeeDB(int expectedSize) {
+        this(new UuidEmployeeMap(expectedSize));
+    }
+
+    private UuidEmployeeDB(UuidEmployeeMap employees) {
+        super(employees);
+        this.employees = employees;
+    }
+
+    /**
+     * Get employee by the two halves of its UUID
+     * @param msb Most significant 64 bits of the ID
+     * @param lsb Least significant 64 bits of the ID
+     * @return The employee object or null if not found
+     */
+    public Employee<UUID> getEmployeeById(long msb, long lsb) {
+        long start = System.nanoTime();
+        try {
+            return employees.get(msb, lsb);
+        } finally {
+            GET_EMPLOYEE_BY_ID_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Remove an employee by the two halves of its UUID
+     * @param msb Most significant 64 bits of the ID
+     * @param lsb Least significant 64 bits of the ID
+     * @return true if removed successfully, false if employee wasn't found
+     */
+    public boolean removeEmployee(long msb, long lsb) {
+        Employee<UUID> employee = employees.get(msb, lsb);
+        if (employee == null) {
+            System.out.println("Employee with ID " + new UUID(msb, lsb) + " not found.");
+            return false;
+        }
+        return removeEmployee(employee.getEmployeeId());
+    }
+}
@@ -0,0 +1,129 @@
+package com.ibra.employeeapplication.backend.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels on the incubating Vector API, processing as many doubles at a time as the
+ * preferred vector shape of the CPU holds (4 with AVX2, 8 with AVX-512).
+ *
+ * The active flags are loaded as a lane mask, so rows are selected without a branch per
+ * row, and the tail that does not fill a whole vector is finished with a scalar loop.
+ * Only {@link SalaryKernels#select()} creates this class, after checking that the module
+ * is present; the module is an optional dependency of the application.
+ */
+final class VectorSalaryKernels implements SalaryKernels {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    // Department codes with the same number of lanes as DOUBLES, so their masks can be combined
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    @Override
+    public double sum(double[] values, int length) {
+        DoubleVector sums = DoubleVector.zero(DOUBLES);
+        int upper = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            sums = sums.add(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumActive(double[] values, boolean[] active, int length) {
+        DoubleVector sums = DoubleVector.zero(DOUBLES);
+        int upper = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            VectorMask<Double> selected = VectorMask.fromArray(DOUBLES, active, i);
+            sums = sums.add(DoubleVector.fromArray(DOUBLES, values, i), selected);
+        }
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            if (active[i]) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(double[] values, int length) {
+        DoubleVector mins = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        int upper = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            mins = mins.min(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        double min = mins.reduceLanes(VectorOperators.MIN);
+        for (; i < length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] values, int length) {
+        DoubleVector maxes = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        int upper = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            maxes = maxes.max(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        double max = maxes.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public int countActiveAtLeast(double[] values, boolean[] active, double threshold, int length) {
+        int count = 0;
+        int upper = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            VectorMask<Double> selected = VectorMask.fromArray(DOUBLES, active, i);
+            count += DoubleVector.fromArray(DOUBLES, values, i)
+                    .compare(VectorOperators.GE, threshold, selected).trueCount();
+        }
+        for (; i < length; i++) {
+            if (active[i] && values[i] >= threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean anyAbove(double[] values, int[] codes, int code, double threshold, int length) {
+        int upper = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            VectorMask<Double> inDepartment = IntVector.fromArray(INTS, codes, i).eq(code).cast(DOUBLES);
+            if (DoubleVector.fromArray(DOUBLES, values, i)
+                    .compare(VectorOperators.GT, threshold, inDepartment).anyTrue()) {
+                return true;
+            }
+        }
+        for (; i < length; i++) {
+            if (codes[i] == code && values[i] > threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return DOUBLES.toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.ibra.employeeapplication.backend.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-width binary encoding of an employee ID type, used by storage that keeps
+ * employees outside the Java heap.
+ */
+public interface IdCodec<T> {
+
+    IdCodec<Integer> INTEGER = new IdCodec<>() {
+        @Override
+        public Class<Integer> idType() {
+            return Integer.class;
+        }
+
+        @Override
+        public int byteSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Integer id) {
+            buffer.putInt(offset, id);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+
+        @Override
+        public boolean matches(ByteBuffer buffer, int offset, Integer id) {
+            return buffer.getInt(offset) == id;
+        }
+
+        @Override
+        public int hash(Integer id) {
+            return IdCodec.mix(id);
+        }
+    };
+
+    IdCodec<Long> LONG = new IdCodec<>() {
+        @Override
+        public Class<Long> idType() {
+            return Long.class;
+        }
+
+        @Override
+        public int byteSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Long id) {
+            buffer.putLong(offset, id);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+
+        @Override
+        public boolean matches(ByteBuffer buffer, int offset, Long id) {
+            return buffer.getLong(offset) == id;
+        }
+
+        @Override
+        public int hash(Long id) {
+            return IdCodec.mix(id);
+        }
+    };
+
+    IdCodec<java.util.UUID> UUID = new IdCodec<>() {
+        @Override
+        public Class<java.util.UUID> idType() {
+            return java.util.UUID.class;
+        }
+
+        @Override
+        public int byteSize() {
+            return 2 * Long.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, java.util.UUID id) {
+            buffer.putLong(offset, id.getMostSignificantBits());
+            buffer.putLong(offset + Long.BYTES, id.getLeastSignificantBits());
+        }
+
+        @Override
+        public java.util.UUID read(ByteBuffer buffer, int offset) {
+            return new java.util.UUID(buffer.getLong(offset), buffer.getLong(offset + Long.BYTES));
+        }
+
+        @Override
+        public boolean matches(ByteBuffer buffer, int offset, java.util.UUID id) {
+            return buffer.getLong(offset) == id.getMostSignificantBits()
+                    && buffer.getLong(offset + Long.BYTES) == id.getLeastSignificantBits();
+        }
+
+        @Override
+        public int hash(java.util.UUID id) {
+            // Time-ordered UUIDs share their high bits, so both halves go through the finalizer
+            return IdCodec.mix(id.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ id.getLeastSignificantBits());
+        }
+    };
+
+    /**
+     * @return The ID class, used to reject keys of the wrong type
+     */
+    Class<T> idType();
+
+    /**
+     * @return Number of bytes an encoded ID takes
+     */
+    int byteSize();
+
+    void write(ByteBuffer buffer, int offset, T id);
+
+    T read(ByteBuffer buffer, int offset);
+
+    /**
+     * Compare an encoded ID with an ID object without decoding it
+     */
+    boolean matches(ByteBuffer buffer, int offset, T id);
+
+    int hash(T id);
+
+    private static int mix(long h) {
+        // Murmur3 finalizer
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return (int) (h ^ (h >>> 33));
+    }
+}
@@ -0,0 +1,274 @@
+package com.ibra.employeeapplication.backend.storage;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+
+/**
+ * Open-addressing hash map from int employee IDs to employees.
+ *
+ * Keys live in an int[] and employees in a parallel array (an empty slot has a null
+ * employee), probed linearly and compacted with backward-shift deletion, so there is no
+ * per-entry node and the int overloads never box. The {@link Map} methods are kept so it
+ * can back an {@code EmployeeDB<Integer>}; their iterators do not support removal, and the
+ * spliterator of {@link #values()} splits the table for parallel streams.
+ */
+public class IntEmployeeMap extends AbstractMap<Integer, Employee<Integer>> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private int[] keys;
+    private Employee<Integer>[] values;
+    private int size;
+    private int resizeThreshold;
+
+    public IntEmployeeMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize Number of employees the map should hold without resizing
+     */
+    public IntEmployeeMap(int expectedSize) {
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    public Employee<Integer> get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    public Employee<Integer> put(int key, Employee<Integer> value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                Employee<Integer> previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            allocateAndRehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    public Employee<Integer> remove(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                Employee<Integer> removed = values[slot];
+                shiftBack(slot);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Employee<Integer> get(Object key) {
+        return key instanceof Integer id ? get(id.intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer id && containsKey(id.intValue());
+    }
+
+    @Override
+    public Employee<Integer> put(Integer key, Employee<Integer> value) {
+        return put(key.intValue(), value);
+    }
+
+    @Override
+    public Employee<Integer> remove(Object key) {
+        return key instanceof Integer id ? remove(id.intValue()) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        allocate(keys.length);
+    }
+
+    /**
+     * Remove every employee matching a filter in one pass over the table, rebuilding the
+     * table once at the end instead of shifting entries back after every removal. The
+     * filter sees each employee once and must not read the map.
+     * @param filter The condition for removal
+     * @return Number of employees removed
+     */
+    public int removeIf(Predicate<? super Employee<Integer>> filter) {
+        int removed = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null && filter.test(values[slot])) {
+                values[slot] = null;
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            allocateAndRehash(keys.length);
+        }
+        return removed;
+    }
+
+    @Override
+    public Collection<Employee<Integer>> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Employee<Integer>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Employee<Integer> at(int slot) {
+                        return values[slot];
+                    }
+                };
+            }
+
+            @Override
+            public Spliterator<Employee<Integer>> spliterator() {
+                return new SlotSpliterator<>(values, size);
+            }
+
+            @Override
+            public boolean removeIf(Predicate<? super Employee<Integer>> filter) {
+                return IntEmployeeMap.this.removeIf(filter) > 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, Employee<Integer>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, Employee<Integer>>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Entry<Integer, Employee<Integer>> at(int slot) {
+                        return new SimpleImmutableEntry<>(keys[slot], values[slot]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Remove the entry at a slot and move later entries of the same probe run back into the gap
+     */
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry if its home slot is not between the gap and its current slot
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Employee[capacity];
+        size = 0;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void allocateAndRehash(int capacity) {
+        int[] oldKeys = keys;
+        Employee<Integer>[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        // Murmur3 finalizer, sequential IDs would otherwise fill one probe run
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit(capacity - 1) << 1);
+    }
+
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        private int slot = nextSlot(0);
+
+        abstract E at(int slot);
+
+        private int nextSlot(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < values.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E element = at(slot);
+            slot = nextSlot(slot + 1);
+            return element;
+        }
+    }
+}
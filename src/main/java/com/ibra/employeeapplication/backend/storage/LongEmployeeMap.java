@@ -0,0 +1,274 @@
+package com.ibra.employeeapplication.backend.storage;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+
+/**
+ * Open-addressing hash map from long employee IDs to employees.
+ *
+ * Keys live in a long[] and employees in a parallel array (an empty slot has a null
+ * employee), probed linearly and compacted with backward-shift deletion, so there is no
+ * per-entry node and the long overloads never box. The {@link Map} methods are kept so it
+ * can back an {@code EmployeeDB<Long>}; their iterators do not support removal, and the
+ * spliterator of {@link #values()} splits the table for parallel streams.
+ */
+public class LongEmployeeMap extends AbstractMap<Long, Employee<Long>> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private Employee<Long>[] values;
+    private int size;
+    private int resizeThreshold;
+
+    public LongEmployeeMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize Number of employees the map should hold without resizing
+     */
+    public LongEmployeeMap(int expectedSize) {
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    public Employee<Long> get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public Employee<Long> put(long key, Employee<Long> value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                Employee<Long> previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            allocateAndRehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    public Employee<Long> remove(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                Employee<Long> removed = values[slot];
+                shiftBack(slot);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Employee<Long> get(Object key) {
+        return key instanceof Long id ? get(id.longValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long id && containsKey(id.longValue());
+    }
+
+    @Override
+    public Employee<Long> put(Long key, Employee<Long> value) {
+        return put(key.longValue(), value);
+    }
+
+    @Override
+    public Employee<Long> remove(Object key) {
+        return key instanceof Long id ? remove(id.longValue()) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        allocate(keys.length);
+    }
+
+    /**
+     * Remove every employee matching a filter in one pass over the table, rebuilding the
+     * table once at the end instead of shifting entries back after every removal. The
+     * filter sees each employee once and must not read the map.
+     * @param filter The condition for removal
+     * @return Number of employees removed
+     */
+    public int removeIf(Predicate<? super Employee<Long>> filter) {
+        int removed = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null && filter.test(values[slot])) {
+                values[slot] = null;
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            allocateAndRehash(keys.length);
+        }
+        return removed;
+    }
+
+    @Override
+    public Collection<Employee<Long>> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Employee<Long>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Employee<Long> at(int slot) {
+                        return values[slot];
+                    }
+                };
+            }
+
+            @Override
+            public Spliterator<Employee<Long>> spliterator() {
+                return new SlotSpliterator<>(values, size);
+            }
+
+            @Override
+            public boolean removeIf(Predicate<? super Employee<Long>> filter) {
+                return LongEmployeeMap.this.removeIf(filter) > 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Long, Employee<Long>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Long, Employee<Long>>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Entry<Long, Employee<Long>> at(int slot) {
+                        return new SimpleImmutableEntry<>(keys[slot], values[slot]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Remove the entry at a slot and move later entries of the same probe run back into the gap
+     */
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry if its home slot is not between the gap and its current slot
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Employee[capacity];
+        size = 0;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void allocateAndRehash(int capacity) {
+        long[] oldKeys = keys;
+        Employee<Long>[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        // Murmur3 64-bit finalizer, sequential IDs would otherwise fill one probe run
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return (int) (h ^ (h >>> 33));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit(capacity - 1) << 1);
+    }
+
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        private int slot = nextSlot(0);
+
+        abstract E at(int slot);
+
+        private int nextSlot(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < values.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E element = at(slot);
+            slot = nextSlot(slot + 1);
+            return element;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.ibra.employeeapplication.backend.storage;
+
+import com.ibra.employeeapplication.backend.entity.DepartmentDictionary;
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
+import com.ibra.employeeapplication.backend.exception.InvalidSalaryException;
+
+/**
+ * Flyweight view of an employee record in an {@link OffHeapEmployeeStore}.
+ * Getters read the record and setters write it in place, so the view holds no employee
+ * state besides the row number. It is only valid until the employee is removed.
+ */
+public class OffHeapEmployee<T> extends Employee<T> {
+    private final OffHeapEmployeeStore<T> store;
+    private int row;
+    // Decoded on first use, most scans never look at the ID
+    private T employeeId;
+
+    OffHeapEmployee(OffHeapEmployeeStore<T> store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+
+    void moveTo(int row) {
+        this.row = row;
+        this.employeeId = null;
+    }
+
+    boolean isViewOf(OffHeapEmployeeStore<?> store, int row) {
+        return this.store == store && this.row == row;
+    }
+
+    @Override
+    public T getEmployeeId() {
+        if (employeeId == null) {
+            employeeId = store.id(row);
+        }
+        return employeeId;
+    }
+
+    @Override
+    public void setEmployeeId(T employeeId) {
+        throw new UnsupportedOperationException("The ID of a stored employee cannot change");
+    }
+
+    @Override
+    public String getName() {
+        return store.name(row);
+    }
+
+    @Override
+    public void setName(String name) throws IllegalArgumentException {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Employee name cannot be empty");
+        }
+        store.setName(row, name);
+    }
+
+    @Override
+    public String getDepartment() {
+        return DepartmentDictionary.getInstance().decode(getDepartmentCode());
+    }
+
+    @Override
+    public int getDepartmentCode() {
+        return store.departmentCode(row);
+    }
+
+    @Override
+    public void setDepartment(String department) throws InvalidDepartmentException {
+        if (department == null || department.trim().isEmpty()) {
+            throw new InvalidDepartmentException("Department cannot be empty");
+        }
+        store.setDepartmentCode(row, DepartmentDictionary.getInstance().encode(department));
+    }
+
+    @Override
+    public double getSalary() {
+        return store.salary(row);
+    }
+
+    @Override
+    public void setSalary(double salary) throws InvalidSalaryException {
+        if (salary < 0) {
+            throw new InvalidSalaryException("Salary cannot be negative");
+        }
+        store.setSalary(row, salary);
+    }
+
+    @Override
+    public double getPerformanceRating() {
+        return store.performanceRating(row);
+    }
+
+    @Override
+    public void setPerformanceRating(double performanceRating) {
+        store.setPerformanceRating(row, performanceRating);
+    }
+
+    @Override
+    public int getYearsOfExperience() {
+        return store.yearsOfExperience(row);
+    }
+
+    @Override
+    public void setYearsOfExperience(int yearsOfExperience) {
+        store.setYearsOfExperience(row, yearsOfExperience);
+    }
+
+    @Override
+    public boolean isActive() {
+        return store.active(row);
+    }
+
+    @Override
+    public void setActive(boolean active) {
+        store.setActive(row, active);
+    }
+
+    @Override
+    public long getVersion() {
+        return store.version(row);
+    }
+
+    @Override
+    public void setVersion(long version) {
+        store.setVersion(row, version);
+    }
+
+    // Two views of the same record are the same employee
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof OffHeapEmployee<?> view && view.isViewOf(store, row);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(store) + row;
+    }
+}
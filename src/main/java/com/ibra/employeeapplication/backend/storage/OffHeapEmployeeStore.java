@@ -0,0 +1,665 @@
+package com.ibra.employeeapplication.backend.storage;
+
+import com.ibra.employeeapplication.backend.entity.DepartmentDictionary;
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.exception.EmployeeNotFoundException;
+import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
+import com.ibra.employeeapplication.backend.exception.InvalidSalaryException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Employee storage that keeps every employee field outside the Java heap.
+ *
+ * Employees are fixed-width records in direct ByteBuffer slabs of 65536 rows, names are
+ * UTF-8 bytes in an append-only off-heap arena, and the ID index is an open-addressing
+ * table of row numbers in primitive int[] arrays. The heap therefore holds no object per
+ * employee and the garbage collector has nothing to trace as the roster grows. Direct
+ * memory is limited by -XX:MaxDirectMemorySize (the maximum heap size by default).
+ *
+ * {@link #get(Object)} and the collection views return {@link OffHeapEmployee} views that
+ * read and write the record in place; a view is only valid until its employee is removed.
+ * Removed and overwritten employees are returned as detached on-heap copies. Like
+ * {@link java.util.HashMap} the store is not thread-safe, and the iterators of its views
+ * do not support removal. The spliterator of {@link #values()} splits by row range, so a
+ * parallel stream can read the roster from several threads while nothing modifies it, and
+ * {@link #aggregate} scans the slabs in parallel without creating a view per employee.
+ */
+public class OffHeapEmployeeStore<T> extends AbstractMap<T, Employee<T>> {
+    private static final int ROWS_PER_SLAB_SHIFT = 16;
+    private static final int ROWS_PER_SLAB = 1 << ROWS_PER_SLAB_SHIFT;
+    private static final int NAME_CHUNK_SIZE = 1 << 22;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private static final byte LIVE = 1;
+    private static final byte ACTIVE = 2;
+
+    private final IdCodec<T> idCodec;
+
+    // Record layout: [id][salary][rating][name address][name length][department][years][flags]
+    private final int salaryOffset;
+    private final int ratingOffset;
+    private final int versionOffset;
+    private final int nameAddressOffset;
+    private final int nameLengthOffset;
+    private final int departmentOffset;
+    private final int yearsOffset;
+    private final int flagsOffset;
+    private final int recordSize;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final List<ByteBuffer> nameChunks = new ArrayList<>();
+    private int namePosition;
+    private long nameBytesInUse;
+
+    // Rows below rowLimit have been handed out, freed ones are reused first
+    private int rowLimit;
+    private int[] freeRows = new int[DEFAULT_CAPACITY];
+    private int freeCount;
+
+    // Index slots hold row + 1 (0 marks an empty slot) and the ID hash of that row
+    private int[] slotRows;
+    private int[] slotHashes;
+    private int size;
+    private int resizeThreshold;
+
+    public OffHeapEmployeeStore(IdCodec<T> idCodec) {
+        this(idCodec, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param idCodec Encoding of the employee IDs
+     * @param expectedSize Number of employees the index should hold without resizing
+     */
+    public OffHeapEmployeeStore(IdCodec<T> idCodec, int expectedSize) {
+        if (idCodec == null) {
+            throw new IllegalArgumentException("ID codec cannot be null");
+        }
+        this.idCodec = idCodec;
+
+        // Keep the 8-byte fields aligned
+        salaryOffset = (idCodec.byteSize() + 7) & ~7;
+        ratingOffset = salaryOffset + Double.BYTES;
+        versionOffset = ratingOffset + Double.BYTES;
+        nameAddressOffset = versionOffset + Long.BYTES;
+        nameLengthOffset = nameAddressOffset + Long.BYTES;
+        departmentOffset = nameLengthOffset + Integer.BYTES;
+        yearsOffset = departmentOffset + Integer.BYTES;
+        flagsOffset = yearsOffset + Integer.BYTES;
+        recordSize = (flagsOffset + 1 + 7) & ~7;
+
+        allocateIndex(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    public IdCodec<T> getIdCodec() {
+        return idCodec;
+    }
+
+    /**
+     * @return Bytes of direct memory reserved by the record slabs and the name arena
+     */
+    public long getOffHeapBytes() {
+        return (long) slabs.size() * ROWS_PER_SLAB * recordSize + (long) nameChunks.size() * NAME_CHUNK_SIZE;
+    }
+
+    /**
+     * @return Bytes of the name arena still referenced by employees; renamed and removed
+     * employees leave their old name bytes behind until the store is cleared
+     */
+    public long getNameBytesInUse() {
+        return nameBytesInUse;
+    }
+
+    @Override
+    public Employee<T> get(Object key) {
+        int row = rowOf(key);
+        return row < 0 ? null : new OffHeapEmployee<>(this, row);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return rowOf(key) >= 0;
+    }
+
+    @Override
+    public Employee<T> put(T key, Employee<T> value) {
+        int row = rowOf(key);
+        if (row < 0) {
+            insert(key, value);
+            return null;
+        }
+        if (value instanceof OffHeapEmployee<?> view && view.isViewOf(this, row)) {
+            // Updates through a view are already in place
+            return value;
+        }
+        Employee<T> previous = detach(row);
+        write(row, key, value);
+        return previous;
+    }
+
+    @Override
+    public Employee<T> putIfAbsent(T key, Employee<T> value) {
+        int row = rowOf(key);
+        if (row >= 0) {
+            return new OffHeapEmployee<>(this, row);
+        }
+        insert(key, value);
+        return null;
+    }
+
+    @Override
+    public Employee<T> remove(Object key) {
+        if (!idCodec.idType().isInstance(key)) {
+            return null;
+        }
+        T id = idCodec.idType().cast(key);
+        int hash = idCodec.hash(id);
+        int mask = slotRows.length - 1;
+        for (int slot = hash & mask; slotRows[slot] != 0; slot = (slot + 1) & mask) {
+            int row = slotRows[slot] - 1;
+            if (slotHashes[slot] == hash && idCodec.matches(slab(row), offset(row), id)) {
+                Employee<T> removed = detach(row);
+                shiftBack(slot);
+                size--;
+                freeRow(row);
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        slabs.clear();
+        nameChunks.clear();
+        namePosition = 0;
+        nameBytesInUse = 0;
+        rowLimit = 0;
+        freeCount = 0;
+        allocateIndex(slotRows.length);
+    }
+
+    /**
+     * Visit every employee through a single view that is moved from record to record,
+     * so the action must not keep a reference to it
+     */
+    public void forEachRecord(Consumer<? super Employee<T>> action) {
+        OffHeapEmployee<T> cursor = new OffHeapEmployee<>(this, 0);
+        for (int row = 0; row < rowLimit; row++) {
+            if (isLive(row)) {
+                cursor.moveTo(row);
+                action.accept(cursor);
+            }
+        }
+    }
+
+    /**
+     * Fold every employee into a result container, one container per slab, scanning the
+     * slabs in parallel on the common fork-join pool. Each slab is visited through its own
+     * cursor view, so as with {@link #forEachRecord(Consumer)} the accumulator must not keep
+     * the employee.
+     * @param supplier Creates an empty container
+     * @param accumulator Adds one employee to a container
+     * @param combiner Merges two partial containers
+     * @return The container holding the aggregate over all employees
+     */
+    public <A> A aggregate(Supplier<A> supplier, BiConsumer<A, ? super Employee<T>> accumulator,
+                           BinaryOperator<A> combiner) {
+        int limit = rowLimit;
+        int slabCount = (limit + ROWS_PER_SLAB - 1) >>> ROWS_PER_SLAB_SHIFT;
+        return IntStream.range(0, slabCount).parallel().mapToObj(slab -> {
+            A container = supplier.get();
+            OffHeapEmployee<T> cursor = new OffHeapEmployee<>(this, 0);
+            int end = Math.min(limit, (slab + 1) << ROWS_PER_SLAB_SHIFT);
+            for (int row = slab << ROWS_PER_SLAB_SHIFT; row < end; row++) {
+                if (isLive(row)) {
+                    cursor.moveTo(row);
+                    accumulator.accept(container, cursor);
+                }
+            }
+            return container;
+        }).reduce(combiner).orElseGet(supplier);
+    }
+
+    /**
+     * Scan the records and create views only for the employees matching the filter
+     * @param filter The condition employees must meet; it is given a reused cursor view
+     * @return Views of the matching employees
+     */
+    public List<Employee<T>> filter(Predicate<? super Employee<T>> filter) {
+        List<Employee<T>> matches = new ArrayList<>();
+        OffHeapEmployee<T> cursor = new OffHeapEmployee<>(this, 0);
+        for (int row = 0; row < rowLimit; row++) {
+            if (isLive(row)) {
+                cursor.moveTo(row);
+                if (filter.test(cursor)) {
+                    matches.add(new OffHeapEmployee<>(this, row));
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Remove every employee matching a filter in one scan of the records, then rebuild the
+     * index once instead of shifting it back after every removal
+     * @param filter The condition for removal; it is given a reused cursor view
+     * @return Number of employees removed
+     */
+    public int removeIf(Predicate<? super Employee<T>> filter) {
+        int removed = 0;
+        OffHeapEmployee<T> cursor = new OffHeapEmployee<>(this, 0);
+        for (int row = 0; row < rowLimit; row++) {
+            if (isLive(row)) {
+                cursor.moveTo(row);
+                if (filter.test(cursor)) {
+                    freeRow(row);
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            reindexLiveRows();
+        }
+        return removed;
+    }
+
+    @Override
+    public Collection<Employee<T>> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Employee<T>> iterator() {
+                return new RowIterator<>() {
+                    @Override
+                    Employee<T> at(int row) {
+                        return new OffHeapEmployee<>(OffHeapEmployeeStore.this, row);
+                    }
+                };
+            }
+
+            @Override
+            public Spliterator<Employee<T>> spliterator() {
+                return new RowSpliterator(0, rowLimit, size, Spliterator.SIZED | Spliterator.NONNULL);
+            }
+
+            @Override
+            public boolean removeIf(Predicate<? super Employee<T>> filter) {
+                return OffHeapEmployeeStore.this.removeIf(filter) > 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<T, Employee<T>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<T, Employee<T>>> iterator() {
+                return new RowIterator<>() {
+                    @Override
+                    Entry<T, Employee<T>> at(int row) {
+                        OffHeapEmployee<T> employee = new OffHeapEmployee<>(OffHeapEmployeeStore.this, row);
+                        return new SimpleImmutableEntry<>(employee.getEmployeeId(), employee);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Field access for the views
+
+    T id(int row) {
+        return idCodec.read(slab(row), offset(row));
+    }
+
+    String name(int row) {
+        ByteBuffer slab = slab(row);
+        int offset = offset(row);
+        long address = slab.getLong(offset + nameAddressOffset);
+        byte[] bytes = new byte[slab.getInt(offset + nameLengthOffset)];
+        nameChunks.get((int) (address >>> 32)).get((int) address, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int departmentCode(int row) {
+        return slab(row).getInt(offset(row) + departmentOffset);
+    }
+
+    double salary(int row) {
+        return slab(row).getDouble(offset(row) + salaryOffset);
+    }
+
+    double performanceRating(int row) {
+        return slab(row).getDouble(offset(row) + ratingOffset);
+    }
+
+    int yearsOfExperience(int row) {
+        return slab(row).getInt(offset(row) + yearsOffset);
+    }
+
+    long version(int row) {
+        return slab(row).getLong(offset(row) + versionOffset);
+    }
+
+    boolean active(int row) {
+        return (slab(row).get(offset(row) + flagsOffset) & ACTIVE) != 0;
+    }
+
+    void setName(int row, String name) {
+        ByteBuffer slab = slab(row);
+        int offset = offset(row);
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        nameBytesInUse -= slab.getInt(offset + nameLengthOffset);
+        slab.putLong(offset + nameAddressOffset, appendName(bytes));
+        slab.putInt(offset + nameLengthOffset, bytes.length);
+        nameBytesInUse += bytes.length;
+    }
+
+    void setDepartmentCode(int row, int departmentCode) {
+        slab(row).putInt(offset(row) + departmentOffset, departmentCode);
+    }
+
+    void setSalary(int row, double salary) {
+        slab(row).putDouble(offset(row) + salaryOffset, salary);
+    }
+
+    void setPerformanceRating(int row, double performanceRating) {
+        slab(row).putDouble(offset(row) + ratingOffset, performanceRating);
+    }
+
+    void setYearsOfExperience(int row, int yearsOfExperience) {
+        slab(row).putInt(offset(row) + yearsOffset, yearsOfExperience);
+    }
+
+    void setVersion(int row, long version) {
+        slab(row).putLong(offset(row) + versionOffset, version);
+    }
+
+    void setActive(int row, boolean active) {
+        slab(row).put(offset(row) + flagsOffset, active ? (byte) (LIVE | ACTIVE) : LIVE);
+    }
+
+    private int rowOf(Object key) {
+        if (!idCodec.idType().isInstance(key)) {
+            return -1;
+        }
+        T id = idCodec.idType().cast(key);
+        int hash = idCodec.hash(id);
+        int mask = slotRows.length - 1;
+        for (int slot = hash & mask; slotRows[slot] != 0; slot = (slot + 1) & mask) {
+            int row = slotRows[slot] - 1;
+            if (slotHashes[slot] == hash && idCodec.matches(slab(row), offset(row), id)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(T key, Employee<T> value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Employee ID and employee cannot be null");
+        }
+        int row = allocateRow();
+        write(row, key, value);
+        index(idCodec.hash(key), row);
+        if (++size > resizeThreshold) {
+            reindex(slotRows.length << 1);
+        }
+    }
+
+    private void write(int row, T key, Employee<T> value) {
+        ByteBuffer slab = slab(row);
+        int offset = offset(row);
+        idCodec.write(slab, offset, key);
+        setName(row, value.getName());
+        slab.putInt(offset + departmentOffset, value.getDepartmentCode());
+        slab.putDouble(offset + salaryOffset, value.getSalary());
+        slab.putDouble(offset + ratingOffset, value.getPerformanceRating());
+        slab.putInt(offset + yearsOffset, value.getYearsOfExperience());
+        slab.putLong(offset + versionOffset, value.getVersion());
+        setActive(row, value.isActive());
+    }
+
+    /**
+     * Copy a record to an ordinary on-heap employee that stays valid after the row is reused
+     */
+    private Employee<T> detach(int row) {
+        try {
+            Employee<T> employee = new Employee<>(id(row), active(row), yearsOfExperience(row), salary(row),
+                    performanceRating(row), DepartmentDictionary.getInstance().decode(departmentCode(row)), name(row));
+            employee.setVersion(version(row));
+            return employee;
+        } catch (InvalidDepartmentException | InvalidSalaryException | EmployeeNotFoundException e) {
+            throw new IllegalStateException("Stored employee is invalid", e);
+        }
+    }
+
+    private boolean isLive(int row) {
+        return (slab(row).get(offset(row) + flagsOffset) & LIVE) != 0;
+    }
+
+    private int allocateRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (rowLimit == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap store is full");
+        }
+        if ((rowLimit >>> ROWS_PER_SLAB_SHIFT) == slabs.size()) {
+            slabs.add(ByteBuffer.allocateDirect(ROWS_PER_SLAB * recordSize).order(ByteOrder.nativeOrder()));
+        }
+        return rowLimit++;
+    }
+
+    private void freeRow(int row) {
+        ByteBuffer slab = slab(row);
+        int offset = offset(row);
+        nameBytesInUse -= slab.getInt(offset + nameLengthOffset);
+        slab.putInt(offset + nameLengthOffset, 0);
+        slab.put(offset + flagsOffset, (byte) 0);
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeCount << 1);
+        }
+        freeRows[freeCount++] = row;
+    }
+
+    private long appendName(byte[] bytes) {
+        if (bytes.length > NAME_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Employee name is too long");
+        }
+        if (nameChunks.isEmpty() || namePosition + bytes.length > NAME_CHUNK_SIZE) {
+            nameChunks.add(ByteBuffer.allocateDirect(NAME_CHUNK_SIZE));
+            namePosition = 0;
+        }
+        long address = ((long) (nameChunks.size() - 1) << 32) | namePosition;
+        nameChunks.get(nameChunks.size() - 1).put(namePosition, bytes);
+        namePosition += bytes.length;
+        return address;
+    }
+
+    private ByteBuffer slab(int row) {
+        return slabs.get(row >>> ROWS_PER_SLAB_SHIFT);
+    }
+
+    private int offset(int row) {
+        return (row & (ROWS_PER_SLAB - 1)) * recordSize;
+    }
+
+    private void index(int hash, int row) {
+        int mask = slotRows.length - 1;
+        int slot = hash & mask;
+        while (slotRows[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slotRows[slot] = row + 1;
+        slotHashes[slot] = hash;
+    }
+
+    private void shiftBack(int slot) {
+        int mask = slotRows.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (slotRows[next] != 0) {
+            int home = slotHashes[next] & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                slotRows[gap] = slotRows[next];
+                slotHashes[gap] = slotHashes[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slotRows[gap] = 0;
+    }
+
+    private void allocateIndex(int capacity) {
+        slotRows = new int[capacity];
+        slotHashes = new int[capacity];
+        size = 0;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void reindex(int capacity) {
+        int[] oldRows = slotRows;
+        int[] oldHashes = slotHashes;
+        int oldSize = size;
+        allocateIndex(capacity);
+        for (int i = 0; i < oldRows.length; i++) {
+            if (oldRows[i] != 0) {
+                index(oldHashes[i], oldRows[i] - 1);
+            }
+        }
+        size = oldSize;
+    }
+
+    private void reindexLiveRows() {
+        int[] oldRows = slotRows;
+        int[] oldHashes = slotHashes;
+        allocateIndex(oldRows.length);
+        for (int i = 0; i < oldRows.length; i++) {
+            if (oldRows[i] != 0 && isLive(oldRows[i] - 1)) {
+                index(oldHashes[i], oldRows[i] - 1);
+                size++;
+            }
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit(capacity - 1) << 1);
+    }
+
+    /**
+     * Splits by row range and creates a view for each live row, so parallel streams read
+     * the slabs in place; rows added after it was created are not visited
+     */
+    private final class RowSpliterator implements Spliterator<Employee<T>> {
+        private int row;
+        private final int fence;
+        private long estimate;
+        private int characteristics;
+
+        RowSpliterator(int origin, int fence, long estimate, int characteristics) {
+            this.row = origin;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.characteristics = characteristics;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Employee<T>> action) {
+            while (row < fence) {
+                int current = row++;
+                if (isLive(current)) {
+                    action.accept(new OffHeapEmployee<>(OffHeapEmployeeStore.this, current));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<Employee<T>> trySplit() {
+            int mid = (row + fence) >>> 1;
+            if (mid <= row) {
+                return null;
+            }
+            // Freed rows are reused first, so live rows are spread evenly enough to halve the estimate
+            estimate >>>= 1;
+            characteristics = Spliterator.NONNULL;
+            Spliterator<Employee<T>> prefix = new RowSpliterator(row, mid, estimate, Spliterator.NONNULL);
+            row = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+    }
+
+    private abstract class RowIterator<E> implements Iterator<E> {
+        private int row = nextRow(0);
+
+        abstract E at(int row);
+
+        private int nextRow(int from) {
+            while (from < rowLimit && !isLive(from)) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return row < rowLimit;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E element = at(row);
+            row = nextRow(row + 1);
+            return element;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.ibra.employeeapplication.backend.storage;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Employee map partitioned by ID hash into independent shards.
+ *
+ * Every shard is an ordinary map guarded by its own read-write lock, so writes to
+ * different shards never contend and each shard can be scanned by a separate thread
+ * with {@link #readShard(int, Function)}. Single-key operations are atomic. The
+ * collection views are snapshots taken one shard at a time, so they are consistent per
+ * shard but not across shards, and they do not support removal; use
+ * {@link #removeIf(Predicate)} for bulk removal.
+ */
+public class ShardedEmployeeMap<T> extends AbstractMap<T, Employee<T>> {
+    private final Map<T, Employee<T>>[] shards;
+    private final ReentrantReadWriteLock[] locks;
+
+    /**
+     * @param shardCount Number of shards
+     * @param shardFactory Creates the empty map backing each shard
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedEmployeeMap(int shardCount, Supplier<? extends Map<T, Employee<T>>> shardFactory) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        if (shardFactory == null) {
+            throw new IllegalArgumentException("Shard factory cannot be null");
+        }
+        shards = new Map[shardCount];
+        locks = new ReentrantReadWriteLock[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = shardFactory.get();
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @return Index of the shard that owns the key
+     */
+    public int shardOf(Object key) {
+        // Murmur3 finalizer, so IDs with regular hash codes still spread over all shards
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        // Picked by the high bits: shards of the specialized maps index their slots with the
+        // low bits of the same hash, and would otherwise only ever fill 1/n of their slots
+        return (int) (((h & 0xFFFFFFFFL) * shards.length) >>> 32);
+    }
+
+    /**
+     * Run a read-only task against one shard while holding its read lock
+     * @param shard Index of the shard
+     * @param task The task; it must not modify the shard or keep a reference to it
+     * @return The result of the task
+     */
+    public <R> R readShard(int shard, Function<? super Map<T, Employee<T>>, R> task) {
+        Lock lock = locks[shard].readLock();
+        lock.lock();
+        try {
+            return task.apply(shards[shard]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run a task that modifies one shard while holding its write lock, e.g. to apply
+     * several changes under a single lock acquisition
+     * @param shard Index of the shard
+     * @param task The task; it may only store keys that {@link #shardOf(Object)} maps to this shard
+     * @return The result of the task
+     */
+    public <R> R writeShard(int shard, Function<? super Map<T, Employee<T>>, R> task) {
+        Lock lock = locks[shard].writeLock();
+        lock.lock();
+        try {
+            return task.apply(shards[shard]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Employee<T> get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int shard = shardOf(key);
+        return readShard(shard, map -> map.get(key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Employee<T> put(T key, Employee<T> value) {
+        int shard = shardOf(key);
+        Lock lock = locks[shard].writeLock();
+        lock.lock();
+        try {
+            return shards[shard].put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Employee<T> putIfAbsent(T key, Employee<T> value) {
+        int shard = shardOf(key);
+        Lock lock = locks[shard].writeLock();
+        lock.lock();
+        try {
+            return shards[shard].putIfAbsent(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Employee<T> remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int shard = shardOf(key);
+        Lock lock = locks[shard].writeLock();
+        lock.lock();
+        try {
+            return shards[shard].remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int shard = 0; shard < shards.length; shard++) {
+            size += readShard(shard, Map::size);
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int shard = 0; shard < shards.length; shard++) {
+            Lock lock = locks[shard].writeLock();
+            lock.lock();
+            try {
+                shards[shard].clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Remove every employee matching a filter, one shard at a time under its write lock.
+     * Each shard is purged with its own bulk removal, so the whole map is scanned once.
+     * @param filter The condition for removal; it must not read the map
+     * @return Number of employees removed
+     */
+    public int removeIf(Predicate<? super Employee<T>> filter) {
+        int removed = 0;
+        for (int shard = 0; shard < shards.length; shard++) {
+            removed += writeShard(shard, map -> {
+                int before = map.size();
+                map.values().removeIf(filter);
+                return before - map.size();
+            });
+        }
+        return removed;
+    }
+
+    @Override
+    public Collection<Employee<T>> values() {
+        List<Employee<T>> snapshot = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            readShard(shard, map -> snapshot.addAll(map.values()));
+        }
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    /**
+     * Spliterator over the employees that copies one shard at a time instead of the whole
+     * map: a shard is copied under its read lock when the traversal reaches it, so no lock is
+     * held while the action runs and the action may modify the map. It splits by shard range,
+     * and a single remaining shard by halving its copy. Like the collection views it is
+     * consistent per shard; the size is an estimate since writers may change the map.
+     * @return A spliterator for parallel streams over the map
+     */
+    public Spliterator<Employee<T>> spliterator() {
+        return new ShardSpliterator(0, shards.length);
+    }
+
+    @Override
+    public Set<Entry<T, Employee<T>>> entrySet() {
+        List<Entry<T, Employee<T>>> snapshot = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            readShard(shard, map -> {
+                for (Entry<T, Employee<T>> entry : map.entrySet()) {
+                    snapshot.add(new SimpleImmutableEntry<>(entry));
+                }
+                return null;
+            });
+        }
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<T, Employee<T>>> iterator() {
+                return Collections.unmodifiableList(snapshot).iterator();
+            }
+
+            @Override
+            public int size() {
+                return snapshot.size();
+            }
+        };
+    }
+
+    private final class ShardSpliterator implements Spliterator<Employee<T>> {
+        private int shard;
+        private final int fence;
+        // Copy of the shard being traversed
+        private Spliterator<Employee<T>> current;
+
+        ShardSpliterator(int origin, int fence) {
+            this.shard = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Employee<T>> action) {
+            while (true) {
+                if (current != null && current.tryAdvance(action)) {
+                    return true;
+                }
+                if (shard >= fence) {
+                    return false;
+                }
+                current = copyOf(shard++);
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Employee<T>> action) {
+            if (current != null) {
+                current.forEachRemaining(action);
+                current = null;
+            }
+            while (shard < fence) {
+                copyOf(shard++).forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator<Employee<T>> trySplit() {
+            if (fence - shard > 1) {
+                int mid = (shard + fence) >>> 1;
+                Spliterator<Employee<T>> prefix = new ShardSpliterator(shard, mid);
+                shard = mid;
+                return prefix;
+            }
+            if (current == null && shard < fence) {
+                current = copyOf(shard++);
+            }
+            return current == null ? null : current.trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            long estimate = current == null ? 0 : current.estimateSize();
+            for (int i = shard; i < fence; i++) {
+                estimate += readShard(i, Map::size);
+            }
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL;
+        }
+
+        private Spliterator<Employee<T>> copyOf(int index) {
+            return readShard(index, map -> new ArrayList<>(map.values())).spliterator();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ibra.employeeapplication.backend.storage;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the value array of an open-addressing map, where empty slots are null.
+ *
+ * It walks the array it was created with and splits by halving its slot range, so
+ * parallel streams scan the table in place without copying it. Changes to the map during
+ * a traversal never cause a ConcurrentModificationException: a resize leaves the traversal
+ * on the old table, and other changes may or may not be seen. Exactly sized until split.
+ */
+final class SlotSpliterator<E> implements Spliterator<E> {
+    private final E[] table;
+    private int slot;
+    private final int fence;
+    private long estimate;
+    private int characteristics;
+
+    /**
+     * @param table The map's value array
+     * @param size Number of values in the table
+     */
+    SlotSpliterator(E[] table, int size) {
+        this(table, 0, table.length, size, SIZED | NONNULL);
+    }
+
+    private SlotSpliterator(E[] table, int origin, int fence, long estimate, int characteristics) {
+        this.table = table;
+        this.slot = origin;
+        this.fence = fence;
+        this.estimate = estimate;
+        this.characteristics = characteristics;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        while (slot < fence) {
+            E value = table[slot++];
+            if (value != null) {
+                action.accept(value);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+        int from = slot;
+        slot = fence;
+        for (int i = from; i < fence; i++) {
+            E value = table[i];
+            if (value != null) {
+                action.accept(value);
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        int mid = (slot + fence) >>> 1;
+        if (mid <= slot) {
+            return null;
+        }
+        // Hashing spreads the values evenly, so each half is expected to hold half of them
+        estimate >>>= 1;
+        characteristics = NONNULL;
+        Spliterator<E> prefix = new SlotSpliterator<>(table, slot, mid, estimate, NONNULL);
+        slot = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
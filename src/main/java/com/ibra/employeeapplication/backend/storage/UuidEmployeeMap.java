@@ -0,0 +1,277 @@
+package com.ibra.employeeapplication.backend.storage;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+import java.util.UUID;
+
+/**
+ * Open-addressing hash map from UUID employee IDs to employees.
+ *
+ * Each key is stored as its two halves in parallel long[] arrays, with linear probing and
+ * backward-shift deletion like {@link IntEmployeeMap}. The (msb, lsb) overloads look up and
+ * remove employees without a UUID object. The {@link Map} methods are kept so it can back an
+ * {@code EmployeeDB<UUID>}; their iterators do not support removal, and the
+ * spliterator of {@link #values()} splits the table for parallel streams.
+ */
+public class UuidEmployeeMap extends AbstractMap<UUID, Employee<UUID>> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] mostSignificant;
+    private long[] leastSignificant;
+    private Employee<UUID>[] values;
+    private int size;
+    private int resizeThreshold;
+
+    public UuidEmployeeMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize Number of employees the map should hold without resizing
+     */
+    public UuidEmployeeMap(int expectedSize) {
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    public Employee<UUID> get(long msb, long lsb) {
+        int mask = values.length - 1;
+        for (int slot = hash(msb, lsb) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (mostSignificant[slot] == msb && leastSignificant[slot] == lsb) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(long msb, long lsb) {
+        return get(msb, lsb) != null;
+    }
+
+    public Employee<UUID> put(long msb, long lsb, Employee<UUID> value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        int mask = values.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (mostSignificant[slot] == msb && leastSignificant[slot] == lsb) {
+                Employee<UUID> previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        mostSignificant[slot] = msb;
+        leastSignificant[slot] = lsb;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            allocateAndRehash(values.length << 1);
+        }
+        return null;
+    }
+
+    public Employee<UUID> remove(long msb, long lsb) {
+        int mask = values.length - 1;
+        for (int slot = hash(msb, lsb) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (mostSignificant[slot] == msb && leastSignificant[slot] == lsb) {
+                Employee<UUID> removed = values[slot];
+                shiftBack(slot);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Employee<UUID> get(Object key) {
+        return key instanceof UUID id ? get(id.getMostSignificantBits(), id.getLeastSignificantBits()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Employee<UUID> put(UUID key, Employee<UUID> value) {
+        return put(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+    }
+
+    @Override
+    public Employee<UUID> remove(Object key) {
+        return key instanceof UUID id ? remove(id.getMostSignificantBits(), id.getLeastSignificantBits()) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        allocate(values.length);
+    }
+
+    /**
+     * Remove every employee matching a filter in one pass over the table, rebuilding the
+     * table once at the end instead of shifting entries back after every removal. The
+     * filter sees each employee once and must not read the map.
+     * @param filter The condition for removal
+     * @return Number of employees removed
+     */
+    public int removeIf(Predicate<? super Employee<UUID>> filter) {
+        int removed = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null && filter.test(values[slot])) {
+                values[slot] = null;
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            allocateAndRehash(values.length);
+        }
+        return removed;
+    }
+
+    @Override
+    public Collection<Employee<UUID>> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Employee<UUID>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Employee<UUID> at(int slot) {
+                        return values[slot];
+                    }
+                };
+            }
+
+            @Override
+            public Spliterator<Employee<UUID>> spliterator() {
+                return new SlotSpliterator<>(values, size);
+            }
+
+            @Override
+            public boolean removeIf(Predicate<? super Employee<UUID>> filter) {
+                return UuidEmployeeMap.this.removeIf(filter) > 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<UUID, Employee<UUID>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<UUID, Employee<UUID>>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Entry<UUID, Employee<UUID>> at(int slot) {
+                        // The employee holds the UUID object, no need to rebuild it from the halves
+                        return new SimpleImmutableEntry<>(values[slot].getEmployeeId(), values[slot]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void shiftBack(int slot) {
+        int mask = values.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(mostSignificant[next], leastSignificant[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                mostSignificant[gap] = mostSignificant[next];
+                leastSignificant[gap] = leastSignificant[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        mostSignificant = new long[capacity];
+        leastSignificant = new long[capacity];
+        values = new Employee[capacity];
+        size = 0;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void allocateAndRehash(int capacity) {
+        long[] oldMost = mostSignificant;
+        long[] oldLeast = leastSignificant;
+        Employee<UUID>[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldMost[i], oldLeast[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(long msb, long lsb) {
+        // Time-ordered UUIDs share their high bits, so both halves go through the finalizer
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return (int) (h ^ (h >>> 33));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit(capacity - 1) << 1);
+    }
+
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        private int slot = nextSlot(0);
+
+        abstract E at(int slot);
+
+        private int nextSlot(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < values.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E element = at(slot);
+            slot = nextSlot(slot + 1);
+            return element;
+        }
+    }
+}
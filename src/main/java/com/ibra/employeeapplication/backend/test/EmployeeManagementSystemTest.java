@@ -1,19 +1,79 @@
 package com.ibra.employeeapplication.backend.test;
 
+import com.ibra.employeeapplication.ReportViewer;
+import com.ibra.employeeapplication.backend.controller.EmployeeDisplay;
+import com.ibra.employeeapplication.backend.entity.DepartmentDictionary;
 import com.ibra.employeeapplication.backend.entity.Employee;
 import com.ibra.employeeapplication.backend.exception.EmployeeNotFoundException;
 import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
 import com.ibra.employeeapplication.backend.exception.InvalidSalaryException;
+import com.ibra.employeeapplication.backend.exception.StaleEmployeeException;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+import com.ibra.employeeapplication.backend.replication.EmployeeJournal;
+import com.ibra.employeeapplication.backend.replication.ReplicationFollower;
+import com.ibra.employeeapplication.backend.replication.ReplicationLeader;
+import com.ibra.employeeapplication.backend.service.Aggregate;
+import com.ibra.employeeapplication.backend.service.AggregateTable;
+import com.ibra.employeeapplication.backend.service.EmployeeAggregator;
+import com.ibra.employeeapplication.backend.service.EmployeeChangeListener;
 import com.ibra.employeeapplication.backend.service.EmployeeDB;
 import com.ibra.employeeapplication.backend.service.EmployeeSearchEngine;
+import com.ibra.employeeapplication.backend.service.GroupKey;
+import com.ibra.employeeapplication.backend.service.IntEmployeeDB;
+import com.ibra.employeeapplication.backend.service.OffHeapEmployeeDB;
+import com.ibra.employeeapplication.backend.service.RosterGenerator;
+import com.ibra.employeeapplication.backend.service.SalaryHistory;
 import com.ibra.employeeapplication.backend.service.SalaryManager;
+import com.ibra.employeeapplication.backend.service.SalarySketch;
+import com.ibra.employeeapplication.backend.service.ShardedEmployeeDB;
+import com.ibra.employeeapplication.backend.service.TimeOrderedUuidGenerator;
+import com.ibra.employeeapplication.backend.service.UuidEmployeeDB;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
+import com.ibra.employeeapplication.backend.storage.IntEmployeeMap;
+import com.ibra.employeeapplication.server.EmployeeServer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import static org.junit.Assert.*;
 
 public class EmployeeManagementSystemTest {
@@ -151,6 +211,1087 @@ public class EmployeeManagementSystemTest {
         }
     }
 
+    @Test
+    public void testRosterGeneratorIsDeterministic() {
+        RosterGenerator<Integer> first = new RosterGenerator<>(7, position -> (int) position);
+        RosterGenerator<Integer> second = new RosterGenerator<>(7, position -> (int) position);
+
+        List<Employee<Integer>> roster = first.generate(50_000);
+        List<Employee<Integer>> again = second.generate(50_000);
+        assertEquals("Should generate the requested number of employees", 50_000, roster.size());
+        for (int i = 0; i < roster.size(); i += 997) {
+            assertEquals("Same seed should give the same employee", roster.get(i).toString(), again.get(i).toString());
+        }
+
+        EmployeeDB<Integer> generatedDb = new EmployeeDB<>();
+        assertEquals("Should add every generated employee", 10_000, first.populate(generatedDb, 10_000));
+        assertEquals("Database should hold the generated roster", 10_000, generatedDb.getEmployeeCount());
+    }
+    @Test
+    public void testLatencyRecorderPercentiles() {
+        LatencyRecorder recorder = new LatencyRecorder("test.operation");
+        for (long micros = 1; micros <= 1000; micros++) {
+            recorder.record(micros * 1000);
+        }
+        assertEquals("Should count every recorded operation", 1000, recorder.getCount());
+        assertEquals("p50 should be within the bucket error", 500.0, recorder.getP50Micros(), 500.0 * 0.04);
+        assertEquals("p99 should be within the bucket error", 990.0, recorder.getP99Micros(), 990.0 * 0.04);
+        assertEquals("max should be exact", 1000.0, recorder.getMaxMicros(), 0.0);
+
+        LatencyRecorder addLatency = OperationMetrics.recorder("EmployeeDB.addEmployee");
+        long errorsBefore = addLatency.getErrorCount();
+        try {
+            database.addEmployee(null);
+            fail("Adding a null employee should throw");
+        } catch (IllegalArgumentException expected) {
+            assertEquals("Failed call should be counted as an error", errorsBefore + 1, addLatency.getErrorCount());
+        }
+    }
+
+    @Test
+    public void testSearchEmitsFlightRecorderEvent() throws Exception {
+        Path file = Files.createTempFile("employee-search", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.ibra.employeeapplication.EmployeeSearch");
+            recording.start();
+            searchEngine.findByDepartment("IT");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.deleteIfExists(file);
+        assertEquals("Should record one search event", 1, events.size());
+        assertEquals("findByDepartment", events.get(0).getString("queryKind"));
+        assertEquals("Should carry the result count", 2, events.get(0).getInt("resultCount"));
+    }
+
+    @Test
+    public void testIntEmployeeDBMatchesHashMapDatabase() throws Exception {
+        IntEmployeeDB intDatabase = new IntEmployeeDB();
+        Map<Integer, Employee<Integer>> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(3);
+
+        // Random adds and removes over a small ID range force long probe runs and shifts
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                Employee<Integer> employee = new Employee<>(id, true, 1, 40000.0, 3.0, "IT", "Employee " + id);
+                assertEquals(!expected.containsKey(id), intDatabase.addEmployee(employee));
+                expected.putIfAbsent(id, employee);
+            } else {
+                assertEquals(expected.remove(id) != null, intDatabase.removeEmployee(id));
+            }
+        }
+
+        assertEquals(expected.size(), intDatabase.getEmployeeCount());
+        for (int id = 0; id < 2_000; id++) {
+            assertSame(expected.get(id), intDatabase.getEmployeeById(id));
+        }
+        assertEquals(expected.size(), intDatabase.getAllEmployees().size());
+    }
+
+    @Test
+    public void testOffHeapEmployeeDBMatchesHeapDatabase() throws Exception {
+        RosterGenerator<UUID> generator = new RosterGenerator<>(11, RosterGenerator.uuidIds(11));
+        List<Employee<UUID>> roster = generator.generate(5_000);
+        EmployeeDB<UUID> heapDatabase = new EmployeeDB<>();
+        OffHeapEmployeeDB<UUID> offHeapDatabase = new OffHeapEmployeeDB<>(IdCodec.UUID);
+        heapDatabase.addEmployees(roster);
+        offHeapDatabase.addEmployees(generator.generate(5_000));
+
+        // Remove every third employee so later adds reuse freed rows
+        for (int i = 0; i < roster.size(); i += 3) {
+            UUID id = roster.get(i).getEmployeeId();
+            assertTrue(heapDatabase.removeEmployee(id));
+            assertEquals(roster.get(i).getName(), offHeapDatabase.getEmployeeById(id).getName());
+            assertTrue(offHeapDatabase.removeEmployee(id));
+        }
+        Employee<UUID> added = new Employee<>(UUID.randomUUID(), true, 4, 52000.0, 4.1, "Finance", "Ama Owusu");
+        heapDatabase.addEmployee(added);
+        offHeapDatabase.addEmployee(new Employee<>(added.getEmployeeId(), true, 4, 52000.0, 4.1, "Finance", "Ama Owusu"));
+        assertTrue(offHeapDatabase.updateEmployeeDetails(added.getEmployeeId(), "name", "Ama Mensah"));
+        added.setName("Ama Mensah");
+
+        SalaryManager<UUID> heapSalaries = new SalaryManager<>(heapDatabase);
+        SalaryManager<UUID> offHeapSalaries = new SalaryManager<>(offHeapDatabase);
+        assertEquals(heapSalaries.giveSalaryRaiseByPerformance(4.0, 5), offHeapSalaries.giveSalaryRaiseByPerformance(4.0, 5));
+        assertEquals(heapDatabase.getEmployeeCount(), offHeapDatabase.getEmployeeCount());
+        assertEquals(heapSalaries.calculateTotalSalaryCost(), offHeapSalaries.calculateTotalSalaryCost(), 0.01);
+        // Scan order differs, so the sums may differ in the last bits
+        Map<String, Double> offHeapAverages = offHeapSalaries.calculateAverageSalaryPerDepartment();
+        heapSalaries.calculateAverageSalaryPerDepartment().forEach((department, average) ->
+                assertEquals(average, offHeapAverages.get(department), 0.01));
+        assertEquals(new EmployeeSearchEngine<>(heapDatabase).findByName("mensah").size(),
+                new EmployeeSearchEngine<>(offHeapDatabase).findByName("mensah").size());
+
+        for (Employee<UUID> expected : heapDatabase.getAllEmployees()) {
+            Employee<UUID> actual = offHeapDatabase.getEmployeeById(expected.getEmployeeId());
+            assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    public void testShardedEmployeeDBMatchesSingleDatabase() throws Exception {
+        List<Employee<UUID>> roster = new RosterGenerator<>(5, RosterGenerator.uuidIds(5)).generate(20_000);
+        EmployeeDB<UUID> single = new EmployeeDB<>();
+        single.addEmployees(roster);
+        ShardedEmployeeDB<UUID> sharded = new ShardedEmployeeDB<>(8);
+
+        // Four writers add interleaved slices of the roster at the same time
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                int writer = w;
+                done.add(writers.submit(() -> {
+                    for (int i = writer; i < roster.size(); i += 4) {
+                        assertTrue(sharded.addEmployee(roster.get(i)));
+                    }
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+        } finally {
+            writers.shutdown();
+        }
+        assertFalse(sharded.addEmployee(roster.get(0)));
+        assertEquals(roster.size(), sharded.getEmployeeCount());
+
+        EmployeeSearchEngine<UUID> singleSearch = new EmployeeSearchEngine<>(single);
+        EmployeeSearchEngine<UUID> shardedSearch = new EmployeeSearchEngine<>(sharded);
+        assertEquals(singleSearch.findBySalaryRange(50000, 70000).size(), shardedSearch.findBySalaryRange(50000, 70000).size());
+        assertEquals(singleSearch.getDepartmentCounts(), shardedSearch.getDepartmentCounts());
+
+        SalaryManager<UUID> singleSalaries = new SalaryManager<>(single);
+        SalaryManager<UUID> shardedSalaries = new SalaryManager<>(sharded);
+        assertEquals(singleSalaries.calculateTotalSalaryCost(), shardedSalaries.calculateTotalSalaryCost(), 0.01);
+        assertEquals(singleSalaries.calculateSalaryGap(), shardedSalaries.calculateSalaryGap(), 0.0);
+        List<Employee<UUID>> expectedTop = singleSalaries.getTopPaidEmployees(25);
+        List<Employee<UUID>> actualTop = shardedSalaries.getTopPaidEmployees(25);
+        for (int i = 0; i < expectedTop.size(); i++) {
+            assertEquals(expectedTop.get(i).getYearsOfExperience(), actualTop.get(i).getYearsOfExperience());
+        }
+    }
+
+    @Test
+    public void testParallelStreamVisitsEveryStoredEmployeeOnce() {
+        List<Employee<UUID>> roster = new RosterGenerator<>(9, RosterGenerator.uuidIds(9)).generate(10_000);
+        List<EmployeeDB<UUID>> databases = List.of(new EmployeeDB<>(), new UuidEmployeeDB(),
+                new OffHeapEmployeeDB<>(IdCodec.UUID), new ShardedEmployeeDB<>(4));
+        for (EmployeeDB<UUID> db : databases) {
+            db.addEmployees(roster);
+            db.removeEmployee(roster.get(0).getEmployeeId());
+            EmployeeSearchEngine<UUID> search = new EmployeeSearchEngine<>(db);
+
+            Set<UUID> ids = search.parallelStream().map(Employee::getEmployeeId).collect(Collectors.toSet());
+            assertEquals(roster.size() - 1, search.parallelStream().count());
+            assertEquals(roster.size() - 1, ids.size());
+            assertFalse(ids.contains(roster.get(0).getEmployeeId()));
+            assertEquals(roster.size() - 1, search.spliterator().estimateSize(), roster.size() / 10.0);
+
+            int iterated = 0;
+            for (Employee<UUID> employee : search) {
+                assertTrue(ids.contains(employee.getEmployeeId()));
+                iterated++;
+            }
+            assertEquals(roster.size() - 1, iterated);
+        }
+    }
+
+    @Test
+    public void testSalaryPercentilesFollowChanges() {
+        List<Employee<Integer>> roster = new RosterGenerator<>(13, position -> (int) position).generate(20_000);
+        EmployeeDB<Integer> db = new ShardedEmployeeDB<>(4);
+        db.addEmployees(roster.subList(0, 10_000));
+        SalaryManager<Integer> salaries = new SalaryManager<>(db);
+        String department = roster.get(0).getDepartment();
+        salaries.getMedianSalary(department);
+
+        // Changes after the sketches were built: hires, raises and removals
+        db.addEmployees(roster.subList(10_000, roster.size()));
+        salaries.giveSalaryRaiseByDepartment(department, 10);
+        for (int i = 0; i < roster.size(); i += 3) {
+            db.removeEmployee(roster.get(i).getEmployeeId());
+        }
+
+        double accuracy = SalarySketch.DEFAULT_RELATIVE_ACCURACY;
+        for (double percentile : new double[]{0, 50, 90, 99, 100}) {
+            double[] sorted = db.findEmployees(e -> e.getDepartment().equals(department)).stream()
+                    .mapToDouble(Employee::getSalary).sorted().toArray();
+            double exact = sorted[(int) (percentile / 100 * (sorted.length - 1))];
+            assertEquals(exact, salaries.getSalaryPercentile(department, percentile), exact * accuracy);
+        }
+        double median = salaries.getMedianSalary(department);
+        assertEquals(0.5, salaries.getShareEarningAtMost(department, median), 0.02);
+
+        // Sketches of two halves merge into the sketch of the whole
+        SalarySketch left = new SalarySketch();
+        SalarySketch right = new SalarySketch();
+        db.forEachEmployee(e -> (e.getEmployeeId() % 2 == 0 ? left : right).add(e.getSalary()));
+        SalarySketch whole = salaries.getSalarySketch();
+        assertEquals(db.getEmployeeCount(), whole.getCount());
+        assertEquals(whole.quantile(0.9), left.merge(right).quantile(0.9), 0.0);
+    }
+
+    @Test
+    public void testSalaryHistoryRecordsEveryChange() throws Exception {
+        ManualClock clock = new ManualClock(Instant.parse("2024-01-01T00:00:00Z"));
+        SalaryHistory<Integer> history = SalaryHistory.follow(database, clock);
+
+        clock.advance(Duration.ofDays(30));
+        database.updateEmployeeDetails(1, "salary", 55000.0);
+        database.updateEmployeeDetails(1, "name", "John Q. Doe");
+        clock.advance(Duration.ofDays(30));
+        salaryManager.giveSalaryRaiseByDepartment("IT", 10);
+        Instant beforeRemoval = clock.instant();
+        clock.advance(Duration.ofDays(30));
+        database.removeEmployee(1);
+
+        assertEquals(50000.0, history.getSalaryAsOf(1, Instant.parse("2024-01-15T00:00:00Z")), 0.0);
+        assertEquals(55000.0, history.getSalaryAsOf(1, Instant.parse("2024-02-15T00:00:00Z")), 0.0);
+        assertEquals(60500.0, history.getSalaryAsOf(1, beforeRemoval), 0.0);
+        assertTrue(Double.isNaN(history.getSalaryAsOf(1, clock.instant())));
+        assertTrue(Double.isNaN(history.getSalaryAsOf(1, Instant.parse("2023-12-31T00:00:00Z"))));
+        // The name change did not add a record, the removal did
+        assertEquals(4, history.getChangeCount(1));
+        List<SalaryHistory.Change> february = history.getChanges(1,
+                Instant.parse("2024-01-15T00:00:00Z"), Instant.parse("2024-02-15T00:00:00Z"));
+        assertEquals(1, february.size());
+        assertEquals(55000.0, february.get(0).getSalary(), 0.0);
+
+        // Long histories span several pages; the first update keeps the salary and is not recorded
+        for (int i = 0; i < 500; i++) {
+            clock.advance(Duration.ofHours(i));
+            database.updateEmployeeDetails(2, "salary", 42000.0 + i * 37.25);
+        }
+        List<SalaryHistory.Change> changes = history.getChanges(2);
+        assertEquals(500, changes.size());
+        assertEquals(42000.0 + 499 * 37.25, changes.get(499).getSalary(), 0.0);
+        assertEquals(clock.instant(), changes.get(499).getTime());
+    }
+
+    @Test
+    public void testAsOfQueriesSeeThePastRoster() throws Exception {
+        ManualClock clock = new ManualClock(Instant.parse("2024-01-01T00:00:00Z"));
+        database.recordHistory(clock);
+
+        clock.advance(Duration.ofDays(30));
+        salaryManager.giveSalaryRaiseByDepartment("IT", 10);
+        clock.advance(Duration.ofDays(30));
+        database.updateEmployeeDetails(2, "department", "IT");
+        database.removeEmployee(4);
+        database.addEmployee(new Employee<>(5, true, 1, 30000.0, 3.0, "Sales", "Eve Green"));
+
+        Instant january = Instant.parse("2024-01-15T00:00:00Z");
+        Instant february = Instant.parse("2024-02-15T00:00:00Z");
+        assertEquals(4, database.getEmployeeCountAsOf(january));
+        assertEquals(0, database.getEmployeeCountAsOf(Instant.parse("2023-12-31T00:00:00Z")));
+        assertEquals(50000.0, database.getEmployeeByIdAsOf(1, january).getSalary(), 0.0);
+        assertEquals(55000.0, database.getEmployeeByIdAsOf(1, february).getSalary(), 0.0);
+        assertEquals("HR", database.getEmployeeByIdAsOf(2, february).getDepartment());
+        assertEquals("IT", database.getEmployeeByIdAsOf(2, clock.instant()).getDepartment());
+        assertNull(database.getEmployeeByIdAsOf(4, clock.instant()));
+        assertNull(database.getEmployeeByIdAsOf(5, february));
+
+        assertEquals(2, searchEngine.asOf(february).findByDepartment("IT").size());
+        assertEquals(Map.of("IT", 2L, "HR", 1L, "Sales", 1L), searchEngine.getDepartmentCountsAsOf(february));
+        assertEquals(157000.0, salaryManager.calculateTotalSalaryCostAsOf(january), 0.001);
+        assertEquals(salaryManager.calculateTotalSalaryCost(), salaryManager.calculateTotalSalaryCostAsOf(clock.instant()), 0.001);
+        assertEquals(salaryManager.calculateAverageSalaryPerDepartment(),
+                salaryManager.calculateAverageSalaryPerDepartmentAsOf(clock.instant()));
+
+        // Enough changes for several checkpoints; the totals must match a rebuilt roster
+        List<Instant> samples = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            clock.advance(Duration.ofMinutes(1));
+            database.updateEmployeeDetails(1 + i % 3, "salary", 40000.0 + i * 0.25);
+            if (i % 9_999 == 0) {
+                samples.add(clock.instant());
+            }
+        }
+        for (Instant sample : samples) {
+            assertEquals(salaryManager.asOf(sample).calculateAverageSalary(),
+                    salaryManager.calculateAverageSalaryAsOf(sample), 0.001);
+            assertEquals(searchEngine.asOf(sample).getAverageSalary(), searchEngine.getAverageSalaryAsOf(sample), 0.001);
+        }
+        assertTrue(database.asOf(january).isReadOnly());
+    }
+
+    @Test
+    public void testUndoRedoRevertsRecordedChanges() throws Exception {
+        database.recordCommands(3);
+        assertFalse(database.canUndo());
+
+        database.removeEmployee(1);
+        assertEquals("Delete John Doe", database.undo());
+        assertEquals(50000.0, database.getEmployeeById(1).getSalary(), 0.0);
+        assertEquals("Delete John Doe", database.redo());
+        assertNull(database.getEmployeeById(1));
+        database.undo();
+
+        Map<String, Object> edit = new HashMap<>();
+        edit.put("name", "Janet Smith");
+        edit.put("department", "Finance");
+        edit.put("salary", 47000.0);
+        database.updateEmployeeDetails(2, edit);
+        assertEquals("Edit Jane Smith", database.undo());
+        Employee<Integer> jane = database.getEmployeeById(2);
+        assertEquals("Jane Smith", jane.getName());
+        assertEquals("HR", jane.getDepartment());
+        assertEquals(42000.0, jane.getSalary(), 0.0);
+
+        // A bulk raise is one command, and redo gives the exact same salaries
+        salaryManager.giveSalaryRaiseByPerformance(4.0, 7.3);
+        double raised = database.getEmployeeById(3).getSalary();
+        assertFalse(database.canRedo());
+        database.undo();
+        assertEquals(65000.0, database.getEmployeeById(3).getSalary(), 0.0);
+        assertEquals(50000.0, database.getEmployeeById(1).getSalary(), 0.0);
+        database.redo();
+        assertEquals(raised, database.getEmployeeById(3).getSalary(), 0.0);
+
+        // A new change drops what could be redone, and only the last three changes are kept
+        database.undo();
+        database.removeEmployee(4);
+        assertFalse(database.canRedo());
+        database.removeEmployee(3);
+        database.removeEmployee(2);
+        database.removeEmployee(1);
+        assertNotNull(database.undo());
+        assertNotNull(database.undo());
+        assertNotNull(database.undo());
+        assertNull(database.undo());
+        assertEquals(3, database.getEmployeeCount());
+        assertNull(database.getEmployeeById(4));
+    }
+
+    @Test
+    public void testRemoveIfAndUpdateWhereAcrossStorages() throws Exception {
+        List<EmployeeDB<Integer>> databases = List.of(new EmployeeDB<>(), new IntEmployeeDB(),
+                new OffHeapEmployeeDB<>(IdCodec.INTEGER), new ShardedEmployeeDB<>(4, IntEmployeeMap::new));
+        for (EmployeeDB<Integer> store : databases) {
+            List<Employee<Integer>> roster = new RosterGenerator<>(29, id -> (int) id).generate(5_000);
+            Map<Integer, String> names = roster.stream()
+                    .collect(Collectors.toMap(Employee::getEmployeeId, Employee::getName));
+            Set<Integer> lowRated = roster.stream().filter(employee -> employee.getPerformanceRating() < 2.5)
+                    .map(Employee::getEmployeeId).collect(Collectors.toSet());
+            long veterans = roster.stream()
+                    .filter(employee -> employee.getPerformanceRating() >= 2.5 && employee.getYearsOfExperience() > 10)
+                    .count();
+            store.addEmployees(roster);
+            store.recordCommands(4);
+            List<Integer> heardRemoved = new ArrayList<>();
+            store.addChangeListener(new EmployeeChangeListener<>() {
+                @Override
+                public void employeeSaved(Employee<Integer> employee) {
+                }
+
+                @Override
+                public void employeeRemoved(Integer employeeId) {
+                    heardRemoved.add(employeeId);
+                }
+            });
+
+            assertEquals(lowRated.size(), store.removeIf(employee -> employee.getPerformanceRating() < 2.5));
+            assertEquals(lowRated, Set.copyOf(heardRemoved));
+            assertEquals(5_000 - lowRated.size(), store.getEmployeeCount());
+            // Everyone left is still found after the table is rebuilt
+            for (Integer id : names.keySet()) {
+                assertEquals(lowRated.contains(id), store.getEmployeeById(id) == null);
+            }
+
+            Map<String, Object> patch = new HashMap<>();
+            patch.put("department", "Archive");
+            patch.put("isActive", false);
+            assertEquals(veterans, store.updateWhere(employee -> employee.getYearsOfExperience() > 10, patch));
+            assertEquals(veterans, store.findEmployees(employee -> employee.getDepartment().equals("Archive")
+                    && !employee.isActive()).size());
+            // Invalid values are rejected before any employee changes
+            assertThrows(IllegalArgumentException.class, () -> store.updateWhere(employee -> true, Map.of("salary", "lots")));
+            assertThrows(InvalidSalaryException.class, () -> store.updateWhere(employee -> true, Map.of("salary", -1.0)));
+
+            assertEquals("Edit department, isActive of " + veterans + " employees", store.undo());
+            assertTrue(store.findEmployees(employee -> employee.getDepartment().equals("Archive")).isEmpty());
+            assertEquals("Delete " + lowRated.size() + " employees", store.undo());
+            assertEquals(5_000, store.getEmployeeCount());
+            names.forEach((id, name) -> assertEquals(name, store.getEmployeeById(id).getName()));
+            store.redo();
+            assertEquals(5_000 - lowRated.size(), store.getEmployeeCount());
+        }
+    }
+
+    @Test
+    public void testCompareAndUpdateRejectsStaleVersions() throws Exception {
+        long loaded = database.getEmployeeById(1).getVersion();
+        assertEquals(loaded + 1, database.compareAndUpdate(1, loaded, Map.of("salary", 51000.0)));
+        // A second editor that loaded the same version must not overwrite the first one's change
+        assertThrows(StaleEmployeeException.class, () -> database.compareAndUpdate(1, loaded, Map.of("salary", 49000.0)));
+        assertEquals(51000.0, database.getEmployeeById(1).getSalary(), 0.0);
+
+        // A record deleted mid-edit is reported, never swapped for another employee
+        database.removeEmployee(4);
+        assertThrows(EmployeeNotFoundException.class, () -> database.compareAndUpdate(4, 0, Map.of("name", "Someone")));
+        assertThrows(EmployeeNotFoundException.class, () -> database.updateEmployeeDetails(4, "name", "Someone"));
+        assertTrue(database.findEmployees(employee -> employee.getName().equals("Someone")).isEmpty());
+
+        // Every other change moves the version on too
+        salaryManager.giveSalaryRaiseByPerformance(4.0, 5);
+        assertEquals(loaded + 2, database.getEmployeeById(1).getVersion());
+        database.recordCommands(10);
+        salaryManager.giveSalaryRaiseByDepartment("IT", 10);
+        long raised = database.getEmployeeById(1).getVersion();
+        database.undo();
+        assertEquals(51000.0 * 1.05, database.getEmployeeById(1).getSalary(), 0.001);
+        assertEquals(raised + 1, database.getEmployeeById(1).getVersion());
+        assertThrows(StaleEmployeeException.class, () -> database.compareAndUpdate(1, raised, Map.of("salary", 1.0)));
+
+        // Concurrent editors retrying on conflicts lose no increment
+        ShardedEmployeeDB<Integer> shared = new ShardedEmployeeDB<>(4);
+        shared.addEmployee(new Employee<>(7, true, 0, 40000.0, 3.0, "IT", "Kofi Mensah"));
+        ExecutorService editors = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int e = 0; e < 4; e++) {
+                done.add(editors.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        while (true) {
+                            Employee<Integer> read = shared.getEmployeeById(7);
+                            long version = read.getVersion();
+                            int years = read.getYearsOfExperience();
+                            try {
+                                shared.compareAndUpdate(7, version, Map.of("yearsOfExperience", years + 1));
+                                break;
+                            } catch (StaleEmployeeException conflict) {
+                                // Someone else won, read again
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+        } finally {
+            editors.shutdown();
+        }
+        assertEquals(2_000, shared.getEmployeeById(7).getYearsOfExperience());
+        assertEquals(2_000, shared.getEmployeeById(7).getVersion());
+
+        // The off-heap store keeps the version in the record
+        OffHeapEmployeeDB<Integer> offHeap = new OffHeapEmployeeDB<>(IdCodec.INTEGER);
+        offHeap.addEmployee(new Employee<>(8, true, 2, 45000.0, 3.5, "HR", "Esi Boateng"));
+        assertEquals(1, offHeap.compareAndUpdate(8, 0, Map.of("department", "Finance")));
+        assertEquals(1, offHeap.getEmployeeById(8).getVersion());
+        assertThrows(StaleEmployeeException.class, () -> offHeap.compareAndUpdate(8, 0, Map.of("department", "IT")));
+    }
+
+    @Test
+    public void testUpdateWhereSkipsEmployeesRemovedSinceTheScan() throws Exception {
+        // The first save of the bulk update deletes the other IT employee before its turn comes
+        List<Integer> heardSaved = new ArrayList<>();
+        database.addChangeListener(new EmployeeChangeListener<>() {
+            @Override
+            public void employeeSaved(Employee<Integer> employee) {
+                heardSaved.add(employee.getEmployeeId());
+                database.removeEmployee(employee.getEmployeeId() == 1 ? 3 : 1);
+            }
+
+            @Override
+            public void employeeRemoved(Integer employeeId) {
+            }
+        });
+
+        assertEquals(1, database.updateWhere(employee -> employee.getDepartment().equals("IT"), Map.of("isActive", false)));
+        assertEquals(1, heardSaved.size());
+        assertEquals(3, database.getEmployeeCount());
+        assertFalse(database.getEmployeeById(heardSaved.get(0)).isActive());
+    }
+
+    @Test
+    public void testBitmapIndexesMatchFullScans() throws Exception {
+        ShardedEmployeeDB<Integer> roster = new ShardedEmployeeDB<>(4, IntEmployeeMap::new);
+        roster.addEmployees(new RosterGenerator<>(31, id -> (int) id).generate(200_000));
+        EmployeeSearchEngine<Integer> engine = new EmployeeSearchEngine<>(roster);
+        assertEquals(roster.findEmployees(Employee::isActive).size(), engine.findActiveEmployees().size());
+
+        // Changes after the indexes are built move employees between bitmaps and free rows
+        SplittableRandom random = new SplittableRandom(37);
+        roster.removeIf(employee -> employee.getEmployeeId() % 7 == 0);
+        roster.updateWhere(employee -> employee.getYearsOfExperience() > 12, Map.of("isActive", false, "department", "Legal"));
+        for (int i = 0; i < 2_000; i++) {
+            int id = random.nextInt(200_000);
+            if (roster.getEmployeeById(id) != null) {
+                roster.updateEmployeeDetails(id, "performanceRating", random.nextInt(11) / 2.0);
+            } else {
+                roster.addEmployee(new Employee<>(id, random.nextBoolean(), 1, 40000.0, random.nextInt(11) / 2.0, "IT", "Employee " + id));
+            }
+        }
+
+        for (String department : List.of("IT", "Legal", "Sales")) {
+            for (double minRating : new double[]{0, 2.5, 3.7, 5}) {
+                for (boolean activeOnly : new boolean[]{false, true}) {
+                    Set<Employee<Integer>> expected = new HashSet<>(roster.findEmployees(employee ->
+                            employee.getDepartment().equals(department) && employee.getPerformanceRating() >= minRating
+                                    && (!activeOnly || employee.isActive())));
+                    List<Employee<Integer>> found = engine.findByDepartmentAndMinimumRating(department, minRating, activeOnly);
+                    assertEquals(department + " " + minRating + " " + activeOnly, expected, new HashSet<>(found));
+                    assertEquals(expected.size(), found.size());
+                }
+            }
+        }
+        assertEquals(roster.findEmployees(employee -> employee.getPerformanceRating() >= 4.2).size(),
+                engine.findByMinimumRating(4.2).size());
+        assertEquals(roster.findEmployees(Employee::isActive).size(), engine.findActiveEmployees().size());
+        assertTrue(engine.findByDepartment("Nowhere").isEmpty());
+
+        // Off-heap storage: the index keeps encoded IDs and looks the matches up when searched
+        OffHeapEmployeeDB<Integer> offHeap = new OffHeapEmployeeDB<>(IdCodec.INTEGER);
+        offHeap.addEmployees(roster.getAllEmployees());
+        EmployeeSearchEngine<Integer> offHeapEngine = new EmployeeSearchEngine<>(offHeap);
+        assertEquals(engine.findByDepartmentAndMinimumRating("IT", 3.7, true).size(),
+                offHeapEngine.findByDepartmentAndMinimumRating("IT", 3.7, true).size());
+        offHeap.removeIf(employee -> employee.getEmployeeId() % 3 == 0);
+        offHeap.updateWhere(employee -> employee.getEmployeeId() % 3 == 1, Map.of("performanceRating", 5.0));
+        Set<Integer> expected = offHeap.findEmployees(employee -> employee.getDepartment().equals("IT")
+                && employee.getPerformanceRating() >= 3.7).stream().map(Employee::getEmployeeId).collect(Collectors.toSet());
+        Set<Integer> found = offHeapEngine.findByDepartmentAndMinimumRating("IT", 3.7, false).stream()
+                .map(Employee::getEmployeeId).collect(Collectors.toSet());
+        assertEquals(expected, found);
+    }
+
+    @Test
+    public void testSalaryColumnsMatchRosterScans() throws Exception {
+        // Off-heap storage keeps the IDs of the columns encoded instead of as objects
+        for (EmployeeDB<Integer> roster : List.<EmployeeDB<Integer>>of(new IntEmployeeDB(),
+                new OffHeapEmployeeDB<>(IdCodec.INTEGER))) {
+            // An odd roster size leaves a tail that does not fill a whole vector
+            roster.addEmployees(new RosterGenerator<>(41, id -> (int) id).generate(50_003));
+            SalaryManager<Integer> salaries = new SalaryManager<>(roster);
+            assertEquals(roster.findEmployees(Employee::isActive).stream().mapToDouble(Employee::getSalary).sum(),
+                    salaries.calculateTotalSalaryCost(), 0.01);
+
+            // Removals move the last row into the freed one, so the columns must follow every change
+            roster.removeIf(employee -> employee.getEmployeeId() % 5 == 0);
+            roster.updateWhere(employee -> employee.getYearsOfExperience() > 15, Map.of("isActive", false));
+            salaries.giveSalaryRaiseByDepartment("IT", 10);
+            roster.addEmployee(new Employee<>(60_000, true, 3, 2_500_000.0, 4.8, "Legal", "Highest Paid"));
+
+            DoubleSummaryStatistics all = roster.findEmployees(employee -> true).stream()
+                    .mapToDouble(Employee::getSalary).summaryStatistics();
+            assertEquals(all.getAverage(), salaries.calculateAverageSalary(), 0.0001);
+            assertEquals(all.getMax() - all.getMin(), salaries.calculateSalaryGap(), 0.0);
+            assertEquals(roster.findEmployees(Employee::isActive).stream().mapToDouble(Employee::getSalary).sum(),
+                    salaries.calculateTotalSalaryCost(), 0.01);
+            assertEquals(roster.findEmployees(employee -> employee.isActive() && employee.getPerformanceRating() >= 4.5).size(),
+                    salaries.countEmployeesRatedAtLeast(4.5));
+            assertTrue(salaries.anyEmployeesAboveSalary("Legal", 2_000_000));
+            assertFalse(salaries.anyEmployeesAboveSalary("IT", 2_000_000));
+            assertFalse(salaries.anyEmployeesAboveSalary("Nowhere", 0));
+
+            roster.removeIf(employee -> true);
+            assertEquals(0, salaries.calculateAverageSalary(), 0.0);
+            assertEquals(0, salaries.calculateTotalSalaryCost(), 0.0);
+        }
+    }
+
+    @Test
+    public void testGroupByMatchesStreamGrouping() throws Exception {
+        ShardedEmployeeDB<Integer> roster = new ShardedEmployeeDB<>(4, IntEmployeeMap::new);
+        roster.addEmployees(new RosterGenerator<>(43, id -> (int) id).generate(30_000));
+        List<Aggregate> aggregates = List.of(Aggregate.count(), Aggregate.sum(Aggregate.Field.SALARY),
+                Aggregate.average(Aggregate.Field.PERFORMANCE_RATING), Aggregate.min(Aggregate.Field.SALARY),
+                Aggregate.max(Aggregate.Field.SALARY), Aggregate.percentile(Aggregate.Field.SALARY, 90),
+                Aggregate.sum(Aggregate.Field.ACTIVE));
+        AggregateTable table = new EmployeeAggregator<>(roster).groupBy(GroupKey.EXPERIENCE_BAND, aggregates);
+
+        Map<String, List<Employee<Integer>>> expected = roster.getAllEmployees().stream()
+                .collect(Collectors.groupingBy(employee -> GroupKey.EXPERIENCE_BAND.label(GroupKey.EXPERIENCE_BAND.groupOf(employee))));
+        assertEquals(expected.keySet(), table.counts().keySet());
+        assertEquals(roster.getEmployeeCount(), table.getEmployeeCount());
+        for (int group = 0; group < table.groupCount(); group++) {
+            List<Employee<Integer>> members = expected.getOrDefault(table.label(group), List.of());
+            double[] salaries = members.stream().mapToDouble(Employee::getSalary).sorted().toArray();
+            assertEquals(members.size(), table.count(group));
+            assertEquals(members.size(), table.value(group, 0), 0.0);
+            assertEquals(Arrays.stream(salaries).sum(), table.value(group, 1), 0.01);
+            assertEquals(members.stream().mapToDouble(Employee::getPerformanceRating).average().orElse(0), table.value(group, 2), 1e-9);
+            assertEquals(salaries.length == 0 ? 0 : salaries[0], table.value(group, 3), 0.0);
+            assertEquals(salaries.length == 0 ? 0 : salaries[salaries.length - 1], table.value(group, 4), 0.0);
+            if (salaries.length > 0) {
+                double p90 = salaries[(int) Math.ceil(0.9 * salaries.length) - 1];
+                assertEquals(p90, table.value(group, 5), p90 * 0.02);
+            }
+            assertEquals(members.stream().filter(Employee::isActive).count(), table.value(group, 6), 0.0);
+        }
+
+        // Storage without its own aggregate is split through its spliterator instead of by shard
+        for (EmployeeDB<Integer> copy : List.<EmployeeDB<Integer>>of(new IntEmployeeDB(),
+                new OffHeapEmployeeDB<>(IdCodec.INTEGER))) {
+            copy.addEmployees(roster.getAllEmployees());
+            AggregateTable split = new EmployeeAggregator<>(copy).groupBy(GroupKey.EXPERIENCE_BAND, aggregates);
+            assertEquals(table.counts(), split.counts());
+            Map<String, Double> splitSums = split.toMap(1);
+            table.toMap(1).forEach((band, sum) -> assertEquals(sum, splitSums.get(band), 0.01));
+        }
+
+        // A filter applies before grouping, and the department key follows the dictionary
+        Map<String, Double> activeCost = roster.getAllEmployees().stream().filter(Employee::isActive)
+                .collect(Collectors.groupingBy(Employee::getDepartment, Collectors.summingDouble(Employee::getSalary)));
+        Map<String, Double> grouped = new SalaryManager<>(roster).calculateTotalSalaryCostPerDepartment();
+        assertEquals(activeCost.keySet(), grouped.keySet());
+        activeCost.forEach((department, cost) -> assertEquals(cost, grouped.get(department), 0.01));
+    }
+
+    @Test
+    public void testTimeOrderedUuidsSortInCreationOrder() throws Exception {
+        TimeOrderedUuidGenerator generator = TimeOrderedUuidGenerator.getInstance();
+        UuidEmployeeDB uuidDatabase = new UuidEmployeeDB();
+        UUID previous = generator.next();
+        assertEquals("Should be a version 7 UUID", 7, previous.version());
+        assertEquals("Should use the IETF variant", 2, previous.variant());
+
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = generator.next();
+            // Compare as unsigned, the way the bytes sort
+            assertTrue("IDs should increase", Long.compareUnsigned(id.getMostSignificantBits(),
+                    previous.getMostSignificantBits()) > 0);
+            uuidDatabase.addEmployee(new Employee<>(id, true, 1, 40000.0, 3.0, "IT", "Employee " + i));
+            previous = id;
+        }
+
+        assertNotNull(uuidDatabase.getEmployeeById(previous.getMostSignificantBits(), previous.getLeastSignificantBits()));
+        assertTrue(uuidDatabase.removeEmployee(previous.getMostSignificantBits(), previous.getLeastSignificantBits()));
+        assertNull(uuidDatabase.getEmployeeById(previous));
+        assertEquals(9_999, uuidDatabase.getEmployeeCount());
+    }
+
+    @Test
+    public void testReplicationFollowerCatchesUpWithLeader() throws Exception {
+        EmployeeDB<UUID> leaderDatabase = new ShardedEmployeeDB<>(4);
+        List<Employee<UUID>> roster = new RosterGenerator<>(17, RosterGenerator.uuidIds(17)).generate(3_000);
+        leaderDatabase.addEmployees(roster.subList(0, 2_000));
+
+        try (ReplicationLeader<UUID> leader = new ReplicationLeader<>(leaderDatabase, IdCodec.UUID,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            leader.start();
+            // Writes made before the follower connects arrive with the snapshot
+            leaderDatabase.addEmployees(roster.subList(2_000, 2_500));
+
+            try (ReplicationFollower<UUID> follower = new ReplicationFollower<>(IdCodec.UUID, leader.getAddress())) {
+                follower.start();
+                // These race with the snapshot and must arrive through the log tail
+                leaderDatabase.addEmployees(roster.subList(2_500, 3_000));
+                for (int i = 0; i < 100; i++) {
+                    leaderDatabase.removeEmployee(roster.get(i).getEmployeeId());
+                }
+                leaderDatabase.updateEmployeeDetails(roster.get(100).getEmployeeId(), "department", "Replicated");
+                new SalaryManager<>(leaderDatabase).giveSalaryRaiseByPerformance(4.0, 10);
+
+                assertTrue("Follower should catch up", follower.awaitSequence(leader.getSequence(), Duration.ofSeconds(10)));
+                assertEquals(0, follower.getLagChanges());
+
+                EmployeeDB<UUID> replica = follower.getDatabase();
+                assertEquals(leaderDatabase.getEmployeeCount(), replica.getEmployeeCount());
+                assertNull(replica.getEmployeeById(roster.get(0).getEmployeeId()));
+                assertEquals("Replicated", replica.getEmployeeById(roster.get(100).getEmployeeId()).getDepartment());
+                assertEquals(leaderDatabase.getEmployeeById(roster.get(100).getEmployeeId()).getVersion(),
+                        replica.getEmployeeById(roster.get(100).getEmployeeId()).getVersion());
+                assertEquals(new SalaryManager<>(leaderDatabase).calculateTotalSalaryCost(),
+                        follower.getSalaryManager().calculateTotalSalaryCost(), 0.01);
+                assertEquals(new EmployeeSearchEngine<>(leaderDatabase).getDepartmentCounts(),
+                        follower.getSearchEngine().getDepartmentCounts());
+
+                assertThrows(UnsupportedOperationException.class,
+                        () -> follower.getSalaryManager().giveSalaryRaiseByPerformance(0, 10));
+                assertThrows(UnsupportedOperationException.class, () -> replica.addEmployee(roster.get(0)));
+            }
+        }
+    }
+
+    @Test
+    public void testReplicationKeepsRemovalsThatRaceWithUpdates() throws Exception {
+        EmployeeDB<UUID> leaderDatabase = new ShardedEmployeeDB<>(4);
+        List<Employee<UUID>> roster = new RosterGenerator<>(19, RosterGenerator.uuidIds(19)).generate(4_000);
+        leaderDatabase.addEmployees(roster);
+
+        try (ReplicationLeader<UUID> leader = new ReplicationLeader<>(leaderDatabase, IdCodec.UUID,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            leader.start();
+            try (ReplicationFollower<UUID> follower = new ReplicationFollower<>(IdCodec.UUID, leader.getAddress())) {
+                follower.start();
+                assertTrue(follower.awaitSequence(leader.getSequence(), Duration.ofSeconds(10)));
+
+                raceUpdatesAndRemovals(leaderDatabase, roster);
+
+                assertTrue("Follower should catch up", follower.awaitSequence(leader.getSequence(), Duration.ofSeconds(10)));
+                EmployeeDB<UUID> replica = follower.getDatabase();
+                assertEquals(leaderDatabase.getEmployeeCount(), replica.getEmployeeCount());
+                for (Employee<UUID> employee : roster) {
+                    Employee<UUID> stored = leaderDatabase.getEmployeeById(employee.getEmployeeId());
+                    Employee<UUID> copy = replica.getEmployeeById(employee.getEmployeeId());
+                    assertEquals(stored == null, copy == null);
+                    if (stored != null) {
+                        assertEquals(stored.getSalary(), copy.getSalary(), 0.0);
+                        assertEquals(stored.isActive(), copy.isActive());
+                        assertEquals(stored.getVersion(), copy.getVersion());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testJournalRecoversFromCheckpointAndLogTail() throws Exception {
+        Path directory = Files.createTempDirectory("employee-journal");
+        try {
+            EmployeeDB<Integer> original = new EmployeeDB<>();
+            EmployeeJournal<Integer> journal = new EmployeeJournal<>(original, IdCodec.INTEGER, directory);
+            journal.setCheckpointInterval(Duration.ofHours(1));
+            journal.start();
+            List<Employee<Integer>> roster = new RosterGenerator<>(23, id -> (int) id).generate(1_000);
+            original.addEmployees(roster);
+            journal.checkpoint();
+            assertEquals(1_000, journal.getCheckpointSequence());
+
+            // The log tail after the checkpoint
+            for (int i = 0; i < 50; i++) {
+                original.removeEmployee(roster.get(i).getEmployeeId());
+            }
+            original.updateEmployeeDetails(roster.get(60).getEmployeeId(), "name", "Renamed Employee");
+            new SalaryManager<>(original).giveSalaryRaiseByExperience(5, 10);
+            journal.close();
+
+            List<Path> files;
+            try (var entries = Files.list(directory)) {
+                files = entries.sorted().toList();
+            }
+            assertEquals("Superseded segments should be deleted", 2, files.size());
+            // A crash in the middle of a write leaves a partial record behind
+            Files.write(files.get(1), new byte[]{0, 0, 1}, StandardOpenOption.APPEND);
+
+            EmployeeDB<Integer> recovered = new EmployeeDB<>();
+            try (EmployeeJournal<Integer> reopened = new EmployeeJournal<>(recovered, IdCodec.INTEGER, directory)) {
+                reopened.start();
+                assertEquals(journal.getSequence(), reopened.getSequence());
+                assertEquals(original.getEmployeeCount(), reopened.getRecoveredCount());
+                for (Employee<Integer> employee : original.getAllEmployees()) {
+                    Employee<Integer> copy = recovered.getEmployeeById(employee.getEmployeeId());
+                    assertEquals(employee.getName(), copy.getName());
+                    assertEquals(employee.getSalary(), copy.getSalary(), 0.0);
+                    assertEquals(employee.getVersion(), copy.getVersion());
+                }
+                assertNull(recovered.getEmployeeById(roster.get(0).getEmployeeId()));
+            }
+        } finally {
+            try (var entries = Files.walk(directory)) {
+                entries.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testJournalKeepsRemovalsThatRaceWithUpdates() throws Exception {
+        Path directory = Files.createTempDirectory("employee-journal");
+        try {
+            EmployeeDB<Integer> original = new ShardedEmployeeDB<>(4);
+            EmployeeJournal<Integer> journal = new EmployeeJournal<>(original, IdCodec.INTEGER, directory);
+            journal.start();
+            List<Employee<Integer>> roster = new RosterGenerator<>(31, id -> (int) id).generate(4_000);
+            original.addEmployees(roster);
+            original.recordHistory();
+
+            raceUpdatesAndRemovals(original, roster);
+            journal.close();
+            // A late save must not count a removed employee in the totals either
+            assertEquals(original.getEmployeeCount(), original.getEmployeeCountAsOf(Instant.now()));
+
+            EmployeeDB<Integer> recovered = new EmployeeDB<>();
+            try (EmployeeJournal<Integer> reopened = new EmployeeJournal<>(recovered, IdCodec.INTEGER, directory)) {
+                reopened.start();
+                assertEquals(original.getEmployeeCount(), recovered.getEmployeeCount());
+                for (Employee<Integer> employee : roster) {
+                    Employee<Integer> stored = original.getEmployeeById(employee.getEmployeeId());
+                    Employee<Integer> copy = recovered.getEmployeeById(employee.getEmployeeId());
+                    assertEquals(stored == null, copy == null);
+                    if (stored != null) {
+                        assertEquals(stored.getSalary(), copy.getSalary(), 0.0);
+                        assertEquals(stored.isActive(), copy.isActive());
+                    }
+                }
+            }
+        } finally {
+            try (var entries = Files.walk(directory)) {
+                entries.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testEmployeeServerServesEveryRoute() throws Exception {
+        EmployeeDB<UUID> serverDatabase = new ShardedEmployeeDB<>(2);
+        serverDatabase.addEmployees(new RosterGenerator<>(29, RosterGenerator.uuidIds(29)).generate(1_000));
+        EmployeeServer server = new EmployeeServer(serverDatabase, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.setSalaryHistory(SalaryHistory.follow(serverDatabase));
+        server.start();
+        try {
+            String base = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort();
+
+            // A form body with escapes, and parameters split between the query string and the body
+            Response created = send("POST", base + "/employees?active=false",
+                    "name=Server+Test&department=R%26D&salary=70000&performanceRating=4.1&yearsOfExperience=4");
+            assertEquals(201, created.statusCode());
+            assertTrue(created.body().contains("\"name\":\"Server Test\",\"department\":\"R&D\""));
+            assertTrue(created.body().contains("\"active\":false"));
+            Matcher idMatch = Pattern.compile("\"employeeId\":\"([^\"]+)\"").matcher(created.body());
+            assertTrue(idMatch.find());
+            String employee = base + "/employees/" + idMatch.group(1);
+
+            assertEquals(200, send("GET", employee, null).statusCode());
+            Response patched = send("PATCH", employee, "field=salary&value=80000");
+            assertEquals(200, patched.statusCode());
+            assertTrue(patched.body().contains("\"salary\":80000.0"));
+            long version = serverDatabase.getEmployeeById(UUID.fromString(idMatch.group(1))).getVersion();
+            assertEquals(200, send("PATCH", employee, "field=isActive&value=true&version=" + version).statusCode());
+            assertEquals(409, send("PATCH", employee, "field=salary&value=1&version=" + version).statusCode());
+            Response history = send("GET", employee + "/salary-history", null);
+            assertEquals(200, history.statusCode());
+            assertTrue(history.body().contains("\"salary\":80000.0"));
+
+            assertTrue(send("GET", base + "/employees?department=R%26D", null).body().contains("Server Test"));
+            assertTrue(send("GET", base + "/employees?name=Server%20Test", null).body().contains("Server Test"));
+            for (String query : List.of("minRating=4.5", "minSalary=50000&maxSalary=60000", "active=true")) {
+                assertEquals(query, 200, send("GET", base + "/employees?" + query + "&limit=5", null).statusCode());
+            }
+            for (String raise : List.of("performance?minRating=4.5", "experience?years=10", "department?department=R%26D")) {
+                Response raised = send("POST", base + "/raises/" + raise, "percent=1");
+                assertEquals(raise, 200, raised.statusCode());
+                assertTrue(raised.body().startsWith("{\"employeesRaised\":"));
+            }
+            for (String report : List.of("average-salary", "total-salary-cost", "salary-gap", "department-counts",
+                    "average-salary-by-department", "salary-cost-by-department", "top-paid?n=3")) {
+                assertEquals(report, 200, send("GET", base + "/reports/" + report, null).statusCode());
+            }
+            assertTrue(send("GET", base + "/metrics", null).body().contains("EmployeeServer.employees"));
+
+            // Small responses are sent with a length, the full roster outgrows the buffer and is chunked
+            Response one = send("GET", base + "/employees?limit=1", null);
+            assertTrue(one.header("Content-Length") != null);
+            Response all = send("GET", base + "/employees", null);
+            assertTrue(all.body().length() > 64 * 1024);
+            assertEquals("chunked", all.header("Transfer-Encoding"));
+            assertEquals(serverDatabase.getEmployeeCount(), all.body().split("\"employeeId\"", -1).length - 1);
+
+            assertEquals(400, send("POST", base + "/employees", "department=IT&salary=1&performanceRating=1&yearsOfExperience=1").statusCode());
+            assertEquals(400, send("GET", base + "/employees/not-a-uuid", null).statusCode());
+            assertEquals(400, send("POST", base + "/raises/experience", "years=1&percent=abc").statusCode());
+            assertEquals(404, send("GET", base + "/employees/" + UUID.randomUUID(), null).statusCode());
+            assertEquals(404, send("GET", base + "/reports/unknown", null).statusCode());
+            assertEquals(405, send("PUT", base + "/employees", "").statusCode());
+            assertEquals(405, send("POST", base + "/reports/average-salary", "").statusCode());
+
+            // Requests only create departments while the dictionary is below the limit
+            server.setMaxDepartments(DepartmentDictionary.getInstance().size());
+            assertEquals(400, send("POST", base + "/employees", "name=Too+Many&department=" + UUID.randomUUID()
+                    + "&salary=1&performanceRating=1&yearsOfExperience=1").statusCode());
+            assertEquals(400, send("PATCH", employee, "field=department&value=" + UUID.randomUUID()).statusCode());
+            assertEquals(200, send("PATCH", employee, "field=department&value=r%26d").statusCode());
+
+            assertEquals(204, send("DELETE", employee, null).statusCode());
+            assertEquals(404, send("GET", employee, null).statusCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testDepartmentReportFromSinglePass() {
+        String report = new EmployeeDisplay<>(database).generateAllReports();
+
+        assertTrue(report.contains("Department: IT\nNumber of Employees: 2\nActive Employees: 2\n"
+                + "Average Salary: $57500.00\nAverage Performance Rating: 4.35\n"));
+        assertTrue(report.contains("- Jane Smith (Experience: 3 years, Rating: 3.8)\n"));
+        assertTrue(report.contains("Below $50,000       : 2 employee(s)\n"));
+        assertTrue(report.contains("Outstanding (4.5-5.0): 1 employee(s)\n"));
+        assertTrue(report.contains("- Alice Brown (Dept: Sales, Rating: 3.2)\n"));
+    }
+
+    @Test
+    public void testStreamedReportMatchesInMemoryReport() throws Exception {
+        EmployeeDisplay<Integer> display = new EmployeeDisplay<>(database);
+        String expected = display.generatePerformanceReport();
+
+        try (ReportViewer.ReportFile file = ReportViewer.ReportFile.create(display::writePerformanceReport)) {
+            assertEquals(List.of(expected.split("\n")), file.lines());
+            assertEquals("============= Performance Report =============", file.line(1));
+        }
+    }
+
+    /**
+     * Update and remove the same employees from several threads, so the announcements of the
+     * changes to one employee can arrive in either order
+     */
+    private static <T> void raceUpdatesAndRemovals(EmployeeDB<T> database, List<Employee<T>> roster) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                int offset = t;
+                tasks.add(executor.submit(() -> {
+                    for (int i = offset; i < roster.size() * 3 / 4; i += 2) {
+                        try {
+                            database.updateEmployeeDetails(roster.get(i).getEmployeeId(), "salary", 70_000.0 + i);
+                        } catch (EmployeeNotFoundException e) {
+                            // Already removed
+                        }
+                    }
+                    return null;
+                }));
+                tasks.add(executor.submit(() -> {
+                    for (int i = offset; i < roster.size() * 3 / 4; i += 2) {
+                        database.removeEmployee(roster.get(i).getEmployeeId());
+                    }
+                }));
+            }
+            tasks.add(executor.submit(() -> database.updateWhere(employee -> employee.getYearsOfExperience() > 10,
+                    Map.of("isActive", false))));
+            tasks.add(executor.submit(() -> database.removeIf(employee -> employee.getPerformanceRating() < 3.0)));
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Send a request to the server, with a form-encoded body unless the body is null.
+     * HttpURLConnection refuses PATCH, so PATCH requests are written to a socket by hand.
+     */
+    private static Response send(String method, String uri, String form) throws IOException {
+        if (method.equals("PATCH")) {
+            return sendOverSocket(method, URI.create(uri), form);
+        }
+        HttpURLConnection connection = (HttpURLConnection) URI.create(uri).toURL().openConnection();
+        try {
+            connection.setRequestMethod(method);
+            if (form != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(form.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            String body = "";
+            try (InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+                if (in != null) {
+                    body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+            Map<String, String> headers = new HashMap<>();
+            connection.getHeaderFields().forEach((name, values) -> {
+                if (name != null) {
+                    headers.put(name.toLowerCase(), values.get(0));
+                }
+            });
+            return new Response(status, headers, body);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Send one HTTP/1.1 request on its own connection and read the response until the
+     * server closes it; only for responses sent with a Content-Length
+     */
+    private static Response sendOverSocket(String method, URI uri, String form) throws IOException {
+        byte[] body = form == null ? new byte[0] : form.getBytes(StandardCharsets.UTF_8);
+        try (Socket socket = new Socket(uri.getHost(), uri.getPort())) {
+            socket.setSoTimeout(10_000);
+            OutputStream out = socket.getOutputStream();
+            out.write((method + " " + uri.getRawPath() + " HTTP/1.1\r\n"
+                    + "Host: " + uri.getHost() + ":" + uri.getPort() + "\r\n"
+                    + "Content-Type: application/x-www-form-urlencoded\r\n"
+                    + "Content-Length: " + body.length + "\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(body);
+            out.flush();
+
+            String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            int headersEnd = response.indexOf("\r\n\r\n");
+            String[] lines = response.substring(0, headersEnd).split("\r\n");
+            Map<String, String> headers = new HashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                headers.put(lines[i].substring(0, colon).trim().toLowerCase(), lines[i].substring(colon + 1).trim());
+            }
+            return new Response(Integer.parseInt(lines[0].split(" ")[1]), headers, response.substring(headersEnd + 4));
+        }
+    }
+
+    /**
+     * Status, headers and body of a response read by {@link #send(String, String, String)}
+     */
+    private static final class Response {
+        private final int statusCode;
+        // Keyed by lower-case name
+        private final Map<String, String> headers;
+        private final String body;
+
+        Response(int statusCode, Map<String, String> headers, String body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        int statusCode() {
+            return statusCode;
+        }
+
+        String body() {
+            return body;
+        }
+
+        /**
+         * @return The first value of the header, or null if the response has none
+         */
+        String header(String name) {
+            return headers.get(name.toLowerCase());
+        }
+    }
+
+    /**
+     * Clock that only moves when told to
+     */
+    private static final class ManualClock extends Clock {
+        private Instant now;
+
+        ManualClock(Instant start) {
+            this.now = start;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
 
     // Add more tests for other functionality
 }
\ No newline at end of file
@@ -0,0 +1,610 @@
+package com.ibra.employeeapplication.server;
+
+import com.ibra.employeeapplication.backend.entity.DepartmentDictionary;
+import com.ibra.employeeapplication.backend.entity.Employee;
+import com.ibra.employeeapplication.backend.exception.EmployeeNotFoundException;
+import com.ibra.employeeapplication.backend.exception.InvalidDepartmentException;
+import com.ibra.employeeapplication.backend.exception.InvalidSalaryException;
+import com.ibra.employeeapplication.backend.exception.StaleEmployeeException;
+import com.ibra.employeeapplication.backend.monitoring.LatencyRecorder;
+import com.ibra.employeeapplication.backend.monitoring.OperationMetrics;
+import com.ibra.employeeapplication.backend.replication.EmployeeJournal;
+import com.ibra.employeeapplication.backend.replication.ReplicationFollower;
+import com.ibra.employeeapplication.backend.replication.ReplicationLeader;
+import com.ibra.employeeapplication.backend.service.EmployeeDB;
+import com.ibra.employeeapplication.backend.service.EmployeeSearchEngine;
+import com.ibra.employeeapplication.backend.service.RosterGenerator;
+import com.ibra.employeeapplication.backend.service.SalaryHistory;
+import com.ibra.employeeapplication.backend.service.SalaryManager;
+import com.ibra.employeeapplication.backend.service.ShardedEmployeeDB;
+import com.ibra.employeeapplication.backend.service.TimeOrderedUuidGenerator;
+import com.ibra.employeeapplication.backend.storage.IdCodec;
+import com.ibra.employeeapplication.backend.storage.UuidEmployeeMap;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless entry point serving the backend over HTTP, without JavaFX.
+ *
+ * Uses the JDK's built-in HttpServer with one virtual thread per request, and a
+ * {@link ShardedEmployeeDB} so concurrent requests only contend on the shard they touch.
+ * Employee lists are streamed as JSON while they are written, not built as one string.
+ *
+ * <pre>
+ * GET    /employees[?department=|name=|minRating=|minSalary=&amp;maxSalary=|active=true][&amp;limit=]
+ * POST   /employees            name, department, salary, performanceRating, yearsOfExperience, active
+ * GET    /employees/{id}
+ * PATCH  /employees/{id}       field, value[, version]   409 if the employee changed since that version
+ * DELETE /employees/{id}
+ * GET    /employees/{id}/salary-history[?from=&amp;to=]   ISO-8601 instants, with --salary-history
+ * POST   /raises/performance   minRating, percent
+ * POST   /raises/experience    years, percent
+ * POST   /raises/department    department, percent
+ * GET    /reports/{average-salary|total-salary-cost|salary-gap|department-counts|
+ *                  average-salary-by-department|salary-cost-by-department|top-paid?n=}
+ * GET    /metrics              per-operation latency table
+ * </pre>
+ * Parameters are read from the query string and, for POST and PATCH, from a form-encoded body.
+ * A server started with --follow serves a read-only replica and answers changes with 405.
+ */
+public class EmployeeServer {
+    private static final Logger logger = Logger.getLogger(EmployeeServer.class.getName());
+
+    private static final LatencyRecorder EMPLOYEES_LATENCY = OperationMetrics.recorder("EmployeeServer.employees");
+    private static final LatencyRecorder RAISES_LATENCY = OperationMetrics.recorder("EmployeeServer.raises");
+    private static final LatencyRecorder REPORTS_LATENCY = OperationMetrics.recorder("EmployeeServer.reports");
+    private static final LatencyRecorder METRICS_LATENCY = OperationMetrics.recorder("EmployeeServer.metrics");
+
+    // Pending connections the OS queues while all accepted ones are being served
+    private static final int BACKLOG = 4096;
+    // Departments stay in the dictionary for the life of the process, so requests may only add a few
+    private static final int DEFAULT_MAX_DEPARTMENTS = 1024;
+
+    static {
+        // Without TCP_NODELAY every response waits ~40 ms for the client's delayed ACK, because
+        // HttpServer writes the headers and the body separately. Read when HttpServer first loads.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final EmployeeDB<UUID> database;
+    private final EmployeeSearchEngine<UUID> searchEngine;
+    private final SalaryManager<UUID> salaryManager;
+    private final TimeOrderedUuidGenerator idGenerator = TimeOrderedUuidGenerator.getInstance();
+    // Raises read and then write salaries, so two raises must not interleave
+    private final ReentrantLock raiseLock = new ReentrantLock();
+    private SalaryHistory<UUID> salaryHistory;
+    private volatile int maxDepartments = DEFAULT_MAX_DEPARTMENTS;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @param database The database to serve; it must be safe for concurrent use
+     * @param address Address to listen on, port 0 picks a free port
+     */
+    public EmployeeServer(EmployeeDB<UUID> database, InetSocketAddress address) throws IOException {
+        if (database == null) {
+            throw new IllegalArgumentException("Database cannot be null");
+        }
+        this.database = database;
+        this.searchEngine = new EmployeeSearchEngine<>(database);
+        this.salaryManager = new SalaryManager<>(database);
+
+        server = HttpServer.create(address, BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/employees", exchange -> handle(exchange, EMPLOYEES_LATENCY, this::employees));
+        server.createContext("/raises", exchange -> handle(exchange, RAISES_LATENCY, this::raises));
+        server.createContext("/reports", exchange -> handle(exchange, REPORTS_LATENCY, this::reports));
+        server.createContext("/metrics", exchange -> handle(exchange, METRICS_LATENCY, this::metrics));
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Employee server listening on " + getAddress());
+    }
+
+    /**
+     * Stop accepting requests and wait up to the given delay for running ones to finish
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.close();
+        logger.info("Employee server stopped");
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Serve the salary history of each employee; set before {@link #start()}
+     * @param salaryHistory A history following this server's database
+     */
+    public void setSalaryHistory(SalaryHistory<UUID> salaryHistory) {
+        this.salaryHistory = salaryHistory;
+    }
+
+    /**
+     * Limit the departments requests may create
+     * @param maxDepartments Most departments the dictionary may hold before new ones are answered with 400
+     */
+    public void setMaxDepartments(int maxDepartments) {
+        if (maxDepartments < 1) {
+            throw new IllegalArgumentException("Max departments must be positive");
+        }
+        this.maxDepartments = maxDepartments;
+    }
+
+    /**
+     * Start a server, e.g. {@code --port=8080 --roster=1000000 --roster-seed=42 --shards=16 --log-level=WARNING}.
+     * Add {@code --journal=data} to keep the employees in a durable journal across restarts
+     * and {@code --replication-port=9090} to accept replicas, and start a replica with
+     * {@code --port=8081 --follow=localhost:9090}. {@code --salary-history=true} records the
+     * salary changes of every employee from startup on, and {@code --max-departments=1024}
+     * limits the departments requests may create.
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            arguments.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        // The services log every call at INFO, far too much for a server under load
+        Logger.getLogger("").setLevel(Level.parse(arguments.getOrDefault("log-level", "WARNING")));
+
+        int shards = Integer.parseInt(arguments.getOrDefault("shards",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+        int rosterSize = Integer.parseInt(arguments.getOrDefault("roster", "0"));
+        int shardSize = rosterSize / shards + 1;
+        EmployeeDB<UUID> database;
+        List<AutoCloseable> closeables = new ArrayList<>();
+        String leader = arguments.get("follow");
+        if (leader != null) {
+            int colon = leader.lastIndexOf(':');
+            ReplicationFollower<UUID> follower = new ReplicationFollower<>(IdCodec.UUID,
+                    new InetSocketAddress(leader.substring(0, colon), Integer.parseInt(leader.substring(colon + 1))),
+                    shards, () -> new UuidEmployeeMap(shardSize));
+            follower.start();
+            database = follower.getDatabase();
+            closeables.add(follower);
+        } else {
+            database = new ShardedEmployeeDB<>(shards, () -> new UuidEmployeeMap(shardSize));
+            if (arguments.containsKey("journal")) {
+                // Recovers the employees saved by the previous run before the roster is considered
+                EmployeeJournal<UUID> journal = new EmployeeJournal<>(database, IdCodec.UUID, Path.of(arguments.get("journal")));
+                journal.start();
+                closeables.add(journal);
+            }
+            if (rosterSize > 0 && database.getEmployeeCount() == 0) {
+                long seed = Long.parseLong(arguments.getOrDefault("roster-seed", "42"));
+                new RosterGenerator<>(seed, RosterGenerator.uuidIds(seed)).populate(database, rosterSize);
+            }
+            if (arguments.containsKey("replication-port")) {
+                ReplicationLeader<UUID> replicationLeader = new ReplicationLeader<>(database, IdCodec.UUID,
+                        new InetSocketAddress(Integer.parseInt(arguments.get("replication-port"))));
+                replicationLeader.start();
+                closeables.add(replicationLeader);
+            }
+        }
+
+        EmployeeServer server = new EmployeeServer(database,
+                new InetSocketAddress(Integer.parseInt(arguments.getOrDefault("port", "8080"))));
+        if (Boolean.parseBoolean(arguments.get("salary-history"))) {
+            server.setSalaryHistory(SalaryHistory.follow(database));
+        }
+        if (arguments.containsKey("max-departments")) {
+            server.setMaxDepartments(Integer.parseInt(arguments.get("max-departments")));
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            for (AutoCloseable closeable : closeables) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warning("Error stopping " + closeable.getClass().getSimpleName() + ": " + e.getMessage());
+                }
+            }
+        }));
+        server.start();
+        System.out.println("Serving " + database.getEmployeeCount() + " employees on http://localhost:"
+                + server.getAddress().getPort() + (leader != null ? " replicated from " + leader : ""));
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        void serve(HttpExchange exchange, String[] path, Map<String, String> params) throws Exception;
+    }
+
+    private void handle(HttpExchange exchange, LatencyRecorder recorder, Route route) {
+        long start = System.nanoTime();
+        try {
+            String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+            route.serve(exchange, path, parameters(exchange));
+        } catch (IOException e) {
+            // The client went away while the response was being written
+            recorder.recordError();
+            logger.fine("Could not respond to " + exchange.getRequestURI() + ": " + e.getMessage());
+        } catch (Exception e) {
+            recorder.recordError();
+            int status = statusOf(e);
+            if (status == 500) {
+                logger.log(Level.SEVERE, "Error serving " + exchange.getRequestURI(), e);
+            }
+            // Once the headers are out the status can no longer change
+            if (exchange.getResponseCode() == -1) {
+                try {
+                    sendJson(exchange, status, json -> json.beginObject()
+                            .name("error").value(rootCause(e).getMessage()).endObject());
+                } catch (IOException ignored) {
+                    // The client went away
+                }
+            }
+        } finally {
+            exchange.close();
+            recorder.recordSince(start);
+        }
+    }
+
+    private void employees(HttpExchange exchange, String[] path, Map<String, String> params) throws Exception {
+        String method = exchange.getRequestMethod();
+        if (path.length == 1) {
+            switch (method) {
+                case "GET" -> {
+                    List<Employee<UUID>> employees = findEmployees(params);
+                    int limit = params.containsKey("limit") ? Integer.parseInt(params.get("limit")) : employees.size();
+                    sendJson(exchange, 200, json -> json.employees(employees.subList(0, Math.min(limit, employees.size()))));
+                }
+                case "POST" -> {
+                    String department = knownDepartment(required(params, "department"));
+                    Employee<UUID> employee = new Employee<>(idGenerator.next(),
+                            Boolean.parseBoolean(params.getOrDefault("active", "true")),
+                            Integer.parseInt(required(params, "yearsOfExperience")),
+                            Double.parseDouble(required(params, "salary")),
+                            Double.parseDouble(required(params, "performanceRating")),
+                            department, required(params, "name"));
+                    database.addEmployee(employee);
+                    sendJson(exchange, 201, json -> json.employee(employee));
+                }
+                default -> sendStatus(exchange, 405);
+            }
+            return;
+        }
+
+        UUID id = UUID.fromString(path[1]);
+        if (path.length == 3) {
+            // The history outlives the employee, so it is served for removed employees too
+            salaryHistory(exchange, id, path[2], params);
+            return;
+        }
+        Employee<UUID> employee = database.getEmployeeById(id);
+        if (employee == null) {
+            sendJson(exchange, 404, json -> json.beginObject()
+                    .name("error").value("Employee with ID " + id + " not found").endObject());
+            return;
+        }
+        switch (method) {
+            case "GET" -> sendJson(exchange, 200, json -> json.employee(employee));
+            case "PATCH" -> {
+                String field = required(params, "field");
+                Object value = fieldValue(field, required(params, "value"));
+                if (field.equalsIgnoreCase("department")) {
+                    value = knownDepartment((String) value);
+                }
+                String version = params.get("version");
+                if (version == null) {
+                    database.updateEmployeeDetails(id, field, value);
+                } else {
+                    Map<String, Object> updates = new HashMap<>();
+                    updates.put(field, value);
+                    database.compareAndUpdate(id, Long.parseLong(version), updates);
+                }
+                sendJson(exchange, 200, json -> json.employee(database.getEmployeeById(id)));
+            }
+            case "DELETE" -> {
+                database.removeEmployee(id);
+                sendStatus(exchange, 204);
+            }
+            default -> sendStatus(exchange, 405);
+        }
+    }
+
+    private void salaryHistory(HttpExchange exchange, UUID id, String resource, Map<String, String> params) throws IOException {
+        if (!resource.equals("salary-history") || salaryHistory == null) {
+            sendStatus(exchange, 404);
+            return;
+        }
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendStatus(exchange, 405);
+            return;
+        }
+        Instant from = instant(params, "from", Instant.MIN);
+        Instant to = instant(params, "to", Instant.MAX);
+        List<SalaryHistory.Change> changes = salaryHistory.getChanges(id, from, to);
+        sendJson(exchange, 200, json -> {
+            json.beginArray();
+            for (SalaryHistory.Change change : changes) {
+                json.beginObject()
+                        .name("time").value(change.getTime().toString())
+                        .name("salary").value(change.getSalary())
+                        .name("removed").value(change.isRemoval())
+                        .endObject();
+            }
+            json.endArray();
+        });
+    }
+
+    private static Instant instant(Map<String, String> params, String name, Instant defaultValue) {
+        String value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO-8601 instant such as 2024-01-31T00:00:00Z");
+        }
+    }
+
+    private List<Employee<UUID>> findEmployees(Map<String, String> params) throws InvalidDepartmentException {
+        if (params.containsKey("department")) {
+            return searchEngine.findByDepartment(params.get("department"));
+        }
+        if (params.containsKey("name")) {
+            return searchEngine.findByName(params.get("name"));
+        }
+        if (params.containsKey("minRating")) {
+            return searchEngine.findByMinimumRating(Double.parseDouble(params.get("minRating")));
+        }
+        if (params.containsKey("minSalary") || params.containsKey("maxSalary")) {
+            return searchEngine.findBySalaryRange(Double.parseDouble(params.getOrDefault("minSalary", "0")),
+                    Double.parseDouble(params.getOrDefault("maxSalary", Double.toString(Double.MAX_VALUE))));
+        }
+        if (Boolean.parseBoolean(params.get("active"))) {
+            // findActiveEmployees rejects an empty database, an empty list is the better answer here
+            return database.getEmployeeCount() == 0 ? List.of() : searchEngine.findActiveEmployees();
+        }
+        return database.getAllEmployees();
+    }
+
+    private void raises(HttpExchange exchange, String[] path, Map<String, String> params) throws Exception {
+        if (!exchange.getRequestMethod().equals("POST") || path.length != 2) {
+            sendStatus(exchange, path.length != 2 ? 404 : 405);
+            return;
+        }
+        double percent = Double.parseDouble(required(params, "percent"));
+        int raised;
+        raiseLock.lock();
+        try {
+            raised = switch (path[1]) {
+                case "performance" -> salaryManager.giveSalaryRaiseByPerformance(
+                        Double.parseDouble(required(params, "minRating")), percent);
+                case "experience" -> salaryManager.giveSalaryRaiseByExperience(
+                        Integer.parseInt(required(params, "years")), percent);
+                case "department" -> salaryManager.giveSalaryRaiseByDepartment(required(params, "department"), percent);
+                default -> -1;
+            };
+        } finally {
+            raiseLock.unlock();
+        }
+        if (raised < 0) {
+            sendStatus(exchange, 404);
+            return;
+        }
+        sendJson(exchange, 200, json -> json.beginObject().name("employeesRaised").value(raised).endObject());
+    }
+
+    private void reports(HttpExchange exchange, String[] path, Map<String, String> params) throws Exception {
+        if (!exchange.getRequestMethod().equals("GET") || path.length != 2) {
+            sendStatus(exchange, path.length != 2 ? 404 : 405);
+            return;
+        }
+        switch (path[1]) {
+            case "average-salary" -> sendNumber(exchange, "averageSalary", salaryManager.calculateAverageSalary());
+            case "total-salary-cost" -> sendNumber(exchange, "totalSalaryCost", salaryManager.calculateTotalSalaryCost());
+            case "salary-gap" -> sendNumber(exchange, "salaryGap", salaryManager.calculateSalaryGap());
+            case "department-counts" -> {
+                Map<String, Long> counts = searchEngine.getDepartmentCounts();
+                sendJson(exchange, 200, json -> json.numbers(counts));
+            }
+            case "average-salary-by-department" -> {
+                Map<String, Double> averages = salaryManager.calculateAverageSalaryPerDepartment();
+                sendJson(exchange, 200, json -> json.numbers(averages));
+            }
+            case "salary-cost-by-department" -> {
+                Map<String, Double> costs = salaryManager.calculateTotalSalaryCostPerDepartment();
+                sendJson(exchange, 200, json -> json.numbers(costs));
+            }
+            case "top-paid" -> {
+                List<Employee<UUID>> top = salaryManager.getTopPaidEmployees(Integer.parseInt(params.getOrDefault("n", "10")));
+                sendJson(exchange, 200, json -> json.employees(top));
+            }
+            default -> sendStatus(exchange, 404);
+        }
+    }
+
+    private void metrics(HttpExchange exchange, String[] path, Map<String, String> params) throws IOException {
+        byte[] body = OperationMetrics.dump().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    /**
+     * Send a JSON response, writing it as it is produced
+     */
+    private static void sendJson(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ResponseStream stream = new ResponseStream(exchange, status);
+        JsonWriter json = new JsonWriter(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8)));
+        body.write(json);
+        json.flush();
+        stream.finish();
+    }
+
+    /**
+     * Response body that is buffered until it outgrows the buffer. Small responses go out
+     * with a Content-Length in a single write, larger ones switch to chunked encoding and
+     * are streamed as they are produced.
+     */
+    private static final class ResponseStream extends OutputStream {
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        private final HttpExchange exchange;
+        private final int status;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int count;
+        private OutputStream streaming;
+
+        ResponseStream(HttpExchange exchange, int status) {
+            this.exchange = exchange;
+            this.status = status;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (streaming == null && count + length > buffer.length) {
+                exchange.sendResponseHeaders(status, 0);
+                streaming = exchange.getResponseBody();
+                streaming.write(buffer, 0, count);
+            }
+            if (streaming != null) {
+                streaming.write(bytes, offset, length);
+            } else {
+                System.arraycopy(bytes, offset, buffer, count, length);
+                count += length;
+            }
+        }
+
+        void finish() throws IOException {
+            if (streaming == null) {
+                exchange.sendResponseHeaders(status, count);
+                exchange.getResponseBody().write(buffer, 0, count);
+            }
+            exchange.getResponseBody().flush();
+        }
+    }
+
+    private static void sendNumber(HttpExchange exchange, String name, double value) throws IOException {
+        sendJson(exchange, 200, json -> json.beginObject().name(name).value(value).endObject());
+    }
+
+    private static void sendStatus(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        String method = exchange.getRequestMethod();
+        if (method.equals("POST") || method.equals("PATCH")) {
+            parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Add a department taken from a request to the dictionary unless it is full
+     * @throws InvalidDepartmentException if the department is new and the limit is reached
+     */
+    private String knownDepartment(String department) throws InvalidDepartmentException {
+        if (!department.trim().isEmpty()) {
+            DepartmentDictionary.getInstance().encode(department, maxDepartments);
+        }
+        return department;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Convert a form value to the type updateEmployeeDetails expects for the field
+     */
+    private static Object fieldValue(String field, String value) {
+        return switch (field.toLowerCase()) {
+            case "salary", "performancerating" -> Double.parseDouble(value);
+            case "yearsofexperience" -> Integer.parseInt(value);
+            case "isactive" -> Boolean.parseBoolean(value);
+            default -> value;
+        };
+    }
+
+    private static int statusOf(Throwable e) {
+        Throwable cause = rootCause(e);
+        // EmployeeNotFoundException is also what Employee throws for an empty name
+        if (cause instanceof IllegalArgumentException || cause instanceof EmployeeNotFoundException || cause instanceof InvalidDepartmentException
+                || cause instanceof InvalidSalaryException) {
+            return 400;
+        }
+        if (cause instanceof StaleEmployeeException) {
+            return 409;
+        }
+        if (cause instanceof UnsupportedOperationException) {
+            // Changes sent to a replica
+            return 405;
+        }
+        return 500;
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        // The search engine wraps validation errors in RuntimeException
+        while (e.getCause() != null && e.getClass() == RuntimeException.class) {
+            e = e.getCause();
+        }
+        return e;
+    }
+}
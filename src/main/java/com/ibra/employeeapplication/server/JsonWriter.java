@@ -0,0 +1,167 @@
+package com.ibra.employeeapplication.server;
+
+import com.ibra.employeeapplication.backend.entity.Employee;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Minimal streaming JSON writer. Values are written straight to the underlying writer as
+ * they are produced, so large result sets are never built up as one string in memory.
+ */
+public class JsonWriter {
+    private static final int MAX_DEPTH = 32;
+
+    private final Writer out;
+    // Whether the array or object at each nesting level already has an element
+    private final boolean[] hasElement = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(double value) throws IOException {
+        separate();
+        // JSON has no NaN or infinity
+        out.write(Double.isFinite(value) ? Double.toString(value) : "null");
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter employee(Employee<?> employee) throws IOException {
+        return beginObject()
+                .name("employeeId").value(String.valueOf(employee.getEmployeeId()))
+                .name("name").value(employee.getName())
+                .name("department").value(employee.getDepartment())
+                .name("salary").value(employee.getSalary())
+                .name("performanceRating").value(employee.getPerformanceRating())
+                .name("yearsOfExperience").value(employee.getYearsOfExperience())
+                .name("active").value(employee.isActive())
+                .name("version").value(employee.getVersion())
+                .endObject();
+    }
+
+    public JsonWriter employees(Iterable<? extends Employee<?>> employees) throws IOException {
+        beginArray();
+        for (Employee<?> employee : employees) {
+            employee(employee);
+        }
+        return endArray();
+    }
+
+    public JsonWriter numbers(Map<String, ? extends Number> values) throws IOException {
+        beginObject();
+        for (Map.Entry<String, ? extends Number> entry : values.entrySet()) {
+            Number value = entry.getValue();
+            if (value instanceof Long || value instanceof Integer) {
+                name(entry.getKey()).value(value.longValue());
+            } else {
+                name(entry.getKey()).value(value.doubleValue());
+            }
+        }
+        return endObject();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON nested too deeply");
+        }
+        separate();
+        out.write(bracket);
+        hasElement[depth++] = false;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasElement[depth - 1]) {
+                out.write(',');
+            }
+            hasElement[depth - 1] = true;
+        }
+    }
+
+    private void string(String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -5,11 +5,16 @@ module com.ibra.employeeapplication {
     requires org.controlsfx.controls;
     requires java.naming;
     requires java.logging;
+    requires java.management;
+    requires jdk.jfr;
+    requires jdk.httpserver;
+    requires static jdk.incubator.vector; // Optional, salary kernels fall back to scalar loops without it
     requires junit;
 
 
     opens com.ibra.employeeapplication to javafx.fxml;
     exports com.ibra.employeeapplication;
+    exports com.ibra.employeeapplication.backend.monitoring; // MBean interfaces and JFR events must be visible to JMX and JFR
     exports com.ibra.employeeapplication.backend.test; // Export the test package for JUnit
 
 }
\ No newline at end of file